@@ -0,0 +1,33 @@
+package me.runthebot.tetris;
+
+/**
+ * Arika Rotation System, as in the TGM games: a rotation that does not fit tries one column
+ * right, then one column left. The I piece never kicks and there is no 180 degree rotation.
+ * Pieces keep this game's SRS spawn orientations; only the kick rules follow ARS.
+ */
+public final class ARS extends KickTableRotation {
+    private static final String DEFINITION =
+        "JLOSTZ 0>1: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 1>2: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 2>3: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 3>0: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 1>0: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 2>1: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 3>2: 0,0 1,0 -1,0\n" +
+        "JLOSTZ 0>3: 0,0 1,0 -1,0\n" +
+        "I 0>1: 0,0\n" +
+        "I 1>2: 0,0\n" +
+        "I 2>3: 0,0\n" +
+        "I 3>0: 0,0\n" +
+        "I 1>0: 0,0\n" +
+        "I 2>1: 0,0\n" +
+        "I 3>2: 0,0\n" +
+        "I 0>3: 0,0\n";
+
+    /** The shared instance. */
+    public static final ARS INSTANCE = new ARS();
+
+    private ARS() {
+        super("ARS", DEFINITION);
+    }
+}
@@ -3,9 +3,10 @@ package me.runthebot.tetris;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.TimeUtils;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -22,6 +23,7 @@ public class ArcadeScreen extends BaseGameScreen {
     private float currentSpeed = 0;
     private float maxSpeed = 0;
     private int highScore = 0;
+    private final Scoring scoring = Scoring.forMode(getMode());
 
     // Power up/down system
     private static final int POWER_SPAWN_CHANCE = 50; // % chance per second
@@ -62,7 +64,6 @@ public class ArcadeScreen extends BaseGameScreen {
 
     private List<PowerItem> powerItems = new ArrayList<>();
     private Map<PowerType, Long> activePowers = new HashMap<>();
-    private Random random = new Random();
     private long lastPowerSpawnCheck = 0;
 
     public ArcadeScreen(final Tetris game) {
@@ -86,12 +87,12 @@ public class ArcadeScreen extends BaseGameScreen {
 
             // Pass game stats to the game over screen
             game.setScreen(new GameOverScreen(game, "arcade", score, level, linesCleared,
-                            finalTime, currentSpeed, maxSpeed, 0));
+                            finalTime, currentSpeed, maxSpeed, 0, finesse.getFaults()));
             return;
         }
 
         handleInput();
-        update();
+        updateFallingPiece();
         updatePowers(); // Add this line to update powers
 
         // Update game stats
@@ -115,19 +116,7 @@ public class ArcadeScreen extends BaseGameScreen {
         shapeRenderer.setProjectionMatrix(game.camera.combined);
 
         // Render game elements
-        grid.render(shapeRenderer);
-
-        if (config.showGhostPiece) {
-            // Render ghost piece with transparency
-            ghostPiece.render(shapeRenderer, 0.3f);  // Pass alpha value for transparency
-        }
-
-        // Render power items
-        renderPowerItems();
-        currentPiece.render(shapeRenderer);
-
-        // End shape rendering started in this method
-        shapeRenderer.end();
+        renderBoard();
 
         // Hold and Next pieces have their own begin/end calls
         renderHoldPiece();
@@ -179,19 +168,28 @@ public class ArcadeScreen extends BaseGameScreen {
             yPos -= 40;
         }
 
+        // Last special clear
+        font.setColor(Color.WHITE);
+        font.draw(spriteBatch, scoring.describeLast(), 20, yPos);
+
+        // Live stack health readout
+        renderStackHealth();
+
         spriteBatch.end();
     }
 
-    private void renderPowerItems() {
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+    // Render power items
+    @Override
+    protected void renderBoardExtras(SpriteBatch batch) {
         for (PowerItem power : powerItems) {
-            shapeRenderer.setColor(power.type.getColor());
+            batch.setColor(power.type.getColor());
             // Convert to rendering coordinates
-            float renderX = power.x + Grid.CENTER_OFFSET;
-            float renderY = (Tetris.GRID_HEIGHT - power.y - 1);
-            shapeRenderer.rect(renderX, renderY, 1, 1);
+            float renderX = board.cellX(power.x);
+            float renderY = board.cellY(power.y);
+            batch.draw(game.sprites.getPowerItem(power.type == PowerType.POWER_UP), renderX, renderY,
+                board.getScale(), board.getScale());
         }
-        shapeRenderer.end();
+        batch.setColor(Color.WHITE);
     }
 
     private void updatePowers() {
@@ -202,7 +200,7 @@ public class ArcadeScreen extends BaseGameScreen {
             lastPowerSpawnCheck = currentTime;
 
             // Random chance to spawn a power
-            if (random.nextInt(100) < POWER_SPAWN_CHANCE) {
+            if (nextRandom(100) < POWER_SPAWN_CHANCE) {
                 spawnRandomPower();
             }
         }
@@ -223,8 +221,8 @@ public class ArcadeScreen extends BaseGameScreen {
     private void spawnRandomPower() {
         // Find a random empty cell on the grid
         List<int[]> emptyCells = new ArrayList<>();
-        for (int x = 0; x < Tetris.GRID_WIDTH; x++) {
-            for (int y = 0; y < Tetris.GRID_HEIGHT; y++) {
+        for (int x = 0; x < grid.getWidth(); x++) {
+            for (int y = 0; y < grid.getHeight(); y++) {
                 if (!grid.isOccupied(x, y)) {
                     emptyCells.add(new int[]{x, y});
                 }
@@ -234,10 +232,10 @@ public class ArcadeScreen extends BaseGameScreen {
         if (emptyCells.isEmpty()) return; // No empty cells
 
         // Select a random empty cell
-        int[] cell = emptyCells.get(random.nextInt(emptyCells.size()));
+        int[] cell = emptyCells.get(nextRandom(emptyCells.size()));
 
         // 50/50 chance for power up or down
-        PowerType type = random.nextBoolean() ? PowerType.POWER_UP : PowerType.POWER_DOWN;
+        PowerType type = nextRandom(2) == 0 ? PowerType.POWER_UP : PowerType.POWER_DOWN;
 
         // Create and add the power
         powerItems.add(new PowerItem(cell[0], cell[1], type));
@@ -255,22 +253,17 @@ public class ArcadeScreen extends BaseGameScreen {
         // Allows avoidance of power-downs
         collectPowers();
 
+        // Spins are judged on the board before the piece locks
+        int spin = Scoring.detectSpin(grid, currentPiece);
+        beforeLock();
         grid.lockPiece(currentPiece);
 
         // Calculate line clears with power effects
         int lines = grid.checkAndClearLines();
+        afterLock(lines);
 
-        // Calculate base score for lines cleared
-        int lineScore = 0;
-        switch (lines) {
-            case 1: lineScore = 40; break;
-            case 2: lineScore = 100; break;
-            case 3: lineScore = 300; break;
-            case 4: lineScore = 1200; break;
-        }
-
-        // Apply level multiplier to score
-        int scoreGain = lineScore * level;
+        // Score the clear from the arcade table, already multiplied by the level
+        int scoreGain = scoring.award(spin, lines, grid.isEmpty(), level);
 
         // Apply power effects
         if (isPowerActive(PowerType.POWER_UP)) {
@@ -337,77 +330,70 @@ public class ArcadeScreen extends BaseGameScreen {
         return endTime != null && endTime > TimeUtils.millis();
     }
 
-    private void update() {
-        if (gameOver) return; // Stop updates if game is over
+    @Override
+    public String getMode() {
+        return "arcade";
+    }
 
-        // Try to move the piece down due to gravity
-        if (TimeUtils.timeSinceMillis(lastFallTime) >= (1000 / gravity)) { // Changed currentGravity to gravity
-            if (currentPiece.move(0, 1, grid)) { // Attempt to move piece down
-                // Piece moved down successfully
-                lastFallTime = TimeUtils.millis();
-                lockDelayActive = false; // If piece is falling, it's not in lock delay
-                updateGhostPiece();
-            } else {
-                // Piece could not move down (landed)
-                if (!lockDelayActive) {
-                    // Activate lock delay if not already active
-                    lockDelayActive = true;
-                    lockDelayStartTime = TimeUtils.millis();
-                }
-                // Note: lastFallTime is not reset here because the piece didn't fall.
-                // The gravity timer effectively pauses while the piece is landed and lock delay is potentially active.
-            }
+    @Override
+    protected void writeState(ByteBuffer out) {
+        super.writeState(out);
+        long now = TimeUtils.millis();
+        out.putInt(score).putInt(level).putInt(linesCleared).putInt(highScore);
+        out.putLong(now - startTime);
+        out.putFloat(currentSpeed).putFloat(maxSpeed);
+        out.putLong(now - lastPowerSpawnCheck);
+
+        // Power items on the board with their age, active effects with their remaining time
+        out.putShort((short) powerItems.size());
+        for (PowerItem power : powerItems) {
+            out.put((byte) power.x).put((byte) power.y).put((byte) power.type.ordinal());
+            out.putLong(now - power.spawnTime);
         }
-
-        // Handle lock delay
-        if (lockDelayActive) {
-            // Check if the lock delay time has passed or max resets reached
-            if (TimeUtils.millis() - lockDelayStartTime > LOCK_DELAY || lockResets >= MAX_LOCK_RESETS) {
-                // Before placing, make a final check if the piece can move down
-                // This handles scenarios like a line clear opening space below
-                if (!currentPiece.move(0, 1, grid)) {
-                    // Still cannot move down, so place the piece
-                    placePiece(); // This method should handle resetting lockDelayActive and lockResets
-                } else {
-                    // Piece was able to move down (e.g., space cleared below)
-                    // It has now moved down one step.
-                    lastFallTime = TimeUtils.millis(); // Reset fall time as it moved
-                    lockDelayActive = false;           // No longer in lock delay
-                    lockResets = 0;                    // Resets are cleared as it moved instead of locking
-                    updateGhostPiece();
-                    // The piece has already been moved down by currentPiece.move(0,1,grid)
-                }
-            }
+        out.put((byte) activePowers.size());
+        for (Map.Entry<PowerType, Long> power : activePowers.entrySet()) {
+            out.put((byte) power.getKey().ordinal());
+            out.putLong(power.getValue() - now);
         }
+        scoring.write(out);
     }
 
-    /**
-     * Holds the current piece, allowing the player to swap it with the next piece.
-     * The held piece is stored in the holdPiece variable, and the current piece is replaced
-     * by a new piece from the nextPieces queue.
-     */
-
-    private void updateGhostPiece() {
-        // Create a fresh copy of the current piece to ensure correct shape/rotation
-        ghostPiece = new Piece(currentPiece.getType());
-        ghostPiece.setRotation(currentPiece.getRotation());
-        ghostPiece.setPosition(currentPiece.getX(), currentPiece.getY());
-
-        // Drop the ghost piece as far as it can go
-        while (ghostPiece.move(0, 1, grid)) { }
+    @Override
+    protected void readState(ByteBuffer in) {
+        super.readState(in);
+        long now = TimeUtils.millis();
+        score = in.getInt();
+        level = in.getInt();
+        linesCleared = in.getInt();
+        highScore = in.getInt();
+        startTime = now - in.getLong();
+        currentTime = now - startTime;
+        currentSpeed = in.getFloat();
+        maxSpeed = in.getFloat();
+        lastPowerSpawnCheck = now - in.getLong();
+
+        PowerType[] types = PowerType.values();
+        powerItems.clear();
+        for (int i = in.getShort(); i > 0; i--) {
+            PowerItem power = new PowerItem(in.get(), in.get(), types[in.get()]);
+            power.spawnTime = now - in.getLong();
+            powerItems.add(power);
+        }
+        activePowers.clear();
+        for (int i = in.get(); i > 0; i--) {
+            PowerType type = types[in.get()];
+            activePowers.put(type, now + in.getLong());
+        }
+        scoring.read(in);
     }
 
-
     /**
      * Updates gravity (fall speed) based on current level
      */
     private void updateGravity() {
-        // Classic Tetris formula: gravity increases with level
-        gravity = gravity + (level - 1) * 0.05f;
+        // Guideline curve: gravity is looked up from the level
+        gravity = GravityCurve.forLevel(level);
     }
 
-    @Override public void show() {}
-    @Override public void pause() {}
     @Override public void resume() {}
-    @Override public void hide() {}
 }
@@ -6,9 +6,13 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.utils.TimeUtils;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
 
 public abstract class BaseGameScreen implements Screen {
@@ -29,13 +33,22 @@ public abstract class BaseGameScreen implements Screen {
 
     protected final Grid grid;
     protected Piece currentPiece;
-    protected Piece ghostPiece;
+    // Where the current piece would land; one piece, moved along with it
+    protected final Piece ghostPiece = new Piece(Tetrimino.T);
     protected Piece holdPiece;
     protected boolean canHold = true;
-    protected Queue<Tetrimino> nextPieces;
+    protected PieceQueue nextPieces;
 
+    // Gravity in rows per tick (G), see GravityCurve; lastFallTime is when it was last applied
     protected long lastFallTime;
-    protected float gravity = 1f;
+    protected float gravity = GravityCurve.forLevel(1);
+    // Fraction of a row fallen but not yet applied
+    protected float fallProgress = 0;
+    // Soft drop rows accumulated but not yet applied, and when they were last added
+    protected float softDropProgress = 0;
+    protected long lastSoftDropTime = 0;
+    // Longer gaps between frames (a stall or a pause) only count this much gravity time
+    protected static final long MAX_GRAVITY_STEP = 250;
 
     protected boolean gameOver = false;
 
@@ -46,114 +59,500 @@ public abstract class BaseGameScreen implements Screen {
     protected int lockResets = 0;
     protected final int MAX_LOCK_RESETS = 15;
 
+    // Rotation rules chosen in the settings
+    protected final RotationSystem rotationSystem = RotationSystem.forName(config.rotationSystem);
+
+    // Finesse tracking: key presses spent on the current piece
+    protected final FinesseAnalyzer finesse = new FinesseAnalyzer();
+    protected int pieceInputs = 0;
+
+    // Placement export for bot training, null unless enabled in the settings
+    protected TrainingDataWriter trainingData;
+
+    // State of the bag randomizer, kept as a plain long so saved games can restore it
+    protected long randomState = System.nanoTime();
+
+    // Block sprite of the skin chosen in the settings
+    protected final TextureRegion block;
+    // Where the board is drawn, placed by Tetris.layoutBoards
+    protected final BoardTransform board;
+    // Pieces shown by the next queue this frame
+    protected final Tetrimino[] previewPieces = new Tetrimino[Tetris.MAX_PREVIEW_PIECES];
+
+    // Hold and next queue layout: pieces in the hold box and the first next slot are centered at
+    // PREVIEW_CENTER_Y, later next pieces sit in PREVIEW_SLOT high slots above PREVIEW_FIRST_TOP
+    protected static final float PREVIEW_CENTER_Y = 2.5f;
+    protected static final float PREVIEW_FIRST_TOP = 4.75f;
+    protected static final float PREVIEW_SLOT = 2f;
+    protected static final float PREVIEW_SMALL_CELL = 0.6f;
+
+    // Opener suggested for the first bag: where each placement comes to rest, and whether it is
+    // played from hold. Null once the player leaves the line or finishes it.
+    protected Piece[] openerPieces;
+    protected boolean[] openerHolds;
+    protected int openerStep = 0;
+
     public BaseGameScreen(final Tetris game) {
         this.game = game;
         shapeRenderer = new ShapeRenderer();
         spriteBatch = new SpriteBatch();
         font = new BitmapFont();
-        grid = new Grid(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
-        nextPieces = new LinkedList<>();
+        block = game.sprites.getBlock(config.blockSkin);
+        grid = new Grid(config.boardWidth, config.boardHeight + Tetris.BUFFER_SIZE);
+        board = new BoardTransform(grid.getWidth(), grid.getHeight());
+        game.layoutBoards(board);
+        nextPieces = new PieceQueue();
         fillBag();
         spawnNewPiece();
+        startOpener();
         lastFallTime = TimeUtils.millis();
     }
 
-    protected void renderHoldPiece() {
-        if (holdPiece == null) return;
+    /**
+     * Looks up the chosen opener for the first bag in the opening book. Its placements are
+     * resolved to resting positions here, so a lock only compares cells with the next one.
+     */
+    private void startOpener() {
+        OpeningBook book = game.openingBook;
+        if (book == null || grid.getWidth() != Tetris.GRID_WIDTH) return;
+        int opener = book.indexOf(config.opener);
+        if (opener < 0) return;
+
+        // The first bag is the current piece and the rest of its bag still in the queue
+        Tetrimino[] bag = new Tetrimino[7];
+        bag[0] = currentPiece.getType();
+        Iterator<Tetrimino> queued = nextPieces.iterator();
+        for (int i = 1; i < bag.length; i++) bag[i] = queued.next();
+        int[] moves = book.moves(opener, OpeningBook.rank(bag));
+        if (moves.length == 0) return;
+
+        // Play the line on a scratch board, following HeadlessGame's hold rule
+        Grid scratch = new Grid(grid.getWidth(), grid.getHeight());
+        Deque<Tetrimino> queue = new ArrayDeque<>(Arrays.asList(bag).subList(1, bag.length));
+        Tetrimino current = bag[0];
+        Tetrimino hold = null;
+        openerPieces = new Piece[moves.length];
+        openerHolds = new boolean[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            Tetrimino type = current;
+            if (HeadlessGame.moveUsesHold(moves[i])) {
+                type = hold != null ? hold : queue.poll();
+                hold = current;
+            }
+            Piece piece = new Piece(type);
+            piece.setRotation(HeadlessGame.moveRotation(moves[i]));
+            piece.setPosition(HeadlessGame.moveX(moves[i]), piece.getY());
+            piece.hardDrop(scratch);
+            scratch.lockPiece(piece);
+            scratch.checkAndClearLines();
+            openerPieces[i] = piece;
+            openerHolds[i] = HeadlessGame.moveUsesHold(moves[i]);
+            current = queue.poll();
+        }
+        openerStep = 0;
+    }
 
-        // get details on piece being held
-        boolean[][] shape = holdPiece.getType().getShape();
-        Color color = holdPiece.getType().getColor();
+    /**
+     * Advances the opener if the piece about to lock matches the suggestion, else drops it.
+     */
+    private void followOpener() {
+        if (openerPieces == null) return;
+        if (sameCells(currentPiece, openerPieces[openerStep]) && ++openerStep < openerPieces.length) return;
+        openerPieces = null;
+    }
 
-        // Hold position - on the left side of the grid
-        float gridOffset = Grid.CENTER_OFFSET     ;
-        float gridCenterX = gridOffset + Tetris.GRID_WIDTH / 2.0f; // Center of the grid with offset
-        float holdX = gridCenterX - 10; // Position left of the grid
-        float holdY = 2;
+    // Whether two pieces of the same type cover the same cells, whatever their rotation states
+    private static boolean sameCells(Piece a, Piece b) {
+        if (a.getType() != b.getType()) return false;
+        long[] shapeA = a.getType().getRowMasks(a.getRotation());
+        long[] shapeB = b.getType().getRowMasks(b.getRotation());
+        int top = Math.min(a.getY(), b.getY());
+        int bottom = Math.max(a.getY() + shapeA.length, b.getY() + shapeB.length);
+        for (int y = top; y < bottom; y++) {
+            if (rowAt(shapeA, a, y) != rowAt(shapeB, b, y)) return false;
+        }
+        return true;
+    }
 
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+    // A piece's cells in grid row y as a row mask
+    private static long rowAt(long[] shape, Piece piece, int y) {
+        int row = y - piece.getY();
+        if (row < 0 || row >= shape.length) return 0;
+        return piece.getX() >= 0 ? shape[row] << piece.getX() : shape[row] >>> -piece.getX();
+    }
 
-        // Draw a background rectangle for the hold piece area
-        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 1);
-        shapeRenderer.rect(holdX - 0.25f, 0.25f, 4.5f, 6);
+    /**
+     * Renders the board in one sprite batch pass over the game atlas, see {@link #drawBoard(SpriteBatch)}.
+     */
+    protected void renderBoard() {
+        SpriteBatch batch = game.batch;
+        batch.setProjectionMatrix(game.camera.combined);
+        batch.begin();
+        drawBoard(batch);
+        batch.end();
+    }
 
-        // Set color to piece color (dimmed if can't hold)
-        if (canHold) {
-            shapeRenderer.setColor(color);
-        } else {
-            // Dimmed version of the color
-            Color dimmed = new Color(color);
-            dimmed.a = 0.5f;
-            shapeRenderer.setColor(dimmed);
-        }
-
-        // Center the piece in the hold area based on its width
-        float offsetX = (4 - shape[0].length) / 2.0f;
-        float offsetY = (4 - shape.length) / 2.0f;
-
-        // Render the hold piece
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col]) {
-                    float blockX = holdX + col + offsetX;
-                    float blockY = holdY -row + offsetY;
-                    shapeRenderer.rect(blockX, blockY, 1, 1);
-                }
-            }
+    /**
+     * Draws the grid, the ghost piece, anything a mode adds in {@link #renderBoardExtras(SpriteBatch)},
+     * then the current piece. Must be called between batch.begin() and batch.end().
+     */
+    protected void drawBoard(SpriteBatch batch) {
+        grid.render(batch, game.sprites, block, board);
+        if (config.showGhostPiece) {
+            // Render ghost piece with transparency
+            ghostPiece.render(batch, block, board, 0.3f);
         }
-        shapeRenderer.end();
+        renderBoardExtras(batch);
+        currentPiece.render(batch, block, board);
     }
 
     /**
-     * Renders the next piece in the queue.
+     * Draws a mode's own sprites on the board, over the ghost and under the current piece.
+     * Called between batch.begin() and batch.end(); must leave the batch color white.
      */
-    protected void renderNextPiece() {
-        if (nextPieces.isEmpty()) return;
+    protected void renderBoardExtras(SpriteBatch batch) {
+    }
 
-        // get the next piece
-        Tetrimino nextPiece = nextPieces.peek();
+    protected void renderHoldPiece() {
+        if (holdPiece == null) return;
+        SpriteBatch batch = game.batch;
+        batch.setProjectionMatrix(game.camera.combined);
+        batch.begin();
+        drawHold(batch, board, holdPiece.getType(), canHold);
+        batch.end();
+    }
 
-        // get piece details
-        boolean[][] shape = nextPiece.getShape();
-        Color color = nextPiece.getColor();
+    /**
+     * Draws a hold box left of a board. Must be called between batch.begin() and batch.end().
+     * @param type The held piece
+     * @param canHold Whether hold can be used; the piece is dimmed and locked if not
+     */
+    protected void drawHold(SpriteBatch batch, BoardTransform board, Tetrimino type, boolean canHold) {
+        float scale = board.getScale();
+        // Hold position - on the left side of the grid
+        float holdX = holdX(board);
+        float bottom = board.getY();
 
-        // Next piece position - on the right side of the grid
-        float gridOffset = Grid.CENTER_OFFSET;
-        float gridCenterX = gridOffset + Tetris.GRID_WIDTH / 2.0f; // Center of the grid with offset
-        float previewX = gridCenterX+6; // Position right of the grid
-        // Position next piece at the top of the visible area
-        float previewY = 2;
+        // Draw a background rectangle for the hold piece area
+        batch.setColor(0.2f, 0.2f, 0.2f, 1);
+        batch.draw(game.sprites.getPixel(), holdX - 0.25f * scale, bottom + 0.25f * scale, 4.5f * scale, 6 * scale);
+
+        // Dimmed and locked if can't hold
+        batch.setColor(1, 1, 1, canHold ? 1 : 0.5f);
+        game.previews.draw(batch, block, type, holdX + 2 * scale, bottom + PREVIEW_CENTER_Y * scale, scale);
+        if (!canHold) {
+            batch.draw(game.sprites.getLock(), holdX + 3.25f * scale, bottom + 5.25f * scale,
+                0.75f * scale, 0.75f * scale);
+        }
+        batch.setColor(Color.WHITE);
+    }
 
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(color);
+    /**
+     * Renders the next queue: the next piece at full size and the ones after it smaller above it,
+     * as many as the settings ask for.
+     */
+    protected void renderNextPiece() {
+        int count = Math.min(config.previewCount, nextPieces.size());
+        if (count == 0) return;
+        for (int i = 0; i < count; i++) previewPieces[i] = nextPieces.peek(i);
+
+        SpriteBatch batch = game.batch;
+        batch.setProjectionMatrix(game.camera.combined);
+        batch.begin();
+        drawNext(batch, board, previewPieces, count);
+        drawOpener(batch, previewX(board), board.getY() + (nextQueueTop(count) + 0.25f) * board.getScale());
+        batch.end();
+    }
+
+    /**
+     * Draws a next queue box right of a board. Must be called between batch.begin() and batch.end().
+     * @param pieces The upcoming pieces, next first
+     * @param count Number of pieces to show
+     */
+    protected void drawNext(SpriteBatch batch, BoardTransform board, Tetrimino[] pieces, int count) {
+        float scale = board.getScale();
+        // Next piece position - on the right side of the grid
+        float previewX = previewX(board);
+        float bottom = board.getY();
 
         // Draw a background rectangle for the next piece area
-        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 1);
-        shapeRenderer.rect(previewX - 0.25f, 0.25f, 4.5f, 6);
+        batch.setColor(0.2f, 0.2f, 0.2f, 1);
+        batch.draw(game.sprites.getPixel(), previewX - 0.25f * scale, bottom + 0.25f * scale, 4.5f * scale,
+            (nextQueueTop(count) - 0.25f) * scale);
+        batch.setColor(Color.WHITE);
+
+        float centerX = previewX + 2 * scale;
+        game.previews.draw(batch, block, pieces[0], centerX, bottom + PREVIEW_CENTER_Y * scale, scale);
+        for (int i = 1; i < count; i++) {
+            float centerY = bottom + (PREVIEW_FIRST_TOP + (i - 0.5f) * PREVIEW_SLOT) * scale;
+            game.previews.draw(batch, block, pieces[i], centerX, centerY, PREVIEW_SMALL_CELL * scale);
+        }
+    }
 
+    // Left edge of the hold box of a board
+    private static float holdX(BoardTransform board) {
+        return board.getX() - 5 * board.getScale();
+    }
 
-        // reset to piece color
-        shapeRenderer.setColor(color);
+    // Left edge of the next queue box of a board
+    private static float previewX(BoardTransform board) {
+        return board.getX() + (board.getWidth() + 1) * board.getScale();
+    }
 
-        // Center the piece in the preview area based on its width
-        float offsetX = (4 - shape[0].length) / 2.0f;
-        float offsetY = (4 - shape.length) / 2.0f;
+    // Top edge of the next queue box showing count pieces, in cells above the board's bottom
+    private static float nextQueueTop(int count) {
+        return Math.max(6.25f, PREVIEW_FIRST_TOP + (count - 1) * PREVIEW_SLOT + 0.25f);
+    }
 
-        // render the next piece
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col]) {
-                    float blockX = previewX + col + offsetX;
-                    float blockY = previewY - row + offsetY;
-                    shapeRenderer.rect(blockX, blockY, 1, 1);
+    /**
+     * Draws the opener suggestion above the next queue: the opener's remaining placements on a
+     * miniature of the bottom rows, with the next one in its piece color, and an outline around
+     * the hold box when it is played from hold. Must be called between batch.begin() and batch.end().
+     * @param previewX Left edge of the next piece area
+     * @param panelY Bottom edge of the panel
+     */
+    protected void drawOpener(SpriteBatch batch, float previewX, float panelY) {
+        if (openerPieces == null) return;
+        final float scale = board.getScale();
+        final float cell = 0.4f * scale;
+        final TextureRegion pixel = game.sprites.getPixel();
+
+        batch.setColor(0.2f, 0.2f, 0.2f, 1);
+        batch.draw(pixel, previewX - 0.25f * scale, panelY, 4.5f * scale, 4 * cell + 0.5f * scale);
+        for (int i = openerStep; i < openerPieces.length; i++) {
+            Piece piece = openerPieces[i];
+            if (i == openerStep) {
+                batch.setColor(piece.getType().getColor());
+            } else {
+                batch.setColor(0.45f, 0.45f, 0.45f, 1);
+            }
+            long[] shape = piece.getType().getRowMasks(piece.getRotation());
+            for (int row = 0; row < shape.length; row++) {
+                // Rows counted up from the floor; the panel shows the bottom 4
+                int level = grid.getHeight() - 1 - (piece.getY() + row);
+                if (level >= 4) continue;
+                for (long mask = rowAt(shape, piece, piece.getY() + row); mask != 0; mask &= mask - 1) {
+                    int x = Long.numberOfTrailingZeros(mask);
+                    batch.draw(pixel, previewX + x * cell, panelY + 0.25f * scale + level * cell, cell, cell);
                 }
             }
         }
-        shapeRenderer.end();
+
+        if (openerHolds[openerStep]) {
+            // Outline the hold box with four thin strips
+            float left = holdX(board) - 0.25f * scale;
+            float bottom = board.getY() + 0.25f * scale;
+            float width = 4.5f * scale;
+            float height = 6 * scale;
+            float line = Math.max(1, 0.05f * scale);
+            batch.setColor(openerPieces[openerStep].getType().getColor());
+            batch.draw(pixel, left, bottom, width, line);
+            batch.draw(pixel, left, bottom + height - line, width, line);
+            batch.draw(pixel, left, bottom, line, height);
+            batch.draw(pixel, left + width - line, bottom, line, height);
+        }
+        batch.setColor(Color.WHITE);
+    }
+
+    /**
+     * Draws the stack health readout in the bottom left corner.
+     * Must be called between spriteBatch.begin() and spriteBatch.end().
+     */
+    protected void renderStackHealth() {
+        BoardFeatures features = grid.getFeatures();
+        int health = features.getHealth();
+
+        // Green when healthy, yellow when getting messy, red when in danger
+        if (health >= 70) {
+            font.setColor(Color.GREEN);
+        } else if (health >= 40) {
+            font.setColor(Color.YELLOW);
+        } else {
+            font.setColor(Color.RED);
+        }
+        font.draw(spriteBatch, "Stack Health: " + health + "%", 20, 80);
+
+        font.setColor(Color.WHITE);
+        font.draw(spriteBatch, "Height " + features.get(BoardFeatures.MAX_HEIGHT)
+            + "  Holes " + features.get(BoardFeatures.HOLES)
+            + "  Bumpiness " + features.get(BoardFeatures.BUMPINESS)
+            + "  Well " + features.get(BoardFeatures.MAX_WELL), 20, 50);
     }
 
     public abstract void placePiece();
 
+    /**
+     * Returns the mode name used by the result screens and saved games.
+     */
+    public abstract String getMode();
+
+    /**
+     * Writes the state shared by all modes to a snapshot. Subclasses extend this with
+     * their own stats and must call super first. Timers are stored relative to now.
+     * @param out The buffer to write to
+     */
+    protected void writeState(ByteBuffer out) {
+        long now = TimeUtils.millis();
+        grid.write(out);
+
+        out.put((byte) currentPiece.getType().ordinal());
+        out.put((byte) currentPiece.getX()).put((byte) currentPiece.getY()).put((byte) currentPiece.getRotation());
+        out.put((byte) (holdPiece == null ? -1 : holdPiece.getType().ordinal()));
+        out.put((byte) (canHold ? 1 : 0));
+        out.put((byte) nextPieces.size());
+        for (Tetrimino t : nextPieces) out.put((byte) t.ordinal());
+
+        out.putLong(randomState);
+        out.putFloat(gravity);
+        out.putFloat(fallProgress);
+        out.putLong(now - lastFallTime);
+        out.put((byte) (lockDelayActive ? 1 : 0));
+        out.putLong(now - lockDelayStartTime);
+        out.putInt(lockResets);
+
+        out.putInt(pieceInputs);
+        out.putInt(finesse.getFaults()).putInt(finesse.getPieces()).putInt(finesse.getFaultyPieces());
+    }
+
+    /**
+     * Restores state written by {@link #writeState(ByteBuffer)}. Subclasses must call super first.
+     * @param in The buffer to read from
+     */
+    protected void readState(ByteBuffer in) {
+        long now = TimeUtils.millis();
+        Tetrimino[] types = Tetrimino.values();
+        grid.read(in);
+
+        currentPiece = createPiece(types[in.get()]);
+        int x = in.get();
+        int y = in.get();
+        currentPiece.setRotation(in.get());
+        currentPiece.setPosition(x, y);
+        int hold = in.get();
+        holdPiece = hold < 0 ? null : new Piece(types[hold]);
+        canHold = in.get() != 0;
+        nextPieces.clear();
+        for (int i = in.get(); i > 0; i--) nextPieces.add(types[in.get()]);
+
+        randomState = in.getLong();
+        gravity = in.getFloat();
+        fallProgress = in.getFloat();
+        lastFallTime = now - in.getLong();
+        lockDelayActive = in.get() != 0;
+        lockDelayStartTime = now - in.getLong();
+        lockResets = in.getInt();
+
+        pieceInputs = in.getInt();
+        finesse.restore(in.getInt(), in.getInt(), in.getInt());
+        // A resumed game is past its opener
+        openerPieces = null;
+        gameOver = false;
+        updateGhostPiece();
+    }
+
+    /**
+     * Saves the game so it can be resumed from the menu, unless it is already over.
+     */
+    protected void saveSnapshot() {
+        if (!gameOver) GameSnapshot.save(this);
+    }
+
+    /**
+     * Starts a training data file if recording is on. Every time the game is shown again, e.g.
+     * after the pause screen, its placements go to a new file.
+     */
+    @Override
+    public void show() {
+        if (!config.recordTrainingData || trainingData != null || gameOver) return;
+        try {
+            Path path = Gdx.files.local("training/" + TimeUtils.millis() + ".ttd").file().toPath();
+            trainingData = new TrainingDataWriter(path, grid.getWidth(), grid.getHeight());
+        } catch (IOException e) {
+            Gdx.app.error("Tetris", "Could not open training data file", e);
+        }
+    }
+
+    /**
+     * Closes the training data file. libGDX does not dispose a screen it switches away from, so
+     * this is the last call a game left for the pause screen or the menu is sure to get.
+     */
+    @Override
+    public void hide() {
+        closeTrainingData();
+    }
+
+    @Override
+    public void pause() {
+        saveSnapshot();
+    }
+
+    /**
+     * Compares the inputs used for the current piece against the optimal count, checks it
+     * against the opener suggestion and starts the training data record for the placement.
+     * Must be called before the piece is locked into the grid.
+     */
+    protected void beforeLock() {
+        finesse.check(currentPiece, grid, pieceInputs);
+        followOpener();
+
+        if (trainingData == null) return;
+        // A piece locked after holding came from the hold slot or the queue, not the previous spawn
+        int action = TrainingDataWriter.action(currentPiece.getRotation(), currentPiece.getX(),
+            currentPiece.getY(), !canHold);
+        try {
+            trainingData.begin(grid, currentPiece.getType(), holdPiece == null ? null : holdPiece.getType(),
+                nextPieces, action);
+        } catch (IOException e) {
+            stopTrainingData(e);
+        }
+    }
+
+    /**
+     * Completes the training data record started by {@link #beforeLock()}.
+     * @param lines Lines cleared by the placement
+     */
+    protected void afterLock(int lines) {
+        if (trainingData != null) trainingData.end(lines);
+    }
+
+    /**
+     * Marks the end of the game in the training data and closes the file.
+     */
+    protected void finishTrainingData() {
+        if (trainingData == null) return;
+        try {
+            trainingData.markGameOver();
+            trainingData.close();
+            trainingData = null;
+        } catch (IOException e) {
+            stopTrainingData(e);
+        }
+    }
+
+    /**
+     * Closes the training data file without marking the game over, so a game that was left
+     * unfinished reads back as one.
+     */
+    private void closeTrainingData() {
+        if (trainingData == null) return;
+        try {
+            trainingData.close();
+        } catch (IOException e) {
+            Gdx.app.error("Tetris", "Could not close training data file", e);
+        }
+        trainingData = null;
+    }
+
+    private void stopTrainingData(IOException e) {
+        Gdx.app.error("Tetris", "Training data export failed, recording stopped", e);
+        try {
+            trainingData.close();
+        } catch (IOException ignored) {
+            // Already failing, keep the first error
+        }
+        trainingData = null;
+    }
+
     /**
      * Holds the current piece.
      */
@@ -171,11 +570,10 @@ public abstract class BaseGameScreen implements Screen {
             // Swap pieces
             Tetrimino holdType = holdPiece.getType();
             holdPiece = new Piece(currentType);
-            currentPiece = new Piece(holdType);
             // Reset rotation and position for piece coming from hold
-            currentPiece.setPosition(3, Tetris.BUFFER_SIZE - 2);
-            ghostPiece = new Piece(holdType);
+            currentPiece = createPiece(holdType);
             updateGhostPiece();
+            pieceInputs = 0;
         }
 
         canHold = false; // Prevent holding again until next piece
@@ -208,10 +606,16 @@ public abstract class BaseGameScreen implements Screen {
         }
 
         // Soft drop (faster fall) - configured key
+        if (Gdx.input.isKeyJustPressed(config.KEY_MOVE_DOWN)) {
+            pieceInputs++;
+        }
         if (Gdx.input.isKeyPressed(config.KEY_MOVE_DOWN)) {
-            boolean moved = currentPiece.move(0, 1, grid);
-            if (moved) {
-                updateGhostPiece();
+            // Soft drop moves at least one row on the frame the key goes down
+            if (Gdx.input.isKeyJustPressed(config.KEY_MOVE_DOWN)) {
+                softDropProgress = 1;
+                lastSoftDropTime = currentTime;
+            }
+            if (softDrop(currentTime)) {
                 // Reset lock delay when piece is moved by soft drop
                 if (lockDelayActive && lockResets < MAX_LOCK_RESETS) {
                     lockDelayStartTime = TimeUtils.millis();
@@ -226,6 +630,7 @@ public abstract class BaseGameScreen implements Screen {
             if (leftPressTime == 0) {
                 leftPressTime = currentTime;
                 lastLeftMoveTime = currentTime;
+                pieceInputs++;
                 if (currentPiece.move(-1, 0, grid)) {
                     updateGhostPiece();
                     // Reset lock delay when piece is moved
@@ -273,6 +678,7 @@ public abstract class BaseGameScreen implements Screen {
             if (rightPressTime == 0) {
                 rightPressTime = currentTime;
                 lastRightMoveTime = currentTime;
+                pieceInputs++;
                 if (currentPiece.move(1, 0, grid)) {
                     updateGhostPiece();
                     // Reset lock delay when piece is moved
@@ -316,6 +722,7 @@ public abstract class BaseGameScreen implements Screen {
 
         // Rotation - Clockwise (configured key)
         if (Gdx.input.isKeyJustPressed(config.KEY_ROTATE_CW)) {
+            pieceInputs++;
             if (currentPiece.rotate(grid)) {
                 updateGhostPiece();
                 // Reset lock delay when piece is rotated
@@ -328,6 +735,7 @@ public abstract class BaseGameScreen implements Screen {
 
         // Rotation - Counterclockwise (configured key)
         if (Gdx.input.isKeyJustPressed(config.KEY_ROTATE_CCW)) {
+            pieceInputs++;
             if (currentPiece.rotateCounterclockwise(grid)) {
                 updateGhostPiece();
                 // Reset lock delay when piece is rotated
@@ -340,6 +748,7 @@ public abstract class BaseGameScreen implements Screen {
 
         // Rotation - 180 degrees (configured key)
         if (Gdx.input.isKeyJustPressed(config.KEY_ROTATE_180)) {
+            pieceInputs++;
             if (currentPiece.rotate180(grid)) {
                 updateGhostPiece();
                 // Reset lock delay when piece is rotated
@@ -355,9 +764,27 @@ public abstract class BaseGameScreen implements Screen {
      * Generates a new shuffled bag of all 7 Tetriminos and adds them to the queue
      */
     protected void fillBag() {
-        List<Tetrimino> bag = new ArrayList<>(Arrays.asList(Tetrimino.values()));
-        Collections.shuffle(bag);
-        nextPieces.addAll(bag);
+        Tetrimino[] bag = Tetrimino.values();
+        // Fisher-Yates shuffle
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = nextRandom(i + 1);
+            Tetrimino t = bag[i];
+            bag[i] = bag[j];
+            bag[j] = t;
+        }
+        nextPieces.addAll(Arrays.asList(bag));
+    }
+
+    /**
+     * Returns a random int in [0, bound) and advances {@link #randomState} (SplitMix64).
+     */
+    protected int nextRandom(int bound) {
+        randomState += 0x9E3779B97F4A7C15L;
+        long z = randomState;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) ((z >>> 33) % bound);
     }
 
     /**
@@ -371,59 +798,136 @@ public abstract class BaseGameScreen implements Screen {
 
         // Get the next piece from the queue
         Tetrimino t = nextPieces.poll();
-        currentPiece = new Piece(t);
-        ghostPiece = new Piece(t);  // Create ghost piece with the same shape
-
+        currentPiece = createPiece(t);
         updateGhostPiece();  // Position the ghost
 
         lockResets = 0; // Reset lock resets
         lockDelayActive = false; // Reset lock delay active
+        pieceInputs = 0; // New piece starts with no inputs
 
         // Game over check: if the new piece collides immediately, game over
         if (!isValidPosition(currentPiece)) {
             gameOver = true;
+            finishTrainingData();
+            GameSnapshot.delete();
         }
     }
 
     /**
-     * Updates the ghost piece to show where the current piece would land
+     * Moves the current piece down by the gravity accumulated since the last call.
+     * Whole rows are applied at once, capped by the drop distance, so 20G lands the piece in a
+     * single frame. Lock delay starts when gravity wants to move a landed piece further.
      */
-    private void updateGhostPiece() {
-        // Create a fresh copy of the current piece to ensure correct shape/rotation
-        ghostPiece = new Piece(currentPiece.getType());
-        ghostPiece.setRotation(currentPiece.getRotation());
-        ghostPiece.setPosition(currentPiece.getX(), currentPiece.getY());
-
-        // Drop the ghost piece as far as it can go
-        while (ghostPiece.move(0, 1, grid)) { }
+    protected void applyGravity() {
+        long now = TimeUtils.millis();
+        fallProgress += gravity * Math.min(now - lastFallTime, MAX_GRAVITY_STEP) / GravityCurve.TICK_MILLIS;
+        lastFallTime = now;
+
+        int rows = (int) fallProgress;
+        if (rows == 0) return;
+        fallProgress -= rows;
+
+        int distance = grid.dropDistance(currentPiece.getType().getRowMasks(currentPiece.getRotation()),
+            currentPiece.getX(), currentPiece.getY());
+        if (distance > 0) {
+            // Piece moved down, so it is not in lock delay
+            currentPiece.setPosition(currentPiece.getX(), currentPiece.getY() + Math.min(rows, distance));
+            lockDelayActive = false;
+        }
+        if (rows > distance) {
+            // Piece landed; leftover gravity does not carry over to the next piece
+            fallProgress = 0;
+            if (!lockDelayActive) {
+                lockDelayActive = true;
+                lockDelayStartTime = now;
+            }
+        }
     }
 
     /**
-     * Checks if the piece's current position is valid (not colliding or out of bounds)
+     * Applies gravity and places the piece once its lock delay runs out. A piece that can still
+     * move down when the delay ends falls on instead of locking.
      */
-    private boolean isValidPosition(Piece piece) {
-        boolean[][] shape = piece.getShape();
-        int px = piece.getX();
-        int py = piece.getY();
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col]) {
-                    int x = px + col;
-                    int y = py + row;
-                    // Check bounds
-                    if (x < 0 || x >= Tetris.GRID_WIDTH || y < 0 || y >= Tetris.GRID_HEIGHT) {
-                        return false;
-                    }
-                    // Check collision with locked blocks
-                    if (grid.isOccupied(x, y)) {
-                        return false;
-                    }
-                }
+    protected void updateFallingPiece() {
+        if (gameOver) return;
+        applyGravity();
+        if (!lockDelayActive) return;
+
+        // Check if the lock delay time has passed or max resets reached
+        if (TimeUtils.millis() - lockDelayStartTime > LOCK_DELAY || lockResets >= MAX_LOCK_RESETS) {
+            // Before placing, make a final check if the piece can move down, e.g. after a line clear
+            if (!currentPiece.move(0, 1, grid)) {
+                placePiece();
+            } else {
+                lastFallTime = TimeUtils.millis();
+                lockDelayActive = false;
+                lockResets = 0;
+                updateGhostPiece();
             }
         }
+    }
+
+    /**
+     * Moves the current piece down by the soft drop rows accumulated since the last frame.
+     * Speed is {@link GameConfig#SOFT_DROP_FACTOR} times level 1 gravity, or the current gravity
+     * if faster, accumulated over real time like {@link #applyGravity()} so every refresh rate
+     * drops at the same speed. An infinite factor goes straight to the drop distance.
+     * @param now Current time in milliseconds
+     * @return true if the piece moved
+     */
+    protected boolean softDrop(long now) {
+        int distance = grid.dropDistance(currentPiece.getType().getRowMasks(currentPiece.getRotation()),
+            currentPiece.getX(), currentPiece.getY());
+
+        int rows;
+        if (Float.isInfinite(config.SOFT_DROP_FACTOR)) {
+            rows = distance;
+        } else {
+            float speed = Math.max(gravity, GravityCurve.forLevel(1)) * config.SOFT_DROP_FACTOR;
+            softDropProgress += speed * Math.min(now - lastSoftDropTime, MAX_GRAVITY_STEP) / GravityCurve.TICK_MILLIS;
+            rows = (int) softDropProgress;
+            softDropProgress -= rows;
+        }
+        lastSoftDropTime = now;
+
+        rows = Math.min(rows, distance);
+        if (rows <= 0) return false;
+        currentPiece.setPosition(currentPiece.getX(), currentPiece.getY() + rows);
         return true;
     }
 
+    /**
+     * Creates a piece at the spawn position that rotates with this game's rotation system.
+     */
+    protected Piece createPiece(Tetrimino type) {
+        Piece piece = new Piece(type);
+        piece.setPosition(grid.getSpawnX(), piece.getY());
+        piece.setRotationSystem(rotationSystem);
+        return piece;
+    }
+
+    /**
+     * Updates the ghost piece to show where the current piece would land
+     */
+    protected void updateGhostPiece() {
+        ghostPiece.copyFrom(currentPiece);
+
+        // Drop the ghost piece as far as it can go, in one step
+        long[] shape = currentPiece.getType().getRowMasks(currentPiece.getRotation());
+        int x = currentPiece.getX();
+        int y = currentPiece.getY();
+        if (!grid.collides(shape, x, y)) {
+            ghostPiece.setPosition(x, y + grid.dropDistance(shape, x, y));
+        }
+    }
+
+    /**
+     * Checks if the piece's current position is valid (not colliding or out of bounds)
+     */
+    private boolean isValidPosition(Piece piece) {
+        return !grid.collides(piece.getType().getRowMasks(piece.getRotation()), piece.getX(), piece.getY());
+    }
+
     @Override
     public void resize(int width, int height) {
         game.viewport.update(width, height);
@@ -431,6 +935,8 @@ public abstract class BaseGameScreen implements Screen {
 
     @Override
     public void dispose() {
+        saveSnapshot();
+        closeTrainingData();
         shapeRenderer.dispose();
         spriteBatch.dispose();
         font.dispose();
@@ -0,0 +1,438 @@
+package me.runthebot.tetris;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many headless games stepped in lockstep, for large-scale self-play.
+ * <p>
+ * Games follow the {@link HeadlessGame} rules: a move picks a rotation, a column and optionally
+ * hold, and the piece is hard dropped from spawn height, then scored with the marathon
+ * {@link Scoring} table. All state lives in flat primitive arrays indexed by game, with no
+ * per-game objects. A game's row masks are contiguous, so one game's step stays within a few
+ * cache lines. {@link #stepAll(int[])} splits the batch into chunks on a fork/join pool.
+ * <p>
+ * The piece queue is a 7-bag shuffled with a per-game SplitMix64 state, so sequences differ from
+ * a {@link HeadlessGame} with the same seed but are reproducible within the engine.
+ */
+public final class BatchEngine {
+    /** Capacity of each game's piece queue ring; holds the visible queue plus a fresh bag. */
+    public static final int QUEUE_CAPACITY = 16;
+    /** Pieces kept in the queue after each refill. */
+    public static final int QUEUE_VISIBLE = 7;
+    /** Result of a step whose action was illegal or whose game was already over. */
+    public static final int NO_STEP = -1;
+
+    // Games per fork/join task
+    private static final int CHUNK = 512;
+    private static final int PIECES = Tetrimino.values().length;
+
+    // Shape rows padded to 4, indexed by ((type * 4 + rotation) * 4 + row)
+    private static final long[] SHAPES = new long[PIECES * 16];
+    // Index of the lowest filled row of each shape, indexed by (type * 4 + rotation)
+    private static final int[] SHAPE_BOTTOM = new int[PIECES * 4];
+
+    static {
+        for (Tetrimino type : Tetrimino.values()) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                int shape = type.ordinal() * 4 + rotation;
+                long[] masks = type.getRowMasks(rotation);
+                for (int row = 0; row < masks.length; row++) {
+                    SHAPES[shape * 4 + row] = masks[row];
+                    if (masks[row] != 0) SHAPE_BOTTOM[shape] = row;
+                }
+            }
+        }
+    }
+
+    private final int count;
+    private final int width;
+    private final int height;
+    private final long fullRow;
+    private final int spawnX;
+    private final int spawnY;
+    private final int[] table = Scoring.tableFor("classic");
+    private final ForkJoinPool pool;
+
+    // Board: row masks indexed by game * height + y, and the topmost non-empty row per game
+    private final long[] rows;
+    private final int[] top;
+
+    // Pieces: ordinals, hold is -1 when empty; the queue ring is indexed by game * QUEUE_CAPACITY
+    private final byte[] current;
+    private final byte[] hold;
+    private final byte[] queue;
+    private final int[] queueHead;
+    private final int[] queueSize;
+    private final long[] randomState;
+
+    // Stats
+    private final int[] score;
+    private final int[] level;
+    private final int[] lines;
+    private final int[] pieces;
+    private final int[] combo;
+    private final boolean[] backToBack;
+    private final boolean[] gameOver;
+    private final int[] lastLines;
+
+    /**
+     * Creates a batch of games on the standard board.
+     * @param count Number of games
+     * @param pool Pool the games are stepped on, or null to step on the calling thread
+     */
+    public BatchEngine(int count, ForkJoinPool pool) {
+        this(count, Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT, pool);
+    }
+
+    /**
+     * Creates a batch of games. Every game starts over; call {@link #resetAll(long)} to seed them.
+     * @param count Number of games
+     * @param width Board width, at most 64
+     * @param height Board height including the buffer
+     * @param pool Pool the games are stepped on, or null to step on the calling thread
+     */
+    public BatchEngine(int count, int width, int height, ForkJoinPool pool) {
+        if (count < 1) throw new IllegalArgumentException("Need at least one game");
+        if (width < 4 || width > Grid.MAX_WIDTH || height <= Tetris.BUFFER_SIZE) {
+            throw new IllegalArgumentException("Unsupported grid size: " + width + "x" + height);
+        }
+        this.count = count;
+        this.width = width;
+        this.height = height;
+        this.fullRow = width == 64 ? -1L : (1L << width) - 1;
+        this.spawnX = (width - 3) / 2;
+        this.spawnY = Tetris.BUFFER_SIZE - 2;
+        this.pool = pool;
+
+        rows = new long[count * height];
+        top = new int[count];
+        current = new byte[count];
+        hold = new byte[count];
+        queue = new byte[count * QUEUE_CAPACITY];
+        queueHead = new int[count];
+        queueSize = new int[count];
+        randomState = new long[count];
+        score = new int[count];
+        level = new int[count];
+        lines = new int[count];
+        pieces = new int[count];
+        combo = new int[count];
+        backToBack = new boolean[count];
+        gameOver = new boolean[count];
+        lastLines = new int[count];
+        resetAll(0);
+    }
+
+    /**
+     * Starts every game over. Game i is seeded from the base seed and its index.
+     */
+    public void resetAll(long seed) {
+        for (int game = 0; game < count; game++) {
+            reset(game, seed + game * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    /**
+     * Starts one game over with an empty board and a fresh queue.
+     * @param game Game index
+     * @param seed Seed for the piece randomizer
+     */
+    public void reset(int game, long seed) {
+        Arrays.fill(rows, game * height, (game + 1) * height, 0L);
+        top[game] = height;
+        hold[game] = -1;
+        queueHead[game] = 0;
+        queueSize[game] = 0;
+        randomState[game] = seed;
+        score[game] = 0;
+        level[game] = 1;
+        lines[game] = 0;
+        pieces[game] = 0;
+        combo[game] = -1;
+        backToBack[game] = false;
+        gameOver[game] = false;
+        lastLines[game] = 0;
+        spawn(game);
+    }
+
+    /**
+     * Plays one move in every game that is still running.
+     * Afterwards {@link #getLastLines(int)} holds the lines each game cleared, or {@link #NO_STEP}
+     * if its move was illegal (the game is left unchanged) or the game was already over.
+     * @param actions One move per game, packed with {@link HeadlessGame#move(int, int, boolean)}
+     */
+    public void stepAll(int[] actions) {
+        if (actions.length < count) throw new IllegalArgumentException("Need " + count + " actions");
+        if (pool == null || count <= CHUNK) {
+            stepRange(actions, 0, count);
+        } else {
+            pool.invoke(new StepTask(actions, 0, count));
+        }
+    }
+
+    /**
+     * Plays one move in a single game.
+     * @return Lines cleared, or {@link #NO_STEP} if the move was illegal or the game is over
+     */
+    public int step(int game, int action) {
+        stepRange(new int[]{action}, game, game + 1, game);
+        return lastLines[game];
+    }
+
+    private void stepRange(int[] actions, int from, int to) {
+        stepRange(actions, from, to, 0);
+    }
+
+    // Steps games from..to-1, reading the action for game g at index g - actionBase
+    private void stepRange(int[] actions, int from, int to, int actionBase) {
+        for (int game = from; game < to; game++) {
+            lastLines[game] = gameOver[game] ? NO_STEP : place(game, actions[game - actionBase]);
+        }
+    }
+
+    // Plays a packed move; returns lines cleared or NO_STEP if it is illegal
+    private int place(int game, int action) {
+        boolean useHold = HeadlessGame.moveUsesHold(action);
+        int type = useHold ? (hold[game] >= 0 ? hold[game] : peek(game)) : current[game];
+        int shape = type * 4 + HeadlessGame.moveRotation(action);
+        int x = HeadlessGame.moveX(action);
+        if (collides(game, shape, x, spawnY)) return NO_STEP;
+
+        if (useHold) {
+            // The held piece is placed; the current one goes into hold
+            if (hold[game] < 0) poll(game);
+            hold[game] = current[game];
+        }
+
+        int y = dropY(game, shape, x);
+        lock(game, shape, x, y);
+        int cleared = clearLines(game);
+
+        // Marathon scoring; hard drops from spawn never spin
+        boolean difficult = Scoring.isDifficult(Scoring.NONE, cleared);
+        boolean chained = difficult && backToBack[game];
+        if (cleared > 0) {
+            combo[game]++;
+            backToBack[game] = difficult;
+        } else {
+            combo[game] = -1;
+        }
+        boolean allClear = top[game] == height;
+        score[game] += Scoring.points(table, Scoring.NONE, cleared, allClear, chained, combo[game]) * level[game];
+        lines[game] += cleared;
+        level[game] = lines[game] / 10 + 1;
+        pieces[game]++;
+
+        spawn(game);
+        return cleared;
+    }
+
+    private boolean collides(int game, int shape, int px, int py) {
+        int base = game * height;
+        for (int row = 0; row < 4; row++) {
+            long mask = SHAPES[shape * 4 + row];
+            if (mask == 0) continue;
+            int y = py + row;
+            if (y < 0 || y >= height || px >= width || px <= -64) return true;
+
+            long placed;
+            if (px >= 0) {
+                placed = mask << px;
+                // Bits shifted past column 63 are off the grid
+                if ((placed >>> px) != mask) return true;
+            } else {
+                // Bits shifted past column 0 are off the grid
+                if ((mask & ((1L << -px) - 1)) != 0) return true;
+                placed = mask >>> -px;
+            }
+            if ((placed & ~fullRow) != 0 || (placed & rows[base + y]) != 0) return true;
+        }
+        return false;
+    }
+
+    // Lowest y the shape reaches falling from spawn. Rows above the top of the stack are empty,
+    // so the shape skips straight to just above it and only steps through the stack itself.
+    private int dropY(int game, int shape, int x) {
+        int y = Math.max(spawnY, top[game] - SHAPE_BOTTOM[shape] - 1);
+        while (!collides(game, shape, x, y + 1)) y++;
+        return y;
+    }
+
+    private void lock(int game, int shape, int px, int py) {
+        int base = game * height;
+        for (int row = 0; row < 4; row++) {
+            long mask = SHAPES[shape * 4 + row];
+            if (mask == 0) continue;
+            rows[base + py + row] |= px >= 0 ? mask << px : mask >>> -px;
+        }
+        top[game] = Math.min(top[game], py);
+    }
+
+    // Removes full rows by compacting the game's rows downwards in one pass
+    private int clearLines(int game) {
+        int base = game * height;
+        int write = height - 1;
+        for (int y = height - 1; y >= top[game]; y--) {
+            long row = rows[base + y];
+            if (row != fullRow) rows[base + write--] = row;
+        }
+        int cleared = write - (top[game] - 1);
+        for (int y = top[game]; y <= write; y++) {
+            rows[base + y] = 0;
+        }
+        top[game] += cleared;
+        // An empty row left at the top means the stack got lower than tracked
+        while (top[game] < height && rows[base + top[game]] == 0) top[game]++;
+        return cleared;
+    }
+
+    private void spawn(int game) {
+        if (queueSize[game] < QUEUE_VISIBLE) fillBag(game);
+        current[game] = (byte) poll(game);
+        // Game over if the new piece collides immediately
+        gameOver[game] = collides(game, current[game] * 4, spawnX, spawnY);
+    }
+
+    private void fillBag(int game) {
+        int start = game * QUEUE_CAPACITY;
+        int tail = queueHead[game] + queueSize[game];
+        // Fisher-Yates straight into the ring
+        for (int i = 0; i < PIECES; i++) {
+            queue[start + ((tail + i) & (QUEUE_CAPACITY - 1))] = (byte) i;
+        }
+        for (int i = PIECES - 1; i > 0; i--) {
+            int j = nextRandom(game, i + 1);
+            int a = start + ((tail + i) & (QUEUE_CAPACITY - 1));
+            int b = start + ((tail + j) & (QUEUE_CAPACITY - 1));
+            byte t = queue[a];
+            queue[a] = queue[b];
+            queue[b] = t;
+        }
+        queueSize[game] += PIECES;
+    }
+
+    private int peek(int game) {
+        return queue[game * QUEUE_CAPACITY + queueHead[game]];
+    }
+
+    private int poll(int game) {
+        int type = peek(game);
+        queueHead[game] = (queueHead[game] + 1) & (QUEUE_CAPACITY - 1);
+        queueSize[game]--;
+        return type;
+    }
+
+    // SplitMix64, the same generator as BaseGameScreen#nextRandom
+    private int nextRandom(int game, int bound) {
+        long z = randomState[game] += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) ((z >>> 33) % bound);
+    }
+
+    /** @return Number of games. */
+    public int getCount() {
+        return count;
+    }
+
+    /** @return Board width. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return Board height including the buffer. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return Row mask of one game's row, bit x set when column x is filled. */
+    public long getRowMask(int game, int y) {
+        return rows[game * height + y];
+    }
+
+    /**
+     * Returns the row masks of every game, indexed by game * height + y.
+     * The array is owned by the engine and updated in place; callers must not modify it.
+     */
+    public long[] getRows() {
+        return rows;
+    }
+
+    /** @return The piece to be placed next in a game. */
+    public Tetrimino getCurrent(int game) {
+        return Tetrimino.values()[current[game]];
+    }
+
+    /** @return The held piece in a game, or null. */
+    public Tetrimino getHold(int game) {
+        return hold[game] < 0 ? null : Tetrimino.values()[hold[game]];
+    }
+
+    /**
+     * Returns an upcoming piece.
+     * @param game Game index
+     * @param index 0 for the piece after the current one, up to {@link #QUEUE_VISIBLE} - 1
+     */
+    public Tetrimino getNext(int game, int index) {
+        if (index < 0 || index >= queueSize[game]) throw new IndexOutOfBoundsException("Queue index " + index);
+        return Tetrimino.values()[queue[game * QUEUE_CAPACITY + ((queueHead[game] + index) & (QUEUE_CAPACITY - 1))]];
+    }
+
+    /** @return Score of a game. */
+    public int getScore(int game) {
+        return score[game];
+    }
+
+    /** @return Current level of a game. */
+    public int getLevel(int game) {
+        return level[game];
+    }
+
+    /** @return Total lines cleared in a game. */
+    public int getLinesCleared(int game) {
+        return lines[game];
+    }
+
+    /** @return Lines cleared by a game's last step, or {@link #NO_STEP}. */
+    public int getLastLines(int game) {
+        return lastLines[game];
+    }
+
+    /** @return Pieces placed in a game. */
+    public int getPiecesPlaced(int game) {
+        return pieces[game];
+    }
+
+    /** @return Whether a game has ended. */
+    public boolean isGameOver(int game) {
+        return gameOver[game];
+    }
+
+    /**
+     * Steps a range of games, splitting in half until a chunk is left.
+     */
+    private class StepTask extends RecursiveAction {
+        private final int[] actions;
+        private final int from;
+        private final int to;
+
+        StepTask(int[] actions, int from, int to) {
+            this.actions = actions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StepTask(actions, from, mid), new StepTask(actions, mid, to));
+                return;
+            }
+            stepRange(actions, from, to);
+        }
+    }
+}
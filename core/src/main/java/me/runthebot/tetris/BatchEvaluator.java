@@ -0,0 +1,284 @@
+package me.runthebot.tetris;
+
+/**
+ * Scores many candidate boards at once, giving the same results as {@link Evaluator} on a {@link Grid}.
+ * <p>
+ * Candidates are added as a grid plus a dropped piece. The piece is locked and full rows are
+ * removed straight into the batch's row masks, so no scratch grid or incremental features are
+ * maintained. Rows are stored row-major across boards ({@code rows[y * stride + board]}), so
+ * the same row of consecutive boards is contiguous.
+ * <p>
+ * Every feature is computed from the row masks with word-wide bit operations while walking
+ * the rows from the top of the stack. A running OR of the rows marks the columns whose stack has started.
+ * Aggregate height is then the sum of its popcounts. Holes, bumpiness and wells are the
+ * popcounts of simple masks built from it. Per-column well depths are kept as bit-sliced
+ * counters, one bit plane per binary digit, so the deepest well needs no per-column loop.
+ * <p>
+ * On Java 17 and later, with the {@code jdk.incubator.vector} module added, the multi-release
+ * jar replaces {@code BatchKernel} with one that runs this walk over a whole vector of boards per
+ * instruction. Otherwise the scalar kernel here is used.
+ */
+public class BatchEvaluator {
+    // Bit planes of the per-column well depth counters, enough for any grid height
+    static final int WELL_PLANES = 7;
+
+    private final int width;
+    private final int height;
+    private final int capacity;
+    private final int stride;
+    private final long fullRow;
+    private final float[] weights;
+    private final long[] rows;
+    private final long[] features;
+    private final int[] lines;
+    private int size = 0;
+    private boolean vectorized = BatchKernel.isVectorized();
+
+    /**
+     * Creates an empty batch.
+     * @param width Board width
+     * @param height Board height including the buffer
+     * @param capacity Most boards the batch holds
+     * @param weights {@link Evaluator#WEIGHT_COUNT} weights; the array is copied
+     */
+    public BatchEvaluator(int width, int height, int capacity, float[] weights) {
+        if (weights.length != Evaluator.WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + Evaluator.WEIGHT_COUNT + " weights, got " + weights.length);
+        }
+        if (width < 4 || width > Grid.MAX_WIDTH || height < 1 || height > Grid.MAX_HEIGHT) {
+            throw new IllegalArgumentException("Unsupported grid size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.capacity = capacity;
+        // Whole vectors of boards are processed, so the rows are padded to a multiple of 8
+        this.stride = (capacity + 7) & ~7;
+        this.fullRow = width == 64 ? -1L : (1L << width) - 1;
+        this.weights = weights.clone();
+        this.rows = new long[height * stride];
+        this.features = new long[BoardFeatures.COUNT * stride];
+        this.lines = new int[stride];
+    }
+
+    /**
+     * @return Whether the Java 17 vector kernel is available in this JVM.
+     */
+    public static boolean isVectorAvailable() {
+        return BatchKernel.isVectorized();
+    }
+
+    /**
+     * Chooses between the vector kernel, if available, and the scalar one, e.g. for benchmarks.
+     */
+    public void setVectorized(boolean vectorized) {
+        this.vectorized = vectorized && BatchKernel.isVectorized();
+    }
+
+    /** @return Whether {@link #evaluate(float[])} uses the vector kernel. */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Removes every board from the batch.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Takes the last board added back out of the batch.
+     */
+    public void removeLast() {
+        if (size > 0) size--;
+    }
+
+    /** @return Number of boards in the batch. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the board that results from locking a shape on a grid and clearing full rows.
+     * @param grid The board before the piece locks; not modified
+     * @param shape The piece's row masks
+     * @param px X position of the shape, such that it fits
+     * @param py Y position of the shape, such that it fits
+     * @return Index of the new board
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(Grid grid, long[] shape, int px, int py) {
+        return add(grid, null, 0, shape, px, py);
+    }
+
+    /**
+     * Adds the board that results from locking a shape on a board given as row masks and clearing full rows.
+     * @param source Row masks of the board before the piece locks, row y at {@code source[offset + y]}; not modified
+     * @param offset Index of the top row in source
+     * @param shape The piece's row masks
+     * @param px X position of the shape, such that it fits
+     * @param py Y position of the shape, such that it fits
+     * @return Index of the new board
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(long[] source, int offset, long[] shape, int px, int py) {
+        return add(null, source, offset, shape, px, py);
+    }
+
+    // Rows come from the grid when there is one, else from source
+    private int add(Grid grid, long[] source, int offset, long[] shape, int px, int py) {
+        if (size == capacity) throw new IllegalStateException("Batch is full");
+        int board = size++;
+
+        // Copy from the bottom up, skipping full rows, then fill the top with empty rows
+        int cleared = 0;
+        int write = height - 1;
+        for (int y = height - 1; y >= 0; y--) {
+            long row = grid != null ? grid.getRowMask(y) : source[offset + y];
+            int r = y - py;
+            if (r >= 0 && r < shape.length) row |= px >= 0 ? shape[r] << px : shape[r] >>> -px;
+            if (row == fullRow) {
+                cleared++;
+            } else {
+                rows[write-- * stride + board] = row;
+            }
+        }
+        for (; write >= 0; write--) {
+            rows[write * stride + board] = 0;
+        }
+        lines[board] = cleared;
+        return board;
+    }
+
+    /**
+     * Copies a board's row masks out, top row first.
+     * @param board Index of the board
+     * @param dest Receives the {@code height} rows
+     * @param offset Index in dest of the top row
+     */
+    public void copyRows(int board, long[] dest, int offset) {
+        for (int y = 0; y < height; y++) {
+            dest[offset + y] = rows[y * stride + board];
+        }
+    }
+
+    /**
+     * @return The board's hash, the same as {@link Grid#getHash()} for a grid with these rows.
+     */
+    public long hash(int board) {
+        long hash = 0;
+        for (int y = 0; y < height; y++) {
+            long row = rows[y * stride + board];
+            if (row != 0) hash += Zobrist.row(row) * Zobrist.power(height - 1 - y);
+        }
+        return hash;
+    }
+
+    /**
+     * @return Lines cleared by the placement that produced a board.
+     */
+    public int getLines(int board) {
+        return lines[board];
+    }
+
+    /**
+     * @return A feature of a board after {@link #evaluate(float[])}, indexed by the {@link BoardFeatures} constants.
+     */
+    public int getFeature(int board, int feature) {
+        return (int) features[feature * stride + board];
+    }
+
+    /**
+     * Scores every board in the batch.
+     * @param scores Receives one score per board, at least {@link #size()} long
+     */
+    public void evaluate(float[] scores) {
+        if (vectorized) {
+            BatchKernel.features(rows, stride, height, width, size, features);
+        } else {
+            scalarFeatures(rows, stride, height, width, 0, size, features);
+        }
+
+        // Same sum in the same order as Evaluator, so scores match it exactly
+        for (int board = 0; board < size; board++) {
+            float score = weights[Evaluator.LINES] * lines[board];
+            for (int i = 0; i < BoardFeatures.COUNT; i++) {
+                score += weights[i] * features[i * stride + board];
+            }
+            scores[board] = score;
+        }
+    }
+
+    /**
+     * Computes the features of boards from..to-1 one board at a time.
+     * @param rows Row masks, board b's row y at {@code y * stride + b}
+     * @param out Features, feature f of board b at {@code f * stride + b}
+     */
+    static void scalarFeatures(long[] rows, int stride, int height, int width, int from, int to, long[] out) {
+        long fullRow = width == 64 ? -1L : (1L << width) - 1;
+        long pairs = fullRow >>> 1;
+        long rightWall = 1L << (width - 1);
+        long[] planes = new long[WELL_PLANES];
+
+        for (int board = from; board < to; board++) {
+            long seen = 0;
+            long previous = 0;
+            long aggregate = 0, maxHeight = 0, holes = 0, bumpiness = 0;
+            long wellDepth = 0, rowTransitions = 0, columnTransitions = 0;
+            for (int k = 0; k < WELL_PLANES; k++) planes[k] = 0;
+
+            // Empty rows above the stack add nothing to any feature
+            int top = 0;
+            while (top < height && rows[top * stride + board] == 0) top++;
+
+            for (int y = top; y < height; y++) {
+                long row = rows[y * stride + board];
+                // Empty cells under a column's top are holes
+                holes += Long.bitCount(seen & ~row);
+                seen |= row;
+                aggregate += Long.bitCount(seen);
+                if (seen != 0) maxHeight++;
+                // Neighbouring columns where exactly one has started differ in height by one more
+                bumpiness += Long.bitCount((seen ^ (seen >>> 1)) & pairs);
+
+                // Cells of a well: column not started, both neighbours (or walls) started
+                long well = ~seen & ((seen << 1) | 1) & ((seen >>> 1) | rightWall) & fullRow;
+                wellDepth += Long.bitCount(well);
+                for (int k = 0; k < WELL_PLANES && well != 0; k++) {
+                    long carry = planes[k] & well;
+                    planes[k] ^= well;
+                    well = carry;
+                }
+
+                if (row != 0) {
+                    rowTransitions += Long.bitCount((row ^ (row >>> 1)) & pairs)
+                        + (~row & 1) + ((~row >>> (width - 1)) & 1);
+                }
+                columnTransitions += Long.bitCount(row ^ previous);
+                previous = row;
+            }
+            // The floor counts as filled
+            columnTransitions += Long.bitCount(~previous & fullRow);
+
+            // Deepest well: keep the columns with the highest digit set, from the top plane down
+            long candidates = fullRow;
+            long maxWell = 0;
+            for (int k = WELL_PLANES - 1; k >= 0; k--) {
+                long hit = candidates & planes[k];
+                if (hit != 0) {
+                    candidates = hit;
+                    maxWell |= 1L << k;
+                }
+            }
+
+            out[BoardFeatures.AGGREGATE_HEIGHT * stride + board] = aggregate;
+            out[BoardFeatures.MAX_HEIGHT * stride + board] = maxHeight;
+            out[BoardFeatures.HOLES * stride + board] = holes;
+            out[BoardFeatures.BUMPINESS * stride + board] = bumpiness;
+            out[BoardFeatures.WELL_DEPTH * stride + board] = wellDepth;
+            out[BoardFeatures.MAX_WELL * stride + board] = maxWell;
+            out[BoardFeatures.ROW_TRANSITIONS * stride + board] = rowTransitions;
+            out[BoardFeatures.COLUMN_TRANSITIONS * stride + board] = columnTransitions;
+        }
+    }
+}
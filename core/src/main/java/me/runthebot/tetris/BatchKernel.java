@@ -0,0 +1,24 @@
+package me.runthebot.tetris;
+
+/**
+ * Feature kernel used by {@link BatchEvaluator}. This is the Java 8 version, which always runs
+ * the scalar kernel; the multi-release jar carries a Java 17 version that can use the Vector API.
+ */
+final class BatchKernel {
+    private BatchKernel() {}
+
+    /**
+     * @return Whether {@link #features} is vectorized. A method rather than a constant, so callers
+     * compiled against this class don't inline the answer of the Java 8 version.
+     */
+    static boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Computes the features of the first count boards; see {@link BatchEvaluator#scalarFeatures}.
+     */
+    static void features(long[] rows, int stride, int height, int width, int count, long[] out) {
+        BatchEvaluator.scalarFeatures(rows, stride, height, width, 0, count, out);
+    }
+}
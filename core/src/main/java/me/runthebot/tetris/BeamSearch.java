@@ -0,0 +1,440 @@
+package me.runthebot.tetris;
+
+import java.util.Iterator;
+
+/**
+ * Lookahead placement search over the preview queue. Each layer places one more piece: every
+ * placement of every node in the beam is scored with a {@link BatchEvaluator}, and the best
+ * {@code beamWidth} children become the next beam. The move chosen is the first placement on
+ * the path to the best node of the deepest layer reached.
+ * <p>
+ * The tree lives in a {@link NodeArena} that is reset before every search, so a search allocates
+ * no objects once the arena's pages and the batch exist. A node is a few header longs followed
+ * by the board's row masks:
+ * <ul>
+ *   <li>link: parent handle (high 32 bits) and the packed first move of its path (low 32)</li>
+ *   <li>score: the node's score and the line reward summed over its path, as float bits</li>
+ *   <li>state: held piece ordinal + 1, or 0 for none (low 8 bits), and the index of the next
+ *   piece to place in the search's piece sequence (next 8 bits)</li>
+ * </ul>
+ * With a {@link TranspositionTable}, every child is looked up before it is scored, keyed on its
+ * board hash, its held piece and the next {@code depth} pieces it has yet to place. A child found
+ * in the table takes the stored score and skips the evaluator; the table can be shared by bots on
+ * other threads, which then reuse each other's evaluations, as long as they all use the same
+ * weights and board size. Successive searches of one game also hit the placements the previous
+ * search already scored one piece deeper.
+ * <p>
+ * Hold follows {@link HeadlessGame}: holding with an empty slot places the piece after the
+ * current one. Placements and twists follow {@link HeadlessGame#land}: a T is also tried
+ * turning once either way after it lands, with the SRS kicks, to reach spin slots.
+ * Not thread safe.
+ */
+public class BeamSearch {
+    private static final int LINK = 0;
+    private static final int SCORE = 1;
+    private static final int STATE = 2;
+    private static final int ROWS = 3;
+    private static final int SPAWN_Y = Tetris.BUFFER_SIZE - 2;
+
+    private static final Tetrimino[] TYPES = Tetrimino.values();
+    // A stored score counts the lines its placement cleared, so the count is part of the key
+    private static final long LINES_KEY = 0x5DEECE66DL;
+    // SRS kicks of the T turning into each rotation, clockwise then counterclockwise, as dx, dy pairs
+    private static final int[][][] TWIST_KICKS = new int[2][4][];
+
+    static {
+        for (int to = 0; to < 4; to++) {
+            TWIST_KICKS[0][to] = SRS.INSTANCE.getKicks(Tetrimino.T, (to + 3) & 3, to);
+            TWIST_KICKS[1][to] = SRS.INSTANCE.getKicks(Tetrimino.T, (to + 1) & 3, to);
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final long fullRow;
+    private final int depth;
+    private final int beamWidth;
+    private final float linesWeight;
+    private final NodeArena arena;
+    private final BatchEvaluator batch;
+    // Shared scores of earlier placements, or null
+    private final TranspositionTable table;
+    private long tableProbes = 0;
+    private long tableHits = 0;
+
+    // Per child: the node it was expanded from, its first move, its state and lines cleared
+    private final int[] childParent;
+    private final int[] childMove;
+    private final int[] childState;
+    private final int[] childLines;
+    private final float[] scores;
+    // Per child: its board in the batch, or -1 when its score came from the table
+    private final int[] childBoard;
+    private final long[] childKey;
+    // Per child: the arena node holding it, or NONE
+    private final int[] childNode;
+    private int childCount;
+    private final float[] batchScores;
+
+    private int[] beam;
+    private int[] nextBeam;
+    private int beamSize;
+    // Min-heap of children indexes by score, used to pick the next beam
+    private final int[] heap;
+    // Current piece followed by the preview queue
+    private final Tetrimino[] pieces;
+    private int pieceCount;
+
+    /**
+     * @param width Board width
+     * @param height Board height including the buffer
+     * @param depth Pieces placed along each path, at least 1
+     * @param beamWidth Nodes kept per layer, at least 1
+     * @param weights {@link Evaluator#WEIGHT_COUNT} evaluation weights
+     */
+    public BeamSearch(int width, int height, int depth, int beamWidth, float[] weights) {
+        this(width, height, depth, beamWidth, weights, null);
+    }
+
+    /**
+     * @param width Board width
+     * @param height Board height including the buffer
+     * @param depth Pieces placed along each path, at least 1
+     * @param beamWidth Nodes kept per layer, at least 1
+     * @param weights {@link Evaluator#WEIGHT_COUNT} evaluation weights
+     * @param table Scores shared with other searches using the same weights and board size, or null
+     */
+    public BeamSearch(int width, int height, int depth, int beamWidth, float[] weights, TranspositionTable table) {
+        if (depth < 1 || beamWidth < 1) {
+            throw new IllegalArgumentException("Invalid search size: depth " + depth + ", beam " + beamWidth);
+        }
+        this.width = width;
+        this.height = height;
+        this.fullRow = width == 64 ? -1L : (1L << width) - 1;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.linesWeight = weights[Evaluator.LINES];
+        this.table = table;
+
+        // Every placement of every beam node, with and without hold, plus two twists per rotation of one T
+        int children = beamWidth * (2 * 4 + 4 * 2) * (width + MoveGenerator.X_OFFSET);
+        this.batch = new BatchEvaluator(width, height, children, weights);
+        // Root plus every child of every layer, so the arena never runs out
+        this.arena = new NodeArena(ROWS + height, 1 + depth * children);
+        this.childParent = new int[children];
+        this.childMove = new int[children];
+        this.childState = new int[children];
+        this.childLines = new int[children];
+        this.childBoard = new int[children];
+        this.childKey = new long[children];
+        this.childNode = new int[children];
+        this.scores = new float[children];
+        this.batchScores = new float[children];
+        this.beam = new int[beamWidth];
+        this.nextBeam = new int[beamWidth];
+        this.heap = new int[beamWidth];
+        this.pieces = new Tetrimino[depth * 2 + 1];
+    }
+
+    /**
+     * Searches from a game's current position.
+     * @param game The game to move in; not modified
+     * @return A packed move for {@link HeadlessGame#play(int)}, or -1 if there is no legal move
+     */
+    public int chooseMove(HeadlessGame game) {
+        arena.reset();
+        if (table != null) table.newSearch();
+        pieceCount = 0;
+        pieces[pieceCount++] = game.getCurrent();
+        Iterator<Tetrimino> next = game.getNextPieces().iterator();
+        while (pieceCount < pieces.length && next.hasNext()) {
+            pieces[pieceCount++] = next.next();
+        }
+
+        int root = arena.allocate();
+        long[] page = arena.page(root);
+        int base = arena.offset(root);
+        Grid grid = game.getGrid();
+        for (int y = 0; y < height; y++) {
+            page[base + ROWS + y] = grid.getRowMask(y);
+        }
+        page[base + LINK] = ((long) NodeArena.NONE << 32) | 0xFFFFFFFFL;
+        page[base + SCORE] = 0;
+        page[base + STATE] = game.getHold() == null ? 0 : game.getHold().ordinal() + 1;
+        beam[0] = root;
+        beamSize = 1;
+
+        int bestMove = -1;
+        for (int layer = 0; layer < depth; layer++) {
+            batch.clear();
+            childCount = 0;
+            for (int i = 0; i < beamSize; i++) {
+                expand(beam[i], layer == 0);
+            }
+            if (childCount == 0) break;
+
+            if (batch.size() > 0) batch.evaluate(batchScores);
+            store();
+            select();
+            if (beamSize == 0) break;
+            // Best of this layer, in case the next one has no legal placements
+            bestMove = (int) arena.page(beam[0])[arena.offset(beam[0]) + LINK];
+        }
+        return bestMove;
+    }
+
+    /**
+     * Adds every placement reachable from a node to the batch.
+     */
+    private void expand(int node, boolean first) {
+        long[] page = arena.page(node);
+        int base = arena.offset(node);
+        int state = (int) page[base + STATE];
+        int hold = (state & 0xFF) - 1;
+        int next = state >>> 8;
+        if (next >= pieceCount) return;
+        // Highest filled row; a piece can fall freely until its box reaches it
+        int top = 0;
+        while (top < height && page[base + ROWS + top] == 0) top++;
+
+        for (int h = 0; h < 2; h++) {
+            boolean useHold = h == 1;
+            Tetrimino type;
+            int childHold = hold;
+            int childNext = next + 1;
+            if (!useHold) {
+                type = pieces[next];
+            } else if (hold >= 0) {
+                type = TYPES[hold];
+                childHold = pieces[next].ordinal();
+            } else {
+                // Holding into an empty slot places the piece after the current one
+                if (next + 1 >= pieceCount) continue;
+                type = pieces[next + 1];
+                childHold = pieces[next].ordinal();
+                childNext = next + 2;
+            }
+            if (useHold && type == pieces[next]) continue;
+
+            int nextState = (childHold + 1) | (childNext << 8);
+            int path = first ? 0 : (int) page[base + LINK];
+            for (int rotation = 0; rotation < Bot.rotationCount(type); rotation++) {
+                long[] shape = type.getRowMasks(rotation);
+                for (int x = -MoveGenerator.X_OFFSET; x < width; x++) {
+                    if (!fits(page, base + ROWS, shape, x, SPAWN_Y)) continue;
+                    int y = landingY(page, base + ROWS, shape, x, top);
+                    addChild(node, page, base, shape, x, y, first ? HeadlessGame.move(rotation, x, useHold) : path, nextState);
+                }
+            }
+
+            // A T can also turn once more after landing, into spin slots no drop reaches
+            if (type != Tetrimino.T) continue;
+            for (int rotation = 0; rotation < 4; rotation++) {
+                long[] shape = type.getRowMasks(rotation);
+                for (int direction = 0; direction < 2; direction++) {
+                    int twist = direction == 0 ? 1 : 3;
+                    long[] landed = type.getRowMasks((rotation - twist) & 3);
+                    int[] kicks = TWIST_KICKS[direction][rotation];
+                    for (int x = -MoveGenerator.X_OFFSET; x < width; x++) {
+                        if (!fits(page, base + ROWS, landed, x, SPAWN_Y)) continue;
+                        int y = landingY(page, base + ROWS, landed, x, top);
+                        int k = 0;
+                        while (k < kicks.length && !fits(page, base + ROWS, shape, x + kicks[k], y + kicks[k + 1])) k += 2;
+                        if (k == kicks.length) continue;
+
+                        int tx = x + kicks[k];
+                        int ty = y + kicks[k + 1];
+                        // It must rest where it turned, and a plain drop may already land there
+                        if (fits(page, base + ROWS, shape, tx, ty + 1)) continue;
+                        if (fits(page, base + ROWS, shape, tx, SPAWN_Y) && landingY(page, base + ROWS, shape, tx, top) == ty) continue;
+                        addChild(node, page, base, shape, tx, ty, first ? HeadlessGame.move(rotation, x, useHold, twist) : path, nextState);
+                    }
+                }
+            }
+        }
+    }
+
+    // Where a shape dropped from spawn height lands; it falls freely until its box reaches the top row
+    private int landingY(long[] rows, int offset, long[] shape, int x, int top) {
+        int y = Math.max(SPAWN_Y, top - shape.length);
+        while (fits(rows, offset, shape, x, y + 1)) y++;
+        return y;
+    }
+
+    private void addChild(int node, long[] page, int base, long[] shape, int x, int y, int move, int state) {
+        int index = batch.add(page, base + ROWS, shape, x, y);
+        int child = childCount++;
+        childParent[child] = node;
+        childMove[child] = move;
+        childState[child] = state;
+        childLines[child] = batch.getLines(index);
+        childBoard[child] = index;
+        childNode[child] = NodeArena.NONE;
+        if (table == null) return;
+
+        long key = batch.hash(index) ^ stateKey(state) ^ LINES_KEY * childLines[child];
+        tableProbes++;
+        long entry = table.probe(key);
+        if (entry == TranspositionTable.MISS) {
+            childKey[child] = key;
+            return;
+        }
+        // Scored before: keep the rows in the arena and take the board back out of the batch
+        tableHits++;
+        int stored = arena.allocate();
+        if (stored != NodeArena.NONE) batch.copyRows(index, arena.page(stored), arena.offset(stored) + ROWS);
+        batch.removeLast();
+        childBoard[child] = -1;
+        childNode[child] = stored;
+        scores[child] = Float.intBitsToFloat(TranspositionTable.valueOf(entry));
+    }
+
+    // Key of a child's held piece and the next depth pieces it has yet to place
+    private long stateKey(int state) {
+        int hold = (state & 0xFF) - 1;
+        int next = state >>> 8;
+        long key = Zobrist.hold(hold < 0 ? null : TYPES[hold]);
+        for (int i = 0; i < depth && next + i < pieceCount; i++) {
+            key ^= Zobrist.queue(i, pieces[next + i]);
+        }
+        return key;
+    }
+
+    /**
+     * Copies every child into the arena, and the newly scored ones into the table.
+     */
+    private void store() {
+        for (int i = 0; i < childCount; i++) {
+            int board = childBoard[i];
+            if (board >= 0) {
+                scores[i] = batchScores[board];
+                if (table != null) {
+                    table.store(childKey[i], Float.floatToRawIntBits(scores[i]), 0, TranspositionTable.EXACT, 0);
+                }
+                childNode[i] = arena.allocate();
+            }
+            int child = childNode[i];
+            if (child == NodeArena.NONE) continue;
+
+            int parent = childParent[i];
+            float parentLines = Float.intBitsToFloat((int) arena.page(parent)[arena.offset(parent) + SCORE]);
+            float pathLines = parentLines + linesWeight * childLines[i];
+            // The batch score already counts this placement's lines
+            float score = parentLines + scores[i];
+            scores[i] = score;
+
+            long[] page = arena.page(child);
+            int base = arena.offset(child);
+            page[base + LINK] = ((long) parent << 32) | (childMove[i] & 0xFFFFFFFFL);
+            page[base + SCORE] = ((long) Float.floatToRawIntBits(score) << 32) | (Float.floatToRawIntBits(pathLines) & 0xFFFFFFFFL);
+            page[base + STATE] = childState[i];
+            if (board >= 0) batch.copyRows(board, page, base + ROWS);
+        }
+    }
+
+    /**
+     * Makes the best stored children the next beam, best first.
+     * Ties go to the child added first, like the greedy {@link Bot}.
+     */
+    private void select() {
+        int size = 0;
+        for (int i = 0; i < childCount; i++) {
+            if (childNode[i] == NodeArena.NONE) continue;
+            if (size < beamWidth) {
+                heap[size] = i;
+                siftUp(size++);
+            } else if (better(i, heap[0])) {
+                heap[0] = i;
+                siftDown(0, size);
+            }
+        }
+
+        // Pop worst first to fill the beam from the back
+        for (int n = size - 1; n >= 0; n--) {
+            nextBeam[n] = childNode[heap[0]];
+            heap[0] = heap[n];
+            siftDown(0, n);
+        }
+        int[] swap = beam;
+        beam = nextBeam;
+        nextBeam = swap;
+        beamSize = size;
+    }
+
+    // Whether child a ranks above child b
+    private boolean better(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i])) break;
+            int t = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = t;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int size) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left])) worst = left;
+            if (right < size && better(heap[worst], heap[right])) worst = right;
+            if (worst == i) return;
+            int t = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = t;
+            i = worst;
+        }
+    }
+
+    // Same bounds and overlap rules as Grid.collides, on a node's rows
+    private boolean fits(long[] rows, int offset, long[] shape, int px, int py) {
+        for (int row = 0; row < shape.length; row++) {
+            long mask = shape[row];
+            if (mask == 0) continue;
+            int y = py + row;
+            if (y < 0 || y >= height || px >= width) return false;
+
+            long placed;
+            if (px >= 0) {
+                placed = mask << px;
+                if ((placed >>> px) != mask) return false;
+            } else {
+                if ((mask & ((1L << -px) - 1)) != 0) return false;
+                placed = mask >>> -px;
+            }
+            if ((placed & ~fullRow) != 0 || (placed & rows[offset + y]) != 0) return false;
+        }
+        return true;
+    }
+
+    /** @return The arena the search tree is stored in, for occupancy metrics. */
+    public NodeArena getArena() {
+        return arena;
+    }
+
+    /** @return Children looked up in the table, over all searches. */
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    /** @return Children whose score came from the table, over all searches. */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /** @return Pieces placed along each path. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** @return Nodes kept per layer. */
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+}
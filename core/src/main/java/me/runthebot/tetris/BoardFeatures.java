@@ -0,0 +1,263 @@
+package me.runthebot.tetris;
+
+import java.util.Arrays;
+
+/**
+ * Stack features of a {@link Grid} (heights, holes, wells, transitions, bumpiness),
+ * kept up to date by the grid whenever cells change so that reading them is O(1).
+ * Locking a piece only rescans the columns and rows it touched; a line clear rescans
+ * the rows that shifted, and garbage only scans the new rows at the bottom. The summary
+ * values are exposed as a flat int vector indexed by the constants below, which is what
+ * evaluators should read.
+ */
+public class BoardFeatures {
+    /** Sum of all column heights. */
+    public static final int AGGREGATE_HEIGHT = 0;
+    /** Height of the tallest column. */
+    public static final int MAX_HEIGHT = 1;
+    /** Empty cells with at least one filled cell above them. */
+    public static final int HOLES = 2;
+    /** Sum of height differences between neighbouring columns. */
+    public static final int BUMPINESS = 3;
+    /** Sum of well depths over all columns. */
+    public static final int WELL_DEPTH = 4;
+    /** Depth of the deepest well. */
+    public static final int MAX_WELL = 5;
+    /** Filled/empty changes along each row, walls counting as filled. */
+    public static final int ROW_TRANSITIONS = 6;
+    /** Filled/empty changes down each column, the floor counting as filled. */
+    public static final int COLUMN_TRANSITIONS = 7;
+    /** Length of the feature vector. */
+    public static final int COUNT = 8;
+
+    private final Grid grid;
+    private final int width;
+    private final int height;
+
+    // Per-column and per-row state the summary is built from
+    private final int[] heights;
+    private final int[] holes;
+    private final int[] columnTransitions;
+    private final int[] rowTransitions;
+    private int rowTransitionTotal = 0;
+
+    private final int[] vector = new int[COUNT];
+
+    /**
+     * Creates the feature tracker for an empty grid.
+     * @param grid The grid to track
+     */
+    BoardFeatures(Grid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.heights = new int[width];
+        this.holes = new int[width];
+        this.columnTransitions = new int[width];
+        this.rowTransitions = new int[height];
+        recomputeAll();
+    }
+
+    /**
+     * Creates a detached copy of another tracker's state, for grid snapshots.
+     */
+    BoardFeatures(BoardFeatures other) {
+        this.grid = other.grid;
+        this.width = other.width;
+        this.height = other.height;
+        this.heights = other.heights.clone();
+        this.holes = other.holes.clone();
+        this.columnTransitions = other.columnTransitions.clone();
+        this.rowTransitions = other.rowTransitions.clone();
+        this.rowTransitionTotal = other.rowTransitionTotal;
+        System.arraycopy(other.vector, 0, vector, 0, COUNT);
+    }
+
+    /**
+     * Returns the feature vector. The array is owned by this object and updated in place;
+     * callers must not modify it.
+     */
+    public int[] getVector() {
+        return vector;
+    }
+
+    /** @return The feature at the given index. */
+    public int get(int feature) {
+        return vector[feature];
+    }
+
+    /** @return Height of a single column, 0 when empty. */
+    public int getColumnHeight(int x) {
+        return heights[x];
+    }
+
+    /** @return Number of holes in a single column. */
+    public int getColumnHoles(int x) {
+        return holes[x];
+    }
+
+    /**
+     * Summarises the features as a 0-100 score for the HUD, 100 being a flat, clean stack.
+     * Height is measured against the visible playfield and dominates once the stack gets tall.
+     */
+    public int getHealth() {
+        int visible = Math.max(1, height - Tetris.BUFFER_SIZE);
+        float penalty = vector[MAX_HEIGHT] * 50f / visible
+            + vector[HOLES] * 4f
+            + vector[BUMPINESS]
+            + Math.max(0, vector[MAX_WELL] - 4) * 2f;
+        return Math.max(0, Math.min(100, Math.round(100 - penalty)));
+    }
+
+    /**
+     * Copies the tracked state of another grid's features of the same size.
+     */
+    void copyFrom(BoardFeatures other) {
+        System.arraycopy(other.heights, 0, heights, 0, width);
+        System.arraycopy(other.holes, 0, holes, 0, width);
+        System.arraycopy(other.columnTransitions, 0, columnTransitions, 0, width);
+        System.arraycopy(other.rowTransitions, 0, rowTransitions, 0, height);
+        System.arraycopy(other.vector, 0, vector, 0, COUNT);
+        rowTransitionTotal = other.rowTransitionTotal;
+    }
+
+    /**
+     * Updates the features after cells in the given box changed.
+     */
+    void onCellsChanged(int minX, int maxX, int minY, int maxY) {
+        for (int x = Math.max(0, minX); x <= Math.min(width - 1, maxX); x++) {
+            scanColumn(x);
+        }
+        for (int y = Math.max(0, minY); y <= Math.min(height - 1, maxY); y++) {
+            scanRow(y);
+        }
+        summarize();
+    }
+
+    /**
+     * Updates the features after rows 0..lowestY shifted down because of line clears.
+     */
+    void onRowsShifted(int lowestY) {
+        for (int x = 0; x < width; x++) {
+            scanColumn(x);
+        }
+        for (int y = 0; y <= Math.min(height - 1, lowestY); y++) {
+            scanRow(y);
+        }
+        summarize();
+    }
+
+    /**
+     * Updates the features after the stack moved up by count rows and garbage filled the bottom.
+     * The rows pushed off the top must have been empty.
+     */
+    void onGarbageInserted(int count) {
+        int first = height - count;
+        for (int x = 0; x < width; x++) {
+            // The old bottom cell now sits just above the garbage and no longer touches the floor
+            boolean previous = first > 0 && grid.isOccupied(x, first - 1);
+            int transitions = columnTransitions[x] - (previous ? 0 : 1);
+            int columnHoles = holes[x];
+            int top = heights[x] > 0 ? height - heights[x] - count : height;
+            for (int y = first; y < height; y++) {
+                boolean filled = grid.isOccupied(x, y);
+                if (filled && top == height) top = y;
+                if (!filled && top < y) columnHoles++;
+                if (filled != previous) transitions++;
+                previous = filled;
+            }
+            if (!previous) transitions++;
+
+            heights[x] = height - top;
+            holes[x] = columnHoles;
+            columnTransitions[x] = transitions;
+        }
+        // Row transitions move up with their rows; the empty rows that fell off counted nothing
+        System.arraycopy(rowTransitions, count, rowTransitions, 0, first);
+        Arrays.fill(rowTransitions, first, height, 0);
+        for (int y = first; y < height; y++) {
+            scanRow(y);
+        }
+        summarize();
+    }
+
+    /**
+     * Rebuilds every feature from scratch.
+     */
+    void recomputeAll() {
+        onRowsShifted(height - 1);
+    }
+
+    private void scanColumn(int x) {
+        int top = height;
+        int columnHoles = 0;
+        int transitions = 0;
+        boolean previous = false; // open air above the grid
+        for (int y = 0; y < height; y++) {
+            boolean filled = grid.isOccupied(x, y);
+            if (filled && top == height) top = y;
+            if (!filled && top < y) columnHoles++;
+            if (filled != previous) transitions++;
+            previous = filled;
+        }
+        if (!previous) transitions++; // floor counts as filled
+
+        heights[x] = height - top;
+        holes[x] = columnHoles;
+        columnTransitions[x] = transitions;
+    }
+
+    private void scanRow(int y) {
+        int transitions = 0;
+        boolean previous = true; // left wall
+        boolean any = false;
+        for (int x = 0; x < width; x++) {
+            boolean filled = grid.isOccupied(x, y);
+            any |= filled;
+            if (filled != previous) transitions++;
+            previous = filled;
+        }
+        if (!previous) transitions++; // right wall
+        // Empty rows above the stack carry no information
+        if (!any) transitions = 0;
+        rowTransitionTotal += transitions - rowTransitions[y];
+        rowTransitions[y] = transitions;
+    }
+
+    private void summarize() {
+        int aggregate = 0;
+        int maxHeight = 0;
+        int totalHoles = 0;
+        int bumpiness = 0;
+        int wellDepth = 0;
+        int maxWell = 0;
+        int colTransitions = 0;
+
+        for (int x = 0; x < width; x++) {
+            int h = heights[x];
+            aggregate += h;
+            maxHeight = Math.max(maxHeight, h);
+            totalHoles += holes[x];
+            colTransitions += columnTransitions[x];
+            if (x > 0) bumpiness += Math.abs(h - heights[x - 1]);
+
+            // Walls count as infinitely tall neighbours
+            int left = x > 0 ? heights[x - 1] : Integer.MAX_VALUE;
+            int right = x < width - 1 ? heights[x + 1] : Integer.MAX_VALUE;
+            int depth = Math.min(left, right) - h;
+            if (depth > 0 && depth < Integer.MAX_VALUE - height) {
+                wellDepth += depth;
+                maxWell = Math.max(maxWell, depth);
+            }
+        }
+
+        vector[AGGREGATE_HEIGHT] = aggregate;
+        vector[MAX_HEIGHT] = maxHeight;
+        vector[HOLES] = totalHoles;
+        vector[BUMPINESS] = bumpiness;
+        vector[WELL_DEPTH] = wellDepth;
+        vector[MAX_WELL] = maxWell;
+        vector[ROW_TRANSITIONS] = rowTransitionTotal;
+        vector[COLUMN_TRANSITIONS] = colTransitions;
+    }
+}
@@ -0,0 +1,138 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.graphics.Color;
+
+import java.util.Arrays;
+
+import static me.runthebot.tetris.Tetris.BUFFER_SIZE;
+
+/**
+ * Draws boards into ARGB pixel arrays on the CPU, for images made without an OpenGL context:
+ * thumbnails and replay exports. The layout follows {@link Grid#render}: a grey border a quarter
+ * cell wide, a black play area with dark grey grid lines, and the visible cells filled with their
+ * piece color. Only the visible rows are drawn, top row first.
+ * The empty board is drawn once up front and copied in for every image. A rasterizer keeps a
+ * scratch row of cells, so one instance must not be shared between threads.
+ */
+public class BoardRasterizer {
+    // Colors of the frame around the play area, and of the grid lines, as in Grid.render
+    private static final Color BORDER_COLOR = new Color(0.3f, 0.3f, 0.3f, 1);
+    private static final Color LINE_COLOR = Color.DARK_GRAY;
+
+    private final int boardWidth;
+    private final int rows;
+    private final int cellSize;
+    private final int border;
+    private final int width;
+    private final int height;
+    // ARGB of each cell code, see Grid.writeCells
+    private final int[] cellColors = new int[Grid.CELL_CODES];
+    private final int[] emptyBoard;
+    private final byte[] cells;
+
+    /**
+     * @param boardWidth Board width in cells
+     * @param rows Visible rows
+     * @param cellSize Size of a cell in pixels, at least 4
+     */
+    public BoardRasterizer(int boardWidth, int rows, int cellSize) {
+        if (cellSize < 4) throw new IllegalArgumentException("Cells must be at least 4 pixels");
+        this.boardWidth = boardWidth;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.border = cellSize / 4;
+        this.width = boardWidth * cellSize + 2 * border;
+        this.height = rows * cellSize + 2 * border;
+        this.cells = new byte[boardWidth * rows];
+
+        int black = Color.argb8888(Color.BLACK);
+        cellColors[0] = black;
+        for (int code = 1; code < cellColors.length; code++) {
+            cellColors[code] = Color.argb8888(Grid.cellColor(code));
+        }
+
+        emptyBoard = new int[width * height];
+        Arrays.fill(emptyBoard, Color.argb8888(BORDER_COLOR));
+        fillRect(emptyBoard, border, border, boardWidth * cellSize, rows * cellSize, black);
+        int line = Math.max(1, Math.round(0.04f * cellSize));
+        int lineColor = Color.argb8888(LINE_COLOR);
+        for (int y = 0; y <= rows; y++) {
+            int top = Math.max(border, Math.min(height - border - line, border + y * cellSize - line / 2));
+            fillRect(emptyBoard, border, top, boardWidth * cellSize, line, lineColor);
+        }
+        for (int x = 0; x <= boardWidth; x++) {
+            int left = Math.max(border, Math.min(width - border - line, border + x * cellSize - line / 2));
+            fillRect(emptyBoard, left, border, line, rows * cellSize, lineColor);
+        }
+    }
+
+    /**
+     * A rasterizer for boards of a grid's size.
+     * @param cellSize Size of a cell in pixels, at least 4
+     */
+    public static BoardRasterizer forGrid(Grid grid, int cellSize) {
+        return new BoardRasterizer(grid.getWidth(), grid.getHeight() - BUFFER_SIZE, cellSize);
+    }
+
+    /** @return Image width in pixels. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return Image height in pixels. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return A pixel array the size of one image, to be reused across calls. */
+    public int[] newBuffer() {
+        return new int[width * height];
+    }
+
+    /**
+     * @return Every color an image can contain, ARGB, for encoders that need a palette.
+     */
+    public int[] getPalette() {
+        int[] palette = Arrays.copyOf(cellColors, cellColors.length + 2);
+        palette[cellColors.length] = Color.argb8888(BORDER_COLOR);
+        palette[cellColors.length + 1] = Color.argb8888(LINE_COLOR);
+        return palette;
+    }
+
+    /**
+     * Draws a grid's visible rows.
+     * @param pixels ARGB array of {@link #getWidth()} * {@link #getHeight()}, row by row from the top
+     * @throws IllegalArgumentException if the grid is not the size this rasterizer draws
+     */
+    public void render(Grid grid, int[] pixels) {
+        if (grid.getWidth() != boardWidth || grid.getHeight() - BUFFER_SIZE != rows) {
+            throw new IllegalArgumentException("Grid is " + grid.getWidth() + "x" + grid.getHeight());
+        }
+        grid.writeCells(cells, 0);
+        render(cells, 0, pixels);
+    }
+
+    /**
+     * Draws cells as written by {@link Grid#writeCells(byte[], int)}.
+     * @param cells One code per visible cell, top row first
+     * @param offset Index of the first cell in cells
+     * @param pixels ARGB array of {@link #getWidth()} * {@link #getHeight()}, row by row from the top
+     */
+    public void render(byte[] cells, int offset, int[] pixels) {
+        System.arraycopy(emptyBoard, 0, pixels, 0, emptyBoard.length);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < boardWidth; x++) {
+                int code = cells[offset++];
+                if (code == 0) continue;
+                fillRect(pixels, border + x * cellSize, border + y * cellSize, cellSize, cellSize, cellColors[code]);
+            }
+        }
+    }
+
+    private void fillRect(int[] pixels, int left, int top, int w, int h, int color) {
+        for (int y = top; y < top + h; y++) {
+            int start = y * width + left;
+            Arrays.fill(pixels, start, start + w, color);
+        }
+    }
+}
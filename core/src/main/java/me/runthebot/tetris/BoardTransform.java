@@ -0,0 +1,71 @@
+package me.runthebot.tetris;
+
+import lombok.Getter;
+
+import static me.runthebot.tetris.Tetris.BUFFER_SIZE;
+
+/**
+ * Where one board is drawn in the world: the bottom left corner of its visible rows and the size
+ * of a cell. Grid rows grow downwards and world y upwards, so row y of a board of height h is
+ * drawn h - y - 1 cells above the origin; the buffer rows end up above the visible area.
+ * Screens own one transform per board, laid out by {@link Tetris#layoutBoards(BoardTransform...)}.
+ */
+@Getter
+public class BoardTransform {
+    /** Board width in cells. */
+    private final int width;
+    /** Board height in cells, including the buffer. */
+    private final int height;
+    /** World x of the board's left edge. */
+    private float x;
+    /** World y of the bottom of the visible rows. */
+    private float y;
+    /** Size of a cell in world units. */
+    private float scale = 1;
+
+    /**
+     * @param width Board width in cells
+     * @param height Board height in cells, including the buffer
+     */
+    public BoardTransform(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Places the board.
+     * @param x World x of the board's left edge
+     * @param y World y of the bottom of the visible rows
+     * @param scale Size of a cell in world units
+     */
+    public void set(float x, float y, float scale) {
+        this.x = x;
+        this.y = y;
+        this.scale = scale;
+    }
+
+    /** @return Number of visible rows. */
+    public int getVisibleRows() {
+        return height - BUFFER_SIZE;
+    }
+
+    /** @return World x of the left edge of a grid column. */
+    public float cellX(float column) {
+        return x + column * scale;
+    }
+
+    /** @return World y of the bottom edge of a grid row. */
+    public float cellY(float row) {
+        return y + (height - row - 1) * scale;
+    }
+
+    /** @return Grid column under a world x. */
+    public int column(float worldX) {
+        return (int) Math.floor((worldX - x) / scale);
+    }
+
+    /** @return Grid row under a world y. */
+    public int row(float worldY) {
+        return height - 1 - (int) Math.floor((worldY - y) / scale);
+    }
+}
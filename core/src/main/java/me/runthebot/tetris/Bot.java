@@ -0,0 +1,167 @@
+package me.runthebot.tetris;
+
+/**
+ * Greedy one-piece bot: tries every rotation and column for the current and the held piece,
+ * scores each resulting board with the {@link Evaluator}'s weights, and picks the best.
+ * The candidates of a move are scored together by a {@link BatchEvaluator}, which the bot owns,
+ * so one instance must not be shared between threads.
+ * With a depth above 1 the bot instead looks ahead through the preview queue with a {@link BeamSearch},
+ * which can share a {@link TranspositionTable} with bots on other threads.
+ */
+public class Bot {
+    private final Evaluator evaluator;
+    private final int depth;
+    private final int beamWidth;
+    private final TranspositionTable table;
+    private BatchEvaluator batch;
+    private BeamSearch search;
+    private int[] moves;
+    private float[] scores;
+    private int width;
+    private int height;
+
+    /**
+     * Creates a bot that scores boards with the given evaluator.
+     */
+    public Bot(Evaluator evaluator) {
+        this(evaluator, 1, 1);
+    }
+
+    /**
+     * Creates a bot that looks ahead through the preview queue.
+     * @param evaluator Scores the board at the end of each line of play
+     * @param depth Pieces placed along each line of play; 1 is the greedy one-piece bot
+     * @param beamWidth Positions kept after each piece when depth is above 1
+     */
+    public Bot(Evaluator evaluator, int depth, int beamWidth) {
+        this(evaluator, depth, beamWidth, null);
+    }
+
+    /**
+     * Creates a bot that looks ahead through the preview queue and keeps its scores in a table.
+     * @param evaluator Scores the board at the end of each line of play
+     * @param depth Pieces placed along each line of play; 1 is the greedy one-piece bot
+     * @param beamWidth Positions kept after each piece when depth is above 1
+     * @param table Scores shared with other bots using the same weights, or null
+     */
+    public Bot(Evaluator evaluator, int depth, int beamWidth, TranspositionTable table) {
+        if (depth < 1 || beamWidth < 1) {
+            throw new IllegalArgumentException("Invalid search size: depth " + depth + ", beam " + beamWidth);
+        }
+        this.evaluator = evaluator;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.table = table;
+    }
+
+    /**
+     * Chooses a move for the game's current position.
+     * @param game The game to move in
+     * @return A packed move for {@link HeadlessGame#play(int)}, or -1 if there is no legal move
+     */
+    public int chooseMove(HeadlessGame game) {
+        Grid grid = game.getGrid();
+        if (depth > 1) {
+            if (search == null || width != grid.getWidth() || height != grid.getHeight()) {
+                width = grid.getWidth();
+                height = grid.getHeight();
+                search = new BeamSearch(width, height, depth, beamWidth, evaluator.getWeights(), table);
+            }
+            return search.chooseMove(game);
+        }
+
+        if (batch == null || width != grid.getWidth() || height != grid.getHeight()) {
+            width = grid.getWidth();
+            height = grid.getHeight();
+            // Four rotations with and without hold, plus two twists per rotation of one T
+            int capacity = (2 * 4 + 4 * 2) * (width + MoveGenerator.X_OFFSET);
+            batch = new BatchEvaluator(width, height, capacity, evaluator.getWeights());
+            moves = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        batch.clear();
+        for (int h = 0; h < 2; h++) {
+            boolean useHold = h == 1;
+            Tetrimino type = game.getPieceFor(useHold);
+            if (type == null || (useHold && type == game.getCurrent())) continue;
+
+            Piece piece = new Piece(type);
+            int spawnY = piece.getY();
+            for (int rotation = 0; rotation < rotationCount(type); rotation++) {
+                piece.setRotation(rotation);
+                for (int x = -MoveGenerator.X_OFFSET; x < grid.getWidth(); x++) {
+                    piece.setPosition(x, spawnY);
+                    if (!piece.move(0, 0, grid)) continue;
+
+                    piece.hardDrop(grid);
+                    int index = batch.add(grid, type.getRowMasks(rotation), piece.getX(), piece.getY());
+                    moves[index] = HeadlessGame.move(rotation, x, useHold);
+                }
+            }
+
+            // A T can also turn once more after landing, into spin slots no drop reaches
+            if (type != Tetrimino.T) continue;
+            for (int rotation = 0; rotation < 4; rotation++) {
+                long[] shape = type.getRowMasks(rotation);
+                for (int twist = 1; twist < 4; twist += 2) {
+                    for (int x = -MoveGenerator.X_OFFSET; x < grid.getWidth(); x++) {
+                        if (!HeadlessGame.land(piece, grid, rotation, x, twist)) continue;
+                        if (dropsTo(grid, shape, piece.getX(), piece.getY())) continue;
+
+                        int index = batch.add(grid, shape, piece.getX(), piece.getY());
+                        moves[index] = HeadlessGame.move(rotation, x, useHold, twist);
+                    }
+                }
+            }
+        }
+
+        batch.evaluate(scores);
+        int bestMove = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < batch.size(); i++) {
+            if (scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * @return The lookahead search, whose arena reports tree occupancy, or null for a greedy bot
+     * or before the first move.
+     */
+    public BeamSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Plays a game to the end or until the piece limit is reached.
+     * @param game The game to play
+     * @param maxPieces Maximum number of pieces to place
+     */
+    public void play(HeadlessGame game, int maxPieces) {
+        while (!game.isGameOver() && game.getPiecesPlaced() < maxPieces) {
+            int move = chooseMove(game);
+            if (move < 0 || !game.play(move)) break;
+        }
+    }
+
+    // Whether a plain drop from spawn height ends at this position, so a twist to it adds nothing
+    private static boolean dropsTo(Grid grid, long[] shape, int x, int y) {
+        int spawnY = Tetris.BUFFER_SIZE - 2;
+        return !grid.collides(shape, x, spawnY) && spawnY + grid.dropDistance(shape, x, spawnY) == y;
+    }
+
+    // O only has one distinct orientation, and I/S/Z only two
+    static int rotationCount(Tetrimino type) {
+        switch (type) {
+            case O: return 1;
+            case I:
+            case S:
+            case Z: return 2;
+            default: return 4;
+        }
+    }
+}
@@ -55,7 +55,16 @@ public class ConfigManager {
 
         data.append("DAS_DELAY=").append(config.DAS_DELAY).append("\n");
         data.append("ARR_DELAY=").append(config.ARR_DELAY).append("\n");
+        data.append("SOFT_DROP_FACTOR=").append(config.SOFT_DROP_FACTOR).append("\n");
         data.append("showGhostPiece=").append(config.showGhostPiece).append("\n");
+        data.append("recordTrainingData=").append(config.recordTrainingData).append("\n");
+        data.append("rotationSystem=").append(config.rotationSystem).append("\n");
+        data.append("boardWidth=").append(config.boardWidth).append("\n");
+        data.append("boardHeight=").append(config.boardHeight).append("\n");
+        data.append("blockSkin=").append(config.blockSkin).append("\n");
+        data.append("previewCount=").append(config.previewCount).append("\n");
+        data.append("versusOpponents=").append(config.versusOpponents).append("\n");
+        data.append("opener=").append(config.opener).append("\n");
 
         // Save key bindings
         data.append("KEY_MOVE_LEFT=").append(config.KEY_MOVE_LEFT).append("\n");
@@ -93,7 +102,20 @@ public class ConfigManager {
             // Parse config values, using defaults if necessary
             config.DAS_DELAY = Float.parseFloat(values.getOrDefault("DAS_DELAY", "170"));
             config.ARR_DELAY = Float.parseFloat(values.getOrDefault("ARR_DELAY", "30"));
+            config.SOFT_DROP_FACTOR = Math.max(1, Float.parseFloat(values.getOrDefault("SOFT_DROP_FACTOR", "60")));
             config.showGhostPiece = Boolean.parseBoolean(values.getOrDefault("showGhostPiece", "true"));
+            config.recordTrainingData = Boolean.parseBoolean(values.getOrDefault("recordTrainingData", "false"));
+            config.rotationSystem = RotationSystem.forName(values.getOrDefault("rotationSystem", "SRS")).getName();
+            int boardWidth = Integer.parseInt(values.getOrDefault("boardWidth", String.valueOf(config.boardWidth)));
+            config.boardWidth = Math.max(Tetris.MIN_BOARD_WIDTH, Math.min(Tetris.MAX_BOARD_WIDTH, boardWidth));
+            int boardHeight = Integer.parseInt(values.getOrDefault("boardHeight", String.valueOf(config.boardHeight)));
+            config.boardHeight = Math.max(Tetris.MIN_BOARD_HEIGHT, Math.min(Tetris.MAX_BOARD_HEIGHT, boardHeight));
+            config.blockSkin = values.getOrDefault("blockSkin", config.blockSkin);
+            int previewCount = Integer.parseInt(values.getOrDefault("previewCount", String.valueOf(config.previewCount)));
+            config.previewCount = Math.max(1, Math.min(Tetris.MAX_PREVIEW_PIECES, previewCount));
+            int versusOpponents = Integer.parseInt(values.getOrDefault("versusOpponents", String.valueOf(config.versusOpponents)));
+            config.versusOpponents = Math.max(1, Math.min(VersusScreen.MAX_OPPONENTS, versusOpponents));
+            config.opener = values.getOrDefault("opener", config.opener);
 
             // Load key bindings with defaults if not present
             config.KEY_MOVE_LEFT = Integer.parseInt(values.getOrDefault("KEY_MOVE_LEFT", String.valueOf(config.KEY_MOVE_LEFT)));
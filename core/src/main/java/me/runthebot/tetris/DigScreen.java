@@ -0,0 +1,226 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implements the "Dig" game mode: the board starts with rows of cheese garbage and more rise
+ * from the bottom over time. The player wins by clearing a set number of garbage rows.
+ * Garbage is inserted with {@link Grid#insertGarbage(int, int[])}, which only writes the new rows.
+ */
+public class DigScreen extends BaseGameScreen {
+    // Garbage rows on the board when the game starts
+    private static final int START_ROWS = 10;
+    // Time between rising rows, shortened as garbage is cleared
+    private static final long START_RISE_INTERVAL = 3000;
+    private static final long MIN_RISE_INTERVAL = 800;
+    private static final long RISE_STEP = 100;
+    private static final int RISE_STEP_ROWS = 5;
+
+    private int targetRows = 40;
+    private int garbageCleared = 0;
+    private int garbageInserted = 0;
+    private int linesCleared = 0;
+    private int lastHole = -1;
+    private long startTime;
+    private long currentTime;
+    private long lastRiseTime;
+    private float currentSpeed;
+    private float maxSpeed = 0;
+
+    /**
+     * Constructor for the DigScreen class. Fills the bottom of the board with cheese.
+     * @param game The main Tetris game instance.
+     */
+    public DigScreen(final Tetris game) {
+        super(game);
+        startTime = TimeUtils.millis();
+        lastRiseTime = startTime;
+        gravity = GravityCurve.fromRowsPerSecond(0.5f); // Fixed gravity for dig mode
+        addGarbage(START_ROWS);
+    }
+
+    @Override
+    public void render(float delta) {
+        if (gameOver) {
+            long finalTime = TimeUtils.millis() - startTime;
+            finishTrainingData();
+            game.setScreen(new GameOverScreen(game, "dig", 0, 1, garbageCleared,
+                finalTime, currentSpeed, maxSpeed, targetRows - garbageCleared, finesse.getFaults()));
+            return;
+        }
+
+        // Check win condition
+        if (garbageCleared >= targetRows) {
+            long finalTime = TimeUtils.millis() - startTime;
+            finishTrainingData();
+            GameSnapshot.delete();
+            game.setScreen(new WinScreen(game, "dig", 0, 1, garbageCleared, finalTime,
+                currentSpeed, maxSpeed, 0, finesse.getFaults()));
+            return;
+        }
+
+        handleInput();
+        update();
+
+        currentTime = TimeUtils.millis() - startTime;
+        if (currentTime > 0) {
+            currentSpeed = (float) linesCleared / (currentTime / 1000.0f);
+            if (currentSpeed > maxSpeed) {
+                maxSpeed = currentSpeed;
+            }
+        }
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        game.camera.update();
+        shapeRenderer.setProjectionMatrix(game.camera.combined);
+
+        // Render game elements
+        renderBoard();
+
+        // Hold and Next pieces have their own begin/end calls
+        renderHoldPiece();
+        renderNextPiece();
+
+        renderUI();
+    }
+
+    /**
+     * Renders the UI elements, including the garbage left to dig through.
+     */
+    private void renderUI() {
+        spriteBatch.begin();
+        font.setColor(Color.WHITE);
+        font.getData().setScale(1.5f);
+
+        // Format time as mm:ss.ms
+        String timeString = String.format("%02d:%02d.%d",
+                (currentTime / 60000),
+                (currentTime / 1000) % 60,
+                (currentTime / 100) % 10);
+
+        font.draw(spriteBatch, "DIG MODE", 20, Gdx.graphics.getHeight() - 20);
+        font.draw(spriteBatch, "Garbage Left: " + (targetRows - garbageCleared) + "/" + targetRows,
+            20, Gdx.graphics.getHeight() - 50);
+        font.draw(spriteBatch, "Time: " + timeString, 20, Gdx.graphics.getHeight() - 80);
+        font.draw(spriteBatch, String.format("Rise: %.1fs", riseInterval() / 1000f), 20, Gdx.graphics.getHeight() - 110);
+
+        // Live stack health readout
+        renderStackHealth();
+
+        spriteBatch.end();
+    }
+
+    /**
+     * Places the current piece on the grid and counts how many garbage rows it cleared.
+     */
+    public void placePiece() {
+        beforeLock();
+        grid.lockPiece(currentPiece);
+
+        int garbageBefore = grid.getGarbageRows();
+        int lines = grid.checkAndClearLines();
+        afterLock(lines);
+        linesCleared += lines;
+        garbageCleared += garbageBefore - grid.getGarbageRows();
+
+        // Reset lock delay mechanism as piece is now placed
+        lockDelayActive = false;
+        lockResets = 0;
+
+        spawnNewPiece();
+        canHold = true; // Reset the hold flag after placing a piece
+    }
+
+    /**
+     * Pushes cheese rows up from the bottom, each with its hole in a different column from the one below.
+     * The current piece is moved up out of the way; running out of room ends the game.
+     */
+    private void addGarbage(int count) {
+        int[] holes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int hole = nextRandom(lastHole < 0 ? grid.getWidth() : grid.getWidth() - 1);
+            // Skip over the previous hole so consecutive rows never line up
+            if (lastHole >= 0 && hole >= lastHole) hole++;
+            holes[i] = hole;
+            lastHole = hole;
+        }
+        garbageInserted += count;
+        if (grid.insertGarbage(count, holes)) {
+            gameOver = true;
+            return;
+        }
+
+        // Push the piece up until it fits again
+        int lift = 0;
+        while (grid.collides(currentPiece.getType().getRowMasks(currentPiece.getRotation()),
+                currentPiece.getX(), currentPiece.getY())) {
+            if (lift++ >= count || currentPiece.getY() <= 0) {
+                gameOver = true;
+                return;
+            }
+            currentPiece.setPosition(currentPiece.getX(), currentPiece.getY() - 1);
+        }
+        updateGhostPiece();
+    }
+
+    /**
+     * @return Milliseconds between rising garbage rows at the current progress.
+     */
+    private long riseInterval() {
+        return Math.max(MIN_RISE_INTERVAL, START_RISE_INTERVAL - RISE_STEP * (garbageCleared / RISE_STEP_ROWS));
+    }
+
+    @Override
+    public String getMode() {
+        return "dig";
+    }
+
+    @Override
+    protected void writeState(ByteBuffer out) {
+        super.writeState(out);
+        out.putInt(targetRows).putInt(garbageCleared).putInt(garbageInserted).putInt(linesCleared).putInt(lastHole);
+        out.putLong(TimeUtils.millis() - startTime);
+        out.putLong(TimeUtils.millis() - lastRiseTime);
+        out.putFloat(currentSpeed).putFloat(maxSpeed);
+    }
+
+    @Override
+    protected void readState(ByteBuffer in) {
+        super.readState(in);
+        targetRows = in.getInt();
+        garbageCleared = in.getInt();
+        garbageInserted = in.getInt();
+        linesCleared = in.getInt();
+        lastHole = in.getInt();
+        startTime = TimeUtils.millis() - in.getLong();
+        lastRiseTime = TimeUtils.millis() - in.getLong();
+        currentSpeed = in.getFloat();
+        maxSpeed = in.getFloat();
+        currentTime = TimeUtils.millis() - startTime;
+    }
+
+    /**
+     * Updates the game state, including rising garbage, gravity and lock delay.
+     */
+    private void update() {
+        if (gameOver) return; // Stop updates if game is over
+
+        // Raise a row of garbage until enough has been sent to finish the game
+        if (garbageInserted < targetRows && TimeUtils.millis() - lastRiseTime >= riseInterval()) {
+            lastRiseTime = TimeUtils.millis();
+            addGarbage(1);
+            if (gameOver) return;
+        }
+
+        updateFallingPiece();
+    }
+
+    @Override public void resume() {}
+}
@@ -0,0 +1,62 @@
+package me.runthebot.tetris;
+
+/**
+ * Scores a board as a weighted sum of its {@link BoardFeatures} plus the lines a placement cleared.
+ * Higher is better. Weights are indexed by the BoardFeatures constants, with {@link #LINES} last.
+ */
+public class Evaluator {
+    /** Index of the weight applied to lines cleared by the placement. */
+    public static final int LINES = BoardFeatures.COUNT;
+    /** Number of weights an evaluator takes. */
+    public static final int WEIGHT_COUNT = BoardFeatures.COUNT + 1;
+
+    private final float[] weights;
+
+    /**
+     * Creates an evaluator with the given weights.
+     * @param weights {@link #WEIGHT_COUNT} weights; the array is copied
+     */
+    public Evaluator(float[] weights) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_COUNT + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Hand-picked starting weights: punish height, holes and bumpiness, reward clears.
+     */
+    public static float[] defaultWeights() {
+        float[] w = new float[WEIGHT_COUNT];
+        w[BoardFeatures.AGGREGATE_HEIGHT] = -0.51f;
+        w[BoardFeatures.MAX_HEIGHT] = -0.05f;
+        w[BoardFeatures.HOLES] = -0.36f;
+        w[BoardFeatures.BUMPINESS] = -0.18f;
+        w[BoardFeatures.WELL_DEPTH] = -0.05f;
+        w[BoardFeatures.MAX_WELL] = 0f;
+        w[BoardFeatures.ROW_TRANSITIONS] = -0.1f;
+        w[BoardFeatures.COLUMN_TRANSITIONS] = -0.1f;
+        w[LINES] = 0.76f;
+        return w;
+    }
+
+    /**
+     * Scores a board after a placement.
+     * @param grid The board after locking and clearing
+     * @param lines Lines cleared by the placement
+     * @return The weighted score
+     */
+    public float evaluate(Grid grid, int lines) {
+        int[] features = grid.getFeatures().getVector();
+        float score = weights[LINES] * lines;
+        for (int i = 0; i < BoardFeatures.COUNT; i++) {
+            score += weights[i] * features[i];
+        }
+        return score;
+    }
+
+    /** @return A copy of the weights. */
+    public float[] getWeights() {
+        return weights.clone();
+    }
+}
@@ -0,0 +1,119 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * The tetrominoes falling behind the menu, as a fixed pool of particles.
+ * Every piece lives in a slot of parallel arrays allocated up front; a piece that falls off the
+ * bottom is moved back to the top in its slot, so nothing is allocated while the menu runs.
+ * Each piece is drawn by {@link PiecePreviews} as block sprites rotated about the piece's center,
+ * so the whole field goes out in a single flush on the game atlas.
+ */
+public class FallingPieces {
+    // Size of a cell on screen in pixels
+    private static final float CELL_SIZE = 48;
+    // Fall speed in pixels per second
+    private static final float FALL_SPEED = 50;
+    // Largest spin either way, in degrees per second
+    private static final float MAX_SPIN = 25;
+    // Pieces keep out of the band this far above and below the middle of the screen, behind the menu
+    private static final float MENU_BAND = 200;
+
+    private final Tetrimino[] types;
+    private final float[] x;
+    private final float[] y;
+    private final float[] rotation;
+    private final float[] spin;
+    private final int count;
+    // 7-bag the pieces are dealt from, reshuffled when used up
+    private final Tetrimino[] bag = Tetrimino.values();
+    private int bagIndex = bag.length;
+
+    /**
+     * @param count Number of pieces
+     */
+    public FallingPieces(int count) {
+        this.count = count;
+        this.types = new Tetrimino[count];
+        this.x = new float[count];
+        this.y = new float[count];
+        this.rotation = new float[count];
+        this.spin = new float[count];
+    }
+
+    /**
+     * Places every piece at a random height in the left or right quarter of the screen, outside
+     * the band behind the menu.
+     */
+    public void spawn(float width, float height) {
+        for (int i = 0; i < count; i++) {
+            types[i] = nextType();
+            x[i] = randomX(width);
+            do {
+                y[i] = MathUtils.random(height);
+            } while (Math.abs(y[i] - height / 2) < MENU_BAND);
+            rotation[i] = 0;
+            spin[i] = MathUtils.random(-MAX_SPIN, MAX_SPIN);
+        }
+    }
+
+    /**
+     * Moves and spins the pieces; pieces that left the bottom come back in from the top.
+     * @param delta Seconds since the last update
+     */
+    public void update(float delta, float width, float height) {
+        float fall = FALL_SPEED * delta;
+        for (int i = 0; i < count; i++) {
+            y[i] -= fall;
+            rotation[i] += spin[i] * delta;
+            float radius = radius(types[i]);
+            if (y[i] < -radius) {
+                types[i] = nextType();
+                x[i] = randomX(width);
+                y[i] = height + radius(types[i]);
+            }
+        }
+    }
+
+    /**
+     * Draws every piece, rotated about its center. Must be called between batch.begin() and batch.end().
+     */
+    public void draw(Batch batch, PiecePreviews previews, TextureRegion block) {
+        for (int i = 0; i < count; i++) {
+            previews.draw(batch, block, types[i], x[i], y[i], CELL_SIZE, rotation[i]);
+        }
+    }
+
+    // Half the diagonal of a piece, how far it can reach from its center at any rotation
+    private static float radius(Tetrimino type) {
+        long[] rows = type.getRowMasks(0);
+        int height = 0;
+        long columns = 0;
+        for (long row : rows) {
+            if (row != 0) height++;
+            columns |= row;
+        }
+        int width = 64 - Long.numberOfLeadingZeros(columns) - Long.numberOfTrailingZeros(columns);
+        return 0.5f * (float) Math.sqrt(width * width + height * height) * CELL_SIZE;
+    }
+
+    // Left or right quarter of the screen, so pieces fall beside the menu
+    private static float randomX(float width) {
+        return MathUtils.randomBoolean() ? MathUtils.random(width * 0.25f) : MathUtils.random(width * 0.75f, width);
+    }
+
+    private Tetrimino nextType() {
+        if (bagIndex == bag.length) {
+            for (int i = bag.length - 1; i > 0; i--) {
+                int j = MathUtils.random(i);
+                Tetrimino swap = bag[i];
+                bag[i] = bag[j];
+                bag[j] = swap;
+            }
+            bagIndex = 0;
+        }
+        return bag[bagIndex++];
+    }
+}
@@ -0,0 +1,178 @@
+package me.runthebot.tetris;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the number of inputs used for each placement against the minimum possible.
+ * Minimums for every (Tetrimino, rotation, column) are precomputed once on an empty board,
+ * so the common case is a table lookup. Tucks, spins and placements under a tall stack
+ * fall back to a {@link MoveGenerator} search on the real grid, as do boards of other sizes
+ * and rotation systems other than SRS.
+ */
+public class FinesseAnalyzer {
+    // Rows at the top of the grid that must be empty for the empty-board table to apply.
+    // Covers the spawn rows plus the room SRS kicks can push a piece down while shifting.
+    private static final int SPAWN_CLEARANCE = Tetris.BUFFER_SIZE + 4;
+
+    // Minimum inputs indexed by [type][rotation][x + X_OFFSET], -1 if not a valid placement
+    private static final int[][][] OPTIMAL = buildTable();
+
+    private MoveGenerator fallback;
+    private int faults = 0;
+    private int pieces = 0;
+    private int faultyPieces = 0;
+
+    /**
+     * Checks a piece that is about to be locked and records any extra inputs.
+     * @param piece The piece in its final position
+     * @param grid The grid before the piece is locked
+     * @param inputs Number of inputs the player used for this piece
+     * @return The number of extra inputs, 0 if the placement was optimal
+     */
+    public int check(Piece piece, Grid grid, int inputs) {
+        int optimal = optimalInputs(piece, grid);
+        if (optimal < 0) return 0;
+
+        pieces++;
+        int extra = Math.max(0, inputs - optimal);
+        if (extra > 0) {
+            faults += extra;
+            faultyPieces++;
+        }
+        return extra;
+    }
+
+    /**
+     * Returns the minimum number of inputs needed for the piece's current placement.
+     * @param piece The piece in its final position
+     * @param grid The grid before the piece is locked
+     * @return Minimum inputs, or -1 if the placement could not be reached from spawn
+     */
+    public int optimalInputs(Piece piece, Grid grid) {
+        Tetrimino type = piece.getType();
+        int x = piece.getX();
+        int y = piece.getY();
+        int rotation = piece.getRotation();
+
+        if (piece.getRotationSystem() == SRS.INSTANCE && isStandardSize(grid) && isSpawnAreaClear(grid) && y == dropFromSpawn(piece, grid)) {
+            int column = x + MoveGenerator.X_OFFSET;
+            int[] row = OPTIMAL[type.ordinal()][rotation];
+            if (column >= 0 && column < row.length && row[column] >= 0) {
+                return row[column];
+            }
+        }
+
+        // Tuck, spin, or a stack high enough to block movement at spawn height
+        if (fallback == null || fallback.getGrid() != grid || fallback.getRotationSystem() != piece.getRotationSystem()) {
+            fallback = new MoveGenerator(grid, piece.getRotationSystem());
+        }
+        return fallback.minimumInputs(type, x, y, rotation);
+    }
+
+    /**
+     * Restores the running totals, e.g. when a saved game is resumed.
+     */
+    public void restore(int faults, int pieces, int faultyPieces) {
+        this.faults = faults;
+        this.pieces = pieces;
+        this.faultyPieces = faultyPieces;
+    }
+
+    /** @return Total extra inputs across all checked pieces. */
+    public int getFaults() {
+        return faults;
+    }
+
+    /** @return Number of pieces checked. */
+    public int getPieces() {
+        return pieces;
+    }
+
+    /** @return Number of pieces that used more inputs than necessary. */
+    public int getFaultyPieces() {
+        return faultyPieces;
+    }
+
+    /**
+     * Checks that the grid has the dimensions the empty-board table was built for.
+     */
+    private static boolean isStandardSize(Grid grid) {
+        return grid.getWidth() == Tetris.GRID_WIDTH && grid.getHeight() == Tetris.GRID_HEIGHT;
+    }
+
+    /**
+     * Checks that nothing is stacked in the rows used while maneuvering at spawn height.
+     */
+    private static boolean isSpawnAreaClear(Grid grid) {
+        for (int y = 0; y < SPAWN_CLEARANCE && y < grid.getHeight(); y++) {
+            if (!grid.isRowEmpty(y)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the y position the piece would reach if hard dropped straight down from spawn height.
+     */
+    private static int dropFromSpawn(Piece piece, Grid grid) {
+        Piece probe = new Piece(piece.getType());
+        probe.setRotation(piece.getRotation());
+        probe.setPosition(piece.getX(), probe.getY());
+        probe.hardDrop(grid);
+        return probe.getY();
+    }
+
+    /**
+     * Builds the empty-board table by searching every piece once and keeping the cheapest
+     * input count per landing footprint, so mirrored rotations share the same minimum.
+     */
+    private static int[][][] buildTable() {
+        Grid empty = new Grid(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
+        MoveGenerator generator = new MoveGenerator(empty);
+        int columns = Tetris.GRID_WIDTH + MoveGenerator.X_OFFSET * 2;
+        int[][][] table = new int[Tetrimino.values().length][4][columns];
+
+        for (Tetrimino type : Tetrimino.values()) {
+            generator.search(type);
+            Piece probe = new Piece(type);
+
+            // Cheapest input count for each landing footprint
+            Map<Long, Integer> best = new HashMap<>();
+            for (int rotation = 0; rotation < 4; rotation++) {
+                for (int y = -MoveGenerator.Y_OFFSET; y < Tetris.GRID_HEIGHT + MoveGenerator.Y_OFFSET; y++) {
+                    for (int x = -MoveGenerator.X_OFFSET; x < Tetris.GRID_WIDTH + MoveGenerator.X_OFFSET; x++) {
+                        int d = generator.getDistance(x, y, rotation);
+                        if (d < 0) continue;
+                        long key = landingFootprint(probe, empty, x, y, rotation);
+                        Integer current = best.get(key);
+                        if (current == null || d < current) best.put(key, d);
+                    }
+                }
+            }
+
+            // Look up each (rotation, column) by where it lands when dropped from spawn
+            int[][] byRotation = table[type.ordinal()];
+            for (int rotation = 0; rotation < 4; rotation++) {
+                for (int column = 0; column < columns; column++) {
+                    int x = column - MoveGenerator.X_OFFSET;
+                    probe.setRotation(rotation);
+                    probe.setPosition(x, Tetris.BUFFER_SIZE - 2);
+                    if (!probe.move(0, 0, empty)) {
+                        byRotation[rotation][column] = -1;
+                        continue;
+                    }
+                    Integer d = best.get(landingFootprint(probe, empty, x, probe.getY(), rotation));
+                    byRotation[rotation][column] = d != null ? d : -1;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long landingFootprint(Piece probe, Grid grid, int x, int y, int rotation) {
+        probe.setRotation(rotation);
+        probe.setPosition(x, y);
+        probe.hardDrop(grid);
+        return MoveGenerator.footprint(probe.getType(), rotation, probe.getX(), probe.getY());
+    }
+}
@@ -14,10 +14,47 @@ public class GameConfig {
      * Auto Repeat Rate (ms between repeated moves when holding left/right)
      */
     public float ARR_DELAY = 130;
+    /**
+     * Soft drop factor: soft drop speed as a multiple of level 1 gravity (1 row per second),
+     * or of the current gravity when that is faster. {@link Float#POSITIVE_INFINITY} drops instantly.
+     */
+    public float SOFT_DROP_FACTOR = 60;
     /**
      * Whether to render a preview of where the current piece will land
      */
     public boolean showGhostPiece = true;
+    /**
+     * Whether to write every placement to a training data file under training/
+     */
+    public boolean recordTrainingData = false;
+    /**
+     * Name of the rotation system, one of {@link RotationSystem#NAMES}
+     */
+    public String rotationSystem = "SRS";
+    /**
+     * Board width in columns, from {@link Tetris#MIN_BOARD_WIDTH} to {@link Tetris#MAX_BOARD_WIDTH}
+     */
+    public int boardWidth = Tetris.GRID_WIDTH;
+    /**
+     * Visible board height in rows, from {@link Tetris#MIN_BOARD_HEIGHT} to {@link Tetris#MAX_BOARD_HEIGHT}
+     */
+    public int boardHeight = Tetris.GRID_HEIGHT - Tetris.BUFFER_SIZE;
+    /**
+     * Name of the block skin, one of {@link GameSprites#SKINS}
+     */
+    public String blockSkin = "Bevel";
+    /**
+     * Number of upcoming pieces shown in the next queue, from 1 to {@link Tetris#MAX_PREVIEW_PIECES}
+     */
+    public int previewCount = 5;
+    /**
+     * Number of bot opponents in versus mode, from 1 to {@link VersusScreen#MAX_OPPONENTS}
+     */
+    public int versusOpponents = 1;
+    /**
+     * Name of the opener from the opening book to suggest for the first bag, or "None"
+     */
+    public String opener = "None";
 
     /**
      * Key binding for moving the piece to the left. Default: Left Arrow.
@@ -29,6 +29,7 @@ public class GameOverScreen implements Screen {
     private float currentSpeed;
     private float maxSpeed;
     private int linesLeft;
+    private int finesseFaults;
 
     /**
      * Constructor for the GameOverScreen.
@@ -49,6 +50,7 @@ public class GameOverScreen implements Screen {
         this.currentSpeed = 0;
         this.maxSpeed = 0;
         this.linesLeft = 0;
+        this.finesseFaults = 0;
     }
 
     /**
@@ -63,9 +65,10 @@ public class GameOverScreen implements Screen {
      * @param currentSpeed The current speed of the game.
      * @param maxSpeed The maximum speed reached during the game.
      * @param linesLeft The number of lines left to clear (for sprint mode).
+     * @param finesseFaults The number of extra inputs used compared to optimal finesse.
      */
     public GameOverScreen(final Tetris game, String gameType, int score, int level, int linesCleared,
-                         long time, float currentSpeed, float maxSpeed, int linesLeft) {
+                         long time, float currentSpeed, float maxSpeed, int linesLeft, int finesseFaults) {
         this.game = game;
         this.gameType = gameType;
         this.score = score;
@@ -75,6 +78,7 @@ public class GameOverScreen implements Screen {
         this.currentSpeed = currentSpeed;
         this.maxSpeed = maxSpeed;
         this.linesLeft = linesLeft;
+        this.finesseFaults = finesseFaults;
     }
 
     @Override
@@ -114,6 +118,14 @@ public class GameOverScreen implements Screen {
             } else {
                 statsTable.add(new VisLabel("0.00 lpm")).row();
             }
+        } else if (gameType.equals("dig")) {
+            statsTable.add(new VisLabel("DIG MODE STATS")).colspan(2).center().padBottom(10).row();
+            statsTable.add(new VisLabel("Time:")).padRight(10);
+            statsTable.add(new VisLabel(timeString)).row();
+            statsTable.add(new VisLabel("Garbage Cleared:")).padRight(10);
+            statsTable.add(new VisLabel(String.valueOf(linesCleared))).row();
+            statsTable.add(new VisLabel("Garbage Left:")).padRight(10);
+            statsTable.add(new VisLabel(String.valueOf(linesLeft))).row();
         } else if (gameType.equals("classic")) {
             statsTable.add(new VisLabel("MARATHON MODE STATS")).colspan(2).center().padBottom(10).row();
             statsTable.add(new VisLabel("Score:")).padRight(10);
@@ -132,6 +144,14 @@ public class GameOverScreen implements Screen {
             statsTable.add(new VisLabel(String.valueOf(level))).row();
             statsTable.add(new VisLabel("Lines Cleared:")).padRight(10);
             statsTable.add(new VisLabel(String.valueOf(linesCleared))).row();
+        } else if (gameType.equals("versus")) {
+            statsTable.add(new VisLabel("VERSUS MODE STATS")).colspan(2).center().padBottom(10).row();
+            statsTable.add(new VisLabel("Time:")).padRight(10);
+            statsTable.add(new VisLabel(timeString)).row();
+            statsTable.add(new VisLabel("Lines Cleared:")).padRight(10);
+            statsTable.add(new VisLabel(String.valueOf(linesCleared))).row();
+            statsTable.add(new VisLabel("Opponents Left:")).padRight(10);
+            statsTable.add(new VisLabel(String.valueOf(linesLeft))).row();
         }
 
         // Add common stats
@@ -139,6 +159,8 @@ public class GameOverScreen implements Screen {
         statsTable.add(new VisLabel(String.format("%.2f lps", currentSpeed))).row();
         statsTable.add(new VisLabel("Max Speed:")).padRight(10);
         statsTable.add(new VisLabel(String.format("%.2f lps", maxSpeed))).row();
+        statsTable.add(new VisLabel("Finesse Faults:")).padRight(10);
+        statsTable.add(new VisLabel(String.valueOf(finesseFaults))).row();
 
         // Buttons
         VisTextButton playAgainButton = new VisTextButton("Play Again");
@@ -150,6 +172,12 @@ public class GameOverScreen implements Screen {
                     game.setScreen(new SprintScreen(game));
                 } else if (gameType.equals("arcade")) {
                     game.setScreen(new ArcadeScreen(game));
+                } else if (gameType.equals("practice")) {
+                    game.setScreen(new PracticeScreen(game));
+                } else if (gameType.equals("dig")) {
+                    game.setScreen(new DigScreen(game));
+                } else if (gameType.equals("versus")) {
+                    game.setScreen(new VersusScreen(game, ConfigManager.getInstance().getConfig().versusOpponents));
                 }
                 return true;
             }
@@ -6,6 +6,8 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.utils.TimeUtils;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implements the "Marathon" or main game mode for Tetris.
  * Handles game logic, rendering, and user input for the main gameplay loop.
@@ -20,6 +22,7 @@ public class GameScreen extends BaseGameScreen {
     private float currentSpeed = 0;
     private float maxSpeed = 0;
     private int highScore = 0;
+    private final Scoring scoring = Scoring.forMode(getMode());
 
     public GameScreen(final Tetris game) {
         super(game);
@@ -37,12 +40,12 @@ public class GameScreen extends BaseGameScreen {
         if (gameOver) {
             // Pass game stats to the game over screen
             game.setScreen(new GameOverScreen(game, "classic", score, level, linesCleared,
-                          currentTime, currentSpeed, maxSpeed, 0));
+                          currentTime, currentSpeed, maxSpeed, 0, finesse.getFaults()));
             return;
         }
 
         handleInput();
-        update();
+        updateFallingPiece();
 
         // Update game stats
         currentTime = TimeUtils.millis() - startTime;
@@ -60,15 +63,7 @@ public class GameScreen extends BaseGameScreen {
         shapeRenderer.setProjectionMatrix(game.camera.combined);
 
         // Render game elements
-        grid.render(shapeRenderer);
-
-        if (config.showGhostPiece) {
-            // Render ghost piece with transparency
-            ghostPiece.render(shapeRenderer, 0.3f);
-        }
-
-        currentPiece.render(shapeRenderer);
-        shapeRenderer.end();
+        renderBoard();
 
         // Hold and Next pieces have their own begin/end calls
         renderHoldPiece();
@@ -99,33 +94,34 @@ public class GameScreen extends BaseGameScreen {
         font.draw(spriteBatch, "Max Speed: " + String.format("%.2f", maxSpeed) + " lps", 20, Gdx.graphics.getHeight() - 200);
 
         // Display gravity
-        font.draw(spriteBatch, "Gravity: " + String.format("%.2f", gravity), 20, Gdx.graphics.getHeight() - 230);
+        font.draw(spriteBatch, "Gravity: " + GravityCurve.format(gravity), 20, Gdx.graphics.getHeight() - 230);
 
         // Display high score if available
         if (highScore > 0) {
             font.draw(spriteBatch, "High Score: " + highScore, 20, Gdx.graphics.getHeight() - 260);
         }
 
+        // Last special clear
+        font.draw(spriteBatch, scoring.describeLast(), 20, Gdx.graphics.getHeight() - 290);
+
+        // Live stack health readout
+        renderStackHealth();
+
         spriteBatch.end();
     }
 
     public void placePiece() {
+        // Spins are judged on the board before the piece locks
+        int spin = Scoring.detectSpin(grid, currentPiece);
+        beforeLock();
         grid.lockPiece(currentPiece);
 
         // Check for line clears after locking the piece
         int lines = grid.checkAndClearLines();
+        afterLock(lines);
 
-        // Calculate score based on number of lines cleared
-        int lineScore = 0;
-        switch (lines) {
-            case 1: lineScore = 40; break;
-            case 2: lineScore = 100; break;
-            case 3: lineScore = 300; break;
-            case 4: lineScore = 1200; break;
-        }
-
-        // Apply level multiplier
-        score += lineScore * level;
+        // Score the clear, including spins, back-to-back, combo and all clear bonuses
+        score += scoring.award(spin, lines, grid.isEmpty(), level);
         linesCleared += lines;
 
         // Update speed tracking after each piece placement
@@ -155,64 +151,38 @@ public class GameScreen extends BaseGameScreen {
         canHold = true; // Reset the hold flag after placing a piece
     }
 
-    private void updateGravity() {
-        // Classic Tetris formula: gravity increases with level
-        gravity = gravity + (level - 1) * 0.05f;
+    @Override
+    public String getMode() {
+        return "classic";
     }
 
-
-    private void update() {
-        if (gameOver) return; // Stop updates if game is over
-
-        // Try to move the piece down due to gravity
-        if (TimeUtils.timeSinceMillis(lastFallTime) >= (1000 / gravity)) {
-            if (currentPiece.move(0, 1, grid)) { // Attempt to move piece down
-                // Piece moved down successfully
-                lastFallTime = TimeUtils.millis();
-                lockDelayActive = false; // If piece is falling, it's not in lock delay
-                updateGhostPiece();
-            } else {
-                // Piece could not move down (landed)
-                if (!lockDelayActive) {
-                    // Activate lock delay if not already active
-                    lockDelayActive = true;
-                    lockDelayStartTime = TimeUtils.millis();
-                }
-            }
-        }
-
-        // Handle lock delay
-        if (lockDelayActive) {
-            // Check if the lock delay time has passed or max resets reached
-            if (TimeUtils.millis() - lockDelayStartTime > LOCK_DELAY || lockResets >= MAX_LOCK_RESETS) {
-                // Before placing, make a final check if the piece can move down
-                if (!currentPiece.move(0, 1, grid)) {
-                    // Still cannot move down, so place the piece
-                    placePiece();
-                } else {
-                    // Piece was able to move down
-                    lastFallTime = TimeUtils.millis();
-                    lockDelayActive = false;
-                    lockResets = 0;
-                    updateGhostPiece();
-                }
-            }
-        }
+    @Override
+    protected void writeState(ByteBuffer out) {
+        super.writeState(out);
+        out.putInt(score).putInt(level).putInt(linesCleared).putInt(highScore);
+        out.putLong(TimeUtils.millis() - startTime);
+        out.putFloat(currentSpeed).putFloat(maxSpeed);
+        scoring.write(out);
     }
 
+    @Override
+    protected void readState(ByteBuffer in) {
+        super.readState(in);
+        score = in.getInt();
+        level = in.getInt();
+        linesCleared = in.getInt();
+        highScore = in.getInt();
+        startTime = TimeUtils.millis() - in.getLong();
+        currentTime = TimeUtils.millis() - startTime;
+        currentSpeed = in.getFloat();
+        maxSpeed = in.getFloat();
+        scoring.read(in);
+    }
 
-    private void updateGhostPiece() {
-        // Create a fresh copy of the current piece to ensure correct shape/rotation
-        ghostPiece = new Piece(currentPiece.getType());
-        ghostPiece.setRotation(currentPiece.getRotation());
-        ghostPiece.setPosition(currentPiece.getX(), currentPiece.getY());
-
-        // Drop the ghost piece as far as it can go
-        while (ghostPiece.move(0, 1, grid)) { }
+    private void updateGravity() {
+        // Guideline curve: gravity is looked up from the level
+        gravity = GravityCurve.forLevel(level);
     }
 
-    @Override public void show() {}
-    @Override public void pause() {}
     @Override public void resume() {}
-    @Override public void hide() {}
 }
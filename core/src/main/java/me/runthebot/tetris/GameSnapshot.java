@@ -0,0 +1,112 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Saves an in-progress game to a small binary file so it can be resumed from the menu.
+ * The file holds a header with the mode, then whatever the screen writes in
+ * {@link BaseGameScreen#writeState(ByteBuffer)}. Snapshots are built in a reused buffer and
+ * written to a temporary file that then replaces the old one, so an interrupted save keeps
+ * the previous snapshot.
+ */
+public final class GameSnapshot {
+    // Path to the saved game, next to the config file
+    private static final String SAVE_FILE = "savegame.bin";
+    private static final String TEMP_FILE = "savegame.bin.tmp";
+    // "TSAV"
+    private static final int MAGIC = 0x56415354;
+    private static final short VERSION = 3;
+
+    private static final ByteBuffer buffer = ByteBuffer.allocate(16 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    private GameSnapshot() {}
+
+    /**
+     * Saves a game, replacing any earlier snapshot.
+     * @param screen The game to save
+     */
+    public static void save(BaseGameScreen screen) {
+        try {
+            buffer.clear();
+            buffer.putInt(MAGIC).putShort(VERSION);
+            writeString(screen.getMode());
+            screen.writeState(buffer);
+        } catch (BufferOverflowException e) {
+            Gdx.app.error("Tetris", "Game state too large to save", e);
+            return;
+        }
+
+        FileHandle temp = Gdx.files.local(TEMP_FILE);
+        temp.writeBytes(buffer.array(), 0, buffer.position(), false);
+        temp.moveTo(Gdx.files.local(SAVE_FILE));
+    }
+
+    /**
+     * @return Whether there is a saved game to resume.
+     */
+    public static boolean exists() {
+        return Gdx.files.local(SAVE_FILE).exists();
+    }
+
+    /**
+     * Loads the saved game and removes the snapshot so it can only be resumed once.
+     * @param game The main Tetris game instance
+     * @return The restored game screen, or null if there is no usable snapshot
+     */
+    public static BaseGameScreen load(Tetris game) {
+        FileHandle file = Gdx.files.local(SAVE_FILE);
+        if (!file.exists()) return null;
+
+        ByteBuffer in = ByteBuffer.wrap(file.readBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        delete();
+        try {
+            if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+                Gdx.app.error("Tetris", "Ignoring saved game from an incompatible version");
+                return null;
+            }
+
+            BaseGameScreen screen;
+            String mode = readString(in);
+            switch (mode) {
+                case "classic": screen = new GameScreen(game); break;
+                case "sprint": screen = new SprintScreen(game); break;
+                case "arcade": screen = new ArcadeScreen(game); break;
+                case "practice": screen = new PracticeScreen(game); break;
+                case "dig": screen = new DigScreen(game); break;
+                default:
+                    Gdx.app.error("Tetris", "Ignoring saved game for unknown mode " + mode);
+                    return null;
+            }
+            screen.readState(in);
+            return screen;
+        } catch (BufferUnderflowException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            Gdx.app.error("Tetris", "Saved game is corrupt", e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the saved game, e.g. once it has ended.
+     */
+    public static void delete() {
+        FileHandle file = Gdx.files.local(SAVE_FILE);
+        if (file.exists()) file.delete();
+    }
+
+    private static void writeString(String s) {
+        buffer.put((byte) s.length());
+        for (int i = 0; i < s.length(); i++) buffer.put((byte) s.charAt(i));
+    }
+
+    private static String readString(ByteBuffer in) {
+        char[] chars = new char[in.get() & 0xFF];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) in.get();
+        return new String(chars);
+    }
+}
@@ -0,0 +1,82 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Gameplay sprites: block skins, icons and power items, packed into one atlas at build time by
+ * the lwjgl3 packTextures task from the images under assets-raw/game. The board, the hold box and
+ * the next queue are all drawn from this atlas, so a {@link com.badlogic.gdx.graphics.g2d.SpriteBatch}
+ * draws them with one texture bind. Sprites are white or grey and tinted with the batch color.
+ */
+public class GameSprites implements Disposable {
+    /** Atlas file in the assets. */
+    public static final String ATLAS = "game.atlas";
+    /** Block skin names for the settings, in the order of their regions. */
+    public static final String[] SKINS = {"Bevel", "Flat", "Outline"};
+
+    private final TextureAtlas atlas;
+    private final TextureRegion[] blocks = new TextureRegion[SKINS.length];
+    private final TextureRegion pixel;
+    private final TextureRegion lock;
+    private final TextureRegion powerUp;
+    private final TextureRegion powerDown;
+
+    /**
+     * Loads the atlas.
+     * @throws GdxRuntimeException if the atlas is missing or lacks a sprite
+     */
+    public GameSprites(FileHandle file) {
+        // The atlas is generated and not checked in, so say how to make it instead of failing on a missing file
+        if (!file.exists()) {
+            throw new GdxRuntimeException(file.path() + " not found; run the lwjgl3:packTextures task to pack "
+                + "the sprites under assets-raw/game");
+        }
+        atlas = new TextureAtlas(file);
+        for (int i = 0; i < SKINS.length; i++) blocks[i] = find("blocks/" + SKINS[i].toLowerCase());
+        pixel = find("icons/pixel");
+        lock = find("icons/lock");
+        powerUp = find("items/power_up");
+        powerDown = find("items/power_down");
+    }
+
+    private TextureRegion find(String name) {
+        TextureRegion region = atlas.findRegion(name);
+        if (region == null) throw new GdxRuntimeException("Missing sprite " + name + " in " + ATLAS);
+        return region;
+    }
+
+    /**
+     * @param skin One of {@link #SKINS}; unknown names get the first skin
+     * @return The block sprite of a skin, one cell in size
+     */
+    public TextureRegion getBlock(String skin) {
+        for (int i = 0; i < SKINS.length; i++) {
+            if (SKINS[i].equals(skin)) return blocks[i];
+        }
+        return blocks[0];
+    }
+
+    /** @return A plain white sprite, stretched for backgrounds and lines. */
+    public TextureRegion getPixel() {
+        return pixel;
+    }
+
+    /** @return Padlock icon, drawn on the hold box while hold is used up. */
+    public TextureRegion getLock() {
+        return lock;
+    }
+
+    /** @return Arcade power item sprite, up or down. */
+    public TextureRegion getPowerItem(boolean up) {
+        return up ? powerUp : powerDown;
+    }
+
+    @Override
+    public void dispose() {
+        atlas.dispose();
+    }
+}
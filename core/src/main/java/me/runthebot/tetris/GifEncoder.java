@@ -0,0 +1,270 @@
+package me.runthebot.tetris;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes looping animated GIFs from ARGB pixel arrays, in plain Java so it runs without a display.
+ * Every frame shares one global palette, which must hold every color in the frames.
+ * Compressing a frame is separate from writing it: {@link #compress(int[])} only reads the
+ * encoder's palette, so frames can be compressed on several threads and then written in order.
+ * A frame may cover just the rectangle that changed since the previous one; the rest of the
+ * previous frame is left in place.
+ *
+ * <pre>
+ * try (GifEncoder gif = new GifEncoder(out, width, height, palette, 10)) {
+ *     gif.writeFrame(gif.compress(pixels));
+ * }
+ * </pre>
+ */
+public class GifEncoder implements Closeable {
+    private static final int MAX_CODES = 4096;
+    // Open addressing table of LZW strings, sized as in the classic compress implementation
+    private static final int TABLE_SIZE = 5003;
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final int[] palette;
+    private final int paletteBits;
+    private final int delay;
+
+    /**
+     * A compressed frame and the rectangle of the image it covers.
+     */
+    public static final class Frame {
+        private final int left;
+        private final int top;
+        private final int width;
+        private final int height;
+        private final byte[] data;
+
+        private Frame(int left, int top, int width, int height, byte[] data) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+
+        /** @return Size of the compressed image data in bytes. */
+        public int getSize() {
+            return data.length;
+        }
+    }
+
+    /**
+     * Writes the file header.
+     * @param palette ARGB colors, at most 256; alpha is dropped
+     * @param delay Time each frame is shown, in hundredths of a second
+     */
+    public GifEncoder(OutputStream out, int width, int height, int[] palette, int delay) throws IOException {
+        if (palette.length == 0 || palette.length > 256) throw new IllegalArgumentException("Palette needs 1-256 colors");
+        if (width > 0xFFFF || height > 0xFFFF) throw new IllegalArgumentException("Image too large: " + width + "x" + height);
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.palette = palette.clone();
+        int bits = 1;
+        while (1 << bits < palette.length) bits++;
+        this.paletteBits = bits;
+        this.delay = delay;
+
+        out.write(new byte[]{'G', 'I', 'F', '8', '9', 'a'});
+        writeShort(width);
+        writeShort(height);
+        // Global color table, 8 bit color resolution
+        out.write(0x80 | 0x70 | (paletteBits - 1));
+        out.write(0);
+        out.write(0);
+        for (int i = 0; i < 1 << paletteBits; i++) {
+            int color = i < palette.length ? palette[i] : 0;
+            out.write(color >> 16);
+            out.write(color >> 8);
+            out.write(color);
+        }
+        // Loop forever
+        out.write(new byte[]{0x21, (byte) 0xFF, 11, 'N', 'E', 'T', 'S', 'C', 'A', 'P', 'E', '2', '.', '0', 3, 1, 0, 0, 0});
+    }
+
+    /**
+     * Maps a whole frame to the palette and LZW compresses it.
+     * @param pixels ARGB pixels, row by row from the top
+     * @see #compress(int[], int, int, int, int)
+     */
+    public Frame compress(int[] pixels) {
+        return compress(pixels, 0, 0, width, height);
+    }
+
+    /**
+     * Maps a rectangle of a frame to the palette and LZW compresses it. Safe to call from several
+     * threads at once.
+     * @param pixels ARGB pixels of the whole image, row by row from the top
+     * @return The compressed rectangle, to pass to {@link #writeFrame(Frame)}
+     * @throws IllegalArgumentException if a pixel's color is not in the palette
+     */
+    public Frame compress(int[] pixels, int left, int top, int w, int h) {
+        if (pixels.length < width * height) throw new IllegalArgumentException("Too few pixels for " + width + "x" + height);
+        if (left < 0 || top < 0 || w < 1 || h < 1 || left + w > width || top + h > height) {
+            throw new IllegalArgumentException("Rectangle outside the image");
+        }
+        int minCodeSize = Math.max(2, paletteBits);
+        Lzw lzw = new Lzw(minCodeSize, w * h / 4 + 64);
+        // Boards are runs of a few colors, so the last lookup almost always matches
+        int lastColor = palette[0] & 0xFFFFFF;
+        int lastIndex = 0;
+        for (int y = top; y < top + h; y++) {
+            for (int i = y * width + left, end = i + w; i < end; i++) {
+                int color = pixels[i] & 0xFFFFFF;
+                if (color != lastColor) {
+                    lastIndex = indexOf(color);
+                    lastColor = color;
+                }
+                lzw.add(lastIndex);
+            }
+        }
+        return new Frame(left, top, w, h, lzw.finish());
+    }
+
+    private int indexOf(int color) {
+        for (int i = 0; i < palette.length; i++) {
+            if ((palette[i] & 0xFFFFFF) == color) return i;
+        }
+        throw new IllegalArgumentException("Color " + Integer.toHexString(color) + " is not in the palette");
+    }
+
+    /**
+     * Appends a compressed frame, shown for the encoder's delay.
+     */
+    public void writeFrame(Frame frame) throws IOException {
+        writeFrame(frame, delay);
+    }
+
+    /**
+     * Appends a compressed frame.
+     * @param delay Time this frame is shown, in hundredths of a second
+     */
+    public void writeFrame(Frame frame, int delay) throws IOException {
+        // Graphic control extension: keep the frame for the next one to draw over, no transparency
+        out.write(new byte[]{0x21, (byte) 0xF9, 4, 1 << 2});
+        writeShort(delay);
+        out.write(new byte[]{0, 0});
+        // Image descriptor of the frame's rectangle, using the global palette
+        out.write(0x2C);
+        writeShort(frame.left);
+        writeShort(frame.top);
+        writeShort(frame.width);
+        writeShort(frame.height);
+        out.write(0);
+        out.write(frame.data);
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >> 8) & 0xFF);
+    }
+
+    /**
+     * Writes the trailer and flushes. The underlying stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        out.write(0x3B);
+        out.flush();
+    }
+
+    /**
+     * Variable length LZW as GIF uses it, writing codes least significant bit first into
+     * sub-blocks of up to 255 bytes.
+     */
+    private static final class Lzw {
+        private final int minCodeSize;
+        private final int clearCode;
+        private final int[] keys = new int[TABLE_SIZE];
+        private final int[] codes = new int[TABLE_SIZE];
+        private final ByteArrayOutputStream out;
+        private final byte[] block = new byte[255];
+        private int blockSize = 0;
+        private int codeSize;
+        private int nextCode;
+        private int prefix = -1;
+        private int bits = 0;
+        private int bitCount = 0;
+
+        Lzw(int minCodeSize, int expectedBytes) {
+            this.minCodeSize = minCodeSize;
+            this.clearCode = 1 << minCodeSize;
+            this.out = new ByteArrayOutputStream(expectedBytes);
+            out.write(minCodeSize);
+            reset();
+            emit(clearCode);
+        }
+
+        private void reset() {
+            Arrays.fill(keys, -1);
+            codeSize = minCodeSize + 1;
+            nextCode = clearCode + 2;
+        }
+
+        void add(int index) {
+            if (prefix < 0) {
+                prefix = index;
+                return;
+            }
+            int key = (prefix << 8) | index;
+            int slot = (index << 4 ^ prefix) % TABLE_SIZE;
+            while (keys[slot] >= 0) {
+                if (keys[slot] == key) {
+                    prefix = codes[slot];
+                    return;
+                }
+                if (++slot == TABLE_SIZE) slot = 0;
+            }
+
+            emit(prefix);
+            if (nextCode < MAX_CODES) {
+                keys[slot] = key;
+                codes[slot] = nextCode++;
+                // The decoder adds this string one code later, so widen once it has gone past the size
+                if (nextCode > 1 << codeSize && codeSize < 12) codeSize++;
+            } else {
+                emit(clearCode);
+                reset();
+            }
+            prefix = index;
+        }
+
+        byte[] finish() {
+            if (prefix >= 0) emit(prefix);
+            emit(clearCode + 1);
+            if (bitCount > 0) writeByte(bits);
+            if (blockSize > 0) flushBlock();
+            out.write(0);
+            return out.toByteArray();
+        }
+
+        private void emit(int code) {
+            bits |= code << bitCount;
+            bitCount += codeSize;
+            while (bitCount >= 8) {
+                writeByte(bits);
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+
+        private void writeByte(int value) {
+            block[blockSize++] = (byte) value;
+            if (blockSize == block.length) flushBlock();
+        }
+
+        private void flushBlock() {
+            out.write(blockSize);
+            out.write(block, 0, blockSize);
+            blockSize = 0;
+        }
+    }
+}
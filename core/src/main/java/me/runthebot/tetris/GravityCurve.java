@@ -0,0 +1,54 @@
+package me.runthebot.tetris;
+
+/**
+ * Fall speed by level, measured in G: rows fallen per 1/60 s tick.
+ * The table follows the guideline curve, where a row takes (0.8 - (level - 1) * 0.007)^(level - 1)
+ * seconds, and tops out at 20G from {@link #MAX_LEVEL} on, where pieces land as soon as they spawn.
+ * Screens accumulate the fractional rows over real elapsed time, so speed does not depend on frame rate.
+ */
+public final class GravityCurve {
+    /** Gravity ticks per second. */
+    public static final float TICKS_PER_SECOND = 60f;
+    /** Length of a tick in milliseconds. */
+    public static final float TICK_MILLIS = 1000f / TICKS_PER_SECOND;
+    /** Fastest gravity; enough to cross the whole visible playfield in one tick. */
+    public static final float MAX_G = 20f;
+    /** First level played at {@link #MAX_G}. */
+    public static final int MAX_LEVEL = 20;
+
+    // Rows per tick indexed by level, entry 0 unused
+    private static final float[] TABLE = new float[MAX_LEVEL + 1];
+
+    static {
+        for (int level = 1; level < MAX_LEVEL; level++) {
+            double secondsPerRow = Math.pow(0.8 - (level - 1) * 0.007, level - 1);
+            TABLE[level] = (float) Math.min(MAX_G, 1.0 / (secondsPerRow * TICKS_PER_SECOND));
+        }
+        TABLE[MAX_LEVEL] = MAX_G;
+    }
+
+    private GravityCurve() {}
+
+    /**
+     * Returns the gravity for a level.
+     * @param level Level, clamped to 1..{@link #MAX_LEVEL}
+     * @return Rows per tick
+     */
+    public static float forLevel(int level) {
+        return TABLE[Math.max(1, Math.min(MAX_LEVEL, level))];
+    }
+
+    /**
+     * Converts a fixed speed in rows per second to rows per tick.
+     */
+    public static float fromRowsPerSecond(float rowsPerSecond) {
+        return rowsPerSecond / TICKS_PER_SECOND;
+    }
+
+    /**
+     * Formats gravity for the HUD, with three decimals below 1G and one from 1G up.
+     */
+    public static String format(float gravity) {
+        return gravity >= 1f ? String.format("%.1fG", gravity) : String.format("%.3fG", gravity);
+    }
+}
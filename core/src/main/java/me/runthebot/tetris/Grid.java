@@ -1,34 +1,153 @@
 package me.runthebot.tetris;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import static me.runthebot.tetris.Tetris.BUFFER_SIZE;
 
 /**
  * Represents the Tetris playfield grid, including cell occupancy and color data.
  * Provides methods for locking pieces, checking for filled lines, and rendering the grid.
+ * Occupancy is stored as one 64-bit mask per row (bit x set when column x is filled), so
+ * collision and line checks cost the same per row at any width up to {@link #MAX_WIDTH}.
+ * Rows live in a circular buffer: logical row y is stored in slot (base + y) mod height, so
+ * garbage pushed up from the bottom and line clears near the floor only move a few slots.
  */
 public class Grid {
     @Getter
     private final int width;
     @Getter
     private final int height;
-    private final boolean[][] cells;
+    // Occupancy bitboard, one mask per slot
+    private final long[] rows;
     private final Color[][] colors;
+    // Slot holding logical row 0
+    private int base = 0;
+    // Mask of a completely filled row
+    private final long fullRow;
+    // Color slots still referenced by a Snapshot, bit set per slot; they are copied before being written
+    private long sharedRows = 0;
+    // Garbage rows at the bottom of the stack that have not been cleared yet
+    @Getter
+    private int garbageRows = 0;
+    // Hash of the occupied cells, see Zobrist; kept up to date on every change
+    @Getter
+    private long hash = 0;
+    // Heights, holes and other stack features, kept up to date on every change
+    @Getter
+    private final BoardFeatures features;
+
+    /** Widest grid supported, one bit per column in a row mask. */
+    public static final int MAX_WIDTH = 64;
+    /** Tallest grid supported, one bit per row in the shared-row mask. */
+    public static final int MAX_HEIGHT = 64;
 
-    // Offset to center the grid in the viewport
-    public static float CENTER_OFFSET = (Tetris.VIEWPORT_WIDTH - Tetris.GRID_WIDTH)/2;
+    // Thickness of the grid lines in world units
+    private static final float LINE_WIDTH = 0.04f;
+
+    /** Color of garbage cells. */
+    public static final Color GARBAGE_COLOR = Color.GRAY;
+    // Snapshot color index of garbage cells, after the piece ordinals
+    private static final int GARBAGE_INDEX = Tetrimino.values().length;
+    /** Number of distinct cell codes written by {@link #writeCells(byte[], int)}. */
+    public static final int CELL_CODES = GARBAGE_INDEX + 3;
 
     /**
      * Constructs a new Grid with the given width and height.
      */
     public Grid(int width, int height) {
+        if (width < 4 || width > MAX_WIDTH || height > MAX_HEIGHT) {
+            throw new IllegalArgumentException("Unsupported grid size: " + width + "x" + height);
+        }
         this.width = width;
         this.height = height;
-        this.cells = new boolean[height][width];
+        this.rows = new long[height];
         this.colors = new Color[height][width];
+        this.fullRow = width == 64 ? -1L : (1L << width) - 1;
+        this.features = new BoardFeatures(this);
+    }
+
+    /**
+     * Constructs a copy of another grid, including its hash and features.
+     */
+    public Grid(Grid other) {
+        this(other.width, other.height);
+        copyFrom(other);
+    }
+
+    /**
+     * An immutable view of a grid's cells, taken by {@link #snapshot()}.
+     * The occupancy masks are copied (one long per row) while the color rows are shared with
+     * the grid and with other snapshots; a color row is only copied when the grid next writes
+     * to it, so a snapshot costs two words per row plus the rows that actually change afterwards.
+     */
+    public static final class Snapshot {
+        private final long[] rows;
+        private final Color[][] colors;
+        private final int base;
+        private final int garbageRows;
+        private final long hash;
+        private final BoardFeatures features;
+
+        private Snapshot(long[] rows, Color[][] colors, int base, int garbageRows, long hash, BoardFeatures features) {
+            this.rows = rows;
+            this.colors = colors;
+            this.base = base;
+            this.garbageRows = garbageRows;
+            this.hash = hash;
+            this.features = features;
+        }
+    }
+
+    /**
+     * Captures the current cells without copying the color rows.
+     * @return A snapshot that can later be passed to {@link #restore(Snapshot)}
+     */
+    public Snapshot snapshot() {
+        sharedRows = allRows();
+        return new Snapshot(rows.clone(), colors.clone(), base, garbageRows, hash, new BoardFeatures(features));
+    }
+
+    /**
+     * Returns the grid to a snapshot taken from it. Only row masks and references are copied.
+     * @param snapshot A snapshot of this grid
+     */
+    public void restore(Snapshot snapshot) {
+        if (snapshot.rows.length != height || snapshot.colors[0].length != width) {
+            throw new IllegalArgumentException("Snapshot is from a different grid size");
+        }
+        System.arraycopy(snapshot.rows, 0, rows, 0, height);
+        System.arraycopy(snapshot.colors, 0, colors, 0, height);
+        sharedRows = allRows();
+        base = snapshot.base;
+        garbageRows = snapshot.garbageRows;
+        hash = snapshot.hash;
+        features.copyFrom(snapshot.features);
+    }
+
+    /**
+     * Overwrites this grid with the contents of another grid of the same size.
+     * Lets bots reuse one scratch grid per candidate instead of allocating.
+     * @param other The grid to copy
+     */
+    public void copyFrom(Grid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Grid sizes differ");
+        }
+        System.arraycopy(other.rows, 0, rows, 0, height);
+        for (int slot = 0; slot < height; slot++) {
+            ownSlot(slot);
+            System.arraycopy(other.colors[slot], 0, colors[slot], 0, width);
+        }
+        base = other.base;
+        garbageRows = other.garbageRows;
+        hash = other.hash;
+        features.copyFrom(other.features);
     }
 
     /**
@@ -39,7 +158,123 @@ public class Grid {
      */
     public boolean isOccupied(int x, int y) {
         if (x < 0 || x >= width || y < 0 || y >= height) return true;
-        return cells[y][x];
+        return (rows[slot(y)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Checks if a row has no occupied cells.
+     * @param y Y coordinate of the row
+     * @return true if every cell in the row is empty
+     */
+    public boolean isRowEmpty(int y) {
+        return rows[slot(y)] == 0;
+    }
+
+    /**
+     * Returns a row as a bitmask, bit x set when column x is occupied.
+     * @param y Y coordinate of the row
+     */
+    public long getRowMask(int y) {
+        return rows[slot(y)];
+    }
+
+    /**
+     * Checks whether a shape overlaps filled cells or leaves the grid.
+     * Each shape row is tested with a shift and an AND, whatever the grid width.
+     * @param shape The shape as row masks, bit c set when column c of that row is filled
+     * @param px X position of the shape's left column
+     * @param py Y position of the shape's top row
+     * @return true if the shape collides
+     */
+    public boolean collides(long[] shape, int px, int py) {
+        for (int row = 0; row < shape.length; row++) {
+            long mask = shape[row];
+            if (mask == 0) continue;
+            int y = py + row;
+            if (y < 0 || y >= height || px >= width || px <= -64) return true;
+
+            long placed;
+            if (px >= 0) {
+                placed = mask << px;
+                // Bits shifted past column 63 are off the grid
+                if ((placed >>> px) != mask) return true;
+            } else {
+                // Bits shifted past column 0 are off the grid
+                if ((mask & ((1L << -px) - 1)) != 0) return true;
+                placed = mask >>> -px;
+            }
+            if ((placed & ~fullRow) != 0 || (placed & rows[slot(y)]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns how many rows a shape can fall before it lands, without stepping it down row by row.
+     * Where the shape sits above a column's stack the answer comes from the tracked column height;
+     * where it is tucked under an overhang the column is scanned down to the next filled cell.
+     * @param shape The shape as row masks, in a position that does not collide
+     * @param px X position of the shape's left column
+     * @param py Y position of the shape's top row
+     * @return Number of rows the shape can move down
+     */
+    public int dropDistance(long[] shape, int px, int py) {
+        int distance = height;
+        long seen = 0;
+        // The bottom-most cell of each shape column is the one that lands
+        for (int row = shape.length - 1; row >= 0; row--) {
+            for (long mask = shape[row] & ~seen; mask != 0; mask &= mask - 1) {
+                int x = px + Long.numberOfTrailingZeros(mask);
+                int y = py + row;
+                int top = height - features.getColumnHeight(x);
+                int d;
+                if (y < top) {
+                    d = top - y - 1;
+                } else {
+                    long bit = 1L << x;
+                    d = 0;
+                    while (y + d + 1 < height && (rows[slot(y + d + 1)] & bit) == 0) d++;
+                }
+                distance = Math.min(distance, d);
+            }
+            seen |= shape[row];
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the occupancy of the four corners of the 3x3 box at (x, y) as a 4-bit mask:
+     * top-left, top-right, bottom-left, bottom-right from the lowest bit. Cells past the walls
+     * or below the floor count as filled, cells above the grid as empty.
+     */
+    public int getCorners(int x, int y) {
+        return cornerPair(x, y) | cornerPair(x, y + 2) << 2;
+    }
+
+    // Occupancy of (x, y) and (x + 2, y) as two bits
+    private int cornerPair(int x, int y) {
+        if (y >= height) return 3;
+        long row = y < 0 ? 0 : rows[slot(y)];
+        int left = x < 0 ? 1 : (int) (row >>> x) & 1;
+        int right = x + 2 >= width ? 1 : (int) (row >>> (x + 2)) & 1;
+        return left | right << 1;
+    }
+
+    /**
+     * Checks whether every cell is empty, for all clears. ORs the row masks together without branching.
+     */
+    public boolean isEmpty() {
+        long any = 0;
+        for (long row : rows) {
+            any |= row;
+        }
+        return any == 0;
+    }
+
+    /**
+     * Returns the x position new pieces spawn at, left of center like the guideline's column 4 of 10.
+     */
+    public int getSpawnX() {
+        return (width - 3) / 2;
     }
 
     /**
@@ -51,6 +286,7 @@ public class Grid {
         Color color = piece.getType().getColor();
         int px = piece.getX();
         int py = piece.getY();
+        int minX = width, maxX = -1, minY = height, maxY = -1;
 
         for (int row = 0; row < shape.length; row++) {
             for (int col = 0; col < shape[0].length; col++) {
@@ -58,12 +294,26 @@ public class Grid {
                     int gx = px + col;
                     int gy = py + row;
                     if (gx >= 0 && gx < width && gy >= 0 && gy < height) {
-                        cells[gy][gx] = true;
-                        colors[gy][gx] = color;
+                        int slot = slot(gy);
+                        ownSlot(slot);
+                        long old = rows[slot];
+                        rows[slot] |= 1L << gx;
+                        colors[slot][gx] = color;
+                        if (rows[slot] != old) {
+                            hash += (Zobrist.row(rows[slot]) - Zobrist.row(old)) * Zobrist.power(height - 1 - gy);
+                        }
+                        minX = Math.min(minX, gx);
+                        maxX = Math.max(maxX, gx);
+                        minY = Math.min(minY, gy);
+                        maxY = Math.max(maxY, gy);
                     }
                 }
             }
         }
+
+        if (maxX >= 0) {
+            features.onCellsChanged(minX, maxX, minY, maxY);
+        }
     }
 
     /**
@@ -73,86 +323,283 @@ public class Grid {
      */
     public int checkAndClearLines() {
         int linesCleared = 0;
+        int lowestCleared = -1;
 
         // Check each row from bottom to top
         for (int y = height - 1; y >= 0; y--) {
-            // Check if the line is full
-            boolean lineFull = true;
-            for (int x = 0; x < width; x++) {
-                if (!cells[y][x]) {
-                    lineFull = false;
-                    break;
-                }
-            }
-
-            if (lineFull) {
+            if (rows[slot(y)] == fullRow) {
                 // Clear the line
                 clearLine(y);
                 linesCleared++;
+                lowestCleared = Math.max(lowestCleared, y);
                 // We need to recheck this row since everything above moved down
                 y++;
             }
         }
 
+        if (linesCleared > 0) {
+            features.onRowsShifted(lowestCleared);
+        }
+
         return linesCleared;
     }
 
     /**
      * Clears a line and moves all lines above it down.
+     * Only the rows on the shorter side of the line are moved: rows above shift down one slot,
+     * or the buffer start moves up one slot and the rows below shift up to stay in place.
      *
      * @param lineY The y-coordinate of the line to clear
      */
     private void clearLine(int lineY) {
-        // Move all lines above down
-        for (int y = lineY; y > 0; y--) {
+        // Rows below the line keep their levels, the ones above drop one level
+        long below = rowHash(lineY + 1, height - 1);
+        long above = hash - below - Zobrist.row(fullRow) * Zobrist.power(height - 1 - lineY);
+        hash = below + Zobrist.lower(above);
+        if (lineY >= height - garbageRows) garbageRows--;
+
+        int cleared = slot(lineY);
+        Color[] clearedColors = colors[cleared];
+        boolean clearedShared = (sharedRows & (1L << cleared)) != 0;
+
+        if (lineY < height - 1 - lineY) {
+            // Move the rows above down one slot
+            for (int y = lineY; y > 0; y--) {
+                moveSlot(slot(y - 1), slot(y));
+            }
+        } else {
+            // Start the buffer one slot earlier, then move the rows below up to keep their positions
+            for (int y = lineY + 1; y < height; y++) {
+                moveSlot(slot(y), slot(y - 1));
+            }
+            base = base == 0 ? height - 1 : base - 1;
+        }
+
+        // Reuse the cleared color row as the new empty top line unless a snapshot still holds it
+        int top = slot(0);
+        if (clearedShared) {
+            clearedColors = new Color[width];
+        } else {
+            Arrays.fill(clearedColors, null);
+        }
+        rows[top] = 0;
+        colors[top] = clearedColors;
+        sharedRows &= ~(1L << top);
+    }
+
+    /**
+     * Pushes the stack up and fills the bottom with garbage rows, each full except for one hole.
+     * Only the new rows are written; the rest of the stack moves by changing the buffer start.
+     * @param count Number of rows to insert
+     * @param holeColumns Hole column for each new row, starting from the bottom row
+     * @return true if filled cells were pushed off the top of the grid, which should end the game
+     */
+    public boolean insertGarbage(int count, int[] holeColumns) {
+        count = Math.min(count, height);
+        boolean overflow = false;
+        for (int y = 0; y < count; y++) {
+            overflow |= rows[slot(y)] != 0;
+        }
+
+        // The top slots wrap around to become the bottom rows
+        base = (base + count) % height;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(height - 1 - i);
+            long hole = 1L << holeColumns[i];
+            if ((sharedRows & (1L << slot)) != 0) {
+                colors[slot] = new Color[width];
+                sharedRows &= ~(1L << slot);
+            }
+            rows[slot] = fullRow & ~hole;
             for (int x = 0; x < width; x++) {
-                cells[y][x] = cells[y-1][x];
-                colors[y][x] = colors[y-1][x];
+                colors[slot][x] = (hole & (1L << x)) != 0 ? null : GARBAGE_COLOR;
             }
         }
+        garbageRows = Math.min(height, garbageRows + count);
+
+        // The hash and features shift with the stack unless cells were lost off the top
+        if (overflow) {
+            hash = rowHash(0, height - 1);
+            features.recomputeAll();
+        } else {
+            hash = hash * Zobrist.power(count) + rowHash(height - count, height - 1);
+            features.onGarbageInserted(count);
+        }
+        return overflow;
+    }
+
+    // Moves a row's contents and shared flag from one slot to another
+    private void moveSlot(int from, int to) {
+        rows[to] = rows[from];
+        colors[to] = colors[from];
+        if ((sharedRows & (1L << from)) != 0) {
+            sharedRows |= 1L << to;
+        } else {
+            sharedRows &= ~(1L << to);
+        }
+    }
 
-        // Clear the top line
-        for (int x = 0; x < width; x++) {
-            cells[0][x] = false;
-            colors[0][x] = null;
+    /**
+     * Computes the hash contribution of a range of rows.
+     * @param fromY First row (inclusive)
+     * @param toY Last row (inclusive)
+     * @return Sum of the row keys weighted by their levels
+     */
+    private long rowHash(int fromY, int toY) {
+        long h = 0;
+        for (int y = fromY; y <= toY; y++) {
+            long mask = rows[slot(y)];
+            if (mask != 0) h += Zobrist.row(mask) * Zobrist.power(height - 1 - y);
         }
+        return h;
+    }
+
+    // Buffer slot holding logical row y
+    private int slot(int y) {
+        int slot = base + y;
+        return slot >= height ? slot - height : slot;
     }
 
     /**
-     * Renders the grid using provided renderer.
-     * @param renderer
+     * Writes the cells and their colors to a snapshot buffer.
+     * Each row is a bitmask followed by one piece ordinal per occupied cell.
+     * @param out The buffer to write to
      */
-    public void render(ShapeRenderer renderer) {
+    public void write(ByteBuffer out) {
+        out.put((byte) width).put((byte) height);
+        for (int y = 0; y < height; y++) {
+            int slot = slot(y);
+            out.putLong(rows[slot]);
+            for (long mask = rows[slot]; mask != 0; mask &= mask - 1) {
+                out.put((byte) colorIndex(colors[slot][Long.numberOfTrailingZeros(mask)]));
+            }
+        }
+    }
+
+    /**
+     * Replaces the cells with ones written by {@link #write(ByteBuffer)} and rebuilds the hash and features.
+     * @param in The buffer to read from
+     * @throws IllegalArgumentException if the snapshot is for a different grid size
+     */
+    public void read(ByteBuffer in) {
+        int w = in.get() & 0xFF;
+        int h = in.get() & 0xFF;
+        if (w != width || h != height) {
+            throw new IllegalArgumentException("Snapshot grid is " + w + "x" + h);
+        }
+        Tetrimino[] types = Tetrimino.values();
+        base = 0;
+        garbageRows = 0;
+        for (int y = 0; y < height; y++) {
+            ownSlot(y);
+            rows[y] = in.getLong() & fullRow;
+            boolean garbage = false;
+            for (int x = 0; x < width; x++) {
+                if ((rows[y] & (1L << x)) != 0) {
+                    int index = in.get();
+                    colors[y][x] = index >= 0 && index < types.length ? types[index].getColor()
+                        : index == GARBAGE_INDEX ? GARBAGE_COLOR : Color.WHITE;
+                    garbage |= index == GARBAGE_INDEX;
+                } else {
+                    colors[y][x] = null;
+                }
+            }
+            // Garbage rows are the unbroken run of rows with garbage cells at the bottom
+            garbageRows = garbage ? garbageRows + 1 : 0;
+        }
+        hash = rowHash(0, height - 1);
+        features.recomputeAll();
+    }
+
+    /**
+     * Writes the visible rows as one byte per cell, top row first: 0 for an empty cell, one more
+     * than the color index used by {@link #write(ByteBuffer)} for piece and garbage cells, and
+     * {@link #CELL_CODES} - 1 for a cell of any other color. See {@link #cellColor(int)}.
+     * @param out Array with room for width * (height - {@link Tetris#BUFFER_SIZE}) bytes from offset on
+     */
+    public void writeCells(byte[] out, int offset) {
+        for (int y = BUFFER_SIZE; y < height; y++) {
+            int slot = slot(y);
+            long mask = rows[slot];
+            for (int x = 0; x < width; x++) {
+                if ((mask & (1L << x)) == 0) {
+                    out[offset++] = 0;
+                } else {
+                    int index = colorIndex(colors[slot][x]);
+                    out[offset++] = (byte) (index < 0 ? CELL_CODES - 1 : index + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param code A cell code written by {@link #writeCells(byte[], int)}
+     * @return The color the cell is drawn in, or null for an empty cell
+     */
+    public static Color cellColor(int code) {
+        if (code == 0) return null;
+        if (code <= GARBAGE_INDEX) return Tetrimino.values()[code - 1].getColor();
+        return code == GARBAGE_INDEX + 1 ? GARBAGE_COLOR : Color.WHITE;
+    }
+
+    // Copies a color slot shared with a snapshot so it can be written
+    private void ownSlot(int slot) {
+        long bit = 1L << slot;
+        if ((sharedRows & bit) != 0) {
+            colors[slot] = colors[slot].clone();
+            sharedRows &= ~bit;
+        }
+    }
+
+    private long allRows() {
+        return height == 64 ? -1L : (1L << height) - 1;
+    }
+
+    // Locked cells carry a piece color or the garbage color, anything else is stored as -1
+    private static int colorIndex(Color color) {
+        for (Tetrimino type : Tetrimino.values()) {
+            if (type.getColor() == color) return type.ordinal();
+        }
+        return color == GARBAGE_COLOR ? GARBAGE_INDEX : -1;
+    }
+
+    /**
+     * Renders the grid: the play area with its lines, then the locked cells.
+     * Must be called between batch.begin() and batch.end(); leaves the batch color white.
+     * @param sprites Atlas the play area and lines are drawn from
+     * @param block Block sprite of the chosen skin
+     * @param transform Where the board is drawn
+     */
+    public void render(Batch batch, GameSprites sprites, TextureRegion block, BoardTransform transform) {
+        int visible = height - BUFFER_SIZE;
+        float left = transform.getX();
+        float bottom = transform.getY();
+        float scale = transform.getScale();
+        float line = LINE_WIDTH * scale;
+        TextureRegion pixel = sprites.getPixel();
+
         // Draw border around the play area
-        renderer.begin(ShapeRenderer.ShapeType.Filled);
-        renderer.setColor(0.3f, 0.3f, 0.3f, 1);
-        renderer.rect(CENTER_OFFSET - 0.25f, -0.25f, width + 0.5f, (height - BUFFER_SIZE) + 0.5f);
-        renderer.end();
+        batch.setColor(0.3f, 0.3f, 0.3f, 1);
+        batch.draw(pixel, left - 0.25f * scale, bottom - 0.25f * scale, (width + 0.5f) * scale, (visible + 0.5f) * scale);
 
-        renderer.begin(ShapeRenderer.ShapeType.Line);
-        renderer.setColor(Color.DARK_GRAY);
-        for (int y = 0; y <= height - BUFFER_SIZE; y++) {
-            renderer.line(CENTER_OFFSET, y,
-                width + CENTER_OFFSET, y );
+        batch.setColor(Color.DARK_GRAY);
+        for (int y = 0; y <= visible; y++) {
+            batch.draw(pixel, left, bottom + y * scale - line / 2, width * scale, line);
         }
         for (int x = 0; x <= width; x++) {
-            renderer.line(x + CENTER_OFFSET, 0,
-                x + CENTER_OFFSET, (height - BUFFER_SIZE) );
+            batch.draw(pixel, left + x * scale - line / 2, bottom, line, visible * scale);
         }
-        renderer.end();
 
-        renderer.begin(ShapeRenderer.ShapeType.Filled);
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (cells[y][x]) {
-                    Color c = colors[y][x] != null ? colors[y][x] : Color.WHITE;
-                    renderer.setColor(c);
-                    renderer.rect(x + CENTER_OFFSET, (Tetris.GRID_HEIGHT - y - 1),
-                        1, 1);
-                }
+            int slot = slot(y);
+            float cellY = transform.cellY(y);
+            for (long mask = rows[slot]; mask != 0; mask &= mask - 1) {
+                int x = Long.numberOfTrailingZeros(mask);
+                batch.setColor(colors[slot][x] != null ? colors[slot][x] : Color.WHITE);
+                batch.draw(block, transform.cellX(x), cellY, scale, scale);
             }
         }
-        renderer.end();
+        batch.setColor(Color.WHITE);
     }
 
 }
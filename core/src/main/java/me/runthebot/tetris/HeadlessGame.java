@@ -0,0 +1,287 @@
+package me.runthebot.tetris;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A game of Tetris without rendering, input or timing, for bots, tuning and data generation.
+ * Uses the same grid, seeded 7-bag queue, hold rule and marathon {@link Scoring} as the game screens.
+ * Each move rotates the piece at spawn height, shifts it to a column and hard drops it; a move
+ * can also twist the piece once more where it landed, which is how bots reach T-spins.
+ */
+public class HeadlessGame {
+    // Moves are packed into an int: column (8 bits) | rotation (2 bits) | hold (1 bit) | twist (2 bits)
+    private static final int ROTATION_SHIFT = 8;
+    private static final int HOLD_BIT = 1 << 10;
+    private static final int TWIST_SHIFT = 11;
+
+    private final Grid grid;
+    private final Random random;
+    private final Deque<Tetrimino> nextPieces = new ArrayDeque<>();
+    private final Scoring scoring = Scoring.forMode("classic");
+
+    private Tetrimino current;
+    private Tetrimino hold;
+
+    private int score = 0;
+    private int level = 1;
+    private int linesCleared = 0;
+    private int piecesPlaced = 0;
+    private int lastLinesCleared = 0;
+    private boolean gameOver = false;
+
+    // Receives every placement when set
+    private TrainingDataWriter recorder;
+
+    /**
+     * Starts a new game on a standard grid.
+     * @param seed Seed for the piece randomizer; equal seeds give equal piece sequences
+     */
+    public HeadlessGame(long seed) {
+        this.grid = new Grid(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
+        this.random = new Random(seed);
+        spawnNewPiece();
+    }
+
+    /**
+     * Packs a move into an int.
+     * @param rotation Rotation state 0-3
+     * @param x Piece x position
+     * @param useHold Whether to swap with the hold slot first
+     */
+    public static int move(int rotation, int x, boolean useHold) {
+        return move(rotation, x, useHold, 0);
+    }
+
+    /**
+     * Packs a move that ends with a rotation after the piece has landed.
+     * @param rotation Rotation state 0-3 after the twist
+     * @param x Piece x position before the twist
+     * @param useHold Whether to swap with the hold slot first
+     * @param twist Clockwise quarter turns of the last rotation: 1, 2 or 3, or 0 for no twist
+     */
+    public static int move(int rotation, int x, boolean useHold, int twist) {
+        return (x + MoveGenerator.X_OFFSET) | (rotation << ROTATION_SHIFT) | (useHold ? HOLD_BIT : 0)
+            | (twist << TWIST_SHIFT);
+    }
+
+    /** @return The x position of a packed move. */
+    public static int moveX(int move) {
+        return (move & 0xFF) - MoveGenerator.X_OFFSET;
+    }
+
+    /** @return The rotation of a packed move. */
+    public static int moveRotation(int move) {
+        return (move >> ROTATION_SHIFT) & 0x3;
+    }
+
+    /** @return Whether a packed move uses hold. */
+    public static boolean moveUsesHold(int move) {
+        return (move & HOLD_BIT) != 0;
+    }
+
+    /** @return The twist of a packed move, in clockwise quarter turns. */
+    public static int moveTwist(int move) {
+        return (move >> TWIST_SHIFT) & 0x3;
+    }
+
+    /**
+     * Plays a packed move.
+     * @see #place(int, int, boolean, int)
+     */
+    public boolean play(int move) {
+        return place(moveRotation(move), moveX(move), moveUsesHold(move), moveTwist(move));
+    }
+
+    /**
+     * Places the current piece (or the held one) and advances to the next piece.
+     * @param rotation Rotation state 0-3
+     * @param x Piece x position
+     * @param useHold Whether to swap with the hold slot first
+     * @return false if the move is illegal; the game is left unchanged
+     */
+    public boolean place(int rotation, int x, boolean useHold) {
+        return place(rotation, x, useHold, 0);
+    }
+
+    /**
+     * Places the current piece (or the held one), optionally twisting it after it lands, and
+     * advances to the next piece.
+     * @param rotation Rotation state 0-3 after the twist
+     * @param x Piece x position before the twist
+     * @param useHold Whether to swap with the hold slot first
+     * @param twist Clockwise quarter turns of the last rotation, or 0 for a plain drop
+     * @return false if the move is illegal; the game is left unchanged
+     * @see #land(Piece, Grid, int, int, int)
+     */
+    public boolean place(int rotation, int x, boolean useHold, int twist) {
+        if (gameOver) return false;
+
+        Piece piece = new Piece(getPieceFor(useHold));
+        if (!land(piece, grid, rotation, x, twist)) return false;
+        // Judged after the last input, before locking; a plain drop that moved the piece never spins
+        int spin = Scoring.detectSpin(grid, piece);
+
+        if (useHold) {
+            // The held piece is placed; the current one goes into hold
+            if (hold == null) nextPieces.poll();
+            hold = current;
+        }
+
+        if (recorder != null) {
+            int action = TrainingDataWriter.action(rotation, piece.getX(), piece.getY(), useHold);
+            try {
+                recorder.begin(grid, piece.getType(), hold, nextPieces, action);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        grid.lockPiece(piece);
+        lastLinesCleared = grid.checkAndClearLines();
+        if (recorder != null) recorder.end(lastLinesCleared);
+
+        // Same scoring as marathon mode
+        score += scoring.award(spin, lastLinesCleared, grid.isEmpty(), level);
+        linesCleared += lastLinesCleared;
+        level = (linesCleared / 10) + 1;
+        piecesPlaced++;
+
+        spawnNewPiece();
+        return true;
+    }
+
+    /**
+     * Moves a piece to where a move leaves it: rotated at spawn height, shifted to a column and
+     * hard dropped, then for a twist rotated once more where it landed. A twist must leave the
+     * piece resting on the stack, since falling any further would lose the spin.
+     * @param piece The piece to move; its type is the one placed
+     * @return false if the move is illegal
+     */
+    static boolean land(Piece piece, Grid grid, int rotation, int x, int twist) {
+        piece.setRotation((rotation - twist) & 3);
+        piece.setPosition(x, Tetris.BUFFER_SIZE - 2);
+        if (!piece.move(0, 0, grid)) return false;
+        piece.hardDrop(grid);
+        if (twist == 0) return true;
+
+        boolean turned = twist == 1 ? piece.rotate(grid)
+            : twist == 2 ? piece.rotate180(grid) : piece.rotateCounterclockwise(grid);
+        return turned && grid.collides(piece.getType().getRowMasks(piece.getRotation()), piece.getX(), piece.getY() + 1);
+    }
+
+    /**
+     * Checks whether a move is legal without playing it.
+     */
+    public boolean isLegal(int rotation, int x, boolean useHold) {
+        if (gameOver) return false;
+        Piece piece = new Piece(getPieceFor(useHold));
+        piece.setRotation(rotation);
+        piece.setPosition(x, piece.getY());
+        return piece.move(0, 0, grid);
+    }
+
+    /**
+     * Returns the piece a move would place.
+     * @param useHold Whether the move swaps with hold
+     */
+    public Tetrimino getPieceFor(boolean useHold) {
+        if (!useHold) return current;
+        return hold != null ? hold : nextPieces.peek();
+    }
+
+    /**
+     * Sets a writer that receives every placement from now on, or null to stop recording.
+     * The writer is not closed by the game. I/O errors are rethrown as {@link UncheckedIOException}.
+     */
+    public void setRecorder(TrainingDataWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    private void spawnNewPiece() {
+        // Check if we need to refill the bag
+        if (nextPieces.size() < 7) {
+            fillBag();
+        }
+        current = nextPieces.poll();
+
+        // Game over if the new piece collides immediately
+        if (!new Piece(current).move(0, 0, grid)) {
+            gameOver = true;
+            if (recorder != null) {
+                try {
+                    recorder.markGameOver();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private void fillBag() {
+        List<Tetrimino> bag = new ArrayList<>(Arrays.asList(Tetrimino.values()));
+        Collections.shuffle(bag, random);
+        nextPieces.addAll(bag);
+    }
+
+    /** @return The board. */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /** @return The piece to be placed next. */
+    public Tetrimino getCurrent() {
+        return current;
+    }
+
+    /** @return The held piece, or null. */
+    public Tetrimino getHold() {
+        return hold;
+    }
+
+    /** @return The upcoming pieces in order. Must not be modified. */
+    public Deque<Tetrimino> getNextPieces() {
+        return nextPieces;
+    }
+
+    /** @return The score so far. */
+    public int getScore() {
+        return score;
+    }
+
+    /** @return The combo and back-to-back state. */
+    public Scoring getScoring() {
+        return scoring;
+    }
+
+    /** @return The current level. */
+    public int getLevel() {
+        return level;
+    }
+
+    /** @return Total lines cleared. */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /** @return Lines cleared by the most recent placement. */
+    public int getLastLinesCleared() {
+        return lastLinesCleared;
+    }
+
+    /** @return Number of pieces placed. */
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    /** @return Whether the game has ended. */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
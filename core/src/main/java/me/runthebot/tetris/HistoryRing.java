@@ -0,0 +1,123 @@
+package me.runthebot.tetris;
+
+import java.util.Arrays;
+
+/**
+ * Bounded undo history. Holds the most recent {@code capacity} entries in a ring and a cursor
+ * into them; stepping back and forward moves the cursor, and pushing a new entry drops
+ * everything after the cursor. Once full, each push overwrites the oldest entry.
+ * @param <T> The entry type
+ */
+public class HistoryRing<T> {
+    private final Object[] entries;
+    // Ring index of the oldest entry
+    private int start = 0;
+    private int size = 0;
+    // Position of the current entry, 0 being the oldest
+    private int cursor = -1;
+
+    /**
+     * @param capacity Maximum number of entries kept
+     */
+    public HistoryRing(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.entries = new Object[capacity];
+    }
+
+    /**
+     * Adds an entry after the current one and makes it current.
+     * Entries that were undone are discarded.
+     */
+    public void push(T entry) {
+        // Drop the redo branch so its rows can be collected
+        for (int i = cursor + 1; i < size; i++) {
+            entries[index(i)] = null;
+        }
+        size = cursor + 1;
+
+        if (size == entries.length) {
+            entries[start] = null;
+            start = (start + 1) % entries.length;
+            size--;
+        }
+        entries[index(size)] = entry;
+        size++;
+        cursor = size - 1;
+    }
+
+    /** @return Whether there is an older entry to step back to. */
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    /** @return Whether there is a newer entry to step forward to. */
+    public boolean canRedo() {
+        return cursor < size - 1;
+    }
+
+    /**
+     * Steps back one entry.
+     * @return The new current entry, or null if there is nothing to undo
+     */
+    public T undo() {
+        if (!canUndo()) return null;
+        cursor--;
+        return current();
+    }
+
+    /**
+     * Steps forward one entry.
+     * @return The new current entry, or null if there is nothing to redo
+     */
+    public T redo() {
+        if (!canRedo()) return null;
+        cursor++;
+        return current();
+    }
+
+    /**
+     * Moves the cursor to a position, clamped to the stored entries.
+     * @param position 0 for the oldest entry, {@link #size()} - 1 for the newest
+     * @return The new current entry, or null if the history is empty
+     */
+    public T seek(int position) {
+        if (size == 0) return null;
+        cursor = Math.max(0, Math.min(size - 1, position));
+        return current();
+    }
+
+    /** @return The current entry, or null if the history is empty. */
+    @SuppressWarnings("unchecked")
+    public T current() {
+        return size == 0 ? null : (T) entries[index(cursor)];
+    }
+
+    /** @return Number of stored entries. */
+    public int size() {
+        return size;
+    }
+
+    /** @return Position of the current entry, 0 being the oldest. */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /** @return Maximum number of entries kept. */
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(entries, null);
+        start = 0;
+        size = 0;
+        cursor = -1;
+    }
+
+    private int index(int position) {
+        return (start + position) % entries.length;
+    }
+}
@@ -169,7 +169,25 @@ public class InstructionsScreen implements Screen {
             "But beware of debuffs that speed up falling pieces, lock random blocks in place, or scramble your controls. " +
             "Try to survive as long as possible while dealing with these random events!"
         );
-        arcadeText.setWrap(true);        // Power-ups and Debuffs section
+        arcadeText.setWrap(true);
+
+        VisLabel practiceLabel = new VisLabel("Practice");
+        practiceLabel.setFontScale(1.2f);
+
+        VisLabel practiceText = new VisLabel(
+            "Slow, scoreless play for working on placements. Press Backspace to undo a piece, " +
+            "use [ and ] or drag the timeline to scrub through your history. Topping out takes back the last piece."
+        );
+        practiceText.setWrap(true);
+
+        VisLabel digLabel = new VisLabel("Dig");
+        digLabel.setFontScale(1.2f);
+
+        VisLabel digText = new VisLabel(
+            "The board starts filled with garbage rows, each with a single hole, and more rise from the bottom over time. " +
+            "Clear 40 rows of garbage to win. The garbage rises faster the deeper you dig."
+        );
+        digText.setWrap(true);        // Power-ups and Debuffs section
         VisLabel powerupsTitle = new VisLabel("Power-ups & Debuffs");
         powerupsTitle.setFontScale(1.5f);
         powerupsTitle.setColor(Color.YELLOW);
@@ -206,7 +224,12 @@ public class InstructionsScreen implements Screen {
             "1 Line: 100 points × level\n" +
             "2 Lines: 300 points × level\n" +
             "3 Lines: 500 points × level\n" +
-            "4 Lines (Tetris): 800 points × level\n\n" +
+            "4 Lines (Tetris): 800 points × level\n" +
+            "T-Spin Mini: 100 / 200 / 400 for 0-2 lines × level\n" +
+            "T-Spin: 400 / 800 / 1200 / 1600 for 0-3 lines × level\n" +
+            "Back-to-back Tetris or T-Spin: ×1.5\n" +
+            "Combo: +50 × combo × level\n" +
+            "All Clear: +800 to +2000 × level\n\n" +
             "Soft drop: +1 point per cell dropped\n" +
             "Hard drop: +2 points per cell dropped"
         );
@@ -240,6 +263,10 @@ public class InstructionsScreen implements Screen {
         content.add(sprintText).width(Gdx.graphics.getWidth() * 0.75f).row();
         content.add(arcadeLabel).padTop(7).row();
         content.add(arcadeText).width(Gdx.graphics.getWidth() * 0.75f).row();
+        content.add(practiceLabel).padTop(7).row();
+        content.add(practiceText).width(Gdx.graphics.getWidth() * 0.75f).row();
+        content.add(digLabel).padTop(7).row();
+        content.add(digText).width(Gdx.graphics.getWidth() * 0.75f).row();
         content.add(powerupsTitle).padTop(15).row();
         content.add(powerupsHeaderLabel).padTop(3).row();
         content.add(powerupsList).width(Gdx.graphics.getWidth() * 0.75f).row();
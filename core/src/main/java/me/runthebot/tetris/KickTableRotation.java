@@ -0,0 +1,138 @@
+package me.runthebot.tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rotation system driven by a kick table, compiled once from a text definition.
+ * <p>
+ * Each definition line is {@code PIECES from>to: dx,dy dx,dy ...}, for example
+ * {@code JLSTZ 0>1: 0,0 -1,0}. Offsets are in grid coordinates, so +y is down, and are
+ * tried in order. Transitions with no line are not allowed, which is how systems without
+ * 180 degree rotation leave it out. Lines starting with {@code #} are comments.
+ * <p>
+ * The whole table lives in one flat int array. The first {@link #HEADER} entries hold, for
+ * every (piece, from, to) slot, the index where its kicks start, and the next slot's entry
+ * is where they end; the kicks follow as dx, dy pairs. A rotation reads two header entries
+ * and then walks the pairs, without touching any nested arrays.
+ */
+public abstract class KickTableRotation implements RotationSystem {
+    // Slot index: piece ordinal (3 bits) | from (2 bits) | to (2 bits)
+    private static final int SLOTS = Tetrimino.values().length << 4;
+    private static final int HEADER = SLOTS + 1;
+
+    private final String name;
+    private final int[] table;
+
+    /**
+     * Compiles a kick table.
+     * @param name Name shown in the settings
+     * @param definition Kick definition, one transition per line
+     * @throws IllegalArgumentException if the definition cannot be parsed
+     */
+    protected KickTableRotation(String name, String definition) {
+        this.name = name;
+        this.table = compile(definition);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean rotate(Piece piece, Grid grid, int turns) {
+        int from = piece.getRotation();
+        int to = (from + turns) & 3;
+        Tetrimino type = piece.getType();
+        long[] shape = type.getRowMasks(to);
+        int slot = (type.ordinal() << 4) | (from << 2) | to;
+
+        int[] t = table;
+        int end = t[slot + 1];
+        for (int i = t[slot]; i < end; i += 2) {
+            int testX = piece.getX() + t[i];
+            int testY = piece.getY() + t[i + 1];
+            if (!grid.collides(shape, testX, testY)) {
+                // Successful kick - apply the rotation
+                piece.setPosition(testX, testY);
+                piece.setRotation(to);
+                piece.setLastKick((i - t[slot]) / 2);
+                return true;
+            }
+        }
+        return false; // All kick tests failed
+    }
+
+    /**
+     * @return The number of kicks tried for a transition, 0 if it is not allowed.
+     */
+    public int getKickCount(Tetrimino type, int from, int to) {
+        int slot = (type.ordinal() << 4) | ((from & 3) << 2) | (to & 3);
+        return (table[slot + 1] - table[slot]) / 2;
+    }
+
+    /**
+     * Returns the kicks tried for a transition, for searches that rotate on their own boards.
+     * @return A new array of dx, dy pairs in the order they are tried, empty if the transition is not allowed
+     */
+    public int[] getKicks(Tetrimino type, int from, int to) {
+        int slot = (type.ordinal() << 4) | ((from & 3) << 2) | (to & 3);
+        return Arrays.copyOfRange(table, table[slot], table[slot + 1]);
+    }
+
+    private static int[] compile(String definition) {
+        // Kicks per slot, gathered before the flat layout is known
+        List<List<int[]>> kicks = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            kicks.add(new ArrayList<>());
+        }
+
+        for (String line : definition.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split(":", 2);
+            String[] head = parts[0].trim().split("\\s+");
+            if (parts.length != 2 || head.length != 2 || head[1].length() != 3 || head[1].charAt(1) != '>') {
+                throw new IllegalArgumentException("Bad kick line: " + line);
+            }
+            int from = rotationState(head[1].charAt(0), line);
+            int to = rotationState(head[1].charAt(2), line);
+
+            List<int[]> offsets = new ArrayList<>();
+            for (String pair : parts[1].trim().split("\\s+")) {
+                String[] xy = pair.split(",");
+                if (xy.length != 2) throw new IllegalArgumentException("Bad kick offset: " + pair);
+                offsets.add(new int[]{Integer.parseInt(xy[0]), Integer.parseInt(xy[1])});
+            }
+
+            for (char letter : head[0].toCharArray()) {
+                Tetrimino type = Tetrimino.valueOf(String.valueOf(letter));
+                kicks.get((type.ordinal() << 4) | (from << 2) | to).addAll(offsets);
+            }
+        }
+
+        int size = HEADER;
+        for (List<int[]> slot : kicks) {
+            size += slot.size() * 2;
+        }
+        int[] table = new int[size];
+        int next = HEADER;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            table[slot] = next;
+            for (int[] offset : kicks.get(slot)) {
+                table[next++] = offset[0];
+                table[next++] = offset[1];
+            }
+        }
+        table[SLOTS] = next;
+        return table;
+    }
+
+    private static int rotationState(char c, String line) {
+        if (c < '0' || c > '3') throw new IllegalArgumentException("Bad rotation state in: " + line);
+        return c - '0';
+    }
+}
@@ -3,8 +3,6 @@ package me.runthebot.tetris;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
@@ -13,20 +11,16 @@ import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTextButton;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * The main menu screen for the Tetris game.
  * Displays animated falling pieces and UI for selecting game modes.
  */
 public class MenuScreen implements Screen {
+    // Pieces falling behind the menu
+    private static final int PIECE_COUNT = 5;
     private final Tetris game;
     private Stage stage;
-    private ShapeRenderer shapeRenderer;
-    private List<FallingPiece> fallingPieces;
+    private FallingPieces fallingPieces;
 
     /**
      * Constructor for the MenuScreen.
@@ -67,43 +61,8 @@ public class MenuScreen implements Screen {
         Gdx.input.setInputProcessor(stage);
 
         // shape animations
-        shapeRenderer = new ShapeRenderer();
-        fallingPieces = new ArrayList<>();
-
-        // Define the restricted zone where pieces shouldn't spawn
-        float restrictedZoneTop = Gdx.graphics.getHeight() / 2f + 200;
-        float restrictedZoneBottom = Gdx.graphics.getHeight() / 2f - 200;
-
-        // Define the left and right spawn ranges
-        float leftSpawnRange = Gdx.graphics.getWidth() * 0.25f;
-        float rightSpawnRange = Gdx.graphics.getWidth() * 0.75f;
-
-        // use 7-bag randomizer
-        List<Tetrimino> bag = new ArrayList<>(Arrays.asList(Tetrimino.values()));
-        Collections.shuffle(bag);
-
-        // Create falling pieces
-        for (int i = 0; i < 5; i++) {
-            Tetrimino type = bag.get(i % bag.size()); // cycle through bag
-            Vector2 position;
-
-            // randomly choose between left and right spawn ranges
-            if (Math.random() < 0.5) {
-                position = new Vector2((float) Math.random() * leftSpawnRange,
-                    (float) Math.random() * Gdx.graphics.getHeight());
-            } else {
-                position = new Vector2(rightSpawnRange + (float) Math.random() * (Gdx.graphics.getWidth() - rightSpawnRange),
-                    (float) Math.random() * Gdx.graphics.getHeight());
-            }
-
-            // Ensure the piece is not spawned in the restricted zone
-            while (position.y < restrictedZoneTop && position.y > restrictedZoneBottom) {
-                position.y = (float) Math.random() * Gdx.graphics.getHeight();
-            }
-
-            Vector2 velocity = new Vector2(0, -50); // fall speed
-            fallingPieces.add(new FallingPiece(type, position, velocity));
-        }
+        fallingPieces = new FallingPieces(PIECE_COUNT);
+        fallingPieces.spawn(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
 
         // main title
         VisLabel menuLabel = new VisLabel("Tetris");
@@ -115,14 +74,29 @@ public class MenuScreen implements Screen {
         VisTextButton classicPlayButton = createStyledButton("Classic Mode", () -> game.setScreen(new GameScreen(game)));
         VisTextButton sprintPlayButton = createStyledButton("Sprint Mode", () -> game.setScreen(new SprintScreen(game)));
         VisTextButton arcadePlayButton = createStyledButton("Arcade Mode", () -> game.setScreen(new ArcadeScreen(game)));
+        VisTextButton practicePlayButton = createStyledButton("Practice Mode", () -> game.setScreen(new PracticeScreen(game)));
+        VisTextButton digPlayButton = createStyledButton("Dig Mode", () -> game.setScreen(new DigScreen(game)));
+        VisTextButton versusPlayButton = createStyledButton("Versus Mode",
+            () -> game.setScreen(new VersusScreen(game, ConfigManager.getInstance().getConfig().versusOpponents)));
+        VisTextButton spectatePlayButton = createStyledButton("Bot Wall",
+            () -> game.setScreen(new SpectatorScreen(game, SpectatorScreen.DEFAULT_BOARDS)));
         VisTextButton instructionsButton = createStyledButton("How to Play", () -> game.setScreen(new InstructionsScreen(game)));
         VisTextButton settingsButton = createStyledButton("Settings", () -> game.setScreen(new SettingsScreen(game)));
         VisTextButton quitButton = createStyledButton("Exit Game", () -> Gdx.app.exit());
+        // Offered only when a game was left unfinished
+        VisTextButton resumeButton = GameSnapshot.exists() ? createStyledButton("Resume Game", () -> {
+            BaseGameScreen saved = GameSnapshot.load(game);
+            game.setScreen(saved != null ? saved : new MenuScreen(game));
+        }) : null;
 
         // each button starts transparent
         classicPlayButton.getColor().a = 0;
         sprintPlayButton.getColor().a = 0;
         arcadePlayButton.getColor().a = 0;
+        practicePlayButton.getColor().a = 0;
+        digPlayButton.getColor().a = 0;
+        versusPlayButton.getColor().a = 0;
+        spectatePlayButton.getColor().a = 0;
         instructionsButton.getColor().a = 0;
         settingsButton.getColor().a = 0;
         quitButton.getColor().a = 0;
@@ -131,9 +105,13 @@ public class MenuScreen implements Screen {
         classicPlayButton.addAction(Actions.sequence(Actions.delay(0.5f), Actions.fadeIn(1f)));
         sprintPlayButton.addAction(Actions.sequence(Actions.delay(1f), Actions.fadeIn(1f)));
         arcadePlayButton.addAction(Actions.sequence(Actions.delay(1.5f), Actions.fadeIn(1f)));
-        instructionsButton.addAction(Actions.sequence(Actions.delay(2f), Actions.fadeIn(1f)));
-        settingsButton.addAction(Actions.sequence(Actions.delay(2.5f), Actions.fadeIn(1f)));
-        quitButton.addAction(Actions.sequence(Actions.delay(3f), Actions.fadeIn(1f)));
+        practicePlayButton.addAction(Actions.sequence(Actions.delay(2f), Actions.fadeIn(1f)));
+        digPlayButton.addAction(Actions.sequence(Actions.delay(2.5f), Actions.fadeIn(1f)));
+        versusPlayButton.addAction(Actions.sequence(Actions.delay(3f), Actions.fadeIn(1f)));
+        spectatePlayButton.addAction(Actions.sequence(Actions.delay(3.5f), Actions.fadeIn(1f)));
+        instructionsButton.addAction(Actions.sequence(Actions.delay(4f), Actions.fadeIn(1f)));
+        settingsButton.addAction(Actions.sequence(Actions.delay(4.5f), Actions.fadeIn(1f)));
+        quitButton.addAction(Actions.sequence(Actions.delay(5f), Actions.fadeIn(1f)));
 
         // create the main table
         Table table = new Table();
@@ -142,9 +120,17 @@ public class MenuScreen implements Screen {
 
         // add each element to the table, pad each button
         table.add(menuLabel).padBottom(80f).row();
+        if (resumeButton != null) {
+            resumeButton.getColor().a = 0;
+            table.add(resumeButton).width(300).height(70).padBottom(30f).row();
+        }
         table.add(classicPlayButton).width(300).height(70).padBottom(30f).row();
         table.add(sprintPlayButton).width(300).height(70).padBottom(30f).row();
         table.add(arcadePlayButton).width(300).height(70).padBottom(30f).row();
+        table.add(practicePlayButton).width(300).height(70).padBottom(30f).row();
+        table.add(digPlayButton).width(300).height(70).padBottom(30f).row();
+        table.add(versusPlayButton).width(300).height(70).padBottom(30f).row();
+        table.add(spectatePlayButton).width(300).height(70).padBottom(30f).row();
         table.add(instructionsButton).width(300).height(70).padBottom(30f).row();
         table.add(settingsButton).width(300).height(70).padBottom(30f).row();
         table.add(quitButton).width(300).height(70).padBottom(60f).row();
@@ -155,12 +141,13 @@ public class MenuScreen implements Screen {
     @Override
     public void render(float delta) {
         ScreenUtils.clear(Color.BLACK);
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        for (FallingPiece piece : fallingPieces) {
-            piece.update(delta);
-            piece.render(shapeRenderer);
-        }
-        shapeRenderer.end();
+        fallingPieces.update(delta, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        game.batch.setProjectionMatrix(stage.getCamera().combined);
+        game.batch.setColor(Color.WHITE);
+        game.batch.begin();
+        fallingPieces.draw(game.batch, game.previews,
+            game.sprites.getBlock(ConfigManager.getInstance().getConfig().blockSkin));
+        game.batch.end();
 
         stage.act(delta);
         stage.draw();
@@ -185,13 +172,10 @@ public class MenuScreen implements Screen {
     @Override
     public void hide() {
         if (stage != null) stage.dispose();
-        // is this needed
-        if (shapeRenderer != null) shapeRenderer.dispose();
     }
 
     @Override
     public void dispose() {
         if (stage != null) stage.dispose();
-        if (shapeRenderer != null) shapeRenderer.dispose();
     }
 }
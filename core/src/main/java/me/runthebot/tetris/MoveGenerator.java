@@ -0,0 +1,218 @@
+package me.runthebot.tetris;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search over player inputs starting from the spawn position.
+ * Every edge in the search is one key press (a tap, a DAS charge to the wall,
+ * a rotation or a soft drop to the floor), so the distance to a state is the
+ * minimum number of inputs needed to put the piece there.
+ */
+public class MoveGenerator {
+    /** Move one column left. */
+    public static final int TAP_LEFT = 0;
+    /** Move one column right. */
+    public static final int TAP_RIGHT = 1;
+    /** Hold left past DAS, sliding to the wall. */
+    public static final int DAS_LEFT = 2;
+    /** Hold right past DAS, sliding to the wall. */
+    public static final int DAS_RIGHT = 3;
+    /** Rotate clockwise. */
+    public static final int ROTATE_CW = 4;
+    /** Rotate counterclockwise. */
+    public static final int ROTATE_CCW = 5;
+    /** Rotate 180 degrees. */
+    public static final int ROTATE_180 = 6;
+    /** Soft drop until the piece rests on the stack. */
+    public static final int SOFT_DROP = 7;
+    /** Number of distinct inputs. */
+    public static final int INPUT_COUNT = 8;
+
+    // Piece x/y can go slightly past the grid edge because shapes have empty rows/columns
+    static final int X_OFFSET = 2;
+    static final int Y_OFFSET = 2;
+
+    private final Grid grid;
+    private final RotationSystem rotationSystem;
+    private final int columns;
+    private final int rows;
+    private final int[] distance;
+    private final int[] queue;
+
+    /**
+     * Creates a move generator for the given grid using SRS. Search buffers are reused between calls.
+     * @param grid The grid to search on
+     */
+    public MoveGenerator(Grid grid) {
+        this(grid, SRS.INSTANCE);
+    }
+
+    /**
+     * Creates a move generator for the given grid and rotation rules.
+     * @param grid The grid to search on
+     * @param rotationSystem The rotation system used for rotation inputs
+     */
+    public MoveGenerator(Grid grid, RotationSystem rotationSystem) {
+        this.grid = grid;
+        this.rotationSystem = rotationSystem;
+        this.columns = grid.getWidth() + X_OFFSET * 2;
+        this.rows = grid.getHeight() + Y_OFFSET * 2;
+        this.distance = new int[4 * rows * columns];
+        this.queue = new int[distance.length];
+    }
+
+    /**
+     * Runs the search for a freshly spawned piece of the given type.
+     * Afterwards {@link #getDistance(int, int, int)} answers for every reachable state.
+     * @param type The Tetrimino to search for
+     * @return false if the piece cannot spawn
+     */
+    public boolean search(Tetrimino type) {
+        Arrays.fill(distance, -1);
+        Piece probe = new Piece(type);
+        probe.setPosition(grid.getSpawnX(), probe.getY());
+        probe.setRotationSystem(rotationSystem);
+        if (!fits(probe)) return false;
+
+        int head = 0;
+        int tail = 0;
+        int start = encode(probe.getX(), probe.getY(), 0);
+        distance[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int state = queue[head++];
+            int x = decodeX(state);
+            int y = decodeY(state);
+            int rotation = decodeRotation(state);
+
+            for (int input = 0; input < INPUT_COUNT; input++) {
+                probe.setRotation(rotation);
+                probe.setPosition(x, y);
+                if (!apply(probe, input)) continue;
+
+                int next = encode(probe.getX(), probe.getY(), probe.getRotation());
+                if (distance[next] < 0) {
+                    distance[next] = distance[state] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the fewest inputs that lock the piece with the same cells as the given placement.
+     * Placements with identical footprints (for example S rotation 0 and 2) count as equal.
+     * @param type The Tetrimino type
+     * @param x Final x position
+     * @param y Final y position
+     * @param rotation Final rotation
+     * @return Minimum number of inputs, or -1 if the placement is unreachable
+     */
+    public int minimumInputs(Tetrimino type, int x, int y, int rotation) {
+        if (!search(type)) return -1;
+        long target = footprint(type, rotation, x, y);
+
+        Piece probe = new Piece(type);
+        int best = -1;
+        for (int state = 0; state < distance.length; state++) {
+            int d = distance[state];
+            if (d < 0 || (best >= 0 && d >= best)) continue;
+            probe.setRotation(decodeRotation(state));
+            probe.setPosition(decodeX(state), decodeY(state));
+            probe.hardDrop(grid);
+            if (footprint(type, probe.getRotation(), probe.getX(), probe.getY()) == target) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the search distance to a state, or -1 if it was not reached.
+     */
+    public int getDistance(int x, int y, int rotation) {
+        int gx = x + X_OFFSET;
+        int gy = y + Y_OFFSET;
+        if (gx < 0 || gx >= columns || gy < 0 || gy >= rows) return -1;
+        return distance[encode(x, y, rotation)];
+    }
+
+    /**
+     * @return The grid this generator searches on.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return The rotation system used for rotation inputs.
+     */
+    public RotationSystem getRotationSystem() {
+        return rotationSystem;
+    }
+
+    /**
+     * Applies a single input to the probe piece.
+     * @return true if the piece moved or rotated
+     */
+    private boolean apply(Piece probe, int input) {
+        switch (input) {
+            case TAP_LEFT: return probe.move(-1, 0, grid);
+            case TAP_RIGHT: return probe.move(1, 0, grid);
+            case DAS_LEFT: return slide(probe, -1, 0);
+            case DAS_RIGHT: return slide(probe, 1, 0);
+            case ROTATE_CW: return probe.rotate(grid);
+            case ROTATE_CCW: return probe.rotateCounterclockwise(grid);
+            case ROTATE_180: return probe.rotate180(grid);
+            case SOFT_DROP: return slide(probe, 0, 1);
+            default: return false;
+        }
+    }
+
+    private boolean slide(Piece probe, int dx, int dy) {
+        boolean moved = false;
+        while (probe.move(dx, dy, grid)) {
+            moved = true;
+        }
+        return moved;
+    }
+
+    private boolean fits(Piece piece) {
+        return !grid.collides(piece.getType().getRowMasks(piece.getRotation()), piece.getX(), piece.getY());
+    }
+
+    /**
+     * Packs the absolute cells covered by a placement into a single comparable key.
+     * Cells are visited in row-major order, so equal cell sets give equal keys.
+     */
+    static long footprint(Tetrimino type, int rotation, int x, int y) {
+        boolean[][] shape = type.getShape(rotation);
+        long key = 0;
+        for (int row = 0; row < shape.length; row++) {
+            for (int col = 0; col < shape[row].length; col++) {
+                if (shape[row][col]) {
+                    key = (key << 16) | (((y + row + Y_OFFSET) & 0xFF) << 8) | ((x + col + X_OFFSET) & 0xFF);
+                }
+            }
+        }
+        return key;
+    }
+
+    private int encode(int x, int y, int rotation) {
+        return (rotation * rows + (y + Y_OFFSET)) * columns + (x + X_OFFSET);
+    }
+
+    private int decodeX(int state) {
+        return state % columns - X_OFFSET;
+    }
+
+    private int decodeY(int state) {
+        return (state / columns) % rows - Y_OFFSET;
+    }
+
+    private int decodeRotation(int state) {
+        return state / (columns * rows);
+    }
+}
@@ -0,0 +1,23 @@
+package me.runthebot.tetris;
+
+/**
+ * NES-style rotation: a piece rotates in place or not at all, with no kicks and no 180.
+ */
+public final class NES extends KickTableRotation {
+    private static final String DEFINITION =
+        "IJLOSTZ 0>1: 0,0\n" +
+        "IJLOSTZ 1>2: 0,0\n" +
+        "IJLOSTZ 2>3: 0,0\n" +
+        "IJLOSTZ 3>0: 0,0\n" +
+        "IJLOSTZ 1>0: 0,0\n" +
+        "IJLOSTZ 2>1: 0,0\n" +
+        "IJLOSTZ 3>2: 0,0\n" +
+        "IJLOSTZ 0>3: 0,0\n";
+
+    /** The shared instance. */
+    public static final NES INSTANCE = new NES();
+
+    private NES() {
+        super("NES", DEFINITION);
+    }
+}
@@ -0,0 +1,143 @@
+package me.runthebot.tetris;
+
+/**
+ * Slab allocator for fixed-size search nodes, so a search tree is a few long-lived arrays instead
+ * of millions of short-lived objects for the garbage collector to trace and promote.
+ * <p>
+ * Nodes are runs of {@code nodeLongs} longs in pages of {@link #PAGE_NODES} nodes, and are
+ * addressed by int handles: the page index in the high bits, the node within the page in the low
+ * bits. Callers read and write a node through {@link #page(int)} and {@link #offset(int)}.
+ * Nodes are never freed one at a time; {@link #reset()} drops them all at once and keeps the
+ * pages for the next search. Pages are only allocated as the arena first grows into them.
+ * Not thread safe.
+ */
+public class NodeArena {
+    /** Handle meaning "no node", returned by {@link #allocate()} when the arena is full. */
+    public static final int NONE = -1;
+
+    private static final int PAGE_SHIFT = 12;
+    /** Nodes per page. */
+    public static final int PAGE_NODES = 1 << PAGE_SHIFT;
+    private static final int SLOT_MASK = PAGE_NODES - 1;
+
+    private final int nodeLongs;
+    private final int maxNodes;
+    private long[][] pages = new long[4][];
+    private int pageCount = 0;
+    private int size = 0;
+    private int peak = 0;
+    private long rejected = 0;
+    private long resets = 0;
+
+    /**
+     * Creates an empty arena. No pages are allocated until the first node is.
+     * @param nodeLongs Longs per node
+     * @param maxNodes Most nodes the arena holds at once
+     */
+    public NodeArena(int nodeLongs, int maxNodes) {
+        if (nodeLongs < 1 || maxNodes < 1) {
+            throw new IllegalArgumentException("Invalid arena size: " + nodeLongs + " longs x " + maxNodes + " nodes");
+        }
+        this.nodeLongs = nodeLongs;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Allocates a node. Its contents are whatever the last node in that place held.
+     * @return The node's handle, or {@link #NONE} if the arena is full
+     */
+    public int allocate() {
+        if (size == maxNodes) {
+            rejected++;
+            return NONE;
+        }
+        int handle = size++;
+        int page = handle >>> PAGE_SHIFT;
+        if (page == pageCount) addPage();
+        if (size > peak) peak = size;
+        return handle;
+    }
+
+    private void addPage() {
+        if (pageCount == pages.length) {
+            long[][] grown = new long[pages.length * 2][];
+            System.arraycopy(pages, 0, grown, 0, pageCount);
+            pages = grown;
+        }
+        // The last page only needs room for the nodes up to maxNodes
+        int nodes = Math.min(PAGE_NODES, maxNodes - pageCount * PAGE_NODES);
+        pages[pageCount++] = new long[nodes * nodeLongs];
+    }
+
+    /**
+     * Drops every node at once. Pages are kept, so refilling the arena allocates nothing.
+     */
+    public void reset() {
+        size = 0;
+        resets++;
+    }
+
+    /** @return The page array holding a node. */
+    public long[] page(int handle) {
+        return pages[handle >>> PAGE_SHIFT];
+    }
+
+    /** @return Index of a node's first long within its page. */
+    public int offset(int handle) {
+        return (handle & SLOT_MASK) * nodeLongs;
+    }
+
+    /** @return Longs per node. */
+    public int getNodeLongs() {
+        return nodeLongs;
+    }
+
+    /** @return Nodes allocated since the last reset. */
+    public int size() {
+        return size;
+    }
+
+    /** @return Most nodes the arena holds at once. */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /** @return Most nodes that have been allocated at once. */
+    public int getPeak() {
+        return peak;
+    }
+
+    /** @return Nodes the allocated pages have room for. */
+    public int getCapacity() {
+        return Math.min(pageCount * PAGE_NODES, maxNodes);
+    }
+
+    /** @return Number of allocated pages. */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /** @return Bytes held by the allocated pages. */
+    public long getReservedBytes() {
+        return (long) getCapacity() * nodeLongs * 8;
+    }
+
+    /** @return Allocations refused because the arena was full, over its whole life. */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** @return Number of resets, usually one per search. */
+    public long getResets() {
+        return resets;
+    }
+
+    /**
+     * @return Occupancy summary for logs, e.g. {@code "512/4096 nodes (peak 3870), 1 pages, 1.4 MB, 0 rejected"}.
+     */
+    @Override
+    public String toString() {
+        return size + "/" + getCapacity() + " nodes (peak " + peak + "), " + pageCount + " pages, "
+            + String.format("%.1f MB", getReservedBytes() / (1024.0 * 1024.0)) + ", " + rejected + " rejected";
+    }
+}
@@ -0,0 +1,218 @@
+package me.runthebot.tetris;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Library of openers for the first bag, read straight from a memory-mapped file.
+ * <p>
+ * For every opener the file holds one fixed-size record per ordering of the first 7-bag, in
+ * order of the ordering's {@link #rank(Tetrimino[]) permutation rank}, so a lookup is one
+ * multiplication and a few absolute reads with nothing parsed at load time. A record is a move
+ * count followed by {@link #MAX_MOVES} move bytes; a count of 0 means the opener cannot be built
+ * from that ordering with hard drops. Moves are played from an empty board with an empty hold
+ * slot and follow {@link HeadlessGame}'s rules, including its hold rule.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * int    magic "TOBK"
+ * short  version
+ * byte   opener count
+ * byte   MAX_MOVES
+ * byte[] opener names, NAME_BYTES each, ASCII padded with zeros
+ * byte[] records, RECORD_BYTES each, opener-major then by rank
+ * </pre>
+ * A move byte is the column plus {@link MoveGenerator#X_OFFSET} (low 4 bits), the rotation
+ * (next 2 bits) and the hold flag (bit 6).
+ */
+public class OpeningBook {
+    private static final int MAGIC = 0x544F424B; // "TOBK"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+
+    /** Number of orderings of a 7-bag. */
+    public static final int PERMUTATIONS = 5040;
+    /** Most placements stored per ordering. */
+    public static final int MAX_MOVES = 7;
+    /** Bytes per opener name. */
+    public static final int NAME_BYTES = 16;
+    private static final int RECORD_BYTES = 1 + MAX_MOVES;
+
+    private static final int BAG_SIZE = 7;
+    private static final int[] FACTORIALS = {1, 1, 2, 6, 24, 120, 720};
+
+    private final ByteBuffer data;
+    private final String[] names;
+    private final int recordsStart;
+
+    /**
+     * Reads a book's header. Records are read from the buffer on demand.
+     * @param data The whole file, e.g. from {@link #map(Path)} or {@code FileHandle.map()}
+     * @throws IllegalArgumentException if the data is not a book of this version
+     */
+    public OpeningBook(ByteBuffer data) {
+        this.data = data.duplicate();
+        if (data.remaining() < HEADER_BYTES || this.data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        if (this.data.getShort(4) != VERSION || this.data.get(7) != MAX_MOVES) {
+            throw new IllegalArgumentException("Unsupported opening book version " + this.data.getShort(4));
+        }
+        int count = this.data.get(6) & 0xFF;
+        this.recordsStart = HEADER_BYTES + count * NAME_BYTES;
+        if (data.remaining() != recordsStart + count * PERMUTATIONS * RECORD_BYTES) {
+            throw new IllegalArgumentException("Opening book is truncated");
+        }
+
+        this.names = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[NAME_BYTES];
+            int length = 0;
+            for (; length < NAME_BYTES; length++) {
+                name[length] = this.data.get(HEADER_BYTES + i * NAME_BYTES + length);
+                if (name[length] == 0) break;
+            }
+            names[i] = new String(name, 0, length, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Maps a book file read-only.
+     * @param path The file written by {@link #write(OutputStream, String[], int[][][])}
+     */
+    public static OpeningBook map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Ranks an ordering of the 7 piece types: its index among all orderings in lexicographic
+     * order of the piece ordinals, from 0 to {@link #PERMUTATIONS} - 1.
+     * @param bag The first 7 pieces, each type once
+     * @throws IllegalArgumentException if bag is not an ordering of every type
+     */
+    public static int rank(Tetrimino[] bag) {
+        if (bag.length < BAG_SIZE) throw new IllegalArgumentException("Expected " + BAG_SIZE + " pieces");
+        int rank = 0;
+        int used = 0;
+        for (int i = 0; i < BAG_SIZE; i++) {
+            int ordinal = bag[i].ordinal();
+            if ((used & 1 << ordinal) != 0) throw new IllegalArgumentException("Not a bag: " + bag[i] + " repeats");
+            // Types not used yet that come before this one
+            int smaller = Integer.bitCount(~used & ((1 << ordinal) - 1));
+            rank += smaller * FACTORIALS[BAG_SIZE - 1 - i];
+            used |= 1 << ordinal;
+        }
+        return rank;
+    }
+
+    /** @return Number of openers in the book. */
+    public int getOpenerCount() {
+        return names.length;
+    }
+
+    /** @return Name of an opener, e.g. {@code "PCO"}. */
+    public String getName(int opener) {
+        return names[opener];
+    }
+
+    /**
+     * @return Index of the opener with the given name, or -1 if the book has none
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param opener Opener index
+     * @param rank Rank of the first bag's ordering
+     * @return Number of placements stored for the ordering, 0 if it cannot build the opener
+     */
+    public int length(int opener, int rank) {
+        return data.get(record(opener, rank)) & 0xFF;
+    }
+
+    /**
+     * @param opener Opener index
+     * @param rank Rank of the first bag's ordering
+     * @param index Placement index, below {@link #length(int, int)}
+     * @return The placement as a packed {@link HeadlessGame} move
+     */
+    public int move(int opener, int rank, int index) {
+        return decode(data.get(record(opener, rank) + 1 + index));
+    }
+
+    /**
+     * @return Every placement stored for an ordering as packed {@link HeadlessGame} moves
+     */
+    public int[] moves(int opener, int rank) {
+        int[] moves = new int[length(opener, rank)];
+        for (int i = 0; i < moves.length; i++) moves[i] = move(opener, rank, i);
+        return moves;
+    }
+
+    private int record(int opener, int rank) {
+        if (opener < 0 || opener >= names.length || rank < 0 || rank >= PERMUTATIONS) {
+            throw new IndexOutOfBoundsException("No record for opener " + opener + ", rank " + rank);
+        }
+        return recordsStart + (opener * PERMUTATIONS + rank) * RECORD_BYTES;
+    }
+
+    /**
+     * Writes a book.
+     * @param out Stream to write to; not closed
+     * @param names Opener names, ASCII, at most {@link #NAME_BYTES} long
+     * @param lines Packed {@link HeadlessGame} moves indexed by opener then rank; null or empty
+     * where the ordering cannot build the opener
+     */
+    public static void write(OutputStream out, String[] names, int[][][] lines) throws IOException {
+        if (names.length > 255 || lines.length != names.length) {
+            throw new IllegalArgumentException("Expected one line table per opener name");
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeByte(names.length);
+        data.writeByte(MAX_MOVES);
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+            if (bytes.length > NAME_BYTES) throw new IllegalArgumentException("Name too long: " + name);
+            data.write(bytes);
+            data.write(new byte[NAME_BYTES - bytes.length]);
+        }
+        for (int[][] opener : lines) {
+            if (opener.length != PERMUTATIONS) throw new IllegalArgumentException("Expected " + PERMUTATIONS + " lines");
+            for (int[] moves : opener) {
+                int length = moves == null ? 0 : moves.length;
+                if (length > MAX_MOVES) throw new IllegalArgumentException("Too many moves: " + length);
+                data.writeByte(length);
+                for (int i = 0; i < MAX_MOVES; i++) {
+                    data.writeByte(i < length ? encode(moves[i]) : 0);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    // Packed HeadlessGame move to a move byte
+    private static int encode(int move) {
+        int column = HeadlessGame.moveX(move) + MoveGenerator.X_OFFSET;
+        if (column < 0 || column > 15) throw new IllegalArgumentException("Column out of range: " + HeadlessGame.moveX(move));
+        return column | HeadlessGame.moveRotation(move) << 4 | (HeadlessGame.moveUsesHold(move) ? 1 << 6 : 0);
+    }
+
+    private static int decode(byte value) {
+        return HeadlessGame.move((value >> 4) & 3, (value & 15) - MoveGenerator.X_OFFSET, (value & 1 << 6) != 0);
+    }
+}
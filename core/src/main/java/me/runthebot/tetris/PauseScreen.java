@@ -66,6 +66,8 @@ public class PauseScreen implements Screen {
 
         quitButton.addListener(event -> {
             if (quitButton.isPressed()) {
+                // Keep the game so it can be resumed from the menu
+                saveGame();
                 game.setScreen(new MenuScreen(game));
                 return true;
             }
@@ -125,10 +127,12 @@ public class PauseScreen implements Screen {
     public void hide() {}
 
     /**
-     * Called when the {@link Application} is paused.
+     * Called when the {@link Application} is paused. Saves the paused game.
      */
     @Override
-    public void pause() {}
+    public void pause() {
+        saveGame();
+    }
 
     /**
      * Called when the {@link Application} is resumed.
@@ -136,6 +140,15 @@ public class PauseScreen implements Screen {
     @Override
     public void resume() {}
 
+    /**
+     * Saves the paused game, if it is one that can be resumed.
+     */
+    private void saveGame() {
+        if (previousScreen instanceof BaseGameScreen) {
+            ((BaseGameScreen) previousScreen).saveSnapshot();
+        }
+    }
+
     /**
      * Disposes of the resources used by this screen.
      */
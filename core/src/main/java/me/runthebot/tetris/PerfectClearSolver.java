@@ -0,0 +1,427 @@
+package me.runthebot.tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Finds a sequence of placements that clears the whole board within a few lines.
+ * <p>
+ * Only the bottom rows matter, so the search works on a packed field: bit {@code y * width + x}
+ * with y counted up from the floor, which fits in one long for up to 6 rows of a 10-wide board.
+ * Full rows are removed as they form, so the field only ever holds the rows still to be cleared
+ * and the search succeeds when none are left. Placements are hard drops, the same moves
+ * {@link HeadlessGame} plays, and hold follows the game's rules.
+ * <p>
+ * Branches are pruned by cell count (the empty cells must be filled by the pieces still
+ * available) and by parity: columns that are full from the floor to the top of the field split
+ * it into regions that cannot share pieces, so each region needs a multiple of 4 empty cells.
+ * A hard drop cannot reach a hole under a filled cell, so such placements only pay off if line
+ * clears open the hole again later. The search first looks for sequences that never cover a
+ * hole, which finds most clears quickly, and only then allows them, trying hole-free placements
+ * first.
+ * Positions proven to fail are remembered in a lock-free table shared by all threads, keyed by
+ * the packed field and the hold/queue state.
+ * <p>
+ * The first placements are split into fork/join tasks; the rest of each branch is a plain depth
+ * first search that stops as soon as any task finds a solution.
+ */
+public class PerfectClearSolver {
+    /** Most lines a perfect clear can be searched for on a 10-wide board. */
+    public static final int MAX_LINES = 6;
+
+    // Placements below this depth become separate tasks
+    private static final int SPLIT_DEPTH = 2;
+    // Probes per lookup in the failure table before giving up
+    private static final int PROBES = 8;
+
+    private static final Tetrimino[] TYPES = Tetrimino.values();
+
+    private final ForkJoinPool pool;
+    private final int tableBits;
+
+    /**
+     * @param pool Pool to search on, or null to search on the calling thread
+     * @param tableBits Log2 of the failure table's entry count; 20 holds a million positions in 16 MB
+     */
+    public PerfectClearSolver(ForkJoinPool pool, int tableBits) {
+        if (tableBits < 4 || tableBits > 28) {
+            throw new IllegalArgumentException("tableBits out of range: " + tableBits);
+        }
+        this.pool = pool;
+        this.tableBits = tableBits;
+    }
+
+    /**
+     * Looks for a perfect clear from a headless game's position, using its whole queue.
+     * @param maxLines Most lines the clear may take, at most {@link #MAX_LINES}
+     * @return Packed moves for {@link HeadlessGame#play(int)} that clear the board, or null if there are none
+     */
+    public int[] solve(HeadlessGame game, int maxLines) {
+        return solve(game.getGrid(), game.getCurrent(), game.getHold(), game.getNextPieces(), true, maxLines);
+    }
+
+    /**
+     * Looks for a perfect clear.
+     * @param grid The board; not modified
+     * @param current The piece to place next
+     * @param hold The held piece, or null
+     * @param next The queue after the current piece, nearest first
+     * @param canHold Whether the current piece may be swapped with hold
+     * @param maxLines Most lines the clear may take, at most {@link #MAX_LINES}
+     * @return Packed moves in {@link HeadlessGame#move(int, int, boolean)} form that clear the board,
+     * or null if there are none
+     */
+    public int[] solve(Grid grid, Tetrimino current, Tetrimino hold, Collection<Tetrimino> next,
+                       boolean canHold, int maxLines) {
+        int width = grid.getWidth();
+        maxLines = Math.min(maxLines, 63 / width);
+
+        // Height of the stack; it has to fit inside the lines being cleared
+        int stack = 0;
+        while (stack < grid.getHeight() && grid.getRowMask(grid.getHeight() - 1 - stack) != 0) stack++;
+        for (int y = grid.getHeight() - 1 - stack; y >= 0; y--) {
+            if (grid.getRowMask(y) != 0) return null;
+        }
+        if (stack > maxLines) return null;
+
+        Tetrimino[] pieces = new Tetrimino[next.size() + 1];
+        pieces[0] = current;
+        int count = 1;
+        for (Tetrimino t : next) pieces[count++] = t;
+
+        // Hole-free sequences answer most positions quickly, so every height is tried without
+        // holes before any is searched in full
+        Search search = new Search(width, pieces, tableBits);
+        for (int phase = 0; phase < 2; phase++) {
+            for (int lines = Math.max(stack, 1); lines <= maxLines; lines++) {
+                long field = 0;
+                for (int r = 0; r < lines; r++) {
+                    field |= grid.getRowMask(grid.getHeight() - 1 - r) << (r * width);
+                }
+                int empty = lines * width - Long.bitCount(field);
+                int available = pieces.length + (hold != null ? 1 : 0);
+                if (empty % 4 != 0 || empty / 4 > available) continue;
+
+                int[] solution = search.run(field, lines, hold == null ? -1 : hold.ordinal(), canHold, phase == 1, pool);
+                if (solution != null) return solution;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * State shared by the searches of one solve: piece tables, the failure table and the result.
+     */
+    private static final class Search {
+        private final int width;
+        private final long rowMask;
+        private final Tetrimino[] pieces;
+        // Packed shape at the origin, its size, the lowest cell of each of its columns, and the
+        // x of the piece box relative to the shape's left edge, indexed by type * 4 + rotation
+        private final long[] shapes = new long[TYPES.length * 4];
+        private final int[] shapeWidths = new int[TYPES.length * 4];
+        private final int[] shapeHeights = new int[TYPES.length * 4];
+        private final int[][] shapeBottoms = new int[TYPES.length * 4][];
+        private final int[] boxOffsets = new int[TYPES.length * 4];
+        // Column masks indexed by [rows][x]
+        private final long[][] columns;
+        private final FailureTable failures;
+        private final AtomicReference<int[]> found = new AtomicReference<>();
+        private boolean allowHoles;
+
+        Search(int width, Tetrimino[] pieces, int tableBits) {
+            this.width = width;
+            this.rowMask = (1L << width) - 1;
+            this.pieces = pieces;
+            this.failures = new FailureTable(tableBits);
+
+            for (Tetrimino type : TYPES) {
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    buildShape(type.ordinal() * 4 + rotation, type.getRowMasks(rotation));
+                }
+            }
+            this.columns = new long[MAX_LINES + 1][width];
+            for (int rows = 0; rows <= MAX_LINES; rows++) {
+                for (int x = 0; x < width; x++) {
+                    for (int r = 0; r < rows && r * width + x < 64; r++) columns[rows][x] |= 1L << (r * width + x);
+                }
+            }
+        }
+
+        // Converts the top-down box rows of a shape to a packed bottom-up shape at the origin
+        private void buildShape(int index, long[] box) {
+            int top = -1, bottom = -1;
+            long union = 0;
+            for (int r = 0; r < box.length; r++) {
+                if (box[r] == 0) continue;
+                if (top < 0) top = r;
+                bottom = r;
+                union |= box[r];
+            }
+            int left = Long.numberOfTrailingZeros(union);
+            int shapeWidth = 64 - Long.numberOfLeadingZeros(union) - left;
+            int shapeHeight = bottom - top + 1;
+            long packed = 0;
+            int[] lowest = new int[shapeWidth];
+            Arrays.fill(lowest, -1);
+            for (int r = bottom; r >= top; r--) {
+                int y = bottom - r;
+                long row = box[r] >>> left;
+                packed |= row << (y * width);
+                for (int x = 0; x < shapeWidth; x++) {
+                    if (((row >>> x) & 1) != 0 && lowest[x] < 0) lowest[x] = y;
+                }
+            }
+            shapes[index] = packed;
+            shapeWidths[index] = shapeWidth;
+            shapeHeights[index] = shapeHeight;
+            shapeBottoms[index] = lowest;
+            boxOffsets[index] = left;
+        }
+
+        int[] run(long field, int rows, int hold, boolean canHold, boolean allowHoles, ForkJoinPool pool) {
+            this.allowHoles = allowHoles;
+            int[] path = new int[pieces.length + 1];
+            if (pool == null) {
+                if (search(field, rows, 0, hold, canHold, path, 0)) return found.get();
+                return null;
+            }
+            pool.invoke(new Branch(field, rows, 0, hold, canHold, path, 0));
+            return found.get();
+        }
+
+        /**
+         * Depth first search from a position; on success the solution is published in found.
+         */
+        boolean search(long field, int rows, int next, int hold, boolean canHold, int[] path, int depth) {
+            if (rows == 0) {
+                found.compareAndSet(null, Arrays.copyOf(path, depth));
+                return true;
+            }
+            if (found.get() != null) return false;
+            if (!hasPieces(field, rows, next, hold)) return false;
+            long state = state(rows, next, hold, allowHoles);
+            if (depth > 0 && failures.contains(field, state)) return false;
+
+            long heights = columnHeights(field, rows);
+            // Placements that leave no covered holes first; the rest only pay off if clears uncover them
+            for (int pass = 0; pass < (allowHoles ? 2 : 1); pass++) {
+                for (int h = 0; h < 2; h++) {
+                    boolean useHold = h == 1;
+                    int type = pieceFor(useHold, next, hold);
+                    if (type < 0 || (useHold && (!canHold || type == pieces[next].ordinal()))) continue;
+                    int childHold = useHold ? pieces[next].ordinal() : hold;
+                    int childNext = useHold && hold < 0 ? next + 2 : next + 1;
+
+                    for (int rotation = 0; rotation < Bot.rotationCount(TYPES[type]); rotation++) {
+                        int shape = type * 4 + rotation;
+                        for (int x = 0; x + shapeWidths[shape] <= width; x++) {
+                            int y = dropRow(shape, x, heights);
+                            if (y + shapeHeights[shape] > rows) continue;
+                            long placed = field | (shapes[shape] << (y * width + x));
+                            long cleared = clearRows(placed, y, y + shapeHeights[shape]);
+                            if ((pass == 0) == hasHoles(cleared)) continue;
+                            int childRows = rows - (Long.bitCount(placed) - Long.bitCount(cleared)) / width;
+                            if (!regionsFillable(cleared, childRows)) continue;
+
+                            path[depth] = HeadlessGame.move(rotation, x - boxOffsets[shape], useHold);
+                            if (search(cleared, childRows, childNext, childHold, true, path, depth + 1)) return true;
+                        }
+                    }
+                }
+            }
+            if (depth > 0 && found.get() == null) failures.add(field, state);
+            return false;
+        }
+
+        // Type index a placement would use, or -1 if the queue has run out
+        private int pieceFor(boolean useHold, int next, int hold) {
+            if (!useHold) return pieces[next].ordinal();
+            if (hold >= 0) return hold;
+            return next + 1 < pieces.length ? pieces[next + 1].ordinal() : -1;
+        }
+
+        // Cell count: the empty cells must be filled with the pieces left in the queue and hold
+        private boolean hasPieces(long field, int rows, int next, int hold) {
+            if (next >= pieces.length) return false;
+            int needed = (rows * width - Long.bitCount(field)) / 4;
+            return needed <= pieces.length - next + (hold >= 0 ? 1 : 0);
+        }
+
+        // Everything besides the field that decides whether a position can be cleared
+        private static long state(int rows, int next, int hold, boolean allowHoles) {
+            return 1L << 32 | (allowHoles ? 1 << 24 : 0) | rows << 16 | next << 8 | (hold + 1);
+        }
+
+        // Height of every column, 4 bits each with column 0 lowest
+        private long columnHeights(long field, int rows) {
+            long heights = 0;
+            for (int x = 0; x < width; x++) {
+                long column = field & columns[rows][x];
+                if (column != 0) heights |= (long) ((63 - Long.numberOfLeadingZeros(column)) / width + 1) << (x * 4);
+            }
+            return heights;
+        }
+
+        // Row the shape's bottom lands on when hard dropped in column x
+        private int dropRow(int shape, int x, long heights) {
+            int[] bottoms = shapeBottoms[shape];
+            int y = 0;
+            for (int c = 0; c < bottoms.length; c++) {
+                y = Math.max(y, ((int) (heights >>> ((x + c) * 4)) & 15) - bottoms[c]);
+            }
+            return y;
+        }
+
+        // Whether an empty cell has a filled one above it, which a hard drop cannot reach
+        private boolean hasHoles(long field) {
+            long covered = field >>> width;
+            covered |= covered >>> width;
+            covered |= covered >>> (2 * width);
+            covered |= covered >>> (4 * width);
+            return (covered & ~field) != 0;
+        }
+
+        // Removes full rows among from..to-1, shifting the rows above down
+        private long clearRows(long field, int from, int to) {
+            for (int r = to - 1; r >= from; r--) {
+                if (((field >>> (r * width)) & rowMask) == rowMask) {
+                    long below = field & ((1L << (r * width)) - 1);
+                    field = below | ((field >>> ((r + 1) * width)) << (r * width));
+                }
+            }
+            return field;
+        }
+
+        // Parity: every region between full columns needs a multiple of 4 empty cells
+        private boolean regionsFillable(long field, int rows) {
+            int region = 0;
+            for (int x = 0; x < width; x++) {
+                int empty = rows - Long.bitCount(field & columns[rows][x]);
+                if (empty == 0) {
+                    if ((region & 3) != 0) return false;
+                    region = 0;
+                } else {
+                    region += empty;
+                }
+            }
+            return (region & 3) == 0;
+        }
+
+        /**
+         * The first placements of the search, each child run as its own task.
+         */
+        private final class Branch extends RecursiveAction {
+            private final long field;
+            private final int rows;
+            private final int next;
+            private final int hold;
+            private final boolean canHold;
+            private final int[] path;
+            private final int depth;
+
+            Branch(long field, int rows, int next, int hold, boolean canHold, int[] path, int depth) {
+                this.field = field;
+                this.rows = rows;
+                this.next = next;
+                this.hold = hold;
+                this.canHold = canHold;
+                this.path = path;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth >= SPLIT_DEPTH || rows == 0) {
+                    search(field, rows, next, hold, canHold, path, depth);
+                    return;
+                }
+                if (found.get() != null || !hasPieces(field, rows, next, hold)) return;
+
+                List<Branch> children = new ArrayList<>();
+                long heights = columnHeights(field, rows);
+                for (int h = 0; h < 2; h++) {
+                    boolean useHold = h == 1;
+                    int type = pieceFor(useHold, next, hold);
+                    if (type < 0 || (useHold && (!canHold || type == pieces[next].ordinal()))) continue;
+                    int childHold = useHold ? pieces[next].ordinal() : hold;
+                    int childNext = useHold && hold < 0 ? next + 2 : next + 1;
+
+                    for (int rotation = 0; rotation < Bot.rotationCount(TYPES[type]); rotation++) {
+                        int shape = type * 4 + rotation;
+                        for (int x = 0; x + shapeWidths[shape] <= width; x++) {
+                            int y = dropRow(shape, x, heights);
+                            if (y + shapeHeights[shape] > rows) continue;
+                            long placed = field | (shapes[shape] << (y * width + x));
+                            long cleared = clearRows(placed, y, y + shapeHeights[shape]);
+                            if (!allowHoles && hasHoles(cleared)) continue;
+                            int childRows = rows - (Long.bitCount(placed) - Long.bitCount(cleared)) / width;
+                            if (!regionsFillable(cleared, childRows)) continue;
+
+                            int[] childPath = path.clone();
+                            childPath[depth] = HeadlessGame.move(rotation, x - boxOffsets[shape], useHold);
+                            children.add(new Branch(cleared, childRows, childNext, childHold, true, childPath, depth + 1));
+                        }
+                    }
+                }
+                invokeAll(children);
+            }
+        }
+    }
+
+    /**
+     * Lossy lock-free set of failed positions. A position is a packed field and a state word;
+     * the field slot is claimed with a compare-and-set and the state written after it, so a
+     * reader that catches a half-written entry just sees a miss. When every probed slot is taken
+     * the position is not stored, which only costs a repeated search.
+     */
+    private static final class FailureTable {
+        private final AtomicLongArray fields;
+        private final AtomicLongArray states;
+        private final int mask;
+
+        FailureTable(int bits) {
+            this.fields = new AtomicLongArray(1 << bits);
+            this.states = new AtomicLongArray(1 << bits);
+            this.mask = (1 << bits) - 1;
+        }
+
+        boolean contains(long field, long state) {
+            long key = key(field);
+            int i = index(key, state);
+            for (int probe = 0; probe < PROBES; probe++, i = (i + 1) & mask) {
+                long f = fields.get(i);
+                if (f == 0) return false;
+                if (f == key && states.get(i) == state) return true;
+            }
+            return false;
+        }
+
+        void add(long field, long state) {
+            long key = key(field);
+            int i = index(key, state);
+            for (int probe = 0; probe < PROBES; probe++, i = (i + 1) & mask) {
+                if (fields.compareAndSet(i, 0, key)) {
+                    states.set(i, state);
+                    return;
+                }
+            }
+        }
+
+        // Fields use at most 63 bits, so setting the top one keeps keys away from the empty value
+        private static long key(long field) {
+            return field | Long.MIN_VALUE;
+        }
+
+        private int index(long key, long state) {
+            long h = (key ^ state * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            return (int) (h >>> 40) & mask;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package me.runthebot.tetris;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,12 +16,18 @@ import static me.runthebot.tetris.Tetris.BUFFER_SIZE;
 @Setter
 @Getter
 public class Piece {
-    private final Tetrimino type;
+    @Setter(AccessLevel.NONE)
+    private Tetrimino type;
+    // Shape at the current rotation, shared with the Tetrimino; must not be modified
     private boolean[][] grid;
     // Position of the piece on the grid
     private int x, y;
     // Current rotation state (0-3)
     private int rotation;
+    // Rules used by rotate(), rotateCounterclockwise() and rotate180()
+    private RotationSystem rotationSystem = SRS.INSTANCE;
+    // Kick index of the last rotation, or -1 if the piece has moved since; used for T-spin detection
+    private int lastKick = -1;
 
     /**
      * Constructs a new Piece of the given Tetrimino type at the default spawn position.
@@ -27,7 +35,7 @@ public class Piece {
      */
     public Piece(Tetrimino type) {
         this.type = type;
-        this.grid = type.getShape();
+        this.grid = type.getShape(0);
         this.x = 3;
         this.y = BUFFER_SIZE - 2;
     }
@@ -43,7 +51,8 @@ public class Piece {
     public boolean move(int dx, int dy, Grid field) {
         int newX = x + dx;
         int newY = y + dy;
-        if (!collides(newX, newY, grid, field)) {
+        if (!field.collides(type.getRowMasks(rotation), newX, newY)) {
+            if (dx != 0 || dy != 0) lastKick = -1;
             x = newX;
             y = newY;
             return true;
@@ -52,31 +61,31 @@ public class Piece {
     }
 
     /**
-     * Attempts to rotate the piece clockwise using SRS (Super Rotation System).
+     * Attempts to rotate the piece clockwise using its rotation system.
      *
      * @param field The grid to check for collisions
      * @return true if the rotation worked, else false
      */
     public boolean rotate(Grid field) {
-        return SRS.attemptRotation(this, field, true);
+        return rotationSystem.rotate(this, field, 1);
     }
 
     /**
-     * Attempts to rotate the piece counterclockwise using SRS (Super Rotation System).
+     * Attempts to rotate the piece counterclockwise using its rotation system.
      * @param field The grid to check for collisions
      * @return true if the rotation worked, else false
      */
     public boolean rotateCounterclockwise(Grid field) {
-        return SRS.attemptRotation(this, field, false);
+        return rotationSystem.rotate(this, field, 3);
     }
 
     /**
-     * Attempts to rotate the piece 180 degrees using SRS (Super Rotation System).
+     * Attempts to rotate the piece 180 degrees using its rotation system.
      * @param field The grid to check for collisions
      * @return true if the rotation worked, else false
      */
     public boolean rotate180(Grid field) {
-        return SRS.attempt180Rotation(this, field);
+        return rotationSystem.rotate(this, field, 2);
     }
 
     /**
@@ -86,71 +95,30 @@ public class Piece {
      * @return The number of rows the piece was dropped
      */
     public int hardDrop(Grid grid) {
-        int rowsDropped = 0;
-        while (move(0, 1, grid)) {
-            rowsDropped++;
-        }
+        long[] shape = type.getRowMasks(rotation);
+        if (grid.collides(shape, x, y)) return 0;
+        int rowsDropped = grid.dropDistance(shape, x, y);
+        if (rowsDropped > 0) lastKick = -1;
+        y += rowsDropped;
         return rowsDropped;
     }
 
-    /**
-     * Check if the block collides with the grid or other blocks
-     * @param tx
-     * @param ty
-     * @param shape
-     * @param field
-     * @return true if the block collides, else false
-     */
-    private boolean collides(int tx, int ty, boolean[][] shape, Grid field) {
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[0].length; col++) {
-                if (!shape[row][col]) continue;
-                int gx = tx + col;
-                int gy = ty + row;
-                if (gx < 0 || gx >= field.getWidth() || gy < 0 || gy >= field.getHeight() || field.isOccupied(gx, gy)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    // Use the same offset as the grid for consistency
-    float offset = Grid.CENTER_OFFSET;
-
-    /**
-     * Rotates a piece 90 degrees clockwise
-     * @param input
-     * @return the rotated piece as a 2d array of booleans
-     */
-    private boolean[][] rotate90(boolean[][] input) {
-        int rows = input.length;
-        int cols = input[0].length;
-        boolean[][] rotated = new boolean[cols][rows];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                rotated[j][rows - 1 - i] = input[i][j];
-            }
-        }
-        return rotated;
-    }
-
     // Convert from piece coordinates to rendering coordinates
-    public float getRenderX(int col) {
-        return x + col + offset;
+    public float getRenderX(int col, BoardTransform transform) {
+        return transform.cellX(x + col);
     }
 
-    public float getRenderY(int row) {
-        return (Tetris.GRID_HEIGHT - (y + row) - 1);
+    public float getRenderY(int row, BoardTransform transform) {
+        return transform.cellY(y + row);
     }
 
     // Convert from rendering coordinates to piece coordinates
-    public int getGameX(float renderX) {
-        return (int) (renderX - offset);
+    public int getGameX(float renderX, BoardTransform transform) {
+        return transform.column(renderX);
     }
 
-    public int getGameY(float renderY) {
-        return Tetris.GRID_HEIGHT - (int) renderY - 1;
+    public int getGameY(float renderY, BoardTransform transform) {
+        return transform.row(renderY);
     }
 
     // Check if a point (in game coordinates) is inside this piece
@@ -169,66 +137,73 @@ public class Piece {
         return grid[relativeY][relativeX];
     }
 
-    public void render(ShapeRenderer renderer) {
-        renderer.begin(ShapeRenderer.ShapeType.Filled);
-        renderer.setColor(getType().getColor());
-        for (int row = 0; row < grid.length; row++) {
-            for (int col = 0; col < grid[0].length; col++) {
-                if (grid[row][col]) {
-                    float gx = getRenderX(col);
-                    float gy = getRenderY(row);
-                    renderer.rect(gx, gy, 1, 1);
-                }
-            }
-        }
-        renderer.end();
+    /**
+     * Renders the piece in its color. Must be called between batch.begin() and batch.end().
+     * @param block Block sprite of the chosen skin
+     * @param transform Board the piece is on
+     */
+    public void render(Batch batch, TextureRegion block, BoardTransform transform) {
+        batch.setColor(getType().getColor());
+        renderCells(batch, block, transform);
     }
 
-    // Method to render with transparency
-    public void render(ShapeRenderer renderer, float alpha) {
-
-        renderer.begin(ShapeRenderer.ShapeType.Filled);
+    /**
+     * Renders the piece as a ghost or hint: grey at the given opacity.
+     * @param block Block sprite of the chosen skin
+     * @param transform Board the piece is on
+     * @param alpha Opacity of the piece
+     */
+    public void render(Batch batch, TextureRegion block, BoardTransform transform, float alpha) {
         // Use white/gray color for ghost piece instead of transparent version of piece color
-        Color ghostColor = new Color(0.8f, 0.8f, 0.8f, alpha);
-        renderer.setColor(ghostColor);
+        batch.setColor(0.8f, 0.8f, 0.8f, alpha);
+        renderCells(batch, block, transform);
+    }
 
+    private void renderCells(Batch batch, TextureRegion block, BoardTransform transform) {
+        float scale = transform.getScale();
         for (int row = 0; row < grid.length; row++) {
             for (int col = 0; col < grid[0].length; col++) {
                 if (grid[row][col]) {
-                    float gx = getRenderX(col);
-                    float gy = getRenderY(row);
-                    renderer.rect(gx, gy, 1, 1);
+                    batch.draw(block, getRenderX(col, transform), getRenderY(row, transform), scale, scale);
                 }
             }
         }
-        renderer.end();
+        batch.setColor(Color.WHITE);
+    }
+
+    /**
+     * Makes this piece a copy of another: its type, rotation, position and last kick.
+     * Lets a piece that follows another, like the ghost, be reused instead of reallocated.
+     * @param other The piece to copy
+     */
+    public void copyFrom(Piece other) {
+        type = other.type;
+        grid = other.grid;
+        rotation = other.rotation;
+        rotationSystem = other.rotationSystem;
+        lastKick = other.lastKick;
+        x = other.x;
+        y = other.y;
     }
 
     // Position setter
     public void setPosition(int x, int y) {
+        if (x != this.x || y != this.y) lastKick = -1;
         this.x = x;
         this.y = y;
     }
 
     /**
-     * Sets the rotation of the piece
-     * @param rotation
+     * Sets the rotation of the piece, taking its shape from the Tetrimino's precomputed table.
+     * @param rotation Rotation state 0-3
      */
     public void setRotation(int rotation) {
-        // Create a copy of the original shape
-        boolean[][] newGrid = type.getShape();
-
-        // Apply rotations to get to the desired rotation state
-        for (int i = 0; i < rotation; i++) {
-            newGrid = rotate90(newGrid);
-        }
-
-        this.grid = newGrid;
+        this.grid = type.getShape(rotation);
         this.rotation = rotation;
     }
 
     /**
-     * Sets the grid shape of the piece (used by SRS)
+     * Sets the grid shape of the piece
      * @param grid The new grid shape
      */
     public void setGrid(boolean[][] grid) {
@@ -0,0 +1,92 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Every {@link Tetrimino} in spawn orientation, trimmed to its cells, for the hold box, the next
+ * queue and the menu. Pieces are drawn cell by cell with the block sprite from {@link GameSprites},
+ * so previews go out in the same batch flush as the board, on the atlas texture.
+ */
+public class PiecePreviews {
+    private final int[][] cellX = new int[Tetrimino.values().length][];
+    private final int[][] cellY = new int[cellX.length][];
+    // Size of each piece in cells
+    private final int[] widths = new int[cellX.length];
+    private final int[] heights = new int[cellX.length];
+
+    public PiecePreviews() {
+        for (Tetrimino type : Tetrimino.values()) {
+            long[] rows = type.getRowMasks(0);
+            int top = 0;
+            while (rows[top] == 0) top++;
+            int bottom = rows.length - 1;
+            while (rows[bottom] == 0) bottom--;
+            long columns = 0;
+            int count = 0;
+            for (long row : rows) {
+                columns |= row;
+                count += Long.bitCount(row);
+            }
+            int left = Long.numberOfTrailingZeros(columns);
+
+            // Cells from the bottom left of the trimmed piece, y up as on screen
+            int[] xs = new int[count];
+            int[] ys = new int[count];
+            int cell = 0;
+            for (int row = top; row <= bottom; row++) {
+                for (long mask = rows[row] >>> left; mask != 0; mask &= mask - 1) {
+                    xs[cell] = Long.numberOfTrailingZeros(mask);
+                    ys[cell++] = bottom - row;
+                }
+            }
+            cellX[type.ordinal()] = xs;
+            cellY[type.ordinal()] = ys;
+            widths[type.ordinal()] = 64 - Long.numberOfLeadingZeros(columns) - left;
+            heights[type.ordinal()] = bottom - top + 1;
+        }
+    }
+
+    /** @return Width of the piece in cells. */
+    public int getWidth(Tetrimino type) {
+        return widths[type.ordinal()];
+    }
+
+    /** @return Height of the piece in cells. */
+    public int getHeight(Tetrimino type) {
+        return heights[type.ordinal()];
+    }
+
+    /**
+     * Draws a piece centered on a point. Must be called between batch.begin() and batch.end().
+     * @param block Block sprite of the chosen skin
+     * @param cell Size of a cell in world units
+     */
+    public void draw(Batch batch, TextureRegion block, Tetrimino type, float centerX, float centerY, float cell) {
+        draw(batch, block, type, centerX, centerY, cell, 0);
+    }
+
+    /**
+     * Draws a piece centered on a point and rotated about it, in its piece color. The batch
+     * alpha is kept, so a dimmed batch draws a dimmed piece, and the batch color is restored.
+     * Must be called between batch.begin() and batch.end().
+     * @param block Block sprite of the chosen skin
+     * @param cell Size of a cell in world units
+     * @param rotation Counterclockwise rotation in degrees
+     */
+    public void draw(Batch batch, TextureRegion block, Tetrimino type, float centerX, float centerY, float cell,
+                     float rotation) {
+        int i = type.ordinal();
+        float left = centerX - widths[i] * cell / 2;
+        float bottom = centerY - heights[i] * cell / 2;
+        float previous = batch.getPackedColor();
+        float alpha = batch.getColor().a;
+        batch.setColor(type.getColor().r, type.getColor().g, type.getColor().b, alpha);
+        for (int c = 0; c < cellX[i].length; c++) {
+            float x = left + cellX[i][c] * cell;
+            float y = bottom + cellY[i][c] * cell;
+            batch.draw(block, x, y, centerX - x, centerY - y, cell, cell, 1, 1, rotation);
+        }
+        batch.setPackedColor(previous);
+    }
+}
@@ -0,0 +1,88 @@
+package me.runthebot.tetris;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Queue of upcoming pieces backed by a ring buffer. Besides the usual {@link java.util.Queue}
+ * operations it gives indexed access with {@link #peek(int)}, so the next queue preview can read
+ * any number of pieces each frame without an iterator.
+ */
+public class PieceQueue extends AbstractQueue<Tetrimino> {
+    private Tetrimino[] pieces = new Tetrimino[16];
+    // Index of the head in pieces, and number of queued pieces
+    private int head = 0;
+    private int size = 0;
+
+    @Override
+    public boolean offer(Tetrimino type) {
+        if (type == null) throw new NullPointerException();
+        if (size == pieces.length) grow();
+        pieces[(head + size) % pieces.length] = type;
+        size++;
+        return true;
+    }
+
+    @Override
+    public Tetrimino poll() {
+        if (size == 0) return null;
+        Tetrimino type = pieces[head];
+        pieces[head] = null;
+        head = (head + 1) % pieces.length;
+        size--;
+        return type;
+    }
+
+    @Override
+    public Tetrimino peek() {
+        return size == 0 ? null : pieces[head];
+    }
+
+    /**
+     * @param index Position in the queue, 0 for the head
+     * @return The piece at that position, or null if the queue is shorter
+     */
+    public Tetrimino peek(int index) {
+        return index < 0 || index >= size ? null : pieces[(head + index) % pieces.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(pieces, null);
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Tetrimino> iterator() {
+        return new Iterator<Tetrimino>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Tetrimino next() {
+                if (index >= size) throw new NoSuchElementException();
+                return peek(index++);
+            }
+        };
+    }
+
+    // Doubles the buffer, unrolling the ring so the head is at 0
+    private void grow() {
+        Tetrimino[] grown = new Tetrimino[pieces.length * 2];
+        for (int i = 0; i < size; i++) grown[i] = pieces[(head + i) % pieces.length];
+        pieces = grown;
+        head = 0;
+    }
+}
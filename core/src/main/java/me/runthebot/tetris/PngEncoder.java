@@ -0,0 +1,88 @@
+package me.runthebot.tetris;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes ARGB pixel arrays as 8-bit RGB PNG images, in plain Java so it runs without a display.
+ * Alpha is dropped; board images are opaque.
+ */
+public final class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private PngEncoder() {
+    }
+
+    /**
+     * @param pixels ARGB pixels, row by row from the top
+     * @return The PNG file contents
+     */
+    public static byte[] encode(int[] pixels, int width, int height) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, pixels, width, height);
+        } catch (IOException e) {
+            // A byte array stream does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param pixels ARGB pixels, row by row from the top
+     */
+    public static void write(OutputStream out, int[] pixels, int width, int height) throws IOException {
+        if (pixels.length < width * height) throw new IllegalArgumentException("Too few pixels for " + width + "x" + height);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(SIGNATURE);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        DataOutputStream fields = new DataOutputStream(header);
+        fields.writeInt(width);
+        fields.writeInt(height);
+        // 8 bits per sample, truecolor, deflate, adaptive filtering, no interlace
+        fields.write(new byte[]{8, 2, 0, 0, 0});
+        writeChunk(data, "IHDR", header.toByteArray());
+
+        // Every row uses the Sub filter: runs of one color become runs of zeros
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(width * height / 8 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater, 8192)) {
+            byte[] row = new byte[1 + width * 3];
+            row[0] = 1;
+            for (int y = 0; y < height; y++) {
+                int previous = 0;
+                for (int x = 0, i = 1; x < width; x++) {
+                    int pixel = pixels[y * width + x];
+                    row[i++] = (byte) ((pixel >> 16) - (previous >> 16));
+                    row[i++] = (byte) ((pixel >> 8) - (previous >> 8));
+                    row[i++] = (byte) (pixel - previous);
+                    previous = pixel;
+                }
+                deflate.write(row);
+            }
+        } finally {
+            deflater.end();
+        }
+        writeChunk(data, "IDAT", compressed.toByteArray());
+        writeChunk(data, "IEND", new byte[0]);
+        data.flush();
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] body) throws IOException {
+        byte[] name = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(body);
+        out.writeInt(body.length);
+        out.write(name);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,317 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Implements the "Practice" game mode: slow fixed gravity, no score, and a history of every
+ * placement that can be undone or scrubbed through. Each lock pushes a copy-on-write grid
+ * snapshot into a bounded ring, so stepping through history only swaps row references.
+ * Topping out rewinds one placement instead of ending the game.
+ * <p>
+ * H asks a {@link PerfectClearSolver} for a perfect clear from the current position. The
+ * search runs on the common pool and its first placement is drawn as a faint piece.
+ */
+public class PracticeScreen extends BaseGameScreen {
+    // Number of placements that can be undone
+    private static final int HISTORY_SIZE = 500;
+
+    // Timeline scrubber bounds in screen pixels
+    private static final float TIMELINE_X = 20;
+    private static final float TIMELINE_Y = 110;
+    private static final float TIMELINE_WIDTH = 300;
+    private static final float TIMELINE_HEIGHT = 12;
+
+    private int linesCleared = 0;
+    private int piecesPlaced = 0;
+    private long startTime;
+    private long currentTime;
+
+    /**
+     * Everything needed to return to the moment a piece spawned.
+     */
+    private static final class State {
+        final Grid.Snapshot board;
+        final Tetrimino current;
+        final Tetrimino hold;
+        final Tetrimino[] queue;
+        final long randomState;
+        final int linesCleared;
+        final int piecesPlaced;
+
+        State(Grid.Snapshot board, Tetrimino current, Tetrimino hold, Tetrimino[] queue,
+              long randomState, int linesCleared, int piecesPlaced) {
+            this.board = board;
+            this.current = current;
+            this.hold = hold;
+            this.queue = queue;
+            this.randomState = randomState;
+            this.linesCleared = linesCleared;
+            this.piecesPlaced = piecesPlaced;
+        }
+    }
+
+    private final HistoryRing<State> history = new HistoryRing<>(HISTORY_SIZE);
+
+    // Lines a hinted perfect clear may take
+    private static final int HINT_LINES = 4;
+
+    private final PerfectClearSolver solver = new PerfectClearSolver(ForkJoinPool.commonPool(), 18);
+    // Pending or finished hint search, null when there is no hint
+    private ForkJoinTask<int[]> hintTask;
+    // Whether hold was available when the hint was asked for
+    private boolean hintCanHold;
+    private Piece hintPiece;
+    private String hintText;
+
+    /**
+     * Constructor for the PracticeScreen.
+     * @param game The main Tetris game instance.
+     */
+    public PracticeScreen(final Tetris game) {
+        super(game);
+        startTime = TimeUtils.millis();
+        gravity = GravityCurve.fromRowsPerSecond(0.5f); // Fixed slow gravity for practice
+        pushHistory();
+    }
+
+    @Override
+    public void render(float delta) {
+        if (gameOver) {
+            // Topping out just takes back the last placement: the current entry is the board
+            // before it, since placements that top out are not pushed
+            State state = history.current();
+            if (state != null) {
+                rewind(state);
+            } else {
+                game.setScreen(new GameOverScreen(game, "practice", 0, 1, linesCleared,
+                    currentTime, 0, 0, 0, finesse.getFaults()));
+                return;
+            }
+        }
+
+        handleHistoryInput();
+        handleHintInput();
+        handleInput();
+        updateFallingPiece();
+
+        currentTime = TimeUtils.millis() - startTime;
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        game.camera.update();
+        shapeRenderer.setProjectionMatrix(game.camera.combined);
+
+        // Render game elements
+        renderBoard();
+
+        // Hold and Next pieces have their own begin/end calls
+        renderHoldPiece();
+        renderNextPiece();
+
+        renderTimeline();
+        renderUI();
+    }
+
+    @Override
+    protected void renderBoardExtras(SpriteBatch batch) {
+        if (hintPiece != null) {
+            hintPiece.render(batch, block, board, 0.15f);
+        }
+    }
+
+    private void renderUI() {
+        spriteBatch.begin();
+        font.setColor(Color.WHITE);
+        font.getData().setScale(1.5f);
+
+        font.draw(spriteBatch, "PRACTICE MODE", 20, Gdx.graphics.getHeight() - 20);
+        font.draw(spriteBatch, "Lines: " + linesCleared, 20, Gdx.graphics.getHeight() - 50);
+        font.draw(spriteBatch, "Pieces: " + piecesPlaced, 20, Gdx.graphics.getHeight() - 80);
+        font.draw(spriteBatch, "Finesse Faults: " + finesse.getFaults(), 20, Gdx.graphics.getHeight() - 110);
+        font.draw(spriteBatch, "Backspace: undo   [ / ]: scrub   H: perfect clear hint", 20, Gdx.graphics.getHeight() - 150);
+        if (hintText != null) {
+            font.draw(spriteBatch, hintText, 20, Gdx.graphics.getHeight() - 180);
+        }
+        font.draw(spriteBatch, "History: " + (history.getCursor() + 1) + "/" + history.size(),
+            TIMELINE_X, TIMELINE_Y + TIMELINE_HEIGHT + 30);
+
+        // Live stack health readout
+        renderStackHealth();
+
+        spriteBatch.end();
+    }
+
+    /**
+     * Draws the history timeline, filled up to the current position.
+     */
+    private void renderTimeline() {
+        shapeRenderer.setProjectionMatrix(spriteBatch.getProjectionMatrix());
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(0.3f, 0.3f, 0.3f, 1);
+        shapeRenderer.rect(TIMELINE_X, TIMELINE_Y, TIMELINE_WIDTH, TIMELINE_HEIGHT);
+        if (history.size() > 1) {
+            float fraction = (float) history.getCursor() / (history.size() - 1);
+            shapeRenderer.setColor(Color.CYAN);
+            shapeRenderer.rect(TIMELINE_X, TIMELINE_Y, TIMELINE_WIDTH * fraction, TIMELINE_HEIGHT);
+        }
+        shapeRenderer.end();
+        shapeRenderer.setProjectionMatrix(game.camera.combined);
+    }
+
+    /**
+     * Handles undo, the scrub keys and dragging on the timeline.
+     */
+    private void handleHistoryInput() {
+        State state = null;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.BACKSPACE) || Gdx.input.isKeyJustPressed(Input.Keys.LEFT_BRACKET)) {
+            state = history.undo();
+        } else if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT_BRACKET)) {
+            state = history.redo();
+        } else if (Gdx.input.isTouched() && history.size() > 1) {
+            float mouseX = Gdx.input.getX();
+            float mouseY = Gdx.graphics.getHeight() - Gdx.input.getY();
+            if (mouseX >= TIMELINE_X && mouseX <= TIMELINE_X + TIMELINE_WIDTH
+                    && mouseY >= TIMELINE_Y - 8 && mouseY <= TIMELINE_Y + TIMELINE_HEIGHT + 8) {
+                int position = Math.round((mouseX - TIMELINE_X) / TIMELINE_WIDTH * (history.size() - 1));
+                if (position != history.getCursor()) state = history.seek(position);
+            }
+        }
+        if (state != null) rewind(state);
+    }
+
+    /**
+     * Starts a hint search on H, and picks up its result once it is done.
+     */
+    private void handleHintInput() {
+        // Holding changes the position the hint was found for
+        if (hintTask != null && canHold != hintCanHold) clearHint();
+
+        if (Gdx.input.isKeyJustPressed(Input.Keys.H) && hintTask == null && !gameOver) {
+            // The search works on copies, so play can go on while it runs
+            final Grid board = new Grid(grid);
+            final Tetrimino current = currentPiece.getType();
+            final Tetrimino hold = holdPiece == null ? null : holdPiece.getType();
+            final Tetrimino[] queue = nextPieces.toArray(new Tetrimino[0]);
+            final boolean allowHold = canHold;
+            hintCanHold = canHold;
+            hintText = "Searching for a perfect clear...";
+            hintTask = ForkJoinPool.commonPool().submit(
+                () -> solver.solve(board, current, hold, Arrays.asList(queue), allowHold, HINT_LINES));
+        }
+
+        if (hintTask != null && hintPiece == null && hintTask.isDone()) {
+            int[] moves = hintTask.join();
+            if (moves == null) {
+                hintText = "No perfect clear within " + HINT_LINES + " lines";
+                return;
+            }
+            int move = moves[0];
+            Tetrimino type = currentPiece.getType();
+            if (HeadlessGame.moveUsesHold(move)) {
+                type = holdPiece != null ? holdPiece.getType() : nextPieces.peek();
+            }
+            hintPiece = new Piece(type);
+            hintPiece.setRotation(HeadlessGame.moveRotation(move));
+            hintPiece.setPosition(HeadlessGame.moveX(move), hintPiece.getY());
+            hintPiece.hardDrop(grid);
+            hintText = "PC hint: " + moves.length + " pieces" + (HeadlessGame.moveUsesHold(move) ? ", hold first" : "");
+        }
+    }
+
+    // Drops the hint; the position it was found for is gone
+    private void clearHint() {
+        if (hintTask != null) hintTask.cancel(false);
+        hintTask = null;
+        hintPiece = null;
+        hintText = null;
+    }
+
+    private void pushHistory() {
+        history.push(new State(grid.snapshot(), currentPiece.getType(),
+            holdPiece == null ? null : holdPiece.getType(),
+            nextPieces.toArray(new Tetrimino[0]), randomState, linesCleared, piecesPlaced));
+    }
+
+    /**
+     * Returns the game to a point in the history.
+     */
+    private void rewind(State state) {
+        grid.restore(state.board);
+        currentPiece = createPiece(state.current);
+        holdPiece = state.hold == null ? null : new Piece(state.hold);
+        canHold = true;
+        nextPieces.clear();
+        for (Tetrimino t : state.queue) nextPieces.add(t);
+        randomState = state.randomState;
+        linesCleared = state.linesCleared;
+        piecesPlaced = state.piecesPlaced;
+
+        gameOver = false;
+        lockDelayActive = false;
+        lockResets = 0;
+        pieceInputs = 0;
+        lastFallTime = TimeUtils.millis();
+        updateGhostPiece();
+        clearHint();
+    }
+
+    public void placePiece() {
+        beforeLock();
+        grid.lockPiece(currentPiece);
+
+        // Check for line clears after locking the piece
+        int lines = grid.checkAndClearLines();
+        afterLock(lines);
+        linesCleared += lines;
+        piecesPlaced++;
+
+        // Reset lock delay mechanism as piece is now placed
+        lockDelayActive = false;
+        lockResets = 0;
+
+        spawnNewPiece();
+        canHold = true; // Reset the hold flag after placing a piece
+        clearHint();
+
+        if (!gameOver) pushHistory();
+    }
+
+    @Override
+    public String getMode() {
+        return "practice";
+    }
+
+    @Override
+    protected void writeState(ByteBuffer out) {
+        super.writeState(out);
+        out.putInt(linesCleared).putInt(piecesPlaced);
+        out.putLong(TimeUtils.millis() - startTime);
+    }
+
+    @Override
+    protected void readState(ByteBuffer in) {
+        super.readState(in);
+        linesCleared = in.getInt();
+        piecesPlaced = in.getInt();
+        startTime = TimeUtils.millis() - in.getLong();
+        currentTime = TimeUtils.millis() - startTime;
+
+        // History is not saved; start it from the resumed position
+        history.clear();
+        pushHistory();
+    }
+
+    @Override public void resume() {}
+}
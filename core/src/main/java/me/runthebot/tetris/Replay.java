@@ -0,0 +1,122 @@
+package me.runthebot.tetris;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A game that can be played back: the {@link HeadlessGame} seed and its packed moves.
+ * Equal seeds give equal piece sequences, so the moves alone rebuild every board.
+ *
+ * <pre>
+ * file: int magic, int version, long seed, int moveCount, moveCount ints of packed moves
+ * </pre>
+ * All values are little-endian.
+ */
+public class Replay {
+    /** File magic, "TRP1". */
+    public static final int MAGIC = 0x31505254;
+    /** Format version. */
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final long seed;
+    private int[] moves = new int[64];
+    private int size = 0;
+
+    /**
+     * Starts an empty replay.
+     * @param seed Seed of the game's piece randomizer
+     */
+    public Replay(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Records a bot game.
+     * @param maxPieces Pieces to play at most; the replay is shorter if the bot tops out
+     */
+    public static Replay record(Bot bot, long seed, int maxPieces) {
+        Replay replay = new Replay(seed);
+        HeadlessGame game = new HeadlessGame(seed);
+        while (replay.size < maxPieces && !game.isGameOver()) {
+            int move = bot.chooseMove(game);
+            if (move < 0 || !game.play(move)) break;
+            replay.add(move);
+        }
+        return replay;
+    }
+
+    /**
+     * Appends a move played with {@link HeadlessGame#play(int)}.
+     */
+    public void add(int move) {
+        if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = move;
+    }
+
+    /**
+     * Plays the replay back.
+     * @return The board before the first piece and after every piece, in order
+     * @throws IllegalStateException if a move is illegal, i.e. the replay is not from this seed
+     */
+    public List<Grid.Snapshot> boards() {
+        HeadlessGame game = new HeadlessGame(seed);
+        List<Grid.Snapshot> boards = new ArrayList<>(size + 1);
+        boards.add(game.getGrid().snapshot());
+        for (int i = 0; i < size; i++) {
+            if (!game.play(moves[i])) throw new IllegalStateException("Move " + i + " is illegal");
+            boards.add(game.getGrid().snapshot());
+        }
+        return boards;
+    }
+
+    /** @return Seed of the game's piece randomizer. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return Number of moves. */
+    public int size() {
+        return size;
+    }
+
+    /** @return A packed move. */
+    public int getMove(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Move " + index + " of " + size);
+        return moves[index];
+    }
+
+    /**
+     * Writes the replay to a file, replacing it.
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + size * 4).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(MAGIC).putInt(VERSION).putLong(seed).putInt(size);
+        for (int i = 0; i < size; i++) data.putInt(moves[i]);
+        Files.write(path, data.array());
+    }
+
+    /**
+     * Reads a replay written by {@link #write(Path)}.
+     * @throws IOException if the file cannot be read or has the wrong format
+     */
+    public static Replay read(Path path) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException(path + " is not a replay file");
+        }
+        Replay replay = new Replay(data.getLong());
+        int count = data.getInt();
+        if (count < 0 || data.remaining() < count * 4L) throw new IOException(path + " is truncated");
+        replay.moves = new int[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) replay.moves[i] = data.getInt();
+        replay.size = count;
+        return replay;
+    }
+}
@@ -0,0 +1,203 @@
+package me.runthebot.tetris;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Turns replays into images with a {@link BoardRasterizer}, without an OpenGL context: an
+ * animated GIF, a numbered PNG per board, or a single board as a PNG thumbnail.
+ * The boards are rebuilt in order on the calling thread, which is cheap since snapshots share
+ * their rows; rasterizing and compressing, where the time goes, is split over a fork/join pool.
+ * Each task owns a grid, a rasterizer and two pixel buffers that it reuses for all its frames.
+ * GIF frames only cover the rectangle that changed since the board before, usually the few rows
+ * the last piece touched, which keeps both the file and the encoding time small.
+ */
+public class ReplayExporter {
+    // Frames per fork/join task
+    private static final int CHUNK = 16;
+    // Hundredths of a second the final board stays up before the GIF loops
+    private static final int FINAL_DELAY = 200;
+
+    private final int cellSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param cellSize Size of a cell in pixels, at least 4
+     * @param pool Pool frames are encoded on, or null to encode on the calling thread
+     */
+    public ReplayExporter(int cellSize, ForkJoinPool pool) {
+        if (cellSize < 4) throw new IllegalArgumentException("Cells must be at least 4 pixels");
+        this.cellSize = cellSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Writes a looping GIF with a frame per board, the last one held for at least two seconds.
+     * @param frameDelay Time each board is shown, in hundredths of a second
+     * @return Number of frames
+     */
+    public int writeGif(Replay replay, OutputStream out, int frameDelay) throws IOException {
+        List<Grid.Snapshot> boards = replay.boards();
+        BoardRasterizer rasterizer = newRasterizer();
+        int width = rasterizer.getWidth();
+        int height = rasterizer.getHeight();
+        GifEncoder.Frame[] frames = new GifEncoder.Frame[boards.size()];
+        GifEncoder gif = new GifEncoder(out, width, height, rasterizer.getPalette(), frameDelay);
+        encode(boards, (index, pixels, previous) -> {
+            int[] bounds = previous == null ? new int[]{0, 0, width, height} : changedBounds(pixels, previous, width, height);
+            frames[index] = gif.compress(pixels, bounds[0], bounds[1], bounds[2], bounds[3]);
+        });
+
+        for (int i = 0; i < frames.length; i++) {
+            gif.writeFrame(frames[i], i == frames.length - 1 ? Math.max(frameDelay, FINAL_DELAY) : frameDelay);
+        }
+        gif.close();
+        return frames.length;
+    }
+
+    /**
+     * Writes every board of the replay as a PNG, frame-000000.png upwards, to a directory it
+     * creates if needed.
+     * Each task writes its own files as it goes.
+     * @return Number of files written
+     */
+    public int writePngs(Replay replay, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Grid.Snapshot> boards = replay.boards();
+        BoardRasterizer rasterizer = newRasterizer();
+        int width = rasterizer.getWidth();
+        int height = rasterizer.getHeight();
+        encode(boards, (index, pixels, previous) -> {
+            Path file = directory.resolve(String.format("frame-%06d.png", index));
+            try {
+                Files.write(file, PngEncoder.encode(pixels, width, height));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return boards.size();
+    }
+
+    /**
+     * Writes one board as a PNG, e.g. a thumbnail of a game's final position.
+     */
+    public void writePng(Grid grid, OutputStream out) throws IOException {
+        BoardRasterizer rasterizer = BoardRasterizer.forGrid(grid, cellSize);
+        int[] pixels = rasterizer.newBuffer();
+        rasterizer.render(grid, pixels);
+        PngEncoder.write(out, pixels, rasterizer.getWidth(), rasterizer.getHeight());
+    }
+
+    private BoardRasterizer newRasterizer() {
+        return new BoardRasterizer(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT - Tetris.BUFFER_SIZE, cellSize);
+    }
+
+    // Rasterizes every board and hands its pixels to the sink, in parallel when there is a pool
+    private void encode(List<Grid.Snapshot> boards, FrameSink sink) throws IOException {
+        try {
+            if (pool == null || boards.size() <= CHUNK) {
+                encodeRange(boards, sink, 0, boards.size());
+            } else {
+                pool.invoke(new EncodeTask(boards, sink, 0, boards.size()));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void encodeRange(List<Grid.Snapshot> boards, FrameSink sink, int from, int to) {
+        Grid grid = new Grid(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
+        BoardRasterizer rasterizer = newRasterizer();
+        int[] pixels = rasterizer.newBuffer();
+        int[] previous = rasterizer.newBuffer();
+        if (from > 0) {
+            // The board before the range, drawn again here so tasks do not wait on each other
+            grid.restore(boards.get(from - 1));
+            rasterizer.render(grid, previous);
+        }
+        for (int i = from; i < to; i++) {
+            grid.restore(boards.get(i));
+            rasterizer.render(grid, pixels);
+            sink.accept(i, pixels, i > 0 ? previous : null);
+            int[] swap = previous;
+            previous = pixels;
+            pixels = swap;
+        }
+    }
+
+    // Smallest rectangle holding every pixel that differs, as left, top, width, height; 1x1 if none do
+    private static int[] changedBounds(int[] pixels, int[] previous, int width, int height) {
+        int top = 0;
+        while (top < height && rowEquals(pixels, previous, top, width)) top++;
+        if (top == height) return new int[]{0, 0, 1, 1};
+        int bottom = height - 1;
+        while (rowEquals(pixels, previous, bottom, width)) bottom--;
+
+        int left = width;
+        int right = -1;
+        for (int y = top; y <= bottom; y++) {
+            int row = y * width;
+            for (int x = 0; x < left; x++) {
+                if (pixels[row + x] != previous[row + x]) {
+                    left = x;
+                    break;
+                }
+            }
+            for (int x = width - 1; x > right; x--) {
+                if (pixels[row + x] != previous[row + x]) {
+                    right = x;
+                    break;
+                }
+            }
+        }
+        return new int[]{left, top, right - left + 1, bottom - top + 1};
+    }
+
+    private static boolean rowEquals(int[] pixels, int[] previous, int y, int width) {
+        for (int i = y * width, end = i + width; i < end; i++) {
+            if (pixels[i] != previous[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Receives a frame's pixels and those of the board before it, or null for the first board.
+     * Both arrays are reused for the task's next frames.
+     */
+    private interface FrameSink {
+        void accept(int index, int[] pixels, int[] previous);
+    }
+
+    /**
+     * Encodes a range of frames, splitting in half until a chunk is left.
+     */
+    private class EncodeTask extends RecursiveAction {
+        private final List<Grid.Snapshot> boards;
+        private final FrameSink sink;
+        private final int from;
+        private final int to;
+
+        EncodeTask(List<Grid.Snapshot> boards, FrameSink sink, int from, int to) {
+            this.boards = boards;
+            this.sink = sink;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EncodeTask(boards, sink, from, mid), new EncodeTask(boards, sink, mid, to));
+                return;
+            }
+            encodeRange(boards, sink, from, to);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package me.runthebot.tetris;
+
+/**
+ * A set of rotation rules: which rotations are allowed and which kicks are tried when the
+ * rotated piece does not fit where it is. Each game picks one by name from the settings.
+ */
+public interface RotationSystem {
+    /** Names accepted by {@link #forName(String)}, in the order shown in the settings. */
+    String[] NAMES = {"SRS", "SRS+", "ARS", "NES"};
+
+    /**
+     * @return The name shown in the settings.
+     */
+    String getName();
+
+    /**
+     * Rotates a piece by a number of clockwise quarter turns, trying each kick in order.
+     * @param piece The piece to rotate; its position and rotation are only changed on success
+     * @param grid The grid to check collisions against
+     * @param turns 1 for clockwise, 2 for 180 degrees, 3 for counterclockwise
+     * @return true if the rotation worked, else false
+     */
+    boolean rotate(Piece piece, Grid grid, int turns);
+
+    /**
+     * Looks up a rotation system by name.
+     * @param name One of {@link #NAMES}
+     * @return The rotation system, or SRS if the name is unknown
+     */
+    static RotationSystem forName(String name) {
+        switch (name) {
+            case "SRS+": return SRSPlus.INSTANCE;
+            case "ARS": return ARS.INSTANCE;
+            case "NES": return NES.INSTANCE;
+            default: return SRS.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package me.runthebot.tetris;
+
+/**
+ * SRS+ as played in TETR.IO: guideline kicks for J, L, S, T, Z and O, symmetric I kicks
+ * so mirrored I rotations behave the same, and a short 180 degree kick list.
+ */
+public final class SRSPlus extends KickTableRotation {
+    // Offsets are in grid coordinates (+y down)
+    private static final String DEFINITION =
+        "# J, L, O, S, T, Z; an O always fits at 0,0, so it never reaches the kicks\n" +
+        "JLOSTZ 0>1: 0,0 -1,0 -1,-1 0,2 -1,2\n" +
+        "JLOSTZ 1>0: 0,0 1,0 1,1 0,-2 1,-2\n" +
+        "JLOSTZ 1>2: 0,0 1,0 1,1 0,-2 1,-2\n" +
+        "JLOSTZ 2>1: 0,0 -1,0 -1,-1 0,2 -1,2\n" +
+        "JLOSTZ 2>3: 0,0 1,0 1,-1 0,2 1,2\n" +
+        "JLOSTZ 3>2: 0,0 -1,0 -1,1 0,-2 -1,-2\n" +
+        "JLOSTZ 3>0: 0,0 -1,0 -1,1 0,-2 -1,-2\n" +
+        "JLOSTZ 0>3: 0,0 1,0 1,-1 0,2 1,2\n" +
+        "JLOSTZ 0>2: 0,0 0,-1 1,-1 -1,-1 1,0 -1,0\n" +
+        "JLOSTZ 2>0: 0,0 0,1 -1,1 1,1 -1,0 1,0\n" +
+        "JLOSTZ 1>3: 0,0 1,0 1,-2 1,-1 0,-2 0,-1\n" +
+        "JLOSTZ 3>1: 0,0 -1,0 -1,-2 -1,-1 0,-2 0,-1\n" +
+        "# I\n" +
+        "I 0>1: 0,0 1,0 -2,0 -2,1 1,-2\n" +
+        "I 1>0: 0,0 -1,0 2,0 -1,2 2,-1\n" +
+        "I 1>2: 0,0 -1,0 2,0 -1,-2 2,1\n" +
+        "I 2>1: 0,0 -2,0 1,0 -2,-1 1,2\n" +
+        "I 2>3: 0,0 2,0 -1,0 2,-1 -1,2\n" +
+        "I 3>2: 0,0 1,0 -2,0 1,2 -2,-1\n" +
+        "I 3>0: 0,0 1,0 -2,0 1,-2 -2,1\n" +
+        "I 0>3: 0,0 -1,0 2,0 2,1 -1,-2\n" +
+        "I 0>2: 0,0\n" +
+        "I 1>3: 0,0\n" +
+        "I 2>0: 0,0\n" +
+        "I 3>1: 0,0\n";
+
+    /** The shared instance. */
+    public static final SRSPlus INSTANCE = new SRSPlus();
+
+    private SRSPlus() {
+        super("SRS+", DEFINITION);
+    }
+}
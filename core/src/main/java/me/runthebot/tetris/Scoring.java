@@ -0,0 +1,217 @@
+package me.runthebot.tetris;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Guideline scoring: line clears, T-spins and minis, back-to-back, combos and all clears.
+ * Point values come from a per-mode table, and the combo and back-to-back state is kept here.
+ * <p>
+ * T-spins use the 3-corner rule. {@link Grid#getCorners(int, int)} reads the four corners of
+ * the piece's 3x3 box from the row masks as a 4-bit mask. The corners, the rotation and whether
+ * the last kick was the T-spin triple kick index a precomputed table. Detection is then one
+ * lookup, with no per-cell checks, so it is cheap enough to run for every candidate placement.
+ */
+public final class Scoring {
+    /** No spin. */
+    public static final int NONE = 0;
+    /** T-spin mini: three corners filled but not both in front of the T. */
+    public static final int MINI = 1;
+    /** Full T-spin. */
+    public static final int FULL = 2;
+
+    // Kick index of the SRS T-spin triple kick, which always counts as a full spin
+    private static final int TST_KICK = 4;
+
+    // Corner bits from Grid#getCorners: top-left, top-right, bottom-left, bottom-right
+    // The two corners the flat side of the T points at, by rotation
+    private static final int[] FRONT = {0b0011, 0b1010, 0b1100, 0b0101};
+
+    // Spin kind indexed by tstKick (1 bit) | rotation (2 bits) | corners (4 bits)
+    private static final byte[] SPINS = new byte[128];
+
+    static {
+        for (int index = 0; index < SPINS.length; index++) {
+            int corners = index & 0xF;
+            int front = FRONT[(index >> 4) & 3];
+            boolean tstKick = (index & 64) != 0;
+            if (Integer.bitCount(corners) < 3) {
+                SPINS[index] = NONE;
+            } else {
+                SPINS[index] = (byte) ((corners & front) == front || tstKick ? FULL : MINI);
+            }
+        }
+    }
+
+    // Points per level indexed by spin * 5 + lines
+    private static final int[] GUIDELINE = {
+        0, 100, 300, 500, 800,
+        100, 200, 400, 0, 0,
+        400, 800, 1200, 1600, 0
+    };
+    // Arcade keeps its classic line values and adds the guideline spin values on top
+    private static final int[] ARCADE = {
+        0, 40, 100, 300, 1200,
+        100, 200, 400, 0, 0,
+        400, 800, 1200, 1600, 0
+    };
+    // All clear bonus per level indexed by lines
+    private static final int[] ALL_CLEAR = {0, 800, 1200, 1800, 2000};
+    // All clear bonus per level for a back-to-back tetris
+    private static final int ALL_CLEAR_B2B_TETRIS = 3200;
+    // Combo bonus per level for each clear after the first in a row
+    private static final int COMBO = 50;
+
+    private final int[] table;
+
+    // Clears in a row minus one, -1 when the last piece cleared nothing
+    private int combo = -1;
+    // Whether the last clear was a tetris or a spin
+    private boolean backToBack = false;
+
+    // Result of the last award, for the HUD
+    private int lastSpin = NONE;
+    private int lastLines = 0;
+    private boolean lastBackToBack = false;
+    private boolean lastAllClear = false;
+
+    private Scoring(int[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates the scoring for a game mode.
+     * @param mode Mode name as returned by {@link BaseGameScreen#getMode()}
+     */
+    public static Scoring forMode(String mode) {
+        return new Scoring(tableFor(mode));
+    }
+
+    /**
+     * Returns the point table for a game mode, indexed by spin * 5 + lines. Shared; must not be modified.
+     */
+    static int[] tableFor(String mode) {
+        return "arcade".equals(mode) ? ARCADE : GUIDELINE;
+    }
+
+    /**
+     * Classifies a placement as a T-spin, mini or neither. Must be called before the piece is locked
+     * and its lines cleared. Only a T whose last successful action was a rotation can spin.
+     * @param grid The board
+     * @param piece The piece about to lock
+     * @return {@link #NONE}, {@link #MINI} or {@link #FULL}
+     */
+    public static int detectSpin(Grid grid, Piece piece) {
+        int kick = piece.getLastKick();
+        if (piece.getType() != Tetrimino.T || kick < 0) return NONE;
+        int index = (kick == TST_KICK ? 64 : 0) | piece.getRotation() << 4 | grid.getCorners(piece.getX(), piece.getY());
+        return SPINS[index];
+    }
+
+    /**
+     * Scores a placement and advances the combo and back-to-back state.
+     * @param spin Spin kind from {@link #detectSpin(Grid, Piece)}
+     * @param lines Lines cleared
+     * @param allClear Whether the board is empty after the clear
+     * @param level Current level, multiplying every value
+     * @return Points earned
+     */
+    public int award(int spin, int lines, boolean allClear, int level) {
+        boolean difficult = isDifficult(spin, lines);
+        boolean chained = difficult && backToBack;
+        if (lines > 0) {
+            combo++;
+            backToBack = difficult;
+        } else {
+            combo = -1;
+        }
+
+        lastSpin = spin;
+        lastLines = lines;
+        lastBackToBack = chained;
+        lastAllClear = allClear && lines > 0;
+        return points(table, spin, lines, allClear, chained, combo) * level;
+    }
+
+    /**
+     * Returns whether a clear continues or starts a back-to-back chain: a tetris or a spin that clears lines.
+     */
+    static boolean isDifficult(int spin, int lines) {
+        return lines == 4 || (spin != NONE && lines > 0);
+    }
+
+    /**
+     * Points for one placement before the level multiplier, without touching any state.
+     * @param table Table from {@link #tableFor(String)}
+     * @param chained Whether this is a difficult clear following another one
+     * @param combo Combo count after this placement
+     */
+    static int points(int[] table, int spin, int lines, boolean allClear, boolean chained, int combo) {
+        int points = table[spin * 5 + lines];
+        if (lines > 0) {
+            points += COMBO * combo;
+            // Consecutive difficult clears are worth half again
+            if (chained) points += table[spin * 5 + lines] / 2;
+            if (allClear) points += chained && lines == 4 ? ALL_CLEAR_B2B_TETRIS : ALL_CLEAR[lines];
+        }
+        return points;
+    }
+
+    /**
+     * @return Clears in a row after the first, or -1 if the last piece cleared nothing.
+     */
+    public int getCombo() {
+        return combo;
+    }
+
+    /**
+     * @return Spin kind of the last scored placement, {@link #NONE}, {@link #MINI} or {@link #FULL}.
+     */
+    public int getLastSpin() {
+        return lastSpin;
+    }
+
+    /**
+     * @return Whether the next tetris or spin clear continues a back-to-back chain.
+     */
+    public boolean isBackToBack() {
+        return backToBack;
+    }
+
+    /**
+     * Describes the last scored clear for the HUD, e.g. "B2B T-Spin Double", or an empty string.
+     */
+    public String describeLast() {
+        if (lastSpin == NONE && lastLines == 0) return "";
+        StringBuilder text = new StringBuilder();
+        if (lastBackToBack) text.append("B2B ");
+        if (lastSpin == FULL) text.append("T-Spin ");
+        if (lastSpin == MINI) text.append("T-Spin Mini ");
+        switch (lastLines) {
+            case 1: text.append("Single"); break;
+            case 2: text.append("Double"); break;
+            case 3: text.append("Triple"); break;
+            case 4: text.append(lastSpin == NONE ? "Tetris" : "Quad"); break;
+        }
+        if (combo > 0) text.append("  Combo ").append(combo);
+        if (lastAllClear) text.append("  All Clear");
+        return text.toString().trim();
+    }
+
+    /**
+     * Writes the combo and back-to-back state for a saved game.
+     */
+    void write(ByteBuffer out) {
+        out.putInt(combo);
+        out.put((byte) (backToBack ? 1 : 0));
+    }
+
+    /**
+     * Restores state written by {@link #write(ByteBuffer)}.
+     */
+    void read(ByteBuffer in) {
+        combo = in.getInt();
+        backToBack = in.get() != 0;
+        lastSpin = NONE;
+        lastLines = 0;
+    }
+}
@@ -22,6 +22,18 @@ public class SettingsScreen implements Screen {
     private VisLabel dasValueLabel;
     private VisSlider arrSlider;
     private VisLabel arrValueLabel;
+    // Slider position that stands for an infinite soft drop factor
+    private static final int SDF_INFINITE = 101;
+    private VisSlider sdfSlider;
+    private VisLabel sdfValueLabel;
+    private VisSlider widthSlider;
+    private VisLabel widthValueLabel;
+    private VisSlider heightSlider;
+    private VisLabel heightValueLabel;
+    private VisSlider previewSlider;
+    private VisLabel previewValueLabel;
+    private VisSlider opponentsSlider;
+    private VisLabel opponentsValueLabel;
 
     /**
      * Constructor for the SettingsScreen.
@@ -67,6 +79,86 @@ public class SettingsScreen implements Screen {
             return false;
         });
 
+        // soft drop factor slider, the far end is instant
+        sdfSlider = new VisSlider(1, SDF_INFINITE, 1, false);
+        sdfSlider.setValue(Float.isInfinite(config.SOFT_DROP_FACTOR) ? SDF_INFINITE : config.SOFT_DROP_FACTOR);
+        sdfValueLabel = new VisLabel(sdfText());
+        sdfSlider.addListener(event -> {
+            int value = (int) sdfSlider.getValue();
+            config.SOFT_DROP_FACTOR = value >= SDF_INFINITE ? Float.POSITIVE_INFINITY : value;
+            sdfValueLabel.setText(sdfText());
+            return false;
+        });
+
+        // rotation system, applied from the next game
+        VisSelectBox<String> rotationBox = new VisSelectBox<>();
+        rotationBox.setItems(RotationSystem.NAMES);
+        rotationBox.setSelected(config.rotationSystem);
+        rotationBox.addListener(event -> {
+            config.rotationSystem = rotationBox.getSelected();
+            return false;
+        });
+
+        // block skin, applied from the next game
+        VisSelectBox<String> skinBox = new VisSelectBox<>();
+        skinBox.setItems(GameSprites.SKINS);
+        skinBox.setSelected(config.blockSkin);
+        skinBox.addListener(event -> {
+            config.blockSkin = skinBox.getSelected();
+            return false;
+        });
+
+        // opener suggested for the first bag, from the opening book if there is one
+        VisSelectBox<String> openerBox = new VisSelectBox<>();
+        String[] openers = new String[game.openingBook == null ? 1 : 1 + game.openingBook.getOpenerCount()];
+        openers[0] = "None";
+        for (int i = 1; i < openers.length; i++) openers[i] = game.openingBook.getName(i - 1);
+        openerBox.setItems(openers);
+        openerBox.setSelected(config.opener);
+        openerBox.addListener(event -> {
+            config.opener = openerBox.getSelected();
+            return false;
+        });
+
+        // number of pieces shown in the next queue
+        previewSlider = new VisSlider(1, Tetris.MAX_PREVIEW_PIECES, 1, false);
+        previewSlider.setValue(config.previewCount);
+        previewValueLabel = new VisLabel("Next: " + config.previewCount);
+        previewSlider.addListener(event -> {
+            config.previewCount = (int) previewSlider.getValue();
+            previewValueLabel.setText("Next: " + config.previewCount);
+            return false;
+        });
+
+        // number of bot boards in versus mode
+        opponentsSlider = new VisSlider(1, VersusScreen.MAX_OPPONENTS, 1, false);
+        opponentsSlider.setValue(config.versusOpponents);
+        opponentsValueLabel = new VisLabel("Bots: " + config.versusOpponents);
+        opponentsSlider.addListener(event -> {
+            config.versusOpponents = (int) opponentsSlider.getValue();
+            opponentsValueLabel.setText("Bots: " + config.versusOpponents);
+            return false;
+        });
+
+        // board size sliders, applied from the next game
+        widthSlider = new VisSlider(Tetris.MIN_BOARD_WIDTH, Tetris.MAX_BOARD_WIDTH, 1, false);
+        widthSlider.setValue(config.boardWidth);
+        widthValueLabel = new VisLabel("Width: " + config.boardWidth);
+        widthSlider.addListener(event -> {
+            config.boardWidth = (int) widthSlider.getValue();
+            widthValueLabel.setText("Width: " + config.boardWidth);
+            return false;
+        });
+
+        heightSlider = new VisSlider(Tetris.MIN_BOARD_HEIGHT, Tetris.MAX_BOARD_HEIGHT, 1, false);
+        heightSlider.setValue(config.boardHeight);
+        heightValueLabel = new VisLabel("Height: " + config.boardHeight);
+        heightSlider.addListener(event -> {
+            config.boardHeight = (int) heightSlider.getValue();
+            heightValueLabel.setText("Height: " + config.boardHeight);
+            return false;
+        });
+
         // das
         Table dasTable = new Table();
         dasTable.add(new VisLabel("Delayed Auto Shift (DAS)")).padRight(18f);
@@ -80,6 +172,47 @@ public class SettingsScreen implements Screen {
         arrTable.add(arrSlider).width(240);
         arrTable.add(arrValueLabel).width(70).padLeft(8f);
 
+        // sdf
+        Table sdfTable = new Table();
+        sdfTable.add(new VisLabel("Soft Drop Factor (SDF)")).padRight(18f);
+        sdfTable.add(sdfSlider).width(240);
+        sdfTable.add(sdfValueLabel).width(70).padLeft(8f);
+
+        // rotation
+        Table rotationTable = new Table();
+        rotationTable.add(new VisLabel("Rotation System")).padRight(18f);
+        rotationTable.add(rotationBox).width(120);
+
+        // skin
+        Table skinTable = new Table();
+        skinTable.add(new VisLabel("Block Skin")).padRight(18f);
+        skinTable.add(skinBox).width(120);
+
+        // opener
+        Table openerTable = new Table();
+        openerTable.add(new VisLabel("Opener Suggestions")).padRight(18f);
+        openerTable.add(openerBox).width(120);
+
+        // next queue
+        Table previewTable = new Table();
+        previewTable.add(new VisLabel("Next Pieces")).padRight(18f);
+        previewTable.add(previewSlider).width(240);
+        previewTable.add(previewValueLabel).width(70).padLeft(8f);
+
+        // versus opponents
+        Table opponentsTable = new Table();
+        opponentsTable.add(new VisLabel("Versus Opponents")).padRight(18f);
+        opponentsTable.add(opponentsSlider).width(240);
+        opponentsTable.add(opponentsValueLabel).width(70).padLeft(8f);
+
+        // board size
+        Table boardTable = new Table();
+        boardTable.add(new VisLabel("Board Size")).padRight(18f);
+        boardTable.add(widthSlider).width(110);
+        boardTable.add(widthValueLabel).width(80).padLeft(8f);
+        boardTable.add(heightSlider).width(110).padLeft(8f);
+        boardTable.add(heightValueLabel).width(80).padLeft(8f);
+
         // animation
         VisCheckBox animationBox = new VisCheckBox("Display Animations");
         animationBox.setChecked(true);
@@ -92,6 +225,14 @@ public class SettingsScreen implements Screen {
             return false;
         });
 
+        // record placements for bot training
+        VisCheckBox recordTrainingData = new VisCheckBox("Record Training Data");
+        recordTrainingData.setChecked(config.recordTrainingData);
+        recordTrainingData.addListener(event -> {
+            config.recordTrainingData = recordTrainingData.isChecked();
+            return false;
+        });
+
         // button to access key bindings screen
         VisTextButton keyBindingsButton = new VisTextButton("Key Bindings");
         keyBindingsButton.addListener(event -> {
@@ -121,8 +262,16 @@ public class SettingsScreen implements Screen {
         table.add(titleLabel).padBottom(48f).row();
         table.add(dasTable).padBottom(32f).row();
         table.add(arrTable).padBottom(32f).row();
+        table.add(sdfTable).padBottom(32f).row();
+        table.add(rotationTable).padBottom(32f).row();
+        table.add(skinTable).padBottom(32f).row();
+        table.add(openerTable).padBottom(32f).row();
+        table.add(previewTable).padBottom(32f).row();
+        table.add(opponentsTable).padBottom(32f).row();
+        table.add(boardTable).padBottom(32f).row();
         table.add(animationBox).padBottom(32f).row();
         table.add(showGhostPiece).padBottom(32f).row();
+        table.add(recordTrainingData).padBottom(32f).row();
         table.add(keyBindingsButton).width(180).height(60).padBottom(32f).row();
         table.add(backButton).width(180).height(60);
 
@@ -130,6 +279,10 @@ public class SettingsScreen implements Screen {
     }
 
 
+    private String sdfText() {
+        return "SDF: " + (Float.isInfinite(config.SOFT_DROP_FACTOR) ? "Inf" : String.valueOf((int) config.SOFT_DROP_FACTOR));
+    }
+
     @Override
     public void render(float delta) {
         // clear screen and add stage
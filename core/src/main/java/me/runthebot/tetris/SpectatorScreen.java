@@ -0,0 +1,245 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ScreenUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A wall of miniature boards, each a bot game simulated live by a {@link SpectatorWall}.
+ * The whole wall is one texture holding a byte per cell, a color index rather than a color,
+ * which is updated with one upload per frame and drawn as a single quad; a shader looks each
+ * index up in a small palette texture. Each board is a tile of the texture with a one cell
+ * border, so a frame costs the same two draw calls however many boards there are.
+ * Up and down double or halve the number of boards, escape goes back to the menu.
+ */
+public class SpectatorScreen implements Screen {
+    /** Boards shown when opened from the menu. */
+    public static final int DEFAULT_BOARDS = 64;
+    /** Fewest boards up and down can go to. */
+    public static final int MIN_BOARDS = 16;
+    // Pace of every bot, in pieces per second
+    private static final float PIECES_PER_SECOND = 3;
+    // Board size in texels, with the border between boards
+    private static final int TILE_WIDTH = SpectatorWall.BOARD_WIDTH + 1;
+    private static final int TILE_HEIGHT = SpectatorWall.BOARD_ROWS + 1;
+    // Palette entries: the cell codes of Grid.writeCells, the rest black for the border
+    private static final int PALETTE_SIZE = 16;
+    private static final int BORDER_INDEX = PALETTE_SIZE - 1;
+    // Screen pixels above the wall kept for the stats line
+    private static final int HEADER_HEIGHT = 40;
+
+    private static final String VERTEX_SHADER =
+        "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+        + "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+        + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+        + "uniform mat4 u_projTrans;\n"
+        + "varying vec4 v_color;\n"
+        + "varying vec2 v_texCoords;\n"
+        + "void main() {\n"
+        + "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+        + "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+        + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+        + "}\n";
+    private static final String FRAGMENT_SHADER =
+        "#ifdef GL_ES\n"
+        + "precision mediump float;\n"
+        + "#endif\n"
+        + "varying vec4 v_color;\n"
+        + "varying vec2 v_texCoords;\n"
+        + "uniform sampler2D u_texture;\n"
+        + "uniform sampler2D u_palette;\n"
+        + "void main() {\n"
+        + "    float index = texture2D(u_texture, v_texCoords).a * 255.0;\n"
+        + "    gl_FragColor = v_color * texture2D(u_palette, vec2((index + 0.5) / " + PALETTE_SIZE + ".0, 0.5));\n"
+        + "}\n";
+
+    private final Tetris game;
+    private final SpectatorWall wall;
+    private final int columns;
+    // Color index per texel, uploaded to cells once a frame when any board changed
+    private final Pixmap cellPixmap;
+    private final Texture cells;
+    private final Texture palette;
+    private final ShaderProgram shader;
+    private final SpriteBatch wallBatch;
+    private final SpriteBatch textBatch;
+    private final BitmapFont font;
+    private long lastPieces;
+    private long lastPiecesTime;
+    private float piecesPerSecond;
+    // Set once released; the screen is disposed on hide and again when the game exits
+    private boolean disposed = false;
+
+    /**
+     * @param game The main game class
+     * @param boards Number of boards, up to {@link SpectatorWall#MAX_BOARDS}
+     */
+    public SpectatorScreen(final Tetris game, int boards) {
+        this.game = game;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.wall = new SpectatorWall(boards, PIECES_PER_SECOND, threads, System.nanoTime());
+        this.columns = fitColumns(boards, Gdx.graphics.getWidth(), Gdx.graphics.getHeight() - HEADER_HEIGHT);
+        int rows = (boards + columns - 1) / columns;
+
+        cellPixmap = new Pixmap(columns * TILE_WIDTH + 1, rows * TILE_HEIGHT + 1, Pixmap.Format.Alpha);
+        ByteBuffer pixels = cellPixmap.getPixels();
+        while (pixels.hasRemaining()) pixels.put((byte) BORDER_INDEX);
+        pixels.position(0);
+        cells = new Texture(cellPixmap);
+        cells.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+
+        Pixmap colors = new Pixmap(PALETTE_SIZE, 1, Pixmap.Format.RGBA8888);
+        colors.setColor(Color.BLACK);
+        colors.fill();
+        colors.setColor(0.12f, 0.12f, 0.12f, 1);
+        colors.drawPixel(0, 0);
+        for (int code = 1; code < Grid.CELL_CODES; code++) {
+            colors.setColor(Grid.cellColor(code));
+            colors.drawPixel(code, 0);
+        }
+        palette = new Texture(colors);
+        palette.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        colors.dispose();
+
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) throw new GdxRuntimeException("Spectator wall shader: " + shader.getLog());
+        wallBatch = new SpriteBatch(1, shader);
+        textBatch = new SpriteBatch();
+        font = new BitmapFont();
+
+        wall.start();
+        lastPiecesTime = System.nanoTime();
+    }
+
+    // Number of columns that makes the boards largest in the given area
+    private static int fitColumns(int boards, int width, int height) {
+        int best = 1;
+        float bestScale = 0;
+        for (int columns = 1; columns <= boards; columns++) {
+            int rows = (boards + columns - 1) / columns;
+            float scale = Math.min((float) width / (columns * TILE_WIDTH + 1), (float) height / (rows * TILE_HEIGHT + 1));
+            if (scale > bestScale) {
+                bestScale = scale;
+                best = columns;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void render(float delta) {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            game.setScreen(new MenuScreen(game));
+            return;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.UP) && wall.getCount() < SpectatorWall.MAX_BOARDS) {
+            game.setScreen(new SpectatorScreen(game, Math.min(SpectatorWall.MAX_BOARDS, wall.getCount() * 2)));
+            return;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.DOWN) && wall.getCount() > MIN_BOARDS) {
+            game.setScreen(new SpectatorScreen(game, Math.max(MIN_BOARDS, wall.getCount() / 2)));
+            return;
+        }
+
+        uploadFrames();
+
+        ScreenUtils.clear(Color.BLACK);
+        int width = Gdx.graphics.getWidth();
+        int height = Gdx.graphics.getHeight() - HEADER_HEIGHT;
+        float scale = Math.min((float) width / cellPixmap.getWidth(), (float) height / cellPixmap.getHeight());
+        float wallWidth = cellPixmap.getWidth() * scale;
+        float wallHeight = cellPixmap.getHeight() * scale;
+
+        // The palette stays on unit 1; the batch binds the cells to unit 0
+        palette.bind(1);
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+        wallBatch.begin();
+        shader.setUniformi("u_palette", 1);
+        wallBatch.draw(cells, (width - wallWidth) / 2, (height - wallHeight) / 2, wallWidth, wallHeight);
+        wallBatch.end();
+
+        renderUI();
+    }
+
+    // Copies every board with a new frame into its tile, then uploads the texture once
+    private void uploadFrames() {
+        ByteBuffer pixels = cellPixmap.getPixels();
+        int stride = cellPixmap.getWidth();
+        boolean changed = false;
+        for (int board = 0; board < wall.getCount(); board++) {
+            SpectatorWall.Frame frame = wall.poll(board);
+            if (frame == null) continue;
+            changed = true;
+            int left = 1 + (board % columns) * TILE_WIDTH;
+            int top = 1 + (board / columns) * TILE_HEIGHT;
+            for (int row = 0; row < SpectatorWall.BOARD_ROWS; row++) {
+                pixels.position((top + row) * stride + left);
+                pixels.put(frame.cells, row * SpectatorWall.BOARD_WIDTH, SpectatorWall.BOARD_WIDTH);
+            }
+        }
+        pixels.position(0);
+        if (changed) {
+            // Rows of the alpha texture are not padded to 4 bytes
+            Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+            cells.draw(cellPixmap, 0, 0);
+        }
+    }
+
+    private void renderUI() {
+        long now = System.nanoTime();
+        if (now - lastPiecesTime >= 1_000_000_000L) {
+            long pieces = wall.getPiecesPlaced();
+            piecesPerSecond = (pieces - lastPieces) * 1e9f / (now - lastPiecesTime);
+            lastPieces = pieces;
+            lastPiecesTime = now;
+        }
+
+        textBatch.begin();
+        font.setColor(Color.WHITE);
+        font.getData().setScale(1.5f);
+        font.draw(textBatch, String.format("BOT WALL  Boards: %d  Pieces/s: %.0f  Games: %d  FPS: %d  (Up/Down: boards, Esc: menu)",
+                wall.getCount(), piecesPerSecond, wall.getGamesFinished(), Gdx.graphics.getFramesPerSecond()),
+            20, Gdx.graphics.getHeight() - 12);
+        textBatch.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        wallBatch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        textBatch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+    }
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+        wall.dispose();
+        wallBatch.dispose();
+        textBatch.dispose();
+        shader.dispose();
+        cells.dispose();
+        palette.dispose();
+        cellPixmap.dispose();
+        font.dispose();
+    }
+
+    @Override public void show() {}
+    @Override public void pause() {}
+    @Override public void resume() {}
+}
@@ -0,0 +1,180 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Many bot games simulated at once on worker threads, for the {@link SpectatorScreen}.
+ * Every board is owned by one worker, which plays its bot at a fixed pace and publishes the
+ * visible cells after each piece as a compact {@link Frame}: one byte per cell, as written by
+ * {@link Grid#writeCells(byte[], int)}. Frames are passed through a triple buffer per board,
+ * so the render thread never waits on a worker and never sees a half written board.
+ * Games that top out start over with a new seed.
+ */
+public class SpectatorWall implements Disposable {
+    /** Largest number of boards. */
+    public static final int MAX_BOARDS = 256;
+    /** Width of a board in cells. */
+    public static final int BOARD_WIDTH = Tetris.GRID_WIDTH;
+    /** Visible rows of a board. */
+    public static final int BOARD_ROWS = Tetris.GRID_HEIGHT - Tetris.BUFFER_SIZE;
+    /** Bytes in a frame's cells. */
+    public static final int FRAME_CELLS = BOARD_WIDTH * BOARD_ROWS;
+
+    /**
+     * The cells of one board at one point in its game.
+     */
+    public static final class Frame {
+        /** One byte per visible cell, top row first. */
+        public final byte[] cells = new byte[FRAME_CELLS];
+        // Publish count of the board when this frame was written; later frames are higher
+        private volatile long version;
+    }
+
+    private final HeadlessGame[] games;
+    private final Bot[] bots;
+    // Nanoseconds between two pieces on a board
+    private final long pieceInterval;
+    // Frame each worker writes next, the latest published frame, and the frame the renderer holds
+    private final Frame[] back;
+    private final AtomicReferenceArray<Frame> published;
+    private final Frame[] front;
+    private final long[] versions;
+    private final Thread[] workers;
+    private final AtomicLong seeds;
+    private final AtomicLong piecesPlaced = new AtomicLong();
+    private final AtomicLong gamesFinished = new AtomicLong();
+    private volatile boolean running = false;
+
+    /**
+     * Creates the boards. Nothing is simulated until {@link #start()}.
+     * @param count Number of boards, 1-{@link #MAX_BOARDS}
+     * @param piecesPerSecond Pace of every board's bot
+     * @param threads Number of worker threads, each owning an equal share of the boards
+     * @param seed Seed of the first game on the first board; later games count up from it
+     */
+    public SpectatorWall(int count, float piecesPerSecond, int threads, long seed) {
+        if (count < 1 || count > MAX_BOARDS) throw new IllegalArgumentException("Unsupported board count: " + count);
+        if (piecesPerSecond <= 0) throw new IllegalArgumentException("Pace must be positive");
+        this.games = new HeadlessGame[count];
+        this.bots = new Bot[count];
+        this.back = new Frame[count];
+        this.published = new AtomicReferenceArray<>(count);
+        this.front = new Frame[count];
+        this.versions = new long[count];
+        this.seeds = new AtomicLong(seed);
+        for (int i = 0; i < count; i++) {
+            games[i] = new HeadlessGame(seeds.getAndIncrement());
+            bots[i] = new Bot(new Evaluator(Evaluator.defaultWeights()));
+            back[i] = new Frame();
+            front[i] = new Frame();
+            Frame first = new Frame();
+            games[i].getGrid().writeCells(first.cells, 0);
+            first.version = ++versions[i];
+            published.set(i, first);
+        }
+        this.pieceInterval = (long) (1_000_000_000L / piecesPerSecond);
+        this.workers = new Thread[Math.max(1, Math.min(threads, count))];
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        for (int i = 0; i < workers.length; i++) {
+            int from = i * games.length / workers.length;
+            int to = (i + 1) * games.length / workers.length;
+            workers[i] = new Thread(() -> simulate(from, to), "spectator-wall-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    // Worker loop: one piece on each of its boards, then sleep until the next piece is due
+    private void simulate(int from, int to) {
+        long next = System.nanoTime();
+        while (running) {
+            for (int i = from; i < to && running; i++) {
+                step(i);
+            }
+            next += pieceInterval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                // Fell behind, so keep the current pace rather than catching up in a burst
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    private void step(int board) {
+        HeadlessGame game = games[board];
+        int move = bots[board].chooseMove(game);
+        if (move < 0 || !game.play(move) || game.isGameOver()) {
+            games[board] = game = new HeadlessGame(seeds.getAndIncrement());
+            gamesFinished.incrementAndGet();
+        } else {
+            piecesPlaced.incrementAndGet();
+        }
+
+        Frame frame = back[board];
+        game.getGrid().writeCells(frame.cells, 0);
+        frame.version = ++versions[board];
+        back[board] = published.getAndSet(board, frame);
+    }
+
+    /**
+     * Takes the latest frame of a board if it is newer than the last one taken.
+     * Called from the render thread only; the previous frame goes back to the workers.
+     * @return The new frame, valid until the next call for this board, or null if nothing changed
+     */
+    public Frame poll(int board) {
+        Frame latest = published.get(board);
+        if (latest.version <= front[board].version) return null;
+        // A worker may publish in between; swapping then hands over that even newer frame
+        front[board] = published.getAndSet(board, front[board]);
+        return front[board];
+    }
+
+    /** @return Number of boards. */
+    public int getCount() {
+        return games.length;
+    }
+
+    /** @return Pieces placed on all boards since the wall was created. */
+    public long getPiecesPlaced() {
+        return piecesPlaced.get();
+    }
+
+    /** @return Games that topped out and started over. */
+    public long getGamesFinished() {
+        return gamesFinished.get();
+    }
+
+    /**
+     * Stops the worker threads and waits for them to finish their current piece.
+     */
+    @Override
+    public void dispose() {
+        running = false;
+        for (Thread worker : workers) {
+            if (worker == null) continue;
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.utils.TimeUtils;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implements the "Sprint" game mode where the player must clear a set number of lines as fast as possible.
  * Handles game logic, rendering, and user input for this mode.
@@ -34,7 +36,7 @@ public class SprintScreen extends BaseGameScreen {
         linesLeft = targetLines - linesCleared;
         pace = 0;
         currentSpeed = 0;
-        gravity = 0.5f; // Fixed gravity for sprint mode
+        gravity = GravityCurve.fromRowsPerSecond(0.5f); // Fixed gravity for sprint mode
     }
 
     /**
@@ -47,10 +49,11 @@ public class SprintScreen extends BaseGameScreen {
         if (gameOver) {
             // Capture final stats
             long finalTime = TimeUtils.millis() - startTime;
+            finishTrainingData();
 
             // Pass the game type and stats to game over screen
             game.setScreen(new GameOverScreen(game, "sprint", 0, level, linesCleared,
-                            finalTime, currentSpeed, maxSpeed, targetLines - linesCleared));
+                            finalTime, currentSpeed, maxSpeed, targetLines - linesCleared, finesse.getFaults()));
             return;
         }
 
@@ -58,15 +61,17 @@ public class SprintScreen extends BaseGameScreen {
         if (linesCleared >= targetLines) {
             // Capture final time and pass stats to win screen
             long finalTime = TimeUtils.millis() - startTime;
+            finishTrainingData();
+            GameSnapshot.delete();
 
             // Pass game type and stats to the win screen
             game.setScreen(new WinScreen(game, "sprint", 0, level, linesCleared, finalTime,
-                         currentSpeed, maxSpeed, 0));
+                         currentSpeed, maxSpeed, 0, finesse.getFaults()));
             return;
         }
 
         handleInput();
-        update();
+        updateFallingPiece();
 
         // Update game stats
         currentTime = TimeUtils.millis() - startTime;
@@ -91,15 +96,7 @@ public class SprintScreen extends BaseGameScreen {
         shapeRenderer.setProjectionMatrix(game.camera.combined);
 
         // Render game elements
-        grid.render(shapeRenderer);
-
-        if (config.showGhostPiece) {
-            // Render ghost piece with transparency
-            ghostPiece.render(shapeRenderer, 0.3f);
-        }
-
-        currentPiece.render(shapeRenderer);
-        shapeRenderer.end();
+        renderBoard();
 
         // Hold and Next pieces have their own begin/end calls
         renderHoldPiece();
@@ -135,6 +132,9 @@ public class SprintScreen extends BaseGameScreen {
             font.draw(spriteBatch, "Pace: " + String.format("%.2f lpm", pace), 20, Gdx.graphics.getHeight() - 110);
         }
 
+        // Live stack health readout
+        renderStackHealth();
+
         spriteBatch.end();
     }
 
@@ -142,10 +142,12 @@ public class SprintScreen extends BaseGameScreen {
      * Places the current piece on the grid and handles line clears and speed updates.
      */
     public void placePiece() {
+        beforeLock();
         grid.lockPiece(currentPiece);
 
         // Check for line clears after locking the piece
         int lines = grid.checkAndClearLines();
+        afterLock(lines);
         linesCleared += lines;
 
         // Update speed tracking after each piece placement
@@ -164,75 +166,35 @@ public class SprintScreen extends BaseGameScreen {
         canHold = true; // Reset the hold flag after placing a piece
     }
 
-    /**
-     * Updates the game state, including gravity and lock delay.
-     */
-    private void update() {
-        if (gameOver) return; // Stop updates if game is over
-
-        // Try to move the piece down due to gravity
-        if (TimeUtils.timeSinceMillis(lastFallTime) >= (1000 / gravity)) {
-            if (currentPiece.move(0, 1, grid)) { // Attempt to move piece down
-                // Piece moved down successfully
-                lastFallTime = TimeUtils.millis();
-                lockDelayActive = false; // If piece is falling, it's not in lock delay
-                updateGhostPiece();
-            } else {
-                // Piece could not move down (landed)
-                if (!lockDelayActive) {
-                    // Activate lock delay if not already active
-                    lockDelayActive = true;
-                    lockDelayStartTime = TimeUtils.millis();
-                }
-            }
-        }
+    @Override
+    public String getMode() {
+        return "sprint";
+    }
 
-        // Handle lock delay
-        if (lockDelayActive) {
-            // Check if the lock delay time has passed or max resets reached
-            if (TimeUtils.millis() - lockDelayStartTime > LOCK_DELAY || lockResets >= MAX_LOCK_RESETS) {
-                // Before placing, make a final check if the piece can move down
-                if (!currentPiece.move(0, 1, grid)) {
-                    // Still cannot move down, so place the piece
-                    placePiece();
-                } else {
-                    // Piece was able to move down
-                    lastFallTime = TimeUtils.millis();
-                    lockDelayActive = false;
-                    lockResets = 0;
-                    updateGhostPiece();
-                }
-            }
-        }
+    @Override
+    protected void writeState(ByteBuffer out) {
+        super.writeState(out);
+        out.putInt(linesCleared).putInt(targetLines).putInt(level).putInt(highScore);
+        out.putLong(TimeUtils.millis() - startTime);
+        out.putFloat(pace).putFloat(currentSpeed).putFloat(maxSpeed);
     }
 
-    /**
-     * Updates the position of the ghost piece to reflect where the current piece would land.
-     */
-    private void updateGhostPiece() {
-        // Create a fresh copy of the current piece to ensure correct shape/rotation
-        ghostPiece = new Piece(currentPiece.getType());
-        ghostPiece.setRotation(currentPiece.getRotation());
-        ghostPiece.setPosition(currentPiece.getX(), currentPiece.getY());
-
-        // Drop the ghost piece as far as it can go
-        while (ghostPiece.move(0, 1, grid)) { }
+    @Override
+    protected void readState(ByteBuffer in) {
+        super.readState(in);
+        linesCleared = in.getInt();
+        targetLines = in.getInt();
+        level = in.getInt();
+        highScore = in.getInt();
+        startTime = TimeUtils.millis() - in.getLong();
+        pace = in.getFloat();
+        currentSpeed = in.getFloat();
+        maxSpeed = in.getFloat();
+        linesLeft = targetLines - linesCleared;
     }
 
-    /**
-     * Called when this screen becomes the current screen for the Game.
-     */
-    @Override public void show() {}
-    /**
-     * Called when the Application is paused, usually when it's not active or visible on-screen.
-     */
-    @Override public void pause() {}
     /**
      * Called when the Application is resumed after being paused.
      */
     @Override public void resume() {}
-    /**
-     * Called when this screen is no longer the current screen for the Game.
-     */
-    @Override public void hide() {}
 }
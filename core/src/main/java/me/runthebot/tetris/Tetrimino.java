@@ -54,6 +54,10 @@ public enum Tetrimino {
     public final Color color;
     private final String[] shapeLines;
     private final boolean[][] shape;
+    // Shape grid per rotation, built once so rotating a piece allocates nothing
+    private final boolean[][][] shapes = new boolean[4][][];
+    // Shape rows as bitmasks per rotation, bit c set when column c is filled
+    private final long[][] rowMasks = new long[4][];
 
     /**
      * Constructs a Tetrimino with the given color and shape definition.
@@ -64,6 +68,17 @@ public enum Tetrimino {
         this.color = color;
         this.shapeLines = shapeLines;
         this.shape = convertToBooleanGrid(shapeLines);
+        for (int rotation = 0; rotation < 4; rotation++) {
+            boolean[][] rotated = rotation == 0 ? getShape() : rotate90(shapes[rotation - 1]);
+            shapes[rotation] = rotated;
+            long[] masks = new long[rotated.length];
+            for (int row = 0; row < rotated.length; row++) {
+                for (int col = 0; col < rotated[row].length; col++) {
+                    if (rotated[row][col]) masks[row] |= 1L << col;
+                }
+            }
+            rowMasks[rotation] = masks;
+        }
     }
 
     /**
@@ -114,15 +129,21 @@ public enum Tetrimino {
 
     /**
      * Returns the shape grid rotated by the given number of 90-degree steps.
+     * The array is shared; callers must not modify it.
      * @param rotation Number of 90-degree rotations
      * @return Rotated shape grid
      */
     public boolean[][] getShape(int rotation) {
-        boolean[][] result = getShape();
-        for (int i = 0; i < rotation % 4; i++) {
-            result = rotate90(result);
-        }
-        return result;
+        return shapes[rotation & 3];
+    }
+
+    /**
+     * Returns the shape at a rotation as one bitmask per row, for {@link Grid#collides(long[], int, int)}.
+     * The array is shared; callers must not modify it.
+     * @param rotation Rotation state 0-3
+     */
+    public long[] getRowMasks(int rotation) {
+        return rowMasks[rotation & 3];
     }
 
     /**
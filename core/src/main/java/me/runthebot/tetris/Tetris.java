@@ -1,12 +1,17 @@
 package me.runthebot.tetris;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.kotcrab.vis.ui.VisUI;
 
+import java.nio.ByteBuffer;
+
 /**
  * Main entry point for the Tetris game, shared by all platforms.
  * Sets up the camera, viewport, and initial screen.
@@ -18,10 +23,24 @@ public class Tetris extends Game {
     public static final int BUFFER_SIZE = 20;
     /** Height of the Tetris grid including the buffer. */
     public static final int GRID_HEIGHT = 20 + BUFFER_SIZE;
-    /** Width of the viewport in world units. */
-    public static float VIEWPORT_WIDTH = GRID_WIDTH * 2.5f;
-    /** Height of the viewport in world units. */
-    public static float VIEWPOET_HEIGHT = (GRID_HEIGHT - BUFFER_SIZE + 2);
+    /** Width of the viewport in world units before a screen lays out its boards. */
+    public static final float VIEWPORT_WIDTH = GRID_WIDTH * 2.5f;
+    /** Height of the viewport in world units before a screen lays out its boards. */
+    public static final float VIEWPOET_HEIGHT = (GRID_HEIGHT - BUFFER_SIZE + 2);
+    /** World width beside each board for its hold and next boxes, split between both sides. */
+    public static final float BOARD_MARGIN = 15;
+    /** Narrowest board a game can be played on. */
+    public static final int MIN_BOARD_WIDTH = 4;
+    /** Widest board a game can be played on; each row is one 64-bit mask. */
+    public static final int MAX_BOARD_WIDTH = Grid.MAX_WIDTH;
+    /** Fewest visible rows a game can be played with. */
+    public static final int MIN_BOARD_HEIGHT = 4;
+    /** Most visible rows a game can be played with, leaving room for the buffer. */
+    public static final int MAX_BOARD_HEIGHT = Grid.MAX_HEIGHT - BUFFER_SIZE;
+    /** Most upcoming pieces the next queue can show; the queue always holds at least this many. */
+    public static final int MAX_PREVIEW_PIECES = 6;
+    /** Opening book file in the assets, written by the tuner's openingBook task. */
+    public static final String OPENING_BOOK = "openers.book";
 //    public static final int BLOCK_SIZE = 30;
 
     /** Used for drawing sprites and textures. */
@@ -32,6 +51,12 @@ public class Tetris extends Game {
     public FitViewport viewport;
     /** Camera used for the viewport. */
     public OrthographicCamera camera;
+    /** Opener library for the first bag, or null if the book is missing. */
+    public OpeningBook openingBook;
+    /** Piece sprites for the hold box and the next queue. */
+    public PiecePreviews previews;
+    /** Block skins, icons and power items from the packed game atlas. */
+    public GameSprites sprites;
 
     /**
      * Called when the game is created. Initializes game resources and sets the initial screen.
@@ -44,6 +69,8 @@ public class Tetris extends Game {
         // initialize batch, font, camera
         batch = new SpriteBatch();
         font = new BitmapFont();
+        previews = new PiecePreviews();
+        sprites = new GameSprites(Gdx.files.internal(GameSprites.ATLAS));
         camera = new OrthographicCamera();
 
         // set up the camera and viewport (wider to accommodate both hold and next pieces)
@@ -51,10 +78,52 @@ public class Tetris extends Game {
         viewport = new FitViewport(VIEWPORT_WIDTH, VIEWPOET_HEIGHT, camera); // logical size
         viewport.apply();
 
+        loadOpeningBook();
+
         // return the menu screen
         this.setScreen(new MenuScreen(this));
     }
 
+    /**
+     * Maps the opening book, if there is one. The file is not read until a game looks up its first bag.
+     */
+    private void loadOpeningBook() {
+        FileHandle file = Gdx.files.internal(OPENING_BOOK);
+        if (!file.exists()) return;
+        try {
+            ByteBuffer data;
+            try {
+                data = file.map();
+            } catch (GdxRuntimeException e) {
+                // Inside a jar the book is a classpath resource, which cannot be mapped
+                data = ByteBuffer.wrap(file.readBytes());
+            }
+            openingBook = new OpeningBook(data);
+        } catch (GdxRuntimeException | IllegalArgumentException e) {
+            Gdx.app.error("Tetris", "Could not load the opening book", e);
+        }
+    }
+
+    /**
+     * Places boards side by side at full scale, each with room for its hold and next boxes, and
+     * resizes the world to fit them all.
+     * @param boards The boards of the screen, left to right
+     */
+    public void layoutBoards(BoardTransform... boards) {
+        float width = 0;
+        int rows = 0;
+        for (BoardTransform board : boards) {
+            board.set(width + BOARD_MARGIN / 2, 0, 1);
+            width += board.getWidth() + BOARD_MARGIN;
+            rows = Math.max(rows, board.getVisibleRows());
+        }
+        float height = rows + 2;
+
+        camera.setToOrtho(false, width, height);
+        viewport.setWorldSize(width, height);
+        viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
     /**
      * Called every frame. Renders the current screen.
      */
@@ -72,5 +141,6 @@ public class Tetris extends Game {
         if (screen != null) {
             screen.dispose();
         }
+        sprites.dispose();
     }
 }
@@ -0,0 +1,182 @@
+package me.runthebot.tetris;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+
+import static me.runthebot.tetris.Tetris.BUFFER_SIZE;
+
+/**
+ * Reinforcement learning environment over a {@link HeadlessGame}, in the style of a Gym env:
+ * {@link #reset(long)}, then {@link #step(int)} until {@link #isDone()}.
+ * <p>
+ * Observations are written as floats straight into a caller-supplied buffer at a given index,
+ * so a trainer can hand in a direct buffer (or a slice of one shared by many envs) and read the
+ * result without copying. The layout is fixed by the offsets below:
+ * the visible 10x20 grid row by row from the top, one-hot current piece, one-hot hold (all zero
+ * when empty), {@link #QUEUE_SIZE} one-hot next pieces, then the {@link BoardFeatures} vector.
+ * <p>
+ * Actions are indexes into the placements {@link HeadlessGame} accepts:
+ * {@code action = (hold * 4 + rotation) * COLUMNS + x + MoveGenerator.X_OFFSET}.
+ */
+public class TetrisEnv {
+    /** Width of the observed grid. */
+    public static final int VISIBLE_WIDTH = Tetris.GRID_WIDTH;
+    /** Height of the observed grid; the buffer above it is left out. */
+    public static final int VISIBLE_HEIGHT = Tetris.GRID_HEIGHT - BUFFER_SIZE;
+    /** Upcoming pieces included in the observation. */
+    public static final int QUEUE_SIZE = 5;
+    private static final int PIECES = Tetrimino.values().length;
+
+    /** Offset of the grid cells, 1 for filled. */
+    public static final int GRID_OFFSET = 0;
+    /** Offset of the one-hot current piece. */
+    public static final int CURRENT_OFFSET = GRID_OFFSET + VISIBLE_WIDTH * VISIBLE_HEIGHT;
+    /** Offset of the one-hot held piece. */
+    public static final int HOLD_OFFSET = CURRENT_OFFSET + PIECES;
+    /** Offset of the one-hot next pieces, nearest first. */
+    public static final int QUEUE_OFFSET = HOLD_OFFSET + PIECES;
+    /** Offset of the board features, indexed by the {@link BoardFeatures} constants. */
+    public static final int FEATURES_OFFSET = QUEUE_OFFSET + QUEUE_SIZE * PIECES;
+    /** Floats per observation. */
+    public static final int OBSERVATION_SIZE = FEATURES_OFFSET + BoardFeatures.COUNT;
+
+    /** Piece x positions an action can choose from. */
+    public static final int COLUMNS = Tetris.GRID_WIDTH + MoveGenerator.X_OFFSET;
+    /** Number of discrete actions. */
+    public static final int ACTION_COUNT = 2 * 4 * COLUMNS;
+
+    /** Reward for an illegal action, which leaves the game unchanged. */
+    public static final float ILLEGAL_REWARD = -1f;
+    /** Reward added when the game tops out. */
+    public static final float GAME_OVER_REWARD = -10f;
+
+    private final int maxPieces;
+    private HeadlessGame game;
+    private boolean done;
+
+    /**
+     * Creates an environment. Call {@link #reset(long)} before stepping.
+     * @param maxPieces Pieces after which an episode is cut off, or 0 for no limit
+     */
+    public TetrisEnv(int maxPieces) {
+        this.maxPieces = maxPieces;
+        this.done = true;
+    }
+
+    /**
+     * Starts a new episode.
+     * @param seed Seed for the piece sequence
+     */
+    public void reset(long seed) {
+        game = new HeadlessGame(seed);
+        done = game.isGameOver();
+    }
+
+    /**
+     * Plays one action.
+     * @param action Action index in [0, {@link #ACTION_COUNT})
+     * @return Lines cleared, {@link #ILLEGAL_REWARD} for an illegal action, plus {@link #GAME_OVER_REWARD} on top out
+     * @throws IllegalStateException if the episode is over
+     */
+    public float step(int action) {
+        if (done) throw new IllegalStateException("Episode is over; call reset");
+        if (action < 0 || action >= ACTION_COUNT || !game.play(toMove(action))) {
+            return ILLEGAL_REWARD;
+        }
+
+        float reward = game.getLastLinesCleared();
+        if (game.isGameOver()) {
+            reward += GAME_OVER_REWARD;
+            done = true;
+        } else if (maxPieces > 0 && game.getPiecesPlaced() >= maxPieces) {
+            done = true;
+        }
+        return reward;
+    }
+
+    /**
+     * @return Whether the episode has ended by topping out or reaching the piece limit.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return The game being played, for inspection.
+     */
+    public HeadlessGame getGame() {
+        return game;
+    }
+
+    /**
+     * Converts an action index to a packed {@link HeadlessGame} move.
+     */
+    public static int toMove(int action) {
+        int x = action % COLUMNS - MoveGenerator.X_OFFSET;
+        int rotation = (action / COLUMNS) & 3;
+        boolean useHold = action >= 4 * COLUMNS;
+        return HeadlessGame.move(rotation, x, useHold);
+    }
+
+    /**
+     * Writes the current observation without moving the buffer's position.
+     * @param out Destination
+     * @param offset Index of the first float
+     */
+    public void writeObservation(FloatBuffer out, int offset) {
+        Grid grid = game.getGrid();
+        for (int y = 0; y < VISIBLE_HEIGHT; y++) {
+            long row = grid.getRowMask(y + BUFFER_SIZE);
+            int base = offset + GRID_OFFSET + y * VISIBLE_WIDTH;
+            for (int x = 0; x < VISIBLE_WIDTH; x++) {
+                out.put(base + x, (row >>> x) & 1);
+            }
+        }
+
+        oneHot(out, offset + CURRENT_OFFSET, game.getCurrent());
+        oneHot(out, offset + HOLD_OFFSET, game.getHold());
+        Iterator<Tetrimino> next = game.getNextPieces().iterator();
+        for (int i = 0; i < QUEUE_SIZE; i++) {
+            oneHot(out, offset + QUEUE_OFFSET + i * PIECES, next.hasNext() ? next.next() : null);
+        }
+
+        int[] features = grid.getFeatures().getVector();
+        for (int i = 0; i < BoardFeatures.COUNT; i++) {
+            out.put(offset + FEATURES_OFFSET + i, features[i]);
+        }
+    }
+
+    /**
+     * Writes the current observation as floats in the buffer's byte order, without moving its position.
+     * @param out Destination
+     * @param byteOffset Byte index of the first float, a multiple of 4
+     */
+    public void writeObservation(ByteBuffer out, int byteOffset) {
+        if ((byteOffset & 3) != 0) throw new IllegalArgumentException("Offset must be float aligned");
+        ByteBuffer whole = out.duplicate().order(out.order());
+        whole.position(0);
+        writeObservation(whole.asFloatBuffer(), byteOffset / 4);
+    }
+
+    /**
+     * Writes one byte per action, 1 where the action is legal, without moving the buffer's position.
+     * @param out Destination
+     * @param offset Index of the first byte
+     */
+    public void writeActionMask(ByteBuffer out, int offset) {
+        for (int action = 0; action < ACTION_COUNT; action++) {
+            int move = toMove(action);
+            boolean legal = !done && game.isLegal(HeadlessGame.moveRotation(move),
+                HeadlessGame.moveX(move), HeadlessGame.moveUsesHold(move));
+            out.put(offset + action, (byte) (legal ? 1 : 0));
+        }
+    }
+
+    private static void oneHot(FloatBuffer out, int offset, Tetrimino type) {
+        for (int i = 0; i < PIECES; i++) {
+            out.put(offset + i, 0f);
+        }
+        if (type != null) out.put(offset + type.ordinal(), 1f);
+    }
+}
@@ -0,0 +1,191 @@
+package me.runthebot.tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Iterates the records of a file written by {@link TrainingDataWriter}.
+ * Each block is memory-mapped as it is reached and records are read in place, so iterating
+ * allocates nothing per record. The reader is a cursor: call {@link #next()} and then read
+ * the current record's fields.
+ *
+ * <pre>
+ * try (TrainingDataReader reader = new TrainingDataReader(path)) {
+ *     while (reader.next()) {
+ *         long bottomRow = reader.getRow(reader.getHeight() - 1);
+ *         int action = reader.getAction();
+ *     }
+ * }
+ * </pre>
+ */
+public class TrainingDataReader implements Closeable {
+    private final FileChannel channel;
+    private final long size;
+    private final int width;
+    private final int height;
+    private final int queueDepth;
+    private final int rowBytes;
+    private final int pieceBytes;
+
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(TrainingDataWriter.BLOCK_HEADER_BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    private MappedByteBuffer block;
+    private long nextBlock = TrainingDataWriter.HEADER_BYTES;
+    private int blockRecords = 0;
+    private int piecesStart;
+    private int outcomesStart;
+    private int actionPosition;
+
+    private int index = -1;
+    private int action;
+
+    /**
+     * Opens a training data file.
+     * @throws IOException if the file cannot be read or has the wrong format
+     */
+    public TrainingDataReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+
+        ByteBuffer header = ByteBuffer.allocate(TrainingDataWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) { }
+        header.flip();
+        if (header.remaining() < TrainingDataWriter.HEADER_BYTES
+                || header.getInt() != TrainingDataWriter.MAGIC
+                || header.getInt() != TrainingDataWriter.VERSION) {
+            channel.close();
+            throw new IOException("Not a training data file: " + path);
+        }
+        this.width = header.getShort();
+        this.height = header.getShort();
+        this.queueDepth = header.get();
+        this.rowBytes = (width + 7) >>> 3;
+        this.pieceBytes = 2 + queueDepth;
+    }
+
+    /**
+     * Advances to the next record.
+     * @return false when there are no more records
+     */
+    public boolean next() throws IOException {
+        if (index + 1 >= blockRecords && !mapNextBlock()) return false;
+        index++;
+
+        // Decode the varint; actions are stored back to back so this also finds the next one
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = block.get(actionPosition++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        action = value;
+        return true;
+    }
+
+    private boolean mapNextBlock() throws IOException {
+        while (nextBlock + TrainingDataWriter.BLOCK_HEADER_BYTES <= size) {
+            blockHeader.clear();
+            // Positional reads may return fewer bytes than asked for
+            while (blockHeader.hasRemaining()
+                && channel.read(blockHeader, nextBlock + blockHeader.position()) >= 0) { }
+            if (blockHeader.hasRemaining()) return false;
+            blockHeader.flip();
+            int records = blockHeader.getInt();
+            int actionBytes = blockHeader.getInt();
+
+            long start = nextBlock + TrainingDataWriter.BLOCK_HEADER_BYTES;
+            long length = (long) records * (height * rowBytes + pieceBytes + 1) + actionBytes;
+            if (start + length > size) {
+                // Truncated block from an interrupted write
+                return false;
+            }
+
+            block = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            block.order(ByteOrder.LITTLE_ENDIAN);
+            nextBlock = start + length;
+            blockRecords = records;
+            piecesStart = records * height * rowBytes;
+            outcomesStart = piecesStart + records * pieceBytes;
+            actionPosition = outcomesStart + records;
+            index = -1;
+            if (records > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a row of the current record's board as a bitmask, bit x set when column x is occupied.
+     */
+    public long getRow(int y) {
+        int position = (index * height + y) * rowBytes;
+        long mask = 0;
+        for (int i = 0; i < rowBytes; i++) {
+            mask |= (block.get(position + i) & 0xFFL) << (i * 8);
+        }
+        return mask;
+    }
+
+    /** @return Whether a cell of the current record's board is occupied. */
+    public boolean isOccupied(int x, int y) {
+        int position = (index * height + y) * rowBytes + (x >>> 3);
+        return (block.get(position) & (1 << (x & 7))) != 0;
+    }
+
+    /** @return Ordinal of the piece being placed. */
+    public int getCurrent() {
+        return block.get(piecesStart + index * pieceBytes);
+    }
+
+    /** @return Ordinal of the held piece, or {@link TrainingDataWriter#NONE}. */
+    public int getHold() {
+        return block.get(piecesStart + index * pieceBytes + 1);
+    }
+
+    /** @return Ordinal of an upcoming piece, or {@link TrainingDataWriter#NONE}. */
+    public int getQueue(int position) {
+        return block.get(piecesStart + index * pieceBytes + 2 + position);
+    }
+
+    /** @return The packed action; see {@link TrainingDataWriter#action(int, int, int, boolean)}. */
+    public int getAction() {
+        return action;
+    }
+
+    /** @return Lines cleared by the placement. */
+    public int getLinesCleared() {
+        return block.get(outcomesStart + index) & 0x7F;
+    }
+
+    /** @return Whether this was the last placement of its game. */
+    public boolean isGameOver() {
+        return (block.get(outcomesStart + index) & TrainingDataWriter.GAME_OVER) != 0;
+    }
+
+    /** @return Board width of the records. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return Board height of the records. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return Number of upcoming pieces stored per record. */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
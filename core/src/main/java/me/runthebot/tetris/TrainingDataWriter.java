@@ -0,0 +1,211 @@
+package me.runthebot.tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Streams (board, pieces, action, outcome) records of placements to a compact binary file.
+ *
+ * <p>The file is a 16 byte header followed by blocks of up to {@link #BLOCK_RECORDS} records.
+ * Each block is stored column by column so a reader can scan one column without touching the others:
+ * <pre>
+ * header:  int magic, int version, short width, short height, byte queueDepth, 3 bytes reserved
+ * block:   int recordCount, int actionBytes,
+ *          boards   recordCount * height row masks of (width + 7) / 8 bytes each,
+ *          pieces   recordCount * (2 + queueDepth) ordinals: current, hold, queue ({@link #NONE} if empty),
+ *          outcomes recordCount bytes: lines cleared, {@link #GAME_OVER} on a game's last placement,
+ *          actions  actionBytes of unsigned varints, one per record, see {@link #action(int, int, int, boolean)}
+ * </pre>
+ * All values are little-endian. Boards are the state before the piece locks.
+ * A block is built in direct buffers and written with a single gathering write.
+ */
+public class TrainingDataWriter implements Closeable {
+    /** File magic, "TTD1". */
+    public static final int MAGIC = 0x31445454;
+    /** Format version; 2 moved the landing row of actions clear of the move twist bits. */
+    public static final int VERSION = 2;
+    /** Size of the file header in bytes. */
+    public static final int HEADER_BYTES = 16;
+    /** Size of a block header in bytes. */
+    public static final int BLOCK_HEADER_BYTES = 8;
+    /** Maximum records per block. */
+    public static final int BLOCK_RECORDS = 4096;
+    /** Upcoming pieces stored with each record. */
+    public static final int QUEUE_DEPTH = 5;
+    /** Piece ordinal stored for an empty hold or queue slot. */
+    public static final int NONE = 7;
+    /** Outcome flag set on the last placement of a game. */
+    public static final int GAME_OVER = 0x80;
+
+    // Actions extend the HeadlessGame move layout with the landing row from bit 13, above the twist bits,
+    // which are left 0: the rotation and column are where the piece came to rest
+    private static final int ROW_SHIFT = 13;
+
+    private final FileChannel channel;
+    private final int height;
+    private final int rowBytes;
+    private final int pieceBytes;
+
+    private final ByteBuffer blockHeader;
+    private final ByteBuffer boards;
+    private final ByteBuffer pieces;
+    private final ByteBuffer outcomes;
+    private final ByteBuffer actions;
+    private final ByteBuffer[] block;
+
+    private int records = 0;
+    // Whether the last record still waits for its outcome
+    private boolean pending = false;
+    private long recordsWritten = 0;
+
+    /**
+     * Creates or truncates a training data file.
+     * @param path File to write
+     * @param width Grid width, at most 64
+     * @param height Grid height
+     */
+    public TrainingDataWriter(Path path, int width, int height) throws IOException {
+        if (width > 64) throw new IllegalArgumentException("Row masks hold at most 64 columns");
+        this.height = height;
+        this.rowBytes = (width + 7) >>> 3;
+        this.pieceBytes = 2 + QUEUE_DEPTH;
+
+        this.blockHeader = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.boards = ByteBuffer.allocateDirect(BLOCK_RECORDS * height * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.pieces = ByteBuffer.allocateDirect(BLOCK_RECORDS * pieceBytes);
+        this.outcomes = ByteBuffer.allocateDirect(BLOCK_RECORDS);
+        // An action never needs more than 3 varint bytes
+        this.actions = ByteBuffer.allocateDirect(BLOCK_RECORDS * 3);
+        this.block = new ByteBuffer[] {blockHeader, boards, pieces, outcomes, actions};
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putShort((short) width).putShort((short) height).put((byte) QUEUE_DEPTH);
+        header.position(HEADER_BYTES);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header);
+    }
+
+    /**
+     * Packs a placement into an action: a {@link HeadlessGame} move without a twist, with the landing
+     * row plus {@link MoveGenerator#Y_OFFSET} from bit 13. A row fits in 7 bits, so an action is at
+     * most 20 bits and 3 varint bytes.
+     * @param rotation Rotation state 0-3
+     * @param x Piece x position
+     * @param y Piece y position after dropping
+     * @param usedHold Whether the piece came from a hold swap
+     */
+    public static int action(int rotation, int x, int y, boolean usedHold) {
+        return HeadlessGame.move(rotation, x, usedHold) | ((y + MoveGenerator.Y_OFFSET) << ROW_SHIFT);
+    }
+
+    /** @return The landing row of an action. */
+    public static int actionY(int action) {
+        return (action >>> ROW_SHIFT) - MoveGenerator.Y_OFFSET;
+    }
+
+    /**
+     * Starts a record with the state before a piece locks. Call {@link #end(int)} once the
+     * lines are cleared.
+     * @param grid The board, before the piece is locked
+     * @param current The piece being placed
+     * @param hold The held piece, or null
+     * @param queue The upcoming pieces in order
+     * @param action The placement, packed with {@link #action(int, int, int, boolean)}
+     */
+    public void begin(Grid grid, Tetrimino current, Tetrimino hold, Iterable<Tetrimino> queue, int action)
+            throws IOException {
+        if (pending) end(0);
+        if (records == BLOCK_RECORDS) flush();
+
+        for (int y = 0; y < height; y++) {
+            long mask = grid.getRowMask(y);
+            for (int i = 0; i < rowBytes; i++) {
+                boards.put((byte) (mask >>> (i * 8)));
+            }
+        }
+
+        pieces.put((byte) current.ordinal());
+        pieces.put((byte) (hold == null ? NONE : hold.ordinal()));
+        Iterator<Tetrimino> it = queue.iterator();
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            pieces.put((byte) (it.hasNext() ? it.next().ordinal() : NONE));
+        }
+
+        // Unsigned LEB128
+        int value = action;
+        while ((value & ~0x7F) != 0) {
+            actions.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        actions.put((byte) value);
+
+        records++;
+        pending = true;
+    }
+
+    /**
+     * Completes the record started by {@link #begin}.
+     * @param linesCleared Lines the placement cleared
+     */
+    public void end(int linesCleared) {
+        if (!pending) return;
+        outcomes.put((byte) linesCleared);
+        pending = false;
+    }
+
+    /**
+     * Flags the last record as the end of a game and writes out the current block.
+     */
+    public void markGameOver() throws IOException {
+        end(0);
+        if (records == 0) return;
+        int last = outcomes.position() - 1;
+        outcomes.put(last, (byte) (outcomes.get(last) | GAME_OVER));
+        flush();
+    }
+
+    /**
+     * Writes the buffered records as one block.
+     */
+    public void flush() throws IOException {
+        end(0);
+        if (records == 0) return;
+
+        blockHeader.clear();
+        blockHeader.putInt(records).putInt(actions.position());
+        for (ByteBuffer buffer : block) buffer.flip();
+        long remaining = 0;
+        for (ByteBuffer buffer : block) remaining += buffer.remaining();
+        while (remaining > 0) remaining -= channel.write(block);
+        for (ByteBuffer buffer : block) buffer.clear();
+
+        recordsWritten += records;
+        records = 0;
+    }
+
+    /** @return Records written to the file so far, not counting the current block. */
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package me.runthebot.tetris;
+
+/**
+ * Fixed-size, open-addressed transposition table shared between search threads without locks.
+ * Each entry is two longs: the packed data and the hash XOR-ed with that data.
+ * A reader only trusts an entry when {@code checks[i] ^ data[i] == key}, so a read that races
+ * a write (or sees half of a torn 64-bit store) just looks like a miss instead of wrong data.
+ * Entries are grouped in buckets of {@link #BUCKET_SIZE}; when a bucket is full the entry from
+ * the oldest search, then the shallowest one, is replaced.
+ */
+public class TranspositionTable {
+    /** Stored value is exact. */
+    public static final int EXACT = 0;
+    /** Stored value is a lower bound (search failed high). */
+    public static final int LOWER = 1;
+    /** Stored value is an upper bound (search failed low). */
+    public static final int UPPER = 2;
+
+    /** Returned by {@link #probe(long)} when the key is not in the table. */
+    public static final long MISS = 0;
+
+    /** Entries per bucket; a probe scans one bucket only. */
+    public static final int BUCKET_SIZE = 4;
+
+    // Data layout: value (32) | depth (8) | bound (2) | valid (1) | age (8) | move (13)
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int VALID_SHIFT = 42;
+    private static final int AGE_SHIFT = 43;
+    private static final int MOVE_SHIFT = 51;
+    private static final long VALID_BIT = 1L << VALID_SHIFT;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int bucketMask;
+    // Written by the coordinating thread between searches, read by workers
+    private volatile int age = 0;
+
+    /**
+     * Creates a table with 2^sizeLog2 entries.
+     * @param sizeLog2 Log2 of the entry count, at least 2
+     */
+    public TranspositionTable(int sizeLog2) {
+        if (sizeLog2 < 2 || sizeLog2 > 30) {
+            throw new IllegalArgumentException("sizeLog2 out of range: " + sizeLog2);
+        }
+        int size = 1 << sizeLog2;
+        this.checks = new long[size];
+        this.data = new long[size];
+        this.bucketMask = (size / BUCKET_SIZE) - 1;
+    }
+
+    /**
+     * Marks the start of a new search so older entries become preferred for replacement.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Looks up a state.
+     * @param key Zobrist hash of the state
+     * @return The packed entry, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            long d = data[i];
+            if ((checks[i] ^ d) == key && (d & VALID_BIT) != 0) {
+                return d;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result, replacing the least useful entry in the bucket.
+     * @param key Zobrist hash of the state
+     * @param value Evaluation score
+     * @param depth Remaining search depth the value was computed with (0-255)
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param move Best move found, packed by the caller into 13 bits
+     */
+    public void store(long key, int value, int depth, int bound, int move) {
+        int currentAge = age;
+        long packed = pack(value, depth, bound, currentAge, move);
+
+        int base = bucket(key);
+        int victim = base;
+        int victimScore = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            long d = data[i];
+            if ((d & VALID_BIT) == 0 || (checks[i] ^ d) == key) {
+                // Empty slot or same state: keep the deeper result unless it is stale
+                if ((d & VALID_BIT) != 0 && ageOf(d) == currentAge && depthOf(d) > depth) return;
+                victim = i;
+                break;
+            }
+            // Entries from older searches are cheap to evict, then shallower ones
+            int staleness = (currentAge - ageOf(d)) & 0xFF;
+            int score = depthOf(d) - staleness * 256;
+            if (score < victimScore) {
+                victimScore = score;
+                victim = i;
+            }
+        }
+
+        data[victim] = packed;
+        checks[victim] = key ^ packed;
+    }
+
+    /**
+     * Empties the table. Not safe to call while a search is running.
+     */
+    public void clear() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 0;
+            checks[i] = 0;
+        }
+        age = 0;
+    }
+
+    /**
+     * @return Number of entries the table can hold.
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /** @return The evaluation stored in a packed entry. */
+    public static int valueOf(long entry) {
+        return (int) entry;
+    }
+
+    /** @return The search depth stored in a packed entry. */
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /** @return The bound type stored in a packed entry. */
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /** @return The move stored in a packed entry. */
+    public static int moveOf(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0x1FFF;
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0xFF;
+    }
+
+    private static long pack(int value, int depth, int bound, int age, int move) {
+        return (value & 0xFFFFFFFFL)
+            | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+            | ((long) (bound & 0x3) << BOUND_SHIFT)
+            | VALID_BIT
+            | ((long) (age & 0xFF) << AGE_SHIFT)
+            | ((long) (move & 0x1FFF) << MOVE_SHIFT);
+    }
+
+    private int bucket(long key) {
+        // Mix the high bits in so tables smaller than 2^32 still use the whole key
+        int h = (int) (key ^ (key >>> 32));
+        return (h & bucketMask) * BUCKET_SIZE;
+    }
+}
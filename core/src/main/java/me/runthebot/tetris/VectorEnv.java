@@ -0,0 +1,160 @@
+package me.runthebot.tetris;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many {@link TetrisEnv}s stepped together on a fork/join pool.
+ * Every env writes its observation into its own slice of one buffer, env i starting at float
+ * {@code i * TetrisEnv.OBSERVATION_SIZE}, so a trainer reads the whole batch from one place.
+ * Envs that finish an episode are reset straight away with a fresh seed; the step still reports
+ * done for them, and their observation is the first one of the new episode.
+ */
+public class VectorEnv {
+    // Envs per fork/join task
+    private static final int CHUNK = 64;
+
+    private final TetrisEnv[] envs;
+    private final ForkJoinPool pool;
+    private final ByteBuffer observations;
+    private final FloatBuffer observationFloats;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private final int[] episodes;
+    private long seed;
+
+    /**
+     * Creates envs writing into a new direct little-endian buffer.
+     * @param count Number of envs
+     * @param maxPieces Piece limit per episode, or 0 for no limit
+     * @param pool Pool the envs are stepped on, or null to step on the calling thread
+     */
+    public VectorEnv(int count, int maxPieces, ForkJoinPool pool) {
+        this(count, maxPieces, pool, ByteBuffer.allocateDirect(count * TetrisEnv.OBSERVATION_SIZE * 4)
+            .order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Creates envs writing into a caller-supplied buffer, in that buffer's byte order.
+     * @param count Number of envs
+     * @param maxPieces Piece limit per episode, or 0 for no limit
+     * @param pool Pool the envs are stepped on, or null to step on the calling thread
+     * @param observations Buffer with room for count observations from its position on
+     */
+    public VectorEnv(int count, int maxPieces, ForkJoinPool pool, ByteBuffer observations) {
+        if (count < 1) throw new IllegalArgumentException("Need at least one env");
+        if (observations.remaining() < count * TetrisEnv.OBSERVATION_SIZE * 4) {
+            throw new IllegalArgumentException("Observation buffer is too small");
+        }
+        this.envs = new TetrisEnv[count];
+        for (int i = 0; i < count; i++) {
+            envs[i] = new TetrisEnv(maxPieces);
+        }
+        this.pool = pool;
+        this.observations = observations;
+        this.observationFloats = observations.slice().order(observations.order()).asFloatBuffer();
+        this.rewards = new float[count];
+        this.dones = new boolean[count];
+        this.episodes = new int[count];
+    }
+
+    /**
+     * Starts every env over and writes the first observations.
+     * @param seed Base seed; each env and episode gets its own seed derived from it
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        for (int i = 0; i < envs.length; i++) {
+            episodes[i] = 0;
+            rewards[i] = 0;
+            dones[i] = false;
+            envs[i].reset(episodeSeed(i));
+            envs[i].writeObservation(observationFloats, i * TetrisEnv.OBSERVATION_SIZE);
+        }
+    }
+
+    /**
+     * Plays one action in every env and writes the new observations.
+     * Results are read back with {@link #getRewards()} and {@link #getDones()}.
+     * @param actions One action index per env
+     */
+    public void step(int[] actions) {
+        if (actions.length < envs.length) throw new IllegalArgumentException("Need " + envs.length + " actions");
+        if (pool == null || envs.length <= CHUNK) {
+            stepRange(actions, 0, envs.length);
+        } else {
+            pool.invoke(new StepTask(actions, 0, envs.length));
+        }
+    }
+
+    private void stepRange(int[] actions, int from, int to) {
+        for (int i = from; i < to; i++) {
+            TetrisEnv env = envs[i];
+            rewards[i] = env.step(actions[i]);
+            dones[i] = env.isDone();
+            if (dones[i]) {
+                episodes[i]++;
+                env.reset(episodeSeed(i));
+            }
+            env.writeObservation(observationFloats, i * TetrisEnv.OBSERVATION_SIZE);
+        }
+    }
+
+    // Distinct seed for every (env, episode) pair
+    private long episodeSeed(int env) {
+        return seed + env + (long) envs.length * episodes[env];
+    }
+
+    /** @return Number of envs. */
+    public int getCount() {
+        return envs.length;
+    }
+
+    /** @return A single env, for inspection. */
+    public TetrisEnv getEnv(int index) {
+        return envs[index];
+    }
+
+    /** @return The buffer observations are written to. */
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    /** @return Rewards from the last step, owned by this object and updated in place. */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /** @return Done flags from the last step, owned by this object and updated in place. */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * Steps a range of envs, splitting in half until a chunk is left.
+     */
+    private class StepTask extends RecursiveAction {
+        private final int[] actions;
+        private final int from;
+        private final int to;
+
+        StepTask(int[] actions, int from, int to) {
+            this.actions = actions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StepTask(actions, from, mid), new StepTask(actions, mid, to));
+                return;
+            }
+            stepRange(actions, from, to);
+        }
+    }
+}
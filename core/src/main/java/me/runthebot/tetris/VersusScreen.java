@@ -0,0 +1,298 @@
+package me.runthebot.tetris;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Versus mode: the player's board side by side with one to three bot boards, all drawn in a single
+ * sprite batch pass through one {@link BoardTransform} each. Clearing lines sends garbage to the
+ * other side; the player wins by topping out every bot.
+ * There is one set of key bindings, so the other seats are played by {@link Bot}s on
+ * {@link HeadlessGame}s, each placing a piece every {@link #BOT_PIECE_INTERVAL} milliseconds.
+ */
+public class VersusScreen extends BaseGameScreen {
+    /** Largest number of bot opponents. */
+    public static final int MAX_OPPONENTS = 3;
+    /** Milliseconds between two bot placements. */
+    public static final long BOT_PIECE_INTERVAL = 1000;
+    // Garbage lines sent, indexed by spin kind * 5 + lines cleared: plain clears send 0/1/2/4,
+    // minis one more than the plain clear and full T-spins twice their lines
+    private static final int[] ATTACK = {
+        0, 0, 1, 2, 4,
+        0, 1, 2, 3, 5,
+        0, 2, 4, 6, 8,
+    };
+
+    private final HeadlessGame[] opponents;
+    private final Bot[] bots;
+    private final BoardTransform[] opponentBoards;
+    // Garbage waiting to be inserted, for each bot and for the player
+    private final int[] opponentIncoming;
+    // Bots that topped out, by no legal move or by garbage
+    private final boolean[] knockedOut;
+    private int incoming = 0;
+    // Bot the player's next attack goes to, in turn among those still alive
+    private int target = 0;
+    private int opponentsLeft;
+    private long lastBotTime;
+    // Reused for the bots' next queues, filled from their deques
+    private final Tetrimino[] opponentPreview = new Tetrimino[Tetris.MAX_PREVIEW_PIECES];
+
+    // Game stats tracking
+    private int linesCleared = 0;
+    private int linesSent = 0;
+    private long startTime;
+    private long currentTime;
+    private float currentSpeed = 0;
+    private float maxSpeed = 0;
+
+    /**
+     * @param game The main game class
+     * @param opponentCount Number of bot boards, clamped to 1-{@link #MAX_OPPONENTS}
+     */
+    public VersusScreen(final Tetris game, int opponentCount) {
+        super(game);
+        int count = Math.max(1, Math.min(MAX_OPPONENTS, opponentCount));
+        opponents = new HeadlessGame[count];
+        bots = new Bot[count];
+        opponentBoards = new BoardTransform[count];
+        opponentIncoming = new int[count];
+        knockedOut = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            opponents[i] = new HeadlessGame(System.nanoTime() + i);
+            bots[i] = new Bot(new Evaluator(Evaluator.defaultWeights()));
+            opponentBoards[i] = new BoardTransform(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
+        }
+        opponentsLeft = count;
+
+        // Player on the left, bots to the right
+        BoardTransform[] boards = new BoardTransform[count + 1];
+        boards[0] = board;
+        System.arraycopy(opponentBoards, 0, boards, 1, count);
+        game.layoutBoards(boards);
+
+        startTime = TimeUtils.millis();
+        lastBotTime = startTime;
+    }
+
+    @Override
+    public void render(float delta) {
+        if (gameOver) {
+            game.setScreen(new GameOverScreen(game, "versus", 0, 0, linesCleared,
+                          currentTime, currentSpeed, maxSpeed, opponentsLeft, finesse.getFaults()));
+            return;
+        }
+        if (opponentsLeft == 0) {
+            game.setScreen(new WinScreen(game, "versus", 0, 0, linesCleared,
+                          currentTime, currentSpeed, maxSpeed, 0, finesse.getFaults()));
+            return;
+        }
+
+        handleInput();
+        updateFallingPiece();
+        updateOpponents();
+
+        // Update game stats
+        currentTime = TimeUtils.millis() - startTime;
+        if (currentTime > 0) {
+            currentSpeed = (float) linesCleared / (currentTime / 1000.0f);
+            if (currentSpeed > maxSpeed) {
+                maxSpeed = currentSpeed;
+            }
+        }
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        game.camera.update();
+        shapeRenderer.setProjectionMatrix(game.camera.combined);
+
+        renderBoards();
+        renderUI();
+    }
+
+    // Draws every board with its hold, next queue and garbage meter in one batch pass
+    private void renderBoards() {
+        SpriteBatch batch = game.batch;
+        batch.setProjectionMatrix(game.camera.combined);
+        batch.begin();
+
+        drawBoard(batch);
+        if (holdPiece != null) drawHold(batch, board, holdPiece.getType(), canHold);
+        int count = Math.min(config.previewCount, nextPieces.size());
+        for (int i = 0; i < count; i++) previewPieces[i] = nextPieces.peek(i);
+        if (count > 0) drawNext(batch, board, previewPieces, count);
+        drawIncoming(batch, board, incoming);
+
+        for (int i = 0; i < opponents.length; i++) {
+            HeadlessGame opponent = opponents[i];
+            BoardTransform transform = opponentBoards[i];
+            opponent.getGrid().render(batch, game.sprites, block, transform);
+            if (opponent.getHold() != null) drawHold(batch, transform, opponent.getHold(), true);
+
+            // The current piece leads the bot's queue, as it has not been placed yet
+            opponentPreview[0] = opponent.getCurrent();
+            int shown = 1;
+            for (Iterator<Tetrimino> it = opponent.getNextPieces().iterator();
+                 it.hasNext() && shown < config.previewCount; ) {
+                opponentPreview[shown++] = it.next();
+            }
+            drawNext(batch, transform, opponentPreview, shown);
+            drawIncoming(batch, transform, opponentIncoming[i]);
+
+            if (knockedOut[i]) {
+                // Darken boards that are out
+                batch.setColor(0, 0, 0, 0.6f);
+                batch.draw(game.sprites.getPixel(), transform.getX(), transform.getY(),
+                    transform.getWidth() * transform.getScale(), transform.getVisibleRows() * transform.getScale());
+                batch.setColor(Color.WHITE);
+            }
+        }
+
+        batch.end();
+    }
+
+    // Draws the pending garbage as a red bar along the left edge of a board
+    private void drawIncoming(SpriteBatch batch, BoardTransform transform, int lines) {
+        if (lines == 0) return;
+        float scale = transform.getScale();
+        float height = Math.min(lines, transform.getVisibleRows()) * scale;
+        batch.setColor(Color.RED);
+        batch.draw(game.sprites.getPixel(), transform.getX() - 0.3f * scale, transform.getY(), 0.2f * scale, height);
+        batch.setColor(Color.WHITE);
+    }
+
+    private void renderUI() {
+        spriteBatch.begin();
+        font.setColor(Color.WHITE);
+        font.getData().setScale(1.5f);
+
+        // Format time as mm:ss.ms
+        String timeString = String.format("%02d:%02d.%d",
+                (currentTime / 60000),
+                (currentTime / 1000) % 60,
+                (currentTime / 100) % 10);
+
+        font.draw(spriteBatch, "VERSUS MODE", 20, Gdx.graphics.getHeight() - 20);
+        font.draw(spriteBatch, "Opponents: " + opponentsLeft + "/" + opponents.length, 20, Gdx.graphics.getHeight() - 50);
+        font.draw(spriteBatch, "Lines Sent: " + linesSent, 20, Gdx.graphics.getHeight() - 80);
+        font.draw(spriteBatch, "Incoming: " + incoming, 20, Gdx.graphics.getHeight() - 110);
+        font.draw(spriteBatch, "Lines: " + linesCleared, 20, Gdx.graphics.getHeight() - 140);
+        font.draw(spriteBatch, "Time: " + timeString, 20, Gdx.graphics.getHeight() - 170);
+
+        // Live stack health readout
+        renderStackHealth();
+
+        spriteBatch.end();
+    }
+
+    public void placePiece() {
+        // Spins are judged on the board before the piece locks
+        int spin = Scoring.detectSpin(grid, currentPiece);
+        beforeLock();
+        grid.lockPiece(currentPiece);
+
+        int lines = grid.checkAndClearLines();
+        afterLock(lines);
+        linesCleared += lines;
+
+        if (lines > 0) {
+            int attack = attackFor(spin, lines);
+            // Sent lines cancel incoming garbage first
+            int cancelled = Math.min(attack, incoming);
+            incoming -= cancelled;
+            sendToOpponent(attack - cancelled);
+        } else if (incoming > 0) {
+            // Garbage rises only when a piece locks without clearing
+            if (grid.insertGarbage(incoming, garbageHoles(incoming, grid.getWidth()))) {
+                gameOver = true;
+                return;
+            }
+            incoming = 0;
+        }
+
+        // Reset lock delay mechanism as piece is now placed
+        lockDelayActive = false;
+        lockResets = 0;
+
+        spawnNewPiece();
+        canHold = true; // Reset the hold flag after placing a piece
+    }
+
+    // Sends garbage to the targeted bot, moving the target on to the next one still playing
+    private void sendToOpponent(int lines) {
+        if (lines <= 0 || opponentsLeft == 0) return;
+        while (knockedOut[target]) target = (target + 1) % opponents.length;
+        opponentIncoming[target] += lines;
+        linesSent += lines;
+        target = (target + 1) % opponents.length;
+    }
+
+    // Places a piece for every bot that is due one
+    private void updateOpponents() {
+        long now = TimeUtils.millis();
+        if (now - lastBotTime < BOT_PIECE_INTERVAL) return;
+        lastBotTime = now;
+
+        for (int i = 0; i < opponents.length; i++) {
+            HeadlessGame opponent = opponents[i];
+            if (knockedOut[i]) continue;
+
+            int move = bots[i].chooseMove(opponent);
+            if (move < 0 || !opponent.play(move) || opponent.isGameOver()) {
+                knockOut(i);
+                continue;
+            }
+
+            int lines = opponent.getLastLinesCleared();
+            if (lines > 0) {
+                int attack = attackFor(opponent.getScoring().getLastSpin(), lines);
+                int cancelled = Math.min(attack, opponentIncoming[i]);
+                opponentIncoming[i] -= cancelled;
+                incoming += attack - cancelled;
+            } else if (opponentIncoming[i] > 0) {
+                Grid opponentGrid = opponent.getGrid();
+                int count = opponentIncoming[i];
+                opponentIncoming[i] = 0;
+                if (opponentGrid.insertGarbage(count, garbageHoles(count, opponentGrid.getWidth()))) {
+                    knockOut(i);
+                }
+            }
+        }
+    }
+
+    private void knockOut(int opponent) {
+        knockedOut[opponent] = true;
+        opponentIncoming[opponent] = 0;
+        opponentsLeft--;
+    }
+
+    private static int attackFor(int spin, int lines) {
+        return ATTACK[spin * 5 + Math.min(lines, 4)];
+    }
+
+    // One hole column per garbage batch, so each batch can be cleared down a single well
+    private int[] garbageHoles(int count, int width) {
+        int[] holes = new int[count];
+        Arrays.fill(holes, nextRandom(width));
+        return holes;
+    }
+
+    @Override
+    public String getMode() {
+        return "versus";
+    }
+
+    /** Bot games live only in memory, so a versus game is never saved. */
+    @Override
+    protected void saveSnapshot() {
+    }
+
+    @Override public void resume() {}
+}
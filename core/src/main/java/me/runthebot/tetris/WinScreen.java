@@ -30,6 +30,7 @@ public class WinScreen implements Screen {
     private float maxSpeed;
     private int linesLeft;
     private int highScore;
+    private int finesseFaults;
 
     /**
      * WinScreen class.
@@ -50,6 +51,7 @@ public class WinScreen implements Screen {
         this.maxSpeed = 0;
         this.linesLeft = 0;
         this.highScore = 0;
+        this.finesseFaults = 0;
     }
 
     /**
@@ -63,9 +65,10 @@ public class WinScreen implements Screen {
      * @param currentSpeed
      * @param maxSpeed
      * @param highScore
+     * @param finesseFaults
      */
     public WinScreen(final Tetris game, String gameType, int score, int level, int linesCleared,
-                    long time, float currentSpeed, float maxSpeed, int highScore) {
+                    long time, float currentSpeed, float maxSpeed, int highScore, int finesseFaults) {
         this.game = game;
         this.gameType = gameType;
         this.score = score;
@@ -76,6 +79,7 @@ public class WinScreen implements Screen {
         this.maxSpeed = maxSpeed;
         this.highScore = highScore;
         this.linesLeft = 0; // Always 0 in win screen
+        this.finesseFaults = finesseFaults;
     }
 
     @Override
@@ -130,6 +134,24 @@ public class WinScreen implements Screen {
                 statsTable.add(new VisLabel("Pace:")).padRight(10);
                 statsTable.add(new VisLabel(String.format("%.2f lpm", pace))).row();
             }
+        } else if (gameType.equals("dig")) {
+            VisLabel congratsLabel = new VisLabel("Congratulations! You dug through all " + linesCleared + " garbage rows!");
+            congratsLabel.setColor(Color.YELLOW);
+
+            statsTable.add(congratsLabel).colspan(2).center().padBottom(15).row();
+            statsTable.add(new VisLabel("DIG MODE STATS")).colspan(2).center().padBottom(10).row();
+            statsTable.add(new VisLabel("Final Time:")).padRight(10);
+            statsTable.add(new VisLabel(timeString)).row();
+        } else if (gameType.equals("versus")) {
+            VisLabel congratsLabel = new VisLabel("Congratulations! You topped out every opponent!");
+            congratsLabel.setColor(Color.YELLOW);
+
+            statsTable.add(congratsLabel).colspan(2).center().padBottom(15).row();
+            statsTable.add(new VisLabel("VERSUS MODE STATS")).colspan(2).center().padBottom(10).row();
+            statsTable.add(new VisLabel("Final Time:")).padRight(10);
+            statsTable.add(new VisLabel(timeString)).row();
+            statsTable.add(new VisLabel("Lines Cleared:")).padRight(10);
+            statsTable.add(new VisLabel(String.valueOf(linesCleared))).row();
         } else if (gameType.equals("classic") || gameType.equals("arcade")) {
             String modeTitle = gameType.equals("classic") ? "MARATHON MODE STATS" : "ARCADE MODE STATS";
 
@@ -165,6 +187,8 @@ public class WinScreen implements Screen {
         statsTable.add(new VisLabel(String.format("%.2f lps", currentSpeed))).row();
         statsTable.add(new VisLabel("Max Speed:")).padRight(10);
         statsTable.add(new VisLabel(String.format("%.2f lps", maxSpeed))).row();
+        statsTable.add(new VisLabel("Finesse Faults:")).padRight(10);
+        statsTable.add(new VisLabel(String.valueOf(finesseFaults))).row();
 
         // Buttons
         VisTextButton playAgainButton = new VisTextButton("Play Again");
@@ -176,6 +200,10 @@ public class WinScreen implements Screen {
                     game.setScreen(new SprintScreen(game));
                 } else if (gameType.equals("arcade")) {
                     game.setScreen(new ArcadeScreen(game));
+                } else if (gameType.equals("dig")) {
+                    game.setScreen(new DigScreen(game));
+                } else if (gameType.equals("versus")) {
+                    game.setScreen(new VersusScreen(game, ConfigManager.getInstance().getConfig().versusOpponents));
                 }
                 return true;
             }
@@ -0,0 +1,130 @@
+package me.runthebot.tetris;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Random 64-bit keys for hashing game states.
+ * The board part of a hash is kept by {@link Grid}: each row mask gets a key from {@link #row(long)},
+ * weighted by a power of an odd constant for its level above the floor, and the weighted keys are
+ * summed. Locking a piece only changes the rows it touches, and garbage pushing the stack up by n
+ * rows multiplies the sum by {@link #power(int) power(n)}, so no change rescans the whole board.
+ * The held piece, the current piece and each queue position have their own keys, XOR-ed onto the
+ * board hash so a full game state can be identified cheaply.
+ * Keys come from a fixed seed so hashes are stable between runs.
+ */
+public final class Zobrist {
+    /** Number of queue slots that get their own keys. */
+    public static final int MAX_QUEUE = 16;
+
+    private static final long SEED = 0x7E7215L;
+    // Weight of one level; odd, so multiplying by it can be undone
+    private static final long LEVEL = 0x9E3779B97F4A7C15L;
+    // LEVEL^-1 mod 2^64
+    private static final long INVERSE_LEVEL;
+
+    // LEVEL^n for every level a grid can have
+    private static final long[] POWERS = new long[Grid.MAX_HEIGHT + 1];
+    // Key mixed into every row mask
+    private static final long ROW;
+    // Hold keys indexed by Tetrimino ordinal, last slot is "nothing held"
+    private static final long[] HOLD = new long[Tetrimino.values().length + 1];
+    // Queue keys indexed by position * 7 + ordinal
+    private static final long[] QUEUE = new long[MAX_QUEUE * Tetrimino.values().length];
+    // Key for the piece currently in play, indexed by ordinal
+    private static final long[] CURRENT = new long[Tetrimino.values().length];
+
+    static {
+        Random random = new Random(SEED);
+        ROW = random.nextLong();
+        fill(random, HOLD);
+        fill(random, QUEUE);
+        fill(random, CURRENT);
+
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) POWERS[i] = POWERS[i - 1] * LEVEL;
+        // Newton's iteration doubles the correct low bits each step: 3, 6, 12, 24, 48, 96
+        long inverse = LEVEL;
+        for (int i = 0; i < 5; i++) inverse *= 2 - LEVEL * inverse;
+        INVERSE_LEVEL = inverse;
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Returns the key of a row mask, 0 for an empty row so empty rows need no upkeep.
+     */
+    public static long row(long mask) {
+        if (mask == 0) return 0;
+        // MurmurHash3 finalizer
+        long h = mask ^ ROW;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns the weight of a row key at a level, counted up from the floor. Multiplying a board
+     * hash by power(n) moves every row up n levels.
+     */
+    public static long power(int level) {
+        return POWERS[level];
+    }
+
+    /**
+     * Moves every row of a board hash down one level; the lowest level must hold no rows.
+     */
+    public static long lower(long hash) {
+        return hash * INVERSE_LEVEL;
+    }
+
+    /**
+     * Returns the key for the held piece.
+     * @param type The held piece, or null if nothing is held
+     */
+    public static long hold(Tetrimino type) {
+        return HOLD[type == null ? HOLD.length - 1 : type.ordinal()];
+    }
+
+    /**
+     * Returns the key for a piece at a position in the next queue.
+     * Positions past {@link #MAX_QUEUE} do not contribute to the hash.
+     */
+    public static long queue(int position, Tetrimino type) {
+        if (position >= MAX_QUEUE) return 0;
+        return QUEUE[position * Tetrimino.values().length + type.ordinal()];
+    }
+
+    /**
+     * Returns the key for the piece currently in play.
+     */
+    public static long current(Tetrimino type) {
+        return CURRENT[type.ordinal()];
+    }
+
+    /**
+     * Combines the grid's incrementally maintained hash with the piece components.
+     * @param grid The board
+     * @param current The piece in play, or null between pieces
+     * @param hold The held piece, or null
+     * @param queue The upcoming pieces in order
+     * @param depth How many queue entries to include
+     * @return The full state hash
+     */
+    public static long hash(Grid grid, Tetrimino current, Tetrimino hold, Iterable<Tetrimino> queue, int depth) {
+        long hash = grid.getHash() ^ hold(hold);
+        if (current != null) hash ^= current(current);
+
+        Iterator<Tetrimino> it = queue.iterator();
+        for (int i = 0; i < depth && it.hasNext(); i++) {
+            hash ^= queue(i, it.next());
+        }
+        return hash;
+    }
+
+    private static void fill(Random random, long[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package me.runthebot.tetris;
+
+/**
+ * Feature kernel used by {@link BatchEvaluator}. This is the Java 17 version from the
+ * multi-release jar: when the JVM was started with {@code --add-modules jdk.incubator.vector}
+ * it runs {@link VectorBatchKernel}, otherwise the scalar kernel.
+ */
+final class BatchKernel {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BatchKernel() {}
+
+    /** @return Whether {@link #features} is vectorized. */
+    static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Computes the features of the first count boards; see {@link BatchEvaluator#scalarFeatures}.
+     */
+    static void features(long[] rows, int stride, int height, int width, int count, long[] out) {
+        // VectorBatchKernel is only loaded, and the incubator module only touched, past this check
+        // Strides are padded to a multiple of 8, which covers every vector size up to 512 bits
+        if (VECTORIZED && width <= VectorBatchKernel.MAX_WIDTH && stride % VectorBatchKernel.LANES == 0) {
+            VectorBatchKernel.features(rows, stride, height, width, count, out);
+        } else {
+            BatchEvaluator.scalarFeatures(rows, stride, height, width, 0, count, out);
+        }
+    }
+}
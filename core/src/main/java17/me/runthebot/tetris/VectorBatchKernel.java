@@ -0,0 +1,175 @@
+package me.runthebot.tetris;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.ASHR;
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.OR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * The {@link BatchEvaluator} feature walk on the Vector API, one board per lane.
+ * Rows of consecutive boards are contiguous, so each row step is a single vector load.
+ * <p>
+ * JDK 17 has no lane-wise bit count, so popcounts are done with the SWAR bit trick and left as
+ * per-byte counts. Those are summed across rows and only folded into totals every
+ * 31 rows, before any byte can overflow.
+ */
+final class VectorBatchKernel {
+    /** Widest board handled; the row transition trick needs two spare bits above the row. */
+    static final int MAX_WIDTH = 62;
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    /** Boards per vector; the row stride must be a multiple of it. */
+    static final int LANES = SPECIES.length();
+    // Rows whose per-byte counts, at most 8 each, fit in a byte
+    private static final int FOLD_ROWS = 31;
+
+    private VectorBatchKernel() {}
+
+    /**
+     * Computes the features of the first count boards; see {@link BatchEvaluator#scalarFeatures}.
+     * The stride must be a multiple of {@link #LANES}.
+     */
+    static void features(long[] rows, int stride, int height, int width, int count, long[] out) {
+        for (int board = 0; board < count; board += LANES) {
+            // Rows that are empty on every board add nothing to any feature
+            int top = 0;
+            while (top < height && LongVector.fromArray(SPECIES, rows, top * stride + board).reduceLanes(OR) == 0) {
+                top++;
+            }
+            // Two walks; one walk computing everything is too big for C2 to inline the popcounts
+            // into, and vectors that are not inlined get boxed
+            stack(rows, stride, top, height, width, board, out);
+            wells(rows, stride, top, height, width, board, out);
+        }
+    }
+
+    // Height, holes, bumpiness and transitions of one vector of boards
+    private static void stack(long[] rows, int stride, int top, int height, int width, int board, long[] out) {
+        long fullRow = (1L << width) - 1;
+        long pairs = fullRow >>> 1;
+        // Row shifted up one with a wall bit on each side; transitions are then between bits 0..width
+        long walls = 1L | (1L << (width + 1));
+        long wallPairs = (1L << (width + 1)) - 1;
+        LongVector zero = LongVector.zero(SPECIES);
+
+        LongVector seen = zero, previous = zero, maxHeight = zero;
+        LongVector holes = zero, aggregate = zero, bumpiness = zero, rowTransitions = zero, columnTransitions = zero;
+        LongVector holeBytes = zero, aggregateBytes = zero, bumpinessBytes = zero, rowBytes = zero, columnBytes = zero;
+        for (int y = top; y < height; y++) {
+            LongVector row = LongVector.fromArray(SPECIES, rows, y * stride + board);
+
+            holeBytes = holeBytes.add(byteCounts(seen.and(row.not())));
+            seen = seen.or(row);
+            aggregateBytes = aggregateBytes.add(byteCounts(seen));
+            // Rows are at most 62 bits, so -seen is negative exactly when seen is non-zero
+            maxHeight = maxHeight.add(zero.sub(seen).lanewise(LSHR, 63));
+            bumpinessBytes = bumpinessBytes.add(byteCounts(seen.lanewise(XOR, seen.lanewise(LSHR, 1)).and(pairs)));
+
+            // Empty rows have no row transitions: all ones when the row is non-zero, else zero
+            LongVector filled = zero.sub(row).lanewise(ASHR, 63);
+            LongVector walled = row.lanewise(LSHL, 1).or(walls);
+            rowBytes = rowBytes.add(byteCounts(walled.lanewise(XOR, walled.lanewise(LSHR, 1)).and(wallPairs).and(filled)));
+            columnBytes = columnBytes.add(byteCounts(row.lanewise(XOR, previous)));
+            previous = row;
+
+            if ((y - top) % FOLD_ROWS == FOLD_ROWS - 1) {
+                holes = holes.add(sumBytes(holeBytes));
+                aggregate = aggregate.add(sumBytes(aggregateBytes));
+                bumpiness = bumpiness.add(sumBytes(bumpinessBytes));
+                rowTransitions = rowTransitions.add(sumBytes(rowBytes));
+                columnTransitions = columnTransitions.add(sumBytes(columnBytes));
+                holeBytes = aggregateBytes = bumpinessBytes = rowBytes = columnBytes = zero;
+            }
+        }
+        // The floor counts as filled
+        columnBytes = columnBytes.add(byteCounts(previous.not().and(fullRow)));
+
+        aggregate.add(sumBytes(aggregateBytes)).intoArray(out, BoardFeatures.AGGREGATE_HEIGHT * stride + board);
+        maxHeight.intoArray(out, BoardFeatures.MAX_HEIGHT * stride + board);
+        holes.add(sumBytes(holeBytes)).intoArray(out, BoardFeatures.HOLES * stride + board);
+        bumpiness.add(sumBytes(bumpinessBytes)).intoArray(out, BoardFeatures.BUMPINESS * stride + board);
+        rowTransitions.add(sumBytes(rowBytes)).intoArray(out, BoardFeatures.ROW_TRANSITIONS * stride + board);
+        columnTransitions.add(sumBytes(columnBytes)).intoArray(out, BoardFeatures.COLUMN_TRANSITIONS * stride + board);
+    }
+
+    // Total and deepest well depth of one vector of boards
+    private static void wells(long[] rows, int stride, int top, int height, int width, int board, long[] out) {
+        long fullRow = (1L << width) - 1;
+        long rightWall = 1L << (width - 1);
+        LongVector zero = LongVector.zero(SPECIES);
+
+        LongVector seen = zero, wellDepth = zero, wellBytes = zero;
+        // Bit-sliced well depth counters, see BatchEvaluator.WELL_PLANES
+        LongVector p0 = zero, p1 = zero, p2 = zero, p3 = zero, p4 = zero, p5 = zero, p6 = zero;
+        for (int y = top; y < height; y++) {
+            seen = seen.or(LongVector.fromArray(SPECIES, rows, y * stride + board));
+            LongVector well = seen.not()
+                .and(seen.lanewise(LSHL, 1).or(1L))
+                .and(seen.lanewise(LSHR, 1).or(rightWall))
+                .and(fullRow);
+            wellBytes = wellBytes.add(byteCounts(well));
+
+            LongVector carry = p0.and(well); p0 = p0.lanewise(XOR, well); well = carry;
+            carry = p1.and(well); p1 = p1.lanewise(XOR, well); well = carry;
+            carry = p2.and(well); p2 = p2.lanewise(XOR, well); well = carry;
+            carry = p3.and(well); p3 = p3.lanewise(XOR, well); well = carry;
+            carry = p4.and(well); p4 = p4.lanewise(XOR, well); well = carry;
+            carry = p5.and(well); p5 = p5.lanewise(XOR, well); well = carry;
+            p6 = p6.lanewise(XOR, well);
+
+            if ((y - top) % FOLD_ROWS == FOLD_ROWS - 1) {
+                wellDepth = wellDepth.add(sumBytes(wellBytes));
+                wellBytes = zero;
+            }
+        }
+        wellDepth.add(sumBytes(wellBytes)).intoArray(out, BoardFeatures.WELL_DEPTH * stride + board);
+
+        // Deepest well, as in the scalar kernel, with the branches turned into masks
+        LongVector candidates = zero.or(fullRow);
+        LongVector maxWell = zero;
+        LongVector hit = candidates.and(p6);
+        LongVector found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(64));
+        hit = candidates.and(p5);
+        found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(32));
+        hit = candidates.and(p4);
+        found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(16));
+        hit = candidates.and(p3);
+        found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(8));
+        hit = candidates.and(p2);
+        found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(4));
+        hit = candidates.and(p1);
+        found = zero.sub(hit).lanewise(ASHR, 63);
+        candidates = hit.or(candidates.and(found.not()));
+        maxWell = maxWell.or(found.and(2));
+        maxWell = maxWell.or(zero.sub(candidates.and(p0)).lanewise(ASHR, 63).and(1));
+        maxWell.intoArray(out, BoardFeatures.MAX_WELL * stride + board);
+    }
+
+    // Population count of every byte, each at most 8
+    private static LongVector byteCounts(LongVector x) {
+        x = x.sub(x.lanewise(LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(LSHR, 2).and(0x3333333333333333L));
+        return x.add(x.lanewise(LSHR, 4)).and(0x0f0f0f0f0f0f0f0fL);
+    }
+
+    // Sum of the bytes of every lane, widening so no partial sum can carry into its neighbour
+    private static LongVector sumBytes(LongVector x) {
+        x = x.and(0x00ff00ff00ff00ffL).add(x.lanewise(LSHR, 8).and(0x00ff00ff00ff00ffL));
+        x = x.and(0x0000ffff0000ffffL).add(x.lanewise(LSHR, 16).and(0x0000ffff0000ffffL));
+        return x.and(0xffffffffL).add(x.lanewise(LSHR, 32));
+    }
+}
@@ -0,0 +1,142 @@
+package me.runthebot.tetris.tuner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuner state saved between generations so an interrupted run can pick up where it stopped.
+ * Stored as plain text: one header line per field, then one line per candidate's weights.
+ * Writes go to a temporary file that is then moved over the old checkpoint, so a crash
+ * mid-write leaves the previous checkpoint intact.
+ */
+public class Checkpoint {
+    private static final String HEADER = "# tetris tuner checkpoint v1";
+
+    /** The next generation to evaluate. */
+    public final int generation;
+    /** Base seed the run was started with. */
+    public final long seed;
+    /** Best fitness seen so far. */
+    public final double bestFitness;
+    /** Weights that reached {@link #bestFitness}, or null before the first generation. */
+    public final float[] bestWeights;
+    /** The population to evaluate next. */
+    public final List<float[]> population;
+
+    public Checkpoint(int generation, long seed, double bestFitness, float[] bestWeights, List<float[]> population) {
+        this.generation = generation;
+        this.seed = seed;
+        this.bestFitness = bestFitness;
+        this.bestWeights = bestWeights;
+        this.population = population;
+    }
+
+    /**
+     * Writes the checkpoint atomically.
+     * @param path Checkpoint file
+     */
+    public void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            out.write("generation " + generation);
+            out.newLine();
+            out.write("seed " + seed);
+            out.newLine();
+            if (bestWeights != null) {
+                out.write("best " + bestFitness + " " + join(bestWeights));
+                out.newLine();
+            }
+            for (float[] weights : population) {
+                out.write("candidate " + join(weights));
+                out.newLine();
+            }
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #save(Path)}.
+     * @param path Checkpoint file
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Checkpoint load(Path path) throws IOException {
+        int generation = -1;
+        long seed = 0;
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        float[] bestWeights = null;
+        List<float[]> population = new ArrayList<>();
+
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IOException("Not a tuner checkpoint: " + path);
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                try {
+                    switch (parts[0]) {
+                        case "generation":
+                            generation = Integer.parseInt(parts[1]);
+                            break;
+                        case "seed":
+                            seed = Long.parseLong(parts[1]);
+                            break;
+                        case "best":
+                            bestFitness = Double.parseDouble(parts[1]);
+                            bestWeights = parse(parts, 2);
+                            break;
+                        case "candidate":
+                            population.add(parse(parts, 1));
+                            break;
+                        default:
+                            // Blank or unknown lines are ignored
+                            break;
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Malformed checkpoint line: " + line, e);
+                }
+            }
+        }
+
+        if (generation < 0 || population.isEmpty()) {
+            throw new IOException("Incomplete checkpoint: " + path);
+        }
+        return new Checkpoint(generation, seed, bestFitness, bestWeights, population);
+    }
+
+    private static String join(float[] weights) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) sb.append(' ');
+            // Float.toString round-trips exactly
+            sb.append(weights[i]);
+        }
+        return sb.toString();
+    }
+
+    private static float[] parse(String[] parts, int from) {
+        float[] weights = new float[parts.length - from];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Float.parseFloat(parts[from + i]);
+        }
+        return weights;
+    }
+}
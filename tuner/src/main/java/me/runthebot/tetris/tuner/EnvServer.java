@@ -0,0 +1,170 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.TetrisEnv;
+import me.runthebot.tetris.VectorEnv;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Serves a {@link VectorEnv} to an external trainer over a loopback TCP socket.
+ * Usage: {@code EnvServer [--port N] [--envs N] [--pieces N] [--threads N]}.
+ * <p>
+ * The protocol is little-endian and binary. On connect the server sends three ints: env count,
+ * floats per observation and action count. The client then sends commands:
+ * <ul>
+ *   <li>{@code 'R'} and a long seed: reset every env</li>
+ *   <li>{@code 'S'} and one int action per env: step every env; a session must reset first</li>
+ *   <li>{@code 'Q'}: close the connection</li>
+ * </ul>
+ * Reset and step are answered with one float reward and one done byte per env, followed by all
+ * observations in {@link TetrisEnv} layout. The envs write their observations straight into the
+ * reply buffer, so the only copy is the socket write itself.
+ */
+public class EnvServer {
+    private final VectorEnv envs;
+    private final int count;
+    private final ByteBuffer reply;
+    private final ByteBuffer request;
+    private final int[] actions;
+
+    /**
+     * @param count Number of envs
+     * @param maxPieces Piece limit per episode, or 0 for no limit
+     * @param pool Pool the envs are stepped on
+     */
+    public EnvServer(int count, int maxPieces, ForkJoinPool pool) {
+        this.count = count;
+        int header = count * 5;
+        // Observations start float aligned after the rewards and done flags
+        int observationStart = (header + 3) & ~3;
+        this.reply = ByteBuffer.allocateDirect(observationStart + count * TetrisEnv.OBSERVATION_SIZE * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        reply.position(observationStart);
+        ByteBuffer observations = reply.slice().order(ByteOrder.LITTLE_ENDIAN);
+        reply.clear();
+        this.envs = new VectorEnv(count, maxPieces, pool, observations);
+        this.request = ByteBuffer.allocateDirect(1 + Math.max(8, count * 4)).order(ByteOrder.LITTLE_ENDIAN);
+        this.actions = new int[count];
+    }
+
+    /**
+     * Accepts clients on the loopback interface one at a time until the process is stopped.
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            System.out.println("Serving " + count + " envs on " + server.getLocalAddress());
+            while (true) {
+                // Failing to accept ends the server; a failing client only ends its own session
+                SocketChannel client = server.accept();
+                try (SocketChannel session = client) {
+                    session.socket().setTcpNoDelay(true);
+                    handle(session);
+                } catch (EOFException e) {
+                    System.out.println("Client disconnected");
+                } catch (IOException e) {
+                    System.err.println("Client dropped: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    // Bad input that got past the checks in handle, e.g. an action the envs reject
+                    System.err.println("Client dropped: " + e);
+                }
+            }
+        }
+    }
+
+    private void handle(SocketChannel client) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        hello.putInt(count).putInt(TetrisEnv.OBSERVATION_SIZE).putInt(TetrisEnv.ACTION_COUNT).flip();
+        writeFully(client, hello);
+
+        // The envs keep the last session's episodes, so each session starts its own
+        boolean reset = false;
+        while (true) {
+            byte command = read(client, 1).get();
+            switch (command) {
+                case 'R':
+                    envs.reset(read(client, 8).getLong());
+                    reset = true;
+                    break;
+                case 'S':
+                    if (!reset) throw new IOException("Step before reset");
+                    ByteBuffer in = read(client, count * 4);
+                    for (int i = 0; i < count; i++) actions[i] = in.getInt();
+                    envs.step(actions);
+                    break;
+                case 'Q':
+                    return;
+                default:
+                    throw new IOException("Unknown command " + command);
+            }
+            sendResult(client);
+        }
+    }
+
+    private void sendResult(SocketChannel client) throws IOException {
+        float[] rewards = envs.getRewards();
+        boolean[] dones = envs.getDones();
+        reply.clear();
+        for (int i = 0; i < count; i++) reply.putFloat(rewards[i]);
+        for (int i = 0; i < count; i++) reply.put((byte) (dones[i] ? 1 : 0));
+        // The observations behind the header are already in place
+        reply.clear();
+        writeFully(client, reply);
+    }
+
+    private ByteBuffer read(SocketChannel client, int length) throws IOException {
+        request.clear().limit(length);
+        while (request.hasRemaining()) {
+            if (client.read(request) < 0) throw new EOFException();
+        }
+        request.flip();
+        return request;
+    }
+
+    private static void writeFully(SocketChannel client, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 5555;
+        int envs = 64;
+        int pieces = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--envs": envs = Integer.parseInt(value); break;
+                case "--pieces": pieces = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            new EnvServer(envs, pieces, pool).serve(port);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: EnvServer [--port N] [--envs N] [--pieces N] [--threads N]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,140 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.BatchEvaluator;
+import me.runthebot.tetris.Bot;
+import me.runthebot.tetris.Evaluator;
+import me.runthebot.tetris.Grid;
+import me.runthebot.tetris.HeadlessGame;
+import me.runthebot.tetris.Piece;
+import me.runthebot.tetris.Tetrimino;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times board evaluation three ways on the same placements: {@link Evaluator} on a scratch
+ * {@link Grid}, and {@link BatchEvaluator} with its scalar and its vector kernel.
+ * Usage: {@code EvaluatorBenchmark [--boards N] [--rounds N]}.
+ * <p>
+ * The vector kernel is only available on Java 17 and later with {@code --add-modules jdk.incubator.vector},
+ * which the Gradle task adds when it can.
+ */
+public class EvaluatorBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    // Keeps the Grid evaluation from being optimised away
+    private static float sink;
+
+    // A placement to evaluate: the board before it and where the piece lands
+    private static class Placement {
+        final Grid grid;
+        final Tetrimino type;
+        final int rotation;
+        final int x;
+        final int y;
+
+        Placement(Grid grid, Tetrimino type, int rotation, int x, int y) {
+            this.grid = grid;
+            this.type = type;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static void main(String[] args) {
+        int boards = 4096;
+        int rounds = 20;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--boards": boards = Integer.parseInt(value); break;
+                case "--rounds": rounds = Integer.parseInt(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        Evaluator evaluator = new Evaluator(Evaluator.defaultWeights());
+        List<Placement> placements = collect(boards, evaluator);
+        Grid first = placements.get(0).grid;
+        BatchEvaluator batch = new BatchEvaluator(first.getWidth(), first.getHeight(), boards, evaluator.getWeights());
+        for (Placement p : placements) {
+            batch.add(p.grid, p.type.getRowMasks(p.rotation), p.x, p.y);
+        }
+        float[] scores = new float[boards];
+
+        System.out.println("Vector kernel " + (BatchEvaluator.isVectorAvailable() ? "available" : "not available"));
+        report("Evaluator on Grid", boards, time(rounds, () -> sink += evaluateGrids(placements, evaluator)));
+        batch.setVectorized(false);
+        report("BatchEvaluator scalar", boards, time(rounds, () -> batch.evaluate(scores)));
+        if (BatchEvaluator.isVectorAvailable()) {
+            batch.setVectorized(true);
+            report("BatchEvaluator vector", boards, time(rounds, () -> batch.evaluate(scores)));
+        }
+    }
+
+    // Placements from bot games, taking every candidate of each move until there are enough
+    private static List<Placement> collect(int boards, Evaluator evaluator) {
+        List<Placement> placements = new ArrayList<>(boards);
+        Bot bot = new Bot(evaluator);
+        long seed = 0;
+        HeadlessGame game = new HeadlessGame(seed);
+        while (placements.size() < boards) {
+            if (game.isGameOver() || game.getPiecesPlaced() >= 500) game = new HeadlessGame(++seed);
+            Grid grid = new Grid(game.getGrid());
+            Tetrimino type = game.getCurrent();
+            Piece piece = new Piece(type);
+            int spawnY = piece.getY();
+            for (int rotation = 0; rotation < 4 && placements.size() < boards; rotation++) {
+                piece.setRotation(rotation);
+                // Piece boxes can hang off the left edge, so start left of the grid
+                for (int x = -3; x < grid.getWidth() && placements.size() < boards; x++) {
+                    piece.setPosition(x, spawnY);
+                    if (!piece.move(0, 0, grid)) continue;
+                    piece.hardDrop(grid);
+                    placements.add(new Placement(grid, type, rotation, piece.getX(), piece.getY()));
+                }
+            }
+            game.play(bot.chooseMove(game));
+        }
+        return placements;
+    }
+
+    private static float evaluateGrids(List<Placement> placements, Evaluator evaluator) {
+        Grid scratch = null;
+        float sum = 0;
+        for (Placement p : placements) {
+            if (scratch == null) scratch = new Grid(p.grid.getWidth(), p.grid.getHeight());
+            scratch.copyFrom(p.grid);
+            Piece piece = new Piece(p.type);
+            piece.setRotation(p.rotation);
+            piece.setPosition(p.x, p.y);
+            scratch.lockPiece(piece);
+            sum += evaluator.evaluate(scratch, scratch.checkAndClearLines());
+        }
+        return sum;
+    }
+
+    // Best time of the measured rounds, in nanoseconds
+    private static long time(int rounds, Runnable work) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) work.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            work.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, int boards, long nanos) {
+        System.out.printf("%-24s %8.1f ns/board %10.0f boards/s%n", name, (double) nanos / boards, boards * 1e9 / nanos);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: EvaluatorBenchmark [--boards N] [--rounds N]");
+        System.exit(1);
+    }
+}
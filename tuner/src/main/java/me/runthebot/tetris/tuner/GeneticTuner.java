@@ -0,0 +1,278 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.Bot;
+import me.runthebot.tetris.Evaluator;
+import me.runthebot.tetris.HeadlessGame;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Tunes {@link Evaluator} weights with a genetic algorithm.
+ * Each generation every candidate plays the same set of seeded headless games, so fitness
+ * differences come from the weights and not from luckier piece sequences. Games run in
+ * parallel on a fork/join pool, and each candidate's result is reported as soon as its last
+ * game finishes. State is checkpointed after every generation.
+ */
+public class GeneticTuner {
+    // Share of the population copied unchanged into the next generation
+    private static final float ELITE_FRACTION = 0.1f;
+    private static final int TOURNAMENT_SIZE = 4;
+    private static final float MUTATION_RATE = 0.3f;
+    private static final float MUTATION_STRENGTH = 0.2f;
+
+    private final int populationSize;
+    private final int gamesPerCandidate;
+    private final int maxPieces;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final Path checkpointPath;
+    private final PrintStream log;
+
+    private int generation = 0;
+    private List<float[]> population = new ArrayList<>();
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private float[] bestWeights = null;
+
+    /**
+     * @param populationSize Candidates per generation
+     * @param gamesPerCandidate Seeded games each candidate plays per generation
+     * @param maxPieces Piece limit per game, so good candidates still finish
+     * @param seed Base seed for game seeds and breeding
+     * @param pool Pool the games run on
+     * @param checkpointPath Where to save and resume state, or null to disable checkpoints
+     * @param log Receives one CSV line per evaluated candidate, or null
+     */
+    public GeneticTuner(int populationSize, int gamesPerCandidate, int maxPieces, long seed,
+                        ForkJoinPool pool, Path checkpointPath, PrintStream log) {
+        if (populationSize < 2) throw new IllegalArgumentException("Population must be at least 2");
+        if (gamesPerCandidate < 1) throw new IllegalArgumentException("Need at least one game per candidate");
+        this.populationSize = populationSize;
+        this.gamesPerCandidate = gamesPerCandidate;
+        this.maxPieces = maxPieces;
+        this.seed = seed;
+        this.pool = pool;
+        this.checkpointPath = checkpointPath;
+        this.log = log;
+    }
+
+    /**
+     * Loads the checkpoint if there is one, otherwise seeds the population around the default weights.
+     * @return true if a checkpoint was resumed
+     */
+    public boolean initialize() throws IOException {
+        if (checkpointPath != null && Files.exists(checkpointPath)) {
+            Checkpoint checkpoint = Checkpoint.load(checkpointPath);
+            if (checkpoint.seed != seed) {
+                throw new IOException("Checkpoint was made with seed " + checkpoint.seed + ", not " + seed);
+            }
+            generation = checkpoint.generation;
+            bestFitness = checkpoint.bestFitness;
+            bestWeights = checkpoint.bestWeights;
+            population = new ArrayList<>(checkpoint.population);
+            return true;
+        }
+
+        Random random = breedingRandom(-1);
+        population.clear();
+        population.add(normalize(Evaluator.defaultWeights()));
+        while (population.size() < populationSize) {
+            float[] weights = Evaluator.defaultWeights();
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] += (float) random.nextGaussian() * 0.5f;
+            }
+            population.add(normalize(weights));
+        }
+        if (log != null) log.println("generation,candidate,fitness,weights");
+        return false;
+    }
+
+    /**
+     * Evaluates the current generation, breeds the next one and saves a checkpoint.
+     * @return The best fitness of the evaluated generation
+     */
+    public double step() throws IOException {
+        double[] fitness = evaluate(population, gameSeeds(generation));
+
+        Integer[] order = new Integer[population.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+        double generationBest = fitness[order[0]];
+        if (generationBest > bestFitness) {
+            bestFitness = generationBest;
+            bestWeights = population.get(order[0]).clone();
+        }
+
+        double mean = 0;
+        for (double f : fitness) mean += f;
+        mean /= fitness.length;
+        System.out.printf("Generation %d: best %.2f, mean %.2f, best overall %.2f%n",
+            generation, generationBest, mean, bestFitness);
+
+        population = breed(population, fitness, order, breedingRandom(generation));
+        generation++;
+
+        if (checkpointPath != null) {
+            new Checkpoint(generation, seed, bestFitness, bestWeights, population).save(checkpointPath);
+        }
+        return generationBest;
+    }
+
+    /**
+     * Plays every candidate on every seed and returns the mean lines cleared per candidate.
+     */
+    double[] evaluate(List<float[]> candidates, long[] seeds) {
+        int count = candidates.size();
+        double[] totals = new double[count];
+        AtomicIntegerArray remaining = new AtomicIntegerArray(count);
+        for (int i = 0; i < count; i++) remaining.set(i, seeds.length);
+
+        pool.invoke(new GameTask(candidates, seeds, totals, remaining, 0, count * seeds.length));
+
+        double[] fitness = new double[count];
+        for (int i = 0; i < count; i++) fitness[i] = totals[i] / seeds.length;
+        return fitness;
+    }
+
+    // Game seeds for a generation; every candidate in the generation plays the same ones
+    private long[] gameSeeds(int generation) {
+        Random random = new Random(seed + generation);
+        long[] seeds = new long[gamesPerCandidate];
+        for (int i = 0; i < seeds.length; i++) seeds[i] = random.nextLong();
+        return seeds;
+    }
+
+    // Breeding gets its own stream so a resumed run breeds exactly like an uninterrupted one
+    private Random breedingRandom(int generation) {
+        return new Random((seed * 31 + generation) ^ 0x5DEECE66DL);
+    }
+
+    private List<float[]> breed(List<float[]> parents, double[] fitness, Integer[] order, Random random) {
+        List<float[]> next = new ArrayList<>(populationSize);
+        int elites = Math.max(1, Math.round(populationSize * ELITE_FRACTION));
+        for (int i = 0; i < elites && i < order.length; i++) {
+            next.add(parents.get(order[i]).clone());
+        }
+
+        while (next.size() < populationSize) {
+            float[] a = parents.get(tournament(fitness, random));
+            float[] b = parents.get(tournament(fitness, random));
+            float[] child = new float[a.length];
+            for (int i = 0; i < child.length; i++) {
+                // Blend crossover, then an occasional gaussian nudge
+                float t = random.nextFloat();
+                child[i] = a[i] * t + b[i] * (1 - t);
+                if (random.nextFloat() < MUTATION_RATE) {
+                    child[i] += (float) random.nextGaussian() * MUTATION_STRENGTH;
+                }
+            }
+            next.add(normalize(child));
+        }
+        return next;
+    }
+
+    private static int tournament(double[] fitness, Random random) {
+        int best = random.nextInt(fitness.length);
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            int other = random.nextInt(fitness.length);
+            if (fitness[other] > fitness[best]) best = other;
+        }
+        return best;
+    }
+
+    // Only the direction of the weight vector matters to move choice, so keep it at unit length
+    private static float[] normalize(float[] weights) {
+        double length = 0;
+        for (float w : weights) length += w * w;
+        length = Math.sqrt(length);
+        if (length == 0) return weights;
+        for (int i = 0; i < weights.length; i++) weights[i] /= length;
+        return weights;
+    }
+
+    private synchronized void report(int candidate, double fitness, float[] weights) {
+        if (log == null) return;
+        StringBuilder sb = new StringBuilder();
+        sb.append(generation).append(',').append(candidate).append(',').append(fitness).append(',');
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(weights[i]);
+        }
+        log.println(sb);
+        log.flush();
+    }
+
+    /**
+     * Plays a range of (seed, candidate) games, splitting in half until one game is left.
+     * Work is indexed seed-major so games on the same piece sequence tend to run together.
+     */
+    private class GameTask extends RecursiveAction {
+        private final List<float[]> candidates;
+        private final long[] seeds;
+        private final double[] totals;
+        private final AtomicIntegerArray remaining;
+        private final int from;
+        private final int to;
+
+        GameTask(List<float[]> candidates, long[] seeds, double[] totals,
+                 AtomicIntegerArray remaining, int from, int to) {
+            this.candidates = candidates;
+            this.seeds = seeds;
+            this.totals = totals;
+            this.remaining = remaining;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GameTask(candidates, seeds, totals, remaining, from, mid),
+                    new GameTask(candidates, seeds, totals, remaining, mid, to));
+                return;
+            }
+
+            int candidate = from % candidates.size();
+            long gameSeed = seeds[from / candidates.size()];
+            float[] weights = candidates.get(candidate);
+
+            HeadlessGame game = new HeadlessGame(gameSeed);
+            new Bot(new Evaluator(weights)).play(game, maxPieces);
+
+            double total;
+            synchronized (totals) {
+                totals[candidate] += game.getLinesCleared();
+                total = totals[candidate];
+            }
+            if (remaining.decrementAndGet(candidate) == 0) {
+                report(candidate, total / seeds.length, weights);
+            }
+        }
+    }
+
+    /** @return The next generation to be evaluated. */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /** @return The best fitness seen so far. */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /** @return The weights with the best fitness so far, or null before the first generation. */
+    public float[] getBestWeights() {
+        return bestWeights == null ? null : bestWeights.clone();
+    }
+}
@@ -0,0 +1,246 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.HeadlessGame;
+import me.runthebot.tetris.OpeningBook;
+import me.runthebot.tetris.Tetrimino;
+import me.runthebot.tetris.Tetris;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compiles the {@link OpeningBook}. Each opener is a few target shapes for the bottom rows and a
+ * piece it keeps back; for every ordering of the first bag, the placements that build the first
+ * shape they can (or its mirror image) are found by a depth first search over hard drops and
+ * hold, and written into the book. Orderings that cannot build any shape get an empty line.
+ * Usage: {@code OpeningBookCompiler [--out PATH]}, writing {@code assets/openers.book} by default.
+ */
+public class OpeningBookCompiler {
+    private static final int WIDTH = Tetris.GRID_WIDTH;
+    private static final long ROW = (1L << WIDTH) - 1;
+
+    /**
+     * An opener: the shapes its placements may fill, best first, each as rows from the top with
+     * '#' for filled, and the piece of the first bag it keeps for later.
+     */
+    private static final class Opener {
+        final String name;
+        final Tetrimino kept;
+        // Target fields, bottom-up bit y * WIDTH + x: each shape followed by its mirror image
+        final long[] targets;
+
+        Opener(String name, Tetrimino kept, String[]... shapes) {
+            this.name = name;
+            this.kept = kept;
+            this.targets = new long[shapes.length * 2];
+            for (int s = 0; s < shapes.length; s++) {
+                String[] rows = shapes[s];
+                for (int i = 0; i < rows.length; i++) {
+                    int y = rows.length - 1 - i;
+                    for (int x = 0; x < WIDTH; x++) {
+                        if (rows[i].charAt(x) != '#') continue;
+                        targets[2 * s] |= 1L << (y * WIDTH + x);
+                        targets[2 * s + 1] |= 1L << (y * WIDTH + WIDTH - 1 - x);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final Opener[] OPENERS = {
+        // Perfect clear opener: six pieces, the I kept for a 4-line perfect clear with the next bag
+        new Opener("PCO", Tetrimino.I,
+            new String[]{"###.......", "###....#..", "#####.###.", "#########."},
+            new String[]{"#.........", "##...#..##", "######.###", "######.###"},
+            new String[]{"....#....#", "....######", ".#..######", "###.######"}),
+        // T-spin double setup: six pieces around a slot the first bag's T spins into
+        new Opener("TSD", Tetrimino.T,
+            new String[]{"...###....", "#..####...", "#...######", "##.#######"},
+            new String[]{".....##..#", "#....##.##", "###...####", "####.#####"},
+            new String[]{"#.........", "##..##.###", "##...#####", "###.######"}),
+    };
+
+    // Per type and rotation: the piece's rows from its lowest cell up, and per box column the
+    // lowest cell (or -1 for an empty column)
+    private static final long[][][] SHAPES = new long[Tetrimino.values().length][4][];
+    private static final int[][][] SHAPE_BOTTOMS = new int[Tetrimino.values().length][4][4];
+
+    static {
+        for (Tetrimino type : Tetrimino.values()) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                long[] box = type.getRowMasks(rotation);
+                int lowest = box.length - 1;
+                while (box[lowest] == 0) lowest--;
+                int highest = 0;
+                while (box[highest] == 0) highest++;
+                long[] rows = new long[lowest - highest + 1];
+                for (int r = 0; r < rows.length; r++) rows[r] = box[lowest - r];
+                SHAPES[type.ordinal()][rotation] = rows;
+
+                int[] bottoms = SHAPE_BOTTOMS[type.ordinal()][rotation];
+                Arrays.fill(bottoms, -1);
+                for (int r = rows.length - 1; r >= 0; r--) {
+                    for (int c = 0; c < 4; c++) {
+                        if ((rows[r] >>> c & 1) != 0) bottoms[c] = r;
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get("assets", Tetris.OPENING_BOOK);
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--out": out = Paths.get(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        String[] names = new String[OPENERS.length];
+        int[][][] lines = new int[OPENERS.length][OpeningBook.PERMUTATIONS][];
+        Tetrimino[] bag = new Tetrimino[7];
+        for (int o = 0; o < OPENERS.length; o++) {
+            Opener opener = OPENERS[o];
+            names[o] = opener.name;
+            int built = 0;
+            for (int rank = 0; rank < OpeningBook.PERMUTATIONS; rank++) {
+                unrank(rank, bag);
+                for (long target : opener.targets) {
+                    lines[o][rank] = build(bag, target, opener.kept);
+                    if (lines[o][rank] != null) break;
+                }
+                if (lines[o][rank] != null) built++;
+            }
+            System.out.printf("%s: %d/%d orderings%n", opener.name, built, OpeningBook.PERMUTATIONS);
+        }
+
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out))) {
+            OpeningBook.write(stream, names, lines);
+        }
+        System.out.println("Wrote " + out);
+    }
+
+    /**
+     * Fills bag with the ordering of the given {@link OpeningBook#rank(Tetrimino[]) rank}.
+     */
+    static void unrank(int rank, Tetrimino[] bag) {
+        Tetrimino[] types = Tetrimino.values();
+        int used = 0;
+        int factorial = OpeningBook.PERMUTATIONS;
+        for (int i = 0; i < bag.length; i++) {
+            factorial /= bag.length - i;
+            int skip = rank / factorial;
+            rank %= factorial;
+            int ordinal = 0;
+            while (true) {
+                if ((used & 1 << ordinal) == 0 && skip-- == 0) break;
+                ordinal++;
+            }
+            used |= 1 << ordinal;
+            bag[i] = types[ordinal];
+        }
+    }
+
+    /**
+     * Searches for placements of a bag that fill exactly a target shape.
+     * @param bag The pieces in order
+     * @param target Target field, bottom-up bit y * WIDTH + x
+     * @param kept Piece that must not be placed
+     * @return Packed {@link HeadlessGame} moves, or null if the bag cannot build the shape
+     */
+    static int[] build(Tetrimino[] bag, long target, Tetrimino kept) {
+        int[] path = new int[bag.length];
+        int length = search(bag, target, kept, 0, 1, bag[0], null, path, 0, new HashSet<>());
+        return length < 0 ? null : Arrays.copyOf(path, length);
+    }
+
+    // Depth first; returns the path length on success, -1 on failure. The current piece is
+    // always the one before next, so field, next and hold identify a position in failed.
+    private static int search(Tetrimino[] bag, long target, Tetrimino kept, long field, int next,
+                              Tetrimino current, Tetrimino hold, int[] path, int depth, Set<Long> failed) {
+        if (field == target) return depth;
+        if (current == null) return -1;
+        long position = field | (long) next << 60 | (hold == null ? 0L : hold.ordinal() + 1L) << 56;
+        if (failed.contains(position)) return -1;
+
+        for (int h = 0; h < 2; h++) {
+            boolean useHold = h == 1;
+            Tetrimino type = current;
+            Tetrimino childHold = hold;
+            int childNext = next;
+            if (useHold) {
+                // Holding with an empty slot places the piece after the current one
+                if (hold == null && next >= bag.length) continue;
+                type = hold != null ? hold : bag[childNext++];
+                childHold = current;
+                if (type == current) continue;
+            }
+            if (type == kept) continue;
+            Tetrimino childCurrent = childNext < bag.length ? bag[childNext] : null;
+
+            for (int rotation = 0; rotation < 4; rotation++) {
+                for (int x = -2; x < WIDTH; x++) {
+                    long cells = drop(field, type, rotation, x);
+                    if (cells == 0 || (cells & ~target) != 0) continue;
+
+                    path[depth] = HeadlessGame.move(rotation, x, useHold);
+                    int length = search(bag, target, kept, field | cells, childNext + 1, childCurrent,
+                        childHold, path, depth + 1, failed);
+                    if (length >= 0) return length;
+                }
+            }
+        }
+        failed.add(position);
+        return -1;
+    }
+
+    /**
+     * Hard drops a piece into a field.
+     * @return The cells it comes to rest on, or 0 if its box column x puts it off the board
+     */
+    private static long drop(long field, Tetrimino type, int rotation, int x) {
+        long[] rows = SHAPES[type.ordinal()][rotation];
+        int[] bottoms = SHAPE_BOTTOMS[type.ordinal()][rotation];
+        int y = 0;
+        for (int c = 0; c < 4; c++) {
+            if (bottoms[c] < 0) continue;
+            int column = x + c;
+            if (column < 0 || column >= WIDTH) return 0;
+            // The piece rests on the highest filled cell of each of its columns
+            y = Math.max(y, columnHeight(field, column) - bottoms[c]);
+        }
+        long cells = 0;
+        for (int r = 0; r < rows.length; r++) {
+            long row = x >= 0 ? rows[r] << x : rows[r] >>> -x;
+            cells |= (row & ROW) << ((y + r) * WIDTH);
+        }
+        return cells;
+    }
+
+    // Rows up to and including the highest filled cell of a column
+    private static int columnHeight(long field, int column) {
+        int height = 0;
+        for (int y = 0; (field >>> (y * WIDTH)) != 0; y++) {
+            if ((field >>> (y * WIDTH + column) & 1) != 0) height = y + 1;
+        }
+        return height;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: OpeningBookCompiler [--out PATH]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,116 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.Grid;
+import me.runthebot.tetris.HeadlessGame;
+import me.runthebot.tetris.PerfectClearSolver;
+import me.runthebot.tetris.Piece;
+import me.runthebot.tetris.Tetrimino;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the {@link PerfectClearSolver} on empty boards with random 7-bag sequences and reports how
+ * many it clears and how long it takes. Every solution is replayed to check that it clears the board.
+ * Usage: {@code PerfectClearBenchmark [--positions N] [--lines N] [--pieces N] [--threads N] [--seed N]};
+ * 0 threads searches on the calling thread.
+ */
+public class PerfectClearBenchmark {
+    public static void main(String[] args) {
+        int positions = 100;
+        int lines = 4;
+        int pieces = 11;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--positions": positions = Integer.parseInt(value); break;
+                case "--lines": lines = Integer.parseInt(value); break;
+                case "--pieces": pieces = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        PerfectClearSolver solver = new PerfectClearSolver(pool, 20);
+        Random random = new Random(seed);
+        int solved = 0;
+        int invalid = 0;
+        long total = 0;
+        long worst = 0;
+        for (int p = 0; p < positions; p++) {
+            List<Tetrimino> sequence = new ArrayList<>();
+            while (sequence.size() < pieces) {
+                List<Tetrimino> bag = new ArrayList<>(Arrays.asList(Tetrimino.values()));
+                Collections.shuffle(bag, random);
+                sequence.addAll(bag);
+            }
+            sequence = sequence.subList(0, pieces);
+
+            long start = System.nanoTime();
+            int[] moves = solver.solve(new Grid(10, 40), sequence.get(0), null,
+                sequence.subList(1, pieces), true, lines);
+            long time = System.nanoTime() - start;
+            total += time;
+            worst = Math.max(worst, time);
+            if (moves != null) {
+                solved++;
+                if (!clears(sequence, moves)) invalid++;
+            }
+        }
+        if (pool != null) pool.shutdown();
+
+        System.out.printf("%d lines, %d pieces, %d threads: solved %d/%d, avg %.1f ms, worst %.1f ms%n",
+            lines, pieces, threads, solved, positions, total / 1e6 / positions, worst / 1e6);
+        if (invalid > 0) {
+            System.out.println("Invalid solutions: " + invalid);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays moves on an empty board the way {@link HeadlessGame} does.
+     * @return Whether every move is legal and the board ends empty
+     */
+    private static boolean clears(List<Tetrimino> sequence, int[] moves) {
+        Grid grid = new Grid(10, 40);
+        Deque<Tetrimino> queue = new ArrayDeque<>(sequence);
+        Tetrimino current = queue.poll();
+        Tetrimino hold = null;
+        for (int move : moves) {
+            Tetrimino type = current;
+            if (HeadlessGame.moveUsesHold(move)) {
+                type = hold != null ? hold : queue.poll();
+                hold = current;
+            }
+            if (type == null) return false;
+
+            Piece piece = new Piece(type);
+            piece.setRotation(HeadlessGame.moveRotation(move));
+            piece.setPosition(HeadlessGame.moveX(move), piece.getY());
+            if (!piece.move(0, 0, grid)) return false;
+            piece.hardDrop(grid);
+            grid.lockPiece(piece);
+            grid.checkAndClearLines();
+            current = queue.poll();
+        }
+        return grid.isEmpty();
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: PerfectClearBenchmark [--positions N] [--lines N] [--pieces N] [--threads N] [--seed N]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,110 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.Bot;
+import me.runthebot.tetris.Evaluator;
+import me.runthebot.tetris.Grid;
+import me.runthebot.tetris.Replay;
+import me.runthebot.tetris.ReplayExporter;
+import me.runthebot.tetris.Tetris;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Exports a replay as images without a display: an animated GIF, a PNG per board and a thumbnail
+ * of the final board. The replay is read from a file, or recorded from a greedy bot game.
+ * Usage: {@code ReplayExportTool [--replay FILE | --seed N --pieces N] [--save FILE] [--gif FILE]
+ * [--png DIR] [--thumbnail FILE] [--cell N] [--thumbnail-cell N] [--pps N] [--threads N]};
+ * 0 threads encodes on the calling thread. The defaults record 360 pieces, two minutes at 3 pieces
+ * per second, and write replay.gif.
+ */
+public class ReplayExportTool {
+    public static void main(String[] args) throws IOException {
+        Path replayFile = null;
+        long seed = 1;
+        int pieces = 360;
+        Path save = null;
+        Path gif = null;
+        Path png = null;
+        Path thumbnail = null;
+        int cell = 16;
+        int thumbnailCell = 4;
+        float piecesPerSecond = 3;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--replay": replayFile = Paths.get(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--pieces": pieces = Integer.parseInt(value); break;
+                case "--save": save = Paths.get(value); break;
+                case "--gif": gif = Paths.get(value); break;
+                case "--png": png = Paths.get(value); break;
+                case "--thumbnail": thumbnail = Paths.get(value); break;
+                case "--cell": cell = Integer.parseInt(value); break;
+                case "--thumbnail-cell": thumbnailCell = Integer.parseInt(value); break;
+                case "--pps": piecesPerSecond = Float.parseFloat(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (gif == null && png == null && thumbnail == null && save == null) gif = Paths.get("replay.gif");
+
+        Replay replay;
+        if (replayFile != null) {
+            replay = Replay.read(replayFile);
+        } else {
+            long start = System.nanoTime();
+            replay = Replay.record(new Bot(new Evaluator(Evaluator.defaultWeights())), seed, pieces);
+            System.out.printf("Recorded %d pieces in %.1f ms%n", replay.size(), (System.nanoTime() - start) / 1e6);
+        }
+        if (save != null) replay.write(save);
+
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        try {
+            if (gif != null) {
+                ReplayExporter exporter = new ReplayExporter(cell, pool);
+                int delay = Math.max(2, Math.round(100 / piecesPerSecond));
+                long start = System.nanoTime();
+                int frames;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(gif))) {
+                    frames = exporter.writeGif(replay, out, delay);
+                }
+                System.out.printf("Wrote %s: %d frames, %d KB in %.1f ms%n",
+                    gif, frames, Files.size(gif) / 1024, (System.nanoTime() - start) / 1e6);
+            }
+            if (png != null) {
+                ReplayExporter exporter = new ReplayExporter(cell, pool);
+                long start = System.nanoTime();
+                int frames = exporter.writePngs(replay, png);
+                System.out.printf("Wrote %d PNGs to %s in %.1f ms%n", frames, png, (System.nanoTime() - start) / 1e6);
+            }
+            if (thumbnail != null) {
+                List<Grid.Snapshot> boards = replay.boards();
+                Grid grid = new Grid(Tetris.GRID_WIDTH, Tetris.GRID_HEIGHT);
+                grid.restore(boards.get(boards.size() - 1));
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(thumbnail))) {
+                    new ReplayExporter(thumbnailCell, null).writePng(grid, out);
+                }
+                System.out.println("Wrote " + thumbnail);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: ReplayExportTool [--replay FILE | --seed N --pieces N] [--save FILE] [--gif FILE]"
+            + " [--png DIR] [--thumbnail FILE] [--cell N] [--thumbnail-cell N] [--pps N] [--threads N]");
+        System.exit(1);
+    }
+}
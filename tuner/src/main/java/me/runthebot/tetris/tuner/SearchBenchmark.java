@@ -0,0 +1,91 @@
+package me.runthebot.tetris.tuner;
+
+import me.runthebot.tetris.Bot;
+import me.runthebot.tetris.Evaluator;
+import me.runthebot.tetris.HeadlessGame;
+import me.runthebot.tetris.NodeArena;
+import me.runthebot.tetris.TranspositionTable;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays games with a lookahead {@link Bot} and reports speed, search arena occupancy, transposition
+ * table hits and the garbage collection time spent while playing.
+ * Usage: {@code SearchBenchmark [--depth N] [--beam N] [--games N] [--pieces N] [--table LOG2]},
+ * where a table size of 0 searches without a table.
+ */
+public class SearchBenchmark {
+    public static void main(String[] args) {
+        int depth = 3;
+        int beam = 64;
+        int games = 3;
+        int pieces = 1000;
+        int table = 20;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--depth": depth = Integer.parseInt(value); break;
+                case "--beam": beam = Integer.parseInt(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--pieces": pieces = Integer.parseInt(value); break;
+                case "--table": table = Integer.parseInt(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        Bot bot = new Bot(new Evaluator(Evaluator.defaultWeights()), depth, beam,
+            table > 0 ? new TranspositionTable(table) : null);
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long start = System.nanoTime();
+        long placed = 0;
+        long lines = 0;
+        for (int g = 0; g < games; g++) {
+            HeadlessGame game = new HeadlessGame(g);
+            bot.play(game, pieces);
+            placed += game.getPiecesPlaced();
+            lines += game.getLinesCleared();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Depth %d, beam %d: %d pieces, %d lines, %.0f pieces/s%n",
+            depth, beam, placed, lines, placed / seconds);
+        if (bot.getSearch() != null) {
+            NodeArena arena = bot.getSearch().getArena();
+            System.out.println("Arena: " + arena);
+            System.out.printf("Arena: %d searches, %.0f%% of the allocated pages used at peak%n",
+                arena.getResets(), 100.0 * arena.getPeak() / Math.max(1, arena.getCapacity()));
+            long probes = bot.getSearch().getTableProbes();
+            if (probes > 0) {
+                System.out.printf("Table: %d probes, %.1f%% hits%n",
+                    probes, 100.0 * bot.getSearch().getTableHits() / probes);
+            }
+        }
+        System.out.printf("GC: %d collections, %d ms%n", gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: SearchBenchmark [--depth N] [--beam N] [--games N] [--pieces N] [--table LOG2]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,72 @@
+package me.runthebot.tetris.tuner;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point for the evaluation weight tuner.
+ * Usage: {@code TunerLauncher [--generations N] [--population N] [--games N] [--pieces N]
+ * [--threads N] [--seed N] [--checkpoint FILE] [--log FILE]}.
+ * Rerunning with the same checkpoint file resumes the run.
+ */
+public class TunerLauncher {
+    public static void main(String[] args) throws IOException {
+        int generations = 20;
+        int population = 40;
+        int games = 8;
+        int pieces = 500;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        Path checkpoint = Paths.get("tuner-checkpoint.txt");
+        Path logFile = Paths.get("tuner-log.csv");
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) usage("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "--generations": generations = Integer.parseInt(value); break;
+                case "--population": population = Integer.parseInt(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--pieces": pieces = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--checkpoint": checkpoint = Paths.get(value); break;
+                case "--log": logFile = Paths.get(value); break;
+                default: usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (PrintStream log = new PrintStream(new FileOutputStream(logFile.toFile(), true), true, "UTF-8")) {
+            GeneticTuner tuner = new GeneticTuner(population, games, pieces, seed, pool, checkpoint, log);
+            if (tuner.initialize()) {
+                System.out.println("Resuming from " + checkpoint + " at generation " + tuner.getGeneration());
+            }
+
+            while (tuner.getGeneration() < generations) {
+                tuner.step();
+            }
+
+            float[] best = tuner.getBestWeights();
+            if (best != null) {
+                StringBuilder sb = new StringBuilder("Best weights:");
+                for (float w : best) sb.append(' ').append(w);
+                System.out.println(sb);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: TunerLauncher [--generations N] [--population N] [--games N] [--pieces N]"
+            + " [--threads N] [--seed N] [--checkpoint FILE] [--log FILE]");
+        System.exit(1);
+    }
+}